@@ -0,0 +1,59 @@
+#!/bin/bash
+
+# AI日志分析项目 - 本地多进程集群脚本
+# 在本机以不同端口启动多个节点，组成按异常指纹分片的集群，用于验证转发与去重
+#
+# 用法: ./cluster-local.sh [节点数，默认 3] [起始端口，默认 18081]
+# 停止: Ctrl+C（会一并结束所有节点）
+
+set -euo pipefail
+
+NODES=${1:-3}
+BASE_PORT=${2:-18081}
+WORK_DIR="target/cluster-local"
+JAR="target/agent-0.0.1-SNAPSHOT.jar"
+
+if [ -x ./mvnw ]; then
+    MVN=./mvnw
+else
+    MVN=mvn
+fi
+
+mkdir -p "${WORK_DIR}"
+if [ ! -f "${JAR}" ]; then
+    echo "📦 构建应用..."
+    ${MVN} -q -DskipTests package
+fi
+
+# 各节点使用同一份节点列表，才能得到一致的分片
+PEER_ARGS=()
+for ((i = 1; i <= NODES; i++)); do
+    PEER_ARGS+=("--cluster.peers.node${i}=http://localhost:$((BASE_PORT + i - 1))")
+done
+
+PIDS=()
+cleanup() {
+    echo
+    echo "🛑 停止全部节点..."
+    kill "${PIDS[@]}" 2> /dev/null || true
+    wait 2> /dev/null || true
+}
+trap cleanup EXIT INT TERM
+
+for ((i = 1; i <= NODES; i++)); do
+    port=$((BASE_PORT + i - 1))
+    java -jar "${JAR}" --server.port="${port}" --cluster.enabled=true --cluster.self-id="node${i}" \
+        "${PEER_ARGS[@]}" > "${WORK_DIR}/node${i}.log" 2>&1 &
+    PIDS+=($!)
+    echo "🚀 node${i} -> http://localhost:${port}（日志: ${WORK_DIR}/node${i}.log）"
+done
+
+echo
+echo "⏳ 等待各节点就绪..."
+for ((i = 1; i <= NODES; i++)); do
+    until curl -sf -o /dev/null "http://localhost:$((BASE_PORT + i - 1))/api/log-analysis/health/readiness"; do
+        sleep 0.5
+    done
+done
+echo "✅ 集群已就绪，可向任一节点发送 /api/log-analysis/analyze，同一异常只在负责节点分析（响应中 analyzedBy 为负责节点）"
+wait
@@ -0,0 +1,29 @@
+package com.lllkkk.ai.agent.logappender;
+
+import java.util.List;
+
+/**
+ * 上报的异常记录，字段与服务端 LogRecord / StackFrame 的 JSON 结构一致
+ *
+ * @param projectName      项目名
+ * @param version          代码版本，可为空
+ * @param timestamp        日志时间（epoch 毫秒）
+ * @param level            日志级别
+ * @param exceptionClass   异常类
+ * @param exceptionMessage 异常消息
+ * @param causes           原因链（由外到内），每项为 "异常类: 消息"
+ * @param stackFrames      最外层异常的堆栈帧
+ * @param traceId          MDC 中的链路 ID，可为空
+ * @param spanId           MDC 中的 span ID，可为空
+ * @param parentSpanId     MDC 中的父 span ID，可为空
+ */
+public record ExceptionRecord(String projectName, String version, long timestamp, String level,
+                              String exceptionClass, String exceptionMessage, List<String> causes,
+                              List<Frame> stackFrames, String traceId, String spanId, String parentSpanId) {
+
+    /**
+     * 堆栈帧
+     */
+    public record Frame(String className, String methodName, int lineNumber) {
+    }
+}
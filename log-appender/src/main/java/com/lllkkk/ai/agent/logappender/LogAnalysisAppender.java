@@ -0,0 +1,245 @@
+package com.lllkkk.ai.agent.logappender;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 异常上报 Appender
+ * 业务线程只把带异常的事件放入有界环形缓冲区（满时丢弃并计数，从不阻塞）；
+ * 后台线程把事件中的 Throwable 直接转换为结构化记录，攒批后 POST 到日志分析服务的 /records 接口，
+ * 服务端不再需要用正则解析文本日志。
+ * <pre>
+ * &lt;appender name="LOG_ANALYSIS" class="com.lllkkk.ai.agent.logappender.LogAnalysisAppender"&gt;
+ *     &lt;endpoint&gt;http://log-analysis:8080&lt;/endpoint&gt;
+ *     &lt;projectName&gt;order-web&lt;/projectName&gt;
+ * &lt;/appender&gt;
+ * </pre>
+ */
+public class LogAnalysisAppender extends UnsynchronizedAppenderBase<ILoggingEvent> {
+
+    public static final String RECORDS_PATH = "/api/log-analysis/records";
+
+    private static final Pattern ACCEPTED_PATTERN = Pattern.compile("\"accepted\"\\s*:\\s*(\\d+)");
+
+    private String endpoint;
+    private String projectName = "";
+    private String version;
+    private Level threshold = Level.ERROR;
+    private int bufferSize = 1024;
+    private int batchSize = 100;
+    private long flushIntervalMs = 1000;
+    private long requestTimeoutMs = 5000;
+    private long shutdownTimeoutMs = 3000;
+    private int maxFrames = 64;
+    private int maxCauses = 8;
+
+    private RingBuffer<ILoggingEvent> buffer;
+    private ThrowableConverter converter;
+    private HttpClient httpClient;
+    private URI recordsUri;
+    private volatile Thread worker;
+    private volatile boolean running;
+
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    @Override
+    public void start() {
+        if (endpoint == null || endpoint.isBlank()) {
+            addError("未配置 endpoint，异常上报未启动");
+            return;
+        }
+        buffer = new RingBuffer<>(bufferSize);
+        converter = new ThrowableConverter(maxFrames, maxCauses);
+        recordsUri = URI.create(endpoint.replaceAll("/+$", "") + RECORDS_PATH);
+        httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(requestTimeoutMs)).build();
+        running = true;
+        worker = new Thread(this::run, "log-analysis-appender");
+        worker.setDaemon(true);
+        worker.start();
+        super.start();
+    }
+
+    @Override
+    public void stop() {
+        if (!isStarted()) {
+            return;
+        }
+        super.stop();
+        running = false;
+        Thread thread = worker;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join(shutdownTimeoutMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        addInfo("异常上报已停止: 发送 " + sent + "，丢弃 " + dropped + "，服务端拒绝 " + rejected + "，发送失败 " + failed);
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        if (event.getThrowableProxy() == null || !event.getLevel().isGreaterOrEqual(threshold)) {
+            return;
+        }
+        // 固定线程名、MDC 等延迟计算的字段，事件之后在后台线程读取
+        event.prepareForDeferredProcessing();
+        if (!buffer.offer(event)) {
+            dropped.incrementAndGet();
+            return;
+        }
+        if (buffer.size() >= batchSize) {
+            LockSupport.unpark(worker);
+        }
+    }
+
+    private void run() {
+        List<ILoggingEvent> events = new ArrayList<>(batchSize);
+        while (running || buffer.size() > 0) {
+            buffer.drainTo(events, batchSize);
+            if (events.size() < batchSize && running) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(flushIntervalMs));
+                buffer.drainTo(events, batchSize - events.size());
+            }
+            if (!events.isEmpty()) {
+                ship(events);
+                events.clear();
+            }
+        }
+    }
+
+    private void ship(List<ILoggingEvent> events) {
+        List<ExceptionRecord> records = new ArrayList<>(events.size());
+        for (ILoggingEvent event : events) {
+            try {
+                ExceptionRecord record = converter.convert(event, projectName, version);
+                if (record != null) {
+                    records.add(record);
+                }
+            } catch (RuntimeException e) {
+                failed.incrementAndGet();
+                addWarn("转换异常事件失败", e);
+            }
+        }
+        if (records.isEmpty()) {
+            return;
+        }
+        try {
+            HttpRequest request = HttpRequest.newBuilder(recordsUri)
+                    .timeout(Duration.ofMillis(requestTimeoutMs))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(RecordJsonWriter.write(records)))
+                    .build();
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() / 100 != 2) {
+                failed.addAndGet(records.size());
+                addWarn("上报异常记录失败，HTTP " + response.statusCode());
+                return;
+            }
+            int accepted = accepted(response.body(), records.size());
+            sent.addAndGet(accepted);
+            rejected.addAndGet(records.size() - accepted);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failed.addAndGet(records.size());
+        } catch (Exception e) {
+            failed.addAndGet(records.size());
+            addWarn("上报异常记录失败: " + e.getMessage());
+        }
+    }
+
+    private static int accepted(String body, int total) {
+        Matcher matcher = ACCEPTED_PATTERN.matcher(body == null ? "" : body);
+        return matcher.find() ? Math.min(total, Integer.parseInt(matcher.group(1))) : total;
+    }
+
+    /**
+     * 缓冲区已满而丢弃的事件数
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * 服务端已受理的记录数
+     */
+    public long getSentCount() {
+        return sent.get();
+    }
+
+    /**
+     * 服务端因繁忙拒绝的记录数
+     */
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    /**
+     * 网络错误或非 2xx 响应导致未送达的记录数
+     */
+    public long getFailedCount() {
+        return failed.get();
+    }
+
+    public void setEndpoint(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    public void setProjectName(String projectName) {
+        this.projectName = projectName;
+    }
+
+    public void setVersion(String version) {
+        this.version = version;
+    }
+
+    public void setThreshold(String threshold) {
+        this.threshold = Level.toLevel(threshold, Level.ERROR);
+    }
+
+    public void setBufferSize(int bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    public void setFlushIntervalMs(long flushIntervalMs) {
+        this.flushIntervalMs = flushIntervalMs;
+    }
+
+    public void setRequestTimeoutMs(long requestTimeoutMs) {
+        this.requestTimeoutMs = requestTimeoutMs;
+    }
+
+    public void setShutdownTimeoutMs(long shutdownTimeoutMs) {
+        this.shutdownTimeoutMs = shutdownTimeoutMs;
+    }
+
+    public void setMaxFrames(int maxFrames) {
+        this.maxFrames = maxFrames;
+    }
+
+    public void setMaxCauses(int maxCauses) {
+        this.maxCauses = maxCauses;
+    }
+}
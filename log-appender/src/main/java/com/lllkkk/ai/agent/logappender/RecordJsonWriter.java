@@ -0,0 +1,86 @@
+package com.lllkkk.ai.agent.logappender;
+
+import java.util.List;
+
+/**
+ * 把一批记录写为 JSON 数组；字段固定，手写输出以免给业务应用引入 JSON 库依赖
+ */
+final class RecordJsonWriter {
+
+    private RecordJsonWriter() {
+    }
+
+    static String write(List<ExceptionRecord> records) {
+        StringBuilder out = new StringBuilder(records.size() * 1024);
+        out.append('[');
+        for (int i = 0; i < records.size(); i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+            write(out, records.get(i));
+        }
+        return out.append(']').toString();
+    }
+
+    private static void write(StringBuilder out, ExceptionRecord record) {
+        out.append('{');
+        field(out, "projectName", record.projectName()).append(',');
+        field(out, "version", record.version()).append(',');
+        out.append("\"timestamp\":").append(record.timestamp()).append(',');
+        field(out, "level", record.level()).append(',');
+        field(out, "exceptionClass", record.exceptionClass()).append(',');
+        field(out, "exceptionMessage", record.exceptionMessage()).append(',');
+        out.append("\"causes\":[");
+        for (int i = 0; i < record.causes().size(); i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+            string(out, record.causes().get(i));
+        }
+        out.append("],\"stackFrames\":[");
+        for (int i = 0; i < record.stackFrames().size(); i++) {
+            ExceptionRecord.Frame frame = record.stackFrames().get(i);
+            if (i > 0) {
+                out.append(',');
+            }
+            out.append('{');
+            field(out, "className", frame.className()).append(',');
+            field(out, "methodName", frame.methodName()).append(',');
+            out.append("\"lineNumber\":").append(frame.lineNumber()).append('}');
+        }
+        out.append("],");
+        field(out, "traceId", record.traceId()).append(',');
+        field(out, "spanId", record.spanId()).append(',');
+        field(out, "parentSpanId", record.parentSpanId()).append('}');
+    }
+
+    private static StringBuilder field(StringBuilder out, String name, String value) {
+        out.append('"').append(name).append("\":");
+        return string(out, value);
+    }
+
+    static StringBuilder string(StringBuilder out, String value) {
+        if (value == null) {
+            return out.append("null");
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                case '\t' -> out.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+                }
+            }
+        }
+        return out.append('"');
+    }
+}
@@ -0,0 +1,87 @@
+package com.lllkkk.ai.agent.logappender;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.IThrowableProxy;
+import ch.qos.logback.classic.spi.StackTraceElementProxy;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 把日志事件中的 Throwable 直接转换为 {@link ExceptionRecord}，不经过文本格式化
+ * 原因链格式与服务端解析 "Caused by:" 行的结果一致；链路字段取自 MDC 中 Sleuth / Micrometer Tracing / B3 的常用键名
+ */
+public class ThrowableConverter {
+
+    private static final List<String> TRACE_ID_KEYS = List.of("traceId", "trace_id", "X-B3-TraceId");
+    private static final List<String> SPAN_ID_KEYS = List.of("spanId", "span_id", "X-B3-SpanId");
+    private static final List<String> PARENT_SPAN_ID_KEYS = List.of("parentSpanId", "parentId", "X-B3-ParentSpanId");
+
+    private final int maxFrames;
+    private final int maxCauses;
+
+    public ThrowableConverter(int maxFrames, int maxCauses) {
+        this.maxFrames = maxFrames;
+        this.maxCauses = maxCauses;
+    }
+
+    /**
+     * 事件不带异常时返回 null
+     */
+    public ExceptionRecord convert(ILoggingEvent event, String projectName, String version) {
+        IThrowableProxy throwable = event.getThrowableProxy();
+        if (throwable == null) {
+            return null;
+        }
+        Map<String, String> mdc = event.getMDCPropertyMap();
+        return new ExceptionRecord(projectName, version, event.getTimeStamp(), event.getLevel().toString(),
+                throwable.getClassName(), throwable.getMessage() == null ? "" : throwable.getMessage(),
+                causes(throwable), frames(throwable),
+                first(mdc, TRACE_ID_KEYS), first(mdc, SPAN_ID_KEYS), first(mdc, PARENT_SPAN_ID_KEYS));
+    }
+
+    private static String first(Map<String, String> mdc, List<String> keys) {
+        if (mdc == null || mdc.isEmpty()) {
+            return null;
+        }
+        for (String key : keys) {
+            String value = mdc.get(key);
+            if (value != null && !value.isBlank()) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    private List<ExceptionRecord.Frame> frames(IThrowableProxy throwable) {
+        StackTraceElementProxy[] elements = throwable.getStackTraceElementProxyArray();
+        if (elements == null) {
+            return List.of();
+        }
+        int count = Math.min(elements.length, maxFrames);
+        List<ExceptionRecord.Frame> frames = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            StackTraceElement element = elements[i].getStackTraceElement();
+            frames.add(new ExceptionRecord.Frame(element.getClassName(), element.getMethodName(), element.getLineNumber()));
+        }
+        return frames;
+    }
+
+    private List<String> causes(IThrowableProxy throwable) {
+        List<String> causes = new ArrayList<>();
+        // 循环引用的原因链只记录一次
+        Map<IThrowableProxy, Boolean> seen = new IdentityHashMap<>();
+        seen.put(throwable, true);
+        for (IThrowableProxy cause = throwable.getCause();
+             cause != null && causes.size() < maxCauses && seen.put(cause, true) == null;
+             cause = cause.getCause()) {
+            String text = cause.getMessage() == null ? cause.getClassName() : cause.getClassName() + ": " + cause.getMessage();
+            if (!causes.contains(text)) {
+                causes.add(text);
+            }
+        }
+        return causes;
+    }
+}
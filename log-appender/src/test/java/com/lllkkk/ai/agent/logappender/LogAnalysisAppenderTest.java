@@ -0,0 +1,128 @@
+package com.lllkkk.ai.agent.logappender;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogAnalysisAppenderTest {
+
+    private HttpServer service;
+    private final List<String> bodies = new CopyOnWriteArrayList<>();
+    private final CountDownLatch received = new CountDownLatch(1);
+    private volatile CountDownLatch release = new CountDownLatch(0);
+
+    private final LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+    private Logger logger;
+    private LogAnalysisAppender appender;
+
+    @BeforeEach
+    void startService() throws IOException {
+        service = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        service.createContext(LogAnalysisAppender.RECORDS_PATH, exchange -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            bodies.add(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            byte[] response = "{\"success\":true,\"accepted\":1,\"rejected\":0}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(202, response.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(response);
+            }
+            received.countDown();
+        });
+        service.start();
+    }
+
+    @AfterEach
+    void stop() {
+        if (appender != null) {
+            logger.detachAppender(appender);
+            appender.stop();
+        }
+        service.stop(0);
+    }
+
+    @Test
+    void testAppend_ShipsStructuredThrowableWithCauseChain() throws Exception {
+        newLogger(10, 50);
+
+        logger.info("no throwable, ignored");
+        logger.warn("below threshold", new IllegalStateException("ignored"));
+        MDC.put("traceId", "4bf92f3577b34da6");
+        try {
+            logger.error("下单失败", new IllegalStateException("库存为空 \"A\"",
+                    new RuntimeException("wrapped", new java.io.IOException("broken pipe"))));
+        } finally {
+            MDC.remove("traceId");
+        }
+
+        assertTrue(received.await(5, TimeUnit.SECONDS), "Batch should be shipped");
+        String body = bodies.get(0);
+        assertTrue(body.startsWith("[{\"projectName\":\"order-web\",\"version\":\"3f9c2ab\",\"timestamp\":"), body);
+        assertTrue(body.contains("\"level\":\"ERROR\""), body);
+        assertTrue(body.contains("\"exceptionClass\":\"java.lang.IllegalStateException\""), body);
+        assertTrue(body.contains("\"exceptionMessage\":\"库存为空 \\\"A\\\"\""), body);
+        assertTrue(body.contains("\"causes\":[\"java.lang.RuntimeException: wrapped\",\"java.io.IOException: broken pipe\"]"), body);
+        assertTrue(body.contains("{\"className\":\"com.lllkkk.ai.agent.logappender.LogAnalysisAppenderTest\","
+                + "\"methodName\":\"testAppend_ShipsStructuredThrowableWithCauseChain\",\"lineNumber\":"), body);
+        assertTrue(body.endsWith("\"traceId\":\"4bf92f3577b34da6\",\"spanId\":null,\"parentSpanId\":null}]"), body);
+        assertFalse(body.contains("ignored"), body);
+        assertEquals(1, body.split("\"exceptionClass\"").length - 1);
+        long until = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (appender.getSentCount() == 0 && System.nanoTime() < until) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, appender.getSentCount());
+    }
+
+    @Test
+    void testAppend_DropsOnOverflowWithoutBlocking() throws Exception {
+        release = new CountDownLatch(1);
+        newLogger(4, 1);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 100; i++) {
+            logger.error("failure " + i, new IllegalStateException("boom " + i));
+        }
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        release.countDown();
+
+        assertTrue(elapsedMs < 2000, "Logging threads must not wait for the service: " + elapsedMs + " ms");
+        assertTrue(appender.getDroppedCount() >= 100 - 4 - 1 - 1, "dropped=" + appender.getDroppedCount());
+    }
+
+    private void newLogger(int bufferSize, int batchSize) {
+        appender = new LogAnalysisAppender();
+        appender.setContext(context);
+        appender.setEndpoint("http://127.0.0.1:" + service.getAddress().getPort() + "/");
+        appender.setProjectName("order-web");
+        appender.setVersion("3f9c2ab");
+        appender.setBufferSize(bufferSize);
+        appender.setBatchSize(batchSize);
+        appender.setFlushIntervalMs(50);
+        appender.start();
+        assertTrue(appender.isStarted());
+
+        logger = context.getLogger("log-analysis-appender-test");
+        logger.setAdditive(false);
+        logger.addAppender(appender);
+    }
+}
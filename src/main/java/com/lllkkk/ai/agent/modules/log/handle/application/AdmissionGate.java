@@ -0,0 +1,182 @@
+package com.lllkkk.ai.agent.modules.log.handle.application;
+
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.AnalysisResult;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.LogRecord;
+import com.lllkkk.ai.agent.modules.log.handle.domain.service.LogFilter;
+import com.lllkkk.ai.agent.modules.log.handle.domain.service.LogParser;
+import com.lllkkk.ai.agent.modules.log.handle.domain.service.impl.SimilarityReuseLink;
+import com.lllkkk.ai.agent.modules.log.handle.infrastructure.config.AdmissionConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * 同步分析接口的准入控制
+ * 按处理中的请求数和流水线排队时间决定是否受理：负载升高时先拒绝低优先级（按异常级别或项目）请求，
+ * 达到上限时全部拒绝。被拒绝的日志若近期分析过相同异常，可直接返回历史结果
+ */
+@Slf4j
+@Component
+public class AdmissionGate {
+
+    /**
+     * 准入前只读取日志头部的项目和级别，不做完整解析
+     */
+    private static final Pattern PROJECT_PATTERN = Pattern.compile("异常项目: (.+)");
+    private static final Pattern LEVEL_PATTERN = Pattern.compile("异常级别: (\\w+)");
+
+    public enum Priority {
+        HIGH,
+        LOW
+    }
+
+    private final AdmissionConfig config;
+    private final LogProcessingPipeline pipeline;
+    private final LogParser logParser;
+    private final LogFilter logFilter;
+    private final ObjectProvider<SimilarityReuseLink> reuseLink;
+    private final Set<String> lowPriorityLevels;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder shed = new LongAdder();
+    private final LongAdder servedFromCache = new LongAdder();
+
+    public AdmissionGate(AdmissionConfig config, LogProcessingPipeline pipeline, LogParser logParser,
+                         LogFilter logFilter, ObjectProvider<SimilarityReuseLink> reuseLink) {
+        this.config = config;
+        this.pipeline = pipeline;
+        this.logParser = logParser;
+        this.logFilter = logFilter;
+        this.reuseLink = reuseLink;
+        this.lowPriorityLevels = config.getLowPriorityLevels().stream()
+                .map(String::toUpperCase)
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    /**
+     * 受理凭证，受理成功时须在请求结束后关闭以释放名额
+     */
+    public static final class Permit implements AutoCloseable {
+        private final boolean admitted;
+        private final int retryAfterSeconds;
+        private final AtomicInteger inFlight;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(boolean admitted, int retryAfterSeconds, AtomicInteger inFlight) {
+            this.admitted = admitted;
+            this.retryAfterSeconds = retryAfterSeconds;
+            this.inFlight = inFlight;
+        }
+
+        public boolean admitted() {
+            return admitted;
+        }
+
+        /**
+         * 被拒绝时建议的重试间隔（秒）
+         */
+        public int retryAfterSeconds() {
+            return retryAfterSeconds;
+        }
+
+        @Override
+        public void close() {
+            if (admitted && inFlight != null && released.compareAndSet(false, true)) {
+                inFlight.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * 按日志的优先级尝试受理
+     */
+    public Permit tryAcquire(String rawLog) {
+        if (!config.isEnabled()) {
+            return new Permit(true, 0, null);
+        }
+        Priority priority = classify(rawLog);
+        long queueDelay = pipeline.queueDelayMillis();
+        int limit = priority == Priority.HIGH
+                ? config.getMaxInFlight()
+                : (int) (config.getMaxInFlight() * config.getLowPriorityShare());
+        boolean overloaded = priority == Priority.LOW && queueDelay > config.getTargetQueueDelayMs();
+
+        if (!overloaded) {
+            int current = inFlight.incrementAndGet();
+            if (current <= limit) {
+                return new Permit(true, 0, inFlight);
+            }
+            inFlight.decrementAndGet();
+        }
+        shed.increment();
+        log.warn("⚠️ 负载过高，拒绝{}优先级请求: 处理中 {}，排队 {}ms", priority == Priority.HIGH ? "高" : "低",
+                inFlight.get(), queueDelay);
+        return new Permit(false, retryAfterSeconds(queueDelay), null);
+    }
+
+    /**
+     * 被拒绝的日志近期已分析过相同（近似）异常时返回历史结果
+     */
+    public Optional<CachedResult> recentResult(String rawLog) {
+        SimilarityReuseLink link = reuseLink.getIfAvailable();
+        if (link == null) {
+            return Optional.empty();
+        }
+        LogRecord record = logParser.parse(rawLog);
+        if (record == null) {
+            return Optional.empty();
+        }
+        record = logFilter.filter(record);
+        LogRecord parsed = record;
+        Optional<CachedResult> cached = link.tryAnalyze(record).map(result -> new CachedResult(parsed, result));
+        cached.ifPresent(hit -> servedFromCache.increment());
+        return cached;
+    }
+
+    public record CachedResult(LogRecord record, AnalysisResult analysis) {
+    }
+
+    /**
+     * @param inFlight        处理中的同步分析请求数
+     * @param queueDelayMs    流水线平均排队时间
+     * @param shed            累计拒绝次数
+     * @param servedFromCache 被拒绝但返回了历史结果的次数
+     */
+    public record Stats(int inFlight, long queueDelayMs, long shed, long servedFromCache) {
+    }
+
+    public Stats stats() {
+        return new Stats(inFlight.get(), pipeline.queueDelayMillis(), shed.sum(), servedFromCache.sum());
+    }
+
+    Priority classify(String rawLog) {
+        String project = extract(rawLog, PROJECT_PATTERN);
+        if (project != null && config.getHighPriorityProjects().contains(project)) {
+            return Priority.HIGH;
+        }
+        if (project != null && config.getLowPriorityProjects().contains(project)) {
+            return Priority.LOW;
+        }
+        String level = extract(rawLog, LEVEL_PATTERN);
+        // 未知级别按高优先级处理，宁可多分析也不误丢
+        return level != null && lowPriorityLevels.contains(level.toUpperCase()) ? Priority.LOW : Priority.HIGH;
+    }
+
+    private int retryAfterSeconds(long queueDelayMs) {
+        return (int) Math.max(config.getRetryAfterSeconds(), (queueDelayMs + 999) / 1000);
+    }
+
+    private static String extract(String rawLog, Pattern pattern) {
+        Matcher matcher = pattern.matcher(rawLog);
+        return matcher.find() ? matcher.group(1).trim() : null;
+    }
+}
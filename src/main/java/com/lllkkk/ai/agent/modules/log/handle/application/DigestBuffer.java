@@ -0,0 +1,132 @@
+package com.lllkkk.ai.agent.modules.log.handle.application;
+
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.LogRecord;
+import com.lllkkk.ai.agent.modules.log.handle.domain.service.similarity.ExceptionSignature;
+import com.lllkkk.ai.agent.modules.log.handle.infrastructure.config.DigestConfig;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * 定时摘要的缓冲区
+ * 后台接入、没有时间预算且级别属于摘要级别的记录不再逐条分析，而是按 "项目|异常指纹" 去重后缓冲一个周期，
+ * 周期结束时整批交给回调一次分析；同一指纹的后续记录共享第一条的结论。
+ * 缓冲的任务立即以 {@link PipelineResult#deferred} 完成，接入端不必等到周期结束；
+ * 每组最多保留 maxRecordsPerGroup 条记录，超出的重复记录只计数，同一告警刷屏时内存不随条数增长
+ */
+@Slf4j
+class DigestBuffer {
+
+    private final Set<String> levels;
+    private final int maxPendingRecords;
+    private final int maxRecordsPerGroup;
+    private final Consumer<List<List<PipelineTask>>> onFlush;
+    private final ScheduledExecutorService timer;
+
+    private Map<String, Group> pending = new LinkedHashMap<>();
+
+    /**
+     * 同一异常在本周期的记录：保留的前若干条，以及超出上限只计数的条数
+     */
+    private static final class Group {
+        final List<PipelineTask> tasks = new ArrayList<>();
+        int dropped;
+    }
+
+    DigestBuffer(DigestConfig config, Consumer<List<List<PipelineTask>>> onFlush) {
+        this.levels = config.getLevels() == null ? Set.of() : config.getLevels().stream()
+                .map(level -> level.toUpperCase(Locale.ROOT))
+                .collect(Collectors.toUnmodifiableSet());
+        this.maxPendingRecords = config.getMaxPendingRecords();
+        this.maxRecordsPerGroup = Math.max(1, config.getMaxRecordsPerGroup());
+        this.onFlush = onFlush;
+        if (config.isEnabled() && config.getIntervalSeconds() > 0 && !levels.isEmpty()) {
+            this.timer = Executors.newSingleThreadScheduledExecutor(
+                    Thread.ofPlatform().name("pipeline-digest").daemon().factory());
+            timer.scheduleWithFixedDelay(this::flush, config.getIntervalSeconds(), config.getIntervalSeconds(),
+                    TimeUnit.SECONDS);
+        } else {
+            this.timer = null;
+        }
+    }
+
+    /**
+     * 尝试把任务放入本周期的摘要
+     *
+     * @return true 表示已缓冲，任务结果已以 deferred 完成，结论在周期结束时交给 sink；false 表示调用方照常逐条分析
+     */
+    boolean offer(PipelineTask task) {
+        LogRecord record = task.record;
+        // 链路源头的结论要在完成时分给同链路的其他记录，不能提前完成，照常逐条分析
+        if (timer == null || !task.background || task.deadline.isBounded() || !task.correlated.isEmpty()
+                || record.getLevel() == null || !levels.contains(record.getLevel().toUpperCase(Locale.ROOT))) {
+            return false;
+        }
+        String key = record.getProjectName() + "|" + ExceptionSignature.of(record).fingerprint();
+        synchronized (this) {
+            Group group = pending.get(key);
+            if (group == null) {
+                if (pending.size() >= maxPendingRecords) {
+                    return false;
+                }
+                group = new Group();
+                pending.put(key, group);
+            }
+            if (group.tasks.size() < maxRecordsPerGroup) {
+                group.tasks.add(task);
+            } else {
+                group.dropped++;
+            }
+        }
+        task.result.complete(PipelineResult.deferred(record));
+        return true;
+    }
+
+    /**
+     * 结束本周期，把缓冲的各组（每组第一条为代表）交给回调
+     */
+    void flush() {
+        List<List<PipelineTask>> groups;
+        long dropped;
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            groups = pending.values().stream().map(group -> group.tasks).toList();
+            dropped = pending.values().stream().mapToLong(group -> group.dropped).sum();
+            pending = new LinkedHashMap<>();
+        }
+        if (dropped > 0) {
+            log.info("本周期摘要 {} 条异常，另有 {} 条重复记录超出每组上限，只计数不逐条输出", groups.size(), dropped);
+        }
+        try {
+            onFlush.accept(groups);
+        } catch (Exception e) {
+            // 任务结果已在缓冲时完成，这里只丢失本周期的结论
+            log.error("摘要分析失败: {} 条异常", groups.size(), e);
+        }
+    }
+
+    /**
+     * 本周期已缓冲的不同异常数
+     */
+    synchronized int pendingRecords() {
+        return pending.size();
+    }
+
+    void shutdown() {
+        if (timer != null) {
+            timer.shutdownNow();
+        }
+    }
+}
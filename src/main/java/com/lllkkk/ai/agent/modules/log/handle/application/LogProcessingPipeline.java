@@ -1,19 +1,305 @@
 package com.lllkkk.ai.agent.modules.log.handle.application;
 
 import com.lllkkk.ai.agent.modules.log.handle.domain.model.AnalysisResult;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.Deadline;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.DegradeReason;
 import com.lllkkk.ai.agent.modules.log.handle.domain.model.LogRecord;
 import com.lllkkk.ai.agent.modules.log.handle.domain.service.AIAnalyzer;
 import com.lllkkk.ai.agent.modules.log.handle.domain.service.LogFilter;
 import com.lllkkk.ai.agent.modules.log.handle.domain.service.LogParser;
+import com.lllkkk.ai.agent.modules.log.handle.domain.service.RecordObserver;
+import com.lllkkk.ai.agent.modules.log.handle.domain.service.prompt.CodeSnippetEnricher;
+import com.lllkkk.ai.agent.modules.log.handle.infrastructure.config.DigestConfig;
+import com.lllkkk.ai.agent.modules.log.handle.infrastructure.config.PipelineConfig;
+import com.lllkkk.ai.agent.modules.log.handle.infrastructure.config.TraceCorrelationConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
 
-public class LogProcessingPipeline {
-//    LogParser logParser;
-//    LogFilter logFilter;
-//    AIAnalyzer aiAnalyzer;
-//
-//    public AnalysisResult process(String rawLog) {
-//        LogRecord parsedRecord = logParser.parse(rawLog);
-//        LogRecord filteredRecord = logFilter.filter(parsedRecord);
-//        return aiAnalyzer.analyze(filteredRecord);
-//    }
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 日志处理流水线：parse → filter → enrich（源码片段）→ analyze → sink
+ * 每个阶段有独立的有界队列和工作线程：parse、filter 为 CPU 型，使用平台线程；
+ * enrich、analyze、sink 以 I/O 为主，使用虚拟线程。下游队列满时上游阻塞，入口队列满时拒绝提交。
+ * 每条记录过滤后都会交给 {@link RecordObserver}（如高频异常统计）。
+ * 带链路 ID 的记录过滤后由 {@link TraceCorrelator} 按链路缓冲一个窗口，同一链路只分析源头异常，
+ * 其余记录共享该结论，结果中互相引用记录 ID。
+ * 启用定时摘要时，后台接入的非紧急记录在 analyze 阶段交给 {@link DigestBuffer}，按周期合并分析后再进入 sink。
+ * 单条分析、批量分析和后台接入都通过本流水线处理
+ */
+@Slf4j
+@Component
+public class LogProcessingPipeline implements DisposableBean {
+
+    private final LogParser logParser;
+    private final LogFilter logFilter;
+    private final CodeSnippetEnricher snippetEnricher;
+    private final AIAnalyzer aiAnalyzer;
+    private final List<PipelineSink> sinks;
+    private final List<RecordObserver> observers;
+    private final long submitTimeoutMs;
+
+    private final PipelineStage parseStage;
+    private final PipelineStage filterStage;
+    private final PipelineStage enrichStage;
+    private final PipelineStage sinkStage;
+    private final TraceCorrelator correlator;
+    private final DigestBuffer digest;
+    private final List<PipelineStage> stages;
+    private final QueueDelayTracker queueDelay = new QueueDelayTracker();
+
+    public LogProcessingPipeline(LogParser logParser, LogFilter logFilter, CodeSnippetEnricher snippetEnricher,
+                                 AIAnalyzer aiAnalyzer, ObjectProvider<PipelineSink> sinks,
+                                 ObjectProvider<RecordObserver> observers, PipelineConfig config,
+                                 TraceCorrelationConfig correlationConfig, DigestConfig digestConfig) {
+        this.logParser = logParser;
+        this.logFilter = logFilter;
+        this.snippetEnricher = snippetEnricher;
+        this.aiAnalyzer = aiAnalyzer;
+        this.sinks = sinks.orderedStream().toList();
+        this.observers = observers.orderedStream().toList();
+        this.submitTimeoutMs = config.getSubmitTimeoutMs();
+
+        int capacity = config.getQueueCapacity();
+        this.parseStage = new PipelineStage("parse", capacity, config.getParseThreads(),
+                Thread.ofPlatform().name("pipeline-parse-", 0).daemon().factory(), this::parse);
+        this.filterStage = new PipelineStage("filter", capacity, config.getFilterThreads(),
+                Thread.ofPlatform().name("pipeline-filter-", 0).daemon().factory(), this::filter);
+        this.enrichStage = new PipelineStage("enrich", capacity, config.getEnrichConcurrency(),
+                Thread.ofVirtual().name("pipeline-enrich-", 0).factory(), this::enrich);
+        PipelineStage analyzeStage = new PipelineStage("analyze", capacity, config.getAnalyzeConcurrency(),
+                Thread.ofVirtual().name("pipeline-analyze-", 0).factory(), this::analyze);
+        this.sinkStage = new PipelineStage("sink", capacity, config.getSinkConcurrency(),
+                Thread.ofVirtual().name("pipeline-sink-", 0).factory(), this::sink);
+
+        parseStage.then(filterStage).then(enrichStage).then(analyzeStage).then(sinkStage);
+        this.stages = List.of(parseStage, filterStage, enrichStage, analyzeStage, sinkStage);
+        this.correlator = new TraceCorrelator(correlationConfig, this::analyzeTrace);
+        this.digest = new DigestBuffer(digestConfig, this::analyzeDigest);
+        stages.forEach(PipelineStage::start);
+        log.info("✅ 日志处理流水线已启动: {}", stages.stream().map(PipelineStage::stats).toList());
+    }
+
+    /**
+     * 提交原始日志，从 parse 阶段开始处理
+     *
+     * @return 分析完成（sink 之前）时完成；入口队列已满时以 RejectedExecutionException 失败
+     */
+    public CompletableFuture<PipelineResult> submit(String rawLog, Deadline deadline) {
+        return enqueue(parseStage, new PipelineTask(rawLog, null, deadline), submitTimeoutMs);
+    }
+
+    /**
+     * 提交已结构化的日志记录（后台接入），从 filter 阶段开始处理
+     */
+    public CompletableFuture<PipelineResult> submitParsed(LogRecord record, Deadline deadline) {
+        return enqueue(filterStage, backgroundTask(record, deadline), submitTimeoutMs);
+    }
+
+    /**
+     * 不等待地提交已结构化的记录，入口队列已满时立即以 RejectedExecutionException 失败，
+     * 供不能阻塞的接入线程（如 NIO 选择器线程）使用
+     */
+    public CompletableFuture<PipelineResult> trySubmitParsed(LogRecord record, Deadline deadline) {
+        return enqueue(filterStage, backgroundTask(record, deadline), 0);
+    }
+
+    /**
+     * 后台提交原始日志（如文件跟踪接入），从 parse 阶段开始处理，context 为异常之前的若干行
+     */
+    public CompletableFuture<PipelineResult> submitBackground(String rawLog, List<String> context, Deadline deadline) {
+        PipelineTask task = new PipelineTask(rawLog, null, deadline);
+        task.background = true;
+        task.context = context;
+        return enqueue(parseStage, task, submitTimeoutMs);
+    }
+
+    private static PipelineTask backgroundTask(LogRecord record, Deadline deadline) {
+        PipelineTask task = new PipelineTask(null, record, deadline);
+        task.background = true;
+        return task;
+    }
+
+    /**
+     * 最近任务到达 analyze 阶段前在各阶段队列中的平均排队时间（毫秒）
+     */
+    public long queueDelayMillis() {
+        return queueDelay.currentMillis();
+    }
+
+    public List<PipelineStage.Stats> stats() {
+        return stages.stream().map(PipelineStage::stats).toList();
+    }
+
+    @Override
+    public void destroy() {
+        correlator.shutdown();
+        digest.shutdown();
+        stages.forEach(PipelineStage::shutdown);
+    }
+
+    private CompletableFuture<PipelineResult> enqueue(PipelineStage entry, PipelineTask task, long timeoutMs) {
+        try {
+            if (!entry.offer(task, timeoutMs)) {
+                return CompletableFuture.failedFuture(
+                        new RejectedExecutionException("日志处理流水线繁忙: " + entry.stats().name() + " 队列已满"));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(e);
+        }
+        return task.result;
+    }
+
+    private boolean parse(PipelineTask task) {
+        task.record = logParser.parse(task.rawLog);
+        if (task.record == null) {
+            task.result.complete(PipelineResult.unparseable());
+            return false;
+        }
+        if (task.context != null && !task.context.isEmpty()) {
+            task.record.setContextLines(task.context);
+        }
+        return true;
+    }
+
+    private boolean filter(PipelineTask task) {
+        task.record = logFilter.filter(task.record);
+        if (task.record.getRecordId() == null) {
+            task.record.setRecordId(LogRecord.newRecordId());
+        }
+        for (RecordObserver observer : observers) {
+            try {
+                observer.observe(task.record);
+            } catch (Exception e) {
+                log.warn("记录观察者执行失败: {}", observer.getClass().getSimpleName(), e);
+            }
+        }
+        return !correlator.hold(task);
+    }
+
+    /**
+     * 链路窗口结束：源头任务继续 enrich → analyze，其余任务在源头分析完成时共享结论
+     */
+    private void analyzeTrace(TraceCorrelator.TraceGroup group) {
+        List<PipelineTask> tasks = group.tasks;
+        int originIndex = TraceCorrelator.selectOrigin(tasks.stream().map(task -> task.record).toList());
+        PipelineTask origin = tasks.get(originIndex);
+        if (tasks.size() > 1) {
+            List<PipelineTask> correlated = new ArrayList<>(tasks);
+            correlated.remove(originIndex);
+            origin.correlated = correlated;
+            log.info("🔗 链路 {} 关联 {} 条异常，分析源头 {}", group.traceId, tasks.size(),
+                    origin.record.getTopFrameLocation());
+            origin.result.whenComplete((result, error) -> {
+                for (PipelineTask task : correlated) {
+                    if (error != null) {
+                        task.result.completeExceptionally(error);
+                        continue;
+                    }
+                    task.analysis = result.analysis() == null ? null : linked(result.analysis(), task, tasks);
+                    task.result.complete(new PipelineResult(task.record, task.analysis));
+                }
+            });
+        }
+        try {
+            enrichStage.put(origin);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            origin.result.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * 源头结论（已带链路 ID 和源头记录 ID）复制给同链路的其他记录，关联列表换成除自身外的全部记录
+     */
+    private static AnalysisResult linked(AnalysisResult analysis, PipelineTask owner, List<PipelineTask> tasks) {
+        return analysis.toBuilder()
+                .correlatedRecordIds(tasks.stream()
+                        .filter(task -> task != owner)
+                        .map(task -> task.record.getRecordId())
+                        .toList())
+                .build();
+    }
+
+    private boolean enrich(PipelineTask task) {
+        if (!task.deadline.isExpired()) {
+            snippetEnricher.enrich(task.record, task.deadline);
+        }
+        return true;
+    }
+
+    private boolean analyze(PipelineTask task) {
+        queueDelay.record(TimeUnit.NANOSECONDS.toMillis(task.queuedNanos));
+        if (digest.offer(task)) {
+            return false;
+        }
+        task.analysis = task.deadline.isExpired()
+                ? AnalysisResult.degraded(task.record, DegradeReason.DEADLINE_EXCEEDED)
+                : aiAnalyzer.analyze(task.record, task.deadline);
+        complete(task);
+        return !sinks.isEmpty() && task.analysis != null;
+    }
+
+    /**
+     * 摘要周期结束：各组代表记录一次批量分析，组内记录共享结论，完成后转入 sink 阶段
+     */
+    private void analyzeDigest(List<List<PipelineTask>> groups) {
+        List<AnalysisResult> results = aiAnalyzer.analyzeAll(
+                groups.stream().map(group -> group.get(0).record).toList(), Deadline.none());
+        for (int i = 0; i < groups.size(); i++) {
+            for (PipelineTask task : groups.get(i)) {
+                task.analysis = results.get(i);
+                complete(task);
+                if (sinks.isEmpty() || task.analysis == null) {
+                    continue;
+                }
+                try {
+                    sinkStage.put(task);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * 链路源头的结论带上链路 ID 与关联记录后交给调用方
+     */
+    private void complete(PipelineTask task) {
+        if (!task.correlated.isEmpty() && task.analysis != null) {
+            task.analysis = task.analysis.toBuilder()
+                    .traceId(task.record.getTraceId())
+                    .originRecordId(task.record.getRecordId())
+                    .correlatedRecordIds(task.correlated.stream().map(other -> other.record.getRecordId()).toList())
+                    .build();
+        }
+        task.result.complete(new PipelineResult(task.record, task.analysis));
+    }
+
+    private boolean sink(PipelineTask task) {
+        emit(task);
+        task.correlated.forEach(this::emit);
+        return false;
+    }
+
+    private void emit(PipelineTask task) {
+        if (task.analysis == null) {
+            return;
+        }
+        for (PipelineSink sink : sinks) {
+            try {
+                sink.accept(task.record, task.analysis);
+            } catch (Exception e) {
+                log.warn("结果输出失败: {}", sink.getClass().getSimpleName(), e);
+            }
+        }
+    }
 }
@@ -0,0 +1,30 @@
+package com.lllkkk.ai.agent.modules.log.handle.application;
+
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.AnalysisResult;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.LogRecord;
+
+/**
+ * 流水线处理结果
+ *
+ * @param record   解析并过滤后的日志记录，无法解析时为空
+ * @param analysis 分析结果，无法解析或已转入定时摘要时为空
+ * @param deferred 是否已转入定时摘要：记录已受理，结论在周期结束时交给 sink
+ */
+public record PipelineResult(LogRecord record, AnalysisResult analysis, boolean deferred) {
+
+    public PipelineResult(LogRecord record, AnalysisResult analysis) {
+        this(record, analysis, false);
+    }
+
+    static PipelineResult unparseable() {
+        return new PipelineResult(null, null);
+    }
+
+    static PipelineResult deferred(LogRecord record) {
+        return new PipelineResult(record, null, true);
+    }
+
+    public boolean parsed() {
+        return record != null;
+    }
+}
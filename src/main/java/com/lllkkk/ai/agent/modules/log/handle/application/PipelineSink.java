@@ -0,0 +1,11 @@
+package com.lllkkk.ai.agent.modules.log.handle.application;
+
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.AnalysisResult;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.LogRecord;
+
+/**
+ * 流水线末端的结果输出（如通知、存储），在分析结果返回给调用方之后异步执行
+ */
+public interface PipelineSink {
+    void accept(LogRecord record, AnalysisResult result);
+}
@@ -0,0 +1,113 @@
+package com.lllkkk.ai.agent.modules.log.handle.application;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * 流水线的一个阶段：有界队列 + 固定数量的工作线程
+ * 工作线程取出任务处理后放入下一阶段的队列，下游队列满时阻塞，由此向上游传导背压
+ */
+@Slf4j
+public class PipelineStage {
+
+    private final String name;
+    private final BlockingQueue<PipelineTask> queue;
+    private final Predicate<PipelineTask> handler;
+    private final List<Thread> workers = new ArrayList<>();
+    private final LongAdder processed = new LongAdder();
+    private volatile PipelineStage next;
+    private volatile boolean running = true;
+
+    /**
+     * 阶段状态
+     *
+     * @param name      阶段名
+     * @param queued    排队中的任务数
+     * @param capacity  队列容量
+     * @param workers   工作线程数
+     * @param processed 已处理的任务数
+     */
+    public record Stats(String name, int queued, int capacity, int workers, long processed) {
+    }
+
+    /**
+     * @param handler 处理任务，返回 true 时交给下一阶段
+     */
+    PipelineStage(String name, int capacity, int workerCount, ThreadFactory threadFactory,
+                  Predicate<PipelineTask> handler) {
+        this.name = name;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+        this.handler = handler;
+        for (int i = 0; i < Math.max(1, workerCount); i++) {
+            workers.add(threadFactory.newThread(this::work));
+        }
+    }
+
+    PipelineStage then(PipelineStage next) {
+        this.next = next;
+        return next;
+    }
+
+    void start() {
+        workers.forEach(Thread::start);
+    }
+
+    /**
+     * 入口提交，队列满时最多等待 timeoutMs
+     */
+    boolean offer(PipelineTask task, long timeoutMs) throws InterruptedException {
+        task.enqueuedAt = System.nanoTime();
+        return queue.offer(task, timeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 阶段外部（如链路关联的定时线程）转交任务，队列满时阻塞
+     */
+    void put(PipelineTask task) throws InterruptedException {
+        task.enqueuedAt = System.nanoTime();
+        queue.put(task);
+    }
+
+    Stats stats() {
+        return new Stats(name, queue.size(), queue.size() + queue.remainingCapacity(), workers.size(), processed.sum());
+    }
+
+    void shutdown() {
+        running = false;
+        workers.forEach(Thread::interrupt);
+    }
+
+    private void work() {
+        while (running) {
+            PipelineTask task;
+            try {
+                task = queue.take();
+            } catch (InterruptedException e) {
+                break;
+            }
+            task.queuedNanos += System.nanoTime() - task.enqueuedAt;
+            try {
+                boolean forward = handler.test(task);
+                processed.increment();
+                if (forward && next != null) {
+                    task.enqueuedAt = System.nanoTime();
+                    next.queue.put(task);
+                }
+            } catch (InterruptedException e) {
+                task.result.completeExceptionally(e);
+                break;
+            } catch (Throwable e) {
+                log.error("流水线阶段 {} 处理失败", name, e);
+                task.result.completeExceptionally(e);
+            }
+        }
+    }
+}
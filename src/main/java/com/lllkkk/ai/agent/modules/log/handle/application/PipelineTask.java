@@ -0,0 +1,45 @@
+package com.lllkkk.ai.agent.modules.log.handle.application;
+
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.AnalysisResult;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.Deadline;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.LogRecord;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 在流水线各阶段间传递的任务，同一时刻只被一个阶段处理
+ */
+class PipelineTask {
+
+    final String rawLog;
+    final Deadline deadline;
+    final CompletableFuture<PipelineResult> result = new CompletableFuture<>();
+
+    LogRecord record;
+    AnalysisResult analysis;
+    /**
+     * 同一链路中共享本任务分析结论的其他任务，仅链路源头任务非空
+     */
+    List<PipelineTask> correlated = List.of();
+    /**
+     * 后台接入的记录，没有调用方在等待单条结论，可以合并到定时摘要中分析
+     */
+    boolean background;
+    /**
+     * 原始日志之前的若干行上下文，parse 阶段附加到记录上，没有时为 null
+     */
+    List<String> context;
+
+    /**
+     * 最近一次入队时间（System.nanoTime）与累计排队时间
+     */
+    long enqueuedAt;
+    long queuedNanos;
+
+    PipelineTask(String rawLog, LogRecord record, Deadline deadline) {
+        this.rawLog = rawLog;
+        this.record = record;
+        this.deadline = deadline;
+    }
+}
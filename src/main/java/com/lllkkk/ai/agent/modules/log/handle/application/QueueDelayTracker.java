@@ -0,0 +1,43 @@
+package com.lllkkk.ai.agent.modules.log.handle.application;
+
+import java.util.function.LongSupplier;
+
+/**
+ * 任务在流水线队列中等待时间的指数加权平均
+ * 长时间没有新样本时按空闲时长衰减（每秒减半），避免流量高峰过后旧的高延迟一直影响准入判断
+ */
+public class QueueDelayTracker {
+
+    private static final double ALPHA = 0.2;
+    private static final double HALF_LIFE_NANOS = 1_000_000_000d;
+
+    private final LongSupplier nanoClock;
+    private double average;
+    private long lastUpdate;
+
+    public QueueDelayTracker() {
+        this(System::nanoTime);
+    }
+
+    QueueDelayTracker(LongSupplier nanoClock) {
+        this.nanoClock = nanoClock;
+        this.lastUpdate = nanoClock.getAsLong();
+    }
+
+    public synchronized void record(long delayMs) {
+        average = decayed(nanoClock.getAsLong()) * (1 - ALPHA) + delayMs * ALPHA;
+        lastUpdate = nanoClock.getAsLong();
+    }
+
+    /**
+     * 当前的平均排队时间（毫秒）
+     */
+    public synchronized long currentMillis() {
+        return Math.round(decayed(nanoClock.getAsLong()));
+    }
+
+    private double decayed(long now) {
+        long idle = now - lastUpdate;
+        return idle <= 0 ? average : average * Math.pow(0.5, idle / HALF_LIFE_NANOS);
+    }
+}
@@ -0,0 +1,22 @@
+package com.lllkkk.ai.agent.modules.log.handle.application;
+
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.AnalysisResult;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.LogRecord;
+import com.lllkkk.ai.agent.modules.log.handle.domain.service.search.AnalysisSearchIndex;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * 把完成的分析增量写入历史分析检索索引
+ */
+@Component
+@RequiredArgsConstructor
+public class SearchIndexSink implements PipelineSink {
+
+    private final AnalysisSearchIndex index;
+
+    @Override
+    public void accept(LogRecord record, AnalysisResult result) {
+        index.add(record, result);
+    }
+}
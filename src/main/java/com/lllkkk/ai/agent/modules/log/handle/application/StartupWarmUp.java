@@ -0,0 +1,147 @@
+package com.lllkkk.ai.agent.modules.log.handle.application;
+
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.LogRecord;
+import com.lllkkk.ai.agent.modules.log.handle.domain.service.CodeLocator;
+import com.lllkkk.ai.agent.modules.log.handle.domain.service.LogFilter;
+import com.lllkkk.ai.agent.modules.log.handle.domain.service.LogParser;
+import com.lllkkk.ai.agent.modules.log.handle.domain.service.prompt.AnalysisPromptBuilder;
+import com.lllkkk.ai.agent.modules.log.handle.infrastructure.client.LLMClient;
+import com.lllkkk.ai.agent.modules.log.handle.infrastructure.config.WarmUpConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 启动预热
+ * 作为 ApplicationRunner 在就绪事件之前同步执行：Spring Boot 在所有 runner 结束后才把就绪状态置为
+ * ACCEPTING_TRAFFIC，因此预热期间存活检查正常而就绪检查为 REFUSING_TRAFFIC，负载均衡不会把流量导入冷实例。
+ * 预热内容：样例日志反复走解析、过滤和提示词渲染（正则与 JIT 预热）、构建源码定位索引、预先建立上游连接
+ */
+@Slf4j
+@Component
+public class StartupWarmUp implements ApplicationRunner {
+
+    private static final String SEPARATOR = "---";
+
+    private final LogParser parser;
+    private final LogFilter filter;
+    private final AnalysisPromptBuilder promptBuilder;
+    private final ObjectProvider<CodeLocator> codeLocator;
+    private final ObjectProvider<LLMClient> llmClient;
+    private final WarmUpConfig config;
+
+    public StartupWarmUp(LogParser parser, LogFilter filter, AnalysisPromptBuilder promptBuilder,
+                         ObjectProvider<CodeLocator> codeLocator, ObjectProvider<LLMClient> llmClient,
+                         WarmUpConfig config) {
+        this.parser = parser;
+        this.filter = filter;
+        this.promptBuilder = promptBuilder;
+        this.codeLocator = codeLocator;
+        this.llmClient = llmClient;
+        this.config = config;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!config.isEnabled()) {
+            return;
+        }
+        long start = System.nanoTime();
+        // 索引和连接在后台进行，与 CPU 密集的解析预热重叠
+        CompletableFuture<Void> locator = warmUpLocator();
+        CompletableFuture<Void> upstream = config.isConnectUpstream() ? warmUpUpstream() : CompletableFuture.completedFuture(null);
+        int parsed = warmUpParser(loadCorpus());
+
+        long remaining = config.getTimeoutMs() - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        try {
+            CompletableFuture.allOf(locator, upstream).get(Math.max(remaining, 0), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.warn("⚠️ 预热超过 {}ms，未完成的索引或连接将在后台继续", config.getTimeoutMs());
+        } catch (ExecutionException e) {
+            log.warn("⚠️ 预热部分失败: {}", e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.info("✅ 预热完成，样例日志 {} 条 × {} 轮，耗时 {}ms", parsed, config.getIterations(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    int warmUpParser(List<String> corpus) {
+        for (int i = 0; i < config.getIterations(); i++) {
+            for (String rawLog : corpus) {
+                try {
+                    LogRecord record = filter.filter(parser.parse(rawLog));
+                    if (record != null) {
+                        promptBuilder.renderUserMessage(record, null);
+                    }
+                } catch (RuntimeException e) {
+                    log.debug("预热样例日志处理失败", e);
+                }
+            }
+        }
+        return corpus.size();
+    }
+
+    private CompletableFuture<Void> warmUpLocator() {
+        try {
+            CodeLocator locator = codeLocator.getIfAvailable();
+            return locator == null ? CompletableFuture.completedFuture(null) : locator.warmUp();
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private CompletableFuture<Void> warmUpUpstream() {
+        try {
+            LLMClient client = llmClient.getIfAvailable();
+            return client == null ? CompletableFuture.completedFuture(null) : client.warmUp();
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    List<String> loadCorpus() {
+        Resource resource = new DefaultResourceLoader().getResource(config.getCorpus());
+        try (InputStream in = resource.getInputStream()) {
+            return splitCorpus(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            log.warn("⚠️ 未能加载预热语料 [{}]: {}", config.getCorpus(), e.getMessage());
+            return List.of();
+        }
+    }
+
+    static List<String> splitCorpus(String content) {
+        List<String> logs = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        for (String line : content.split("\\r?\\n")) {
+            if (line.strip().equals(SEPARATOR)) {
+                addIfPresent(logs, current);
+                current.setLength(0);
+            } else if (!line.startsWith("#")) {
+                current.append(line).append('\n');
+            }
+        }
+        addIfPresent(logs, current);
+        return logs;
+    }
+
+    private static void addIfPresent(List<String> logs, StringBuilder entry) {
+        if (!entry.toString().isBlank()) {
+            logs.add(entry.toString());
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.lllkkk.ai.agent.modules.log.handle.application;
+
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.Deadline;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.LogRecord;
+import com.lllkkk.ai.agent.modules.log.handle.infrastructure.config.TraceCorrelationConfig;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 按分布式链路关联异常
+ * 带链路 ID 的记录在 filter 之后按链路缓冲一个窗口，窗口结束（或达到条数上限）时整组交给回调，
+ * 由流水线选出源头记录分析一次，其余记录共享该结论。没有链路 ID 的记录不经过这里。
+ * 带时间预算的任务最多缓冲到截止时间前预留的分析时间为止，窗口随组内最早到期的任务提前结束；
+ * 剩余时间不足预留时不缓冲，直接分析
+ */
+@Slf4j
+class TraceCorrelator {
+
+    /**
+     * 一个链路窗口内缓冲的任务，按到达顺序排列
+     */
+    static final class TraceGroup {
+        final String traceId;
+        final List<PipelineTask> tasks = new ArrayList<>();
+        /**
+         * 已安排的最早结束时间（System.nanoTime）
+         */
+        long closeAtNanos;
+
+        TraceGroup(String traceId) {
+            this.traceId = traceId;
+        }
+    }
+
+    private final long windowMs;
+    private final long analysisReserveMs;
+    private final int maxRecordsPerTrace;
+    private final int maxPendingTraces;
+    private final Consumer<TraceGroup> onClose;
+    private final Map<String, TraceGroup> groups = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService timer;
+
+    TraceCorrelator(TraceCorrelationConfig config, Consumer<TraceGroup> onClose) {
+        this.windowMs = config.isEnabled() ? config.getWindowMs() : 0;
+        this.analysisReserveMs = Math.max(0, config.getAnalysisReserveMs());
+        this.maxRecordsPerTrace = Math.max(1, config.getMaxRecordsPerTrace());
+        this.maxPendingTraces = config.getMaxPendingTraces();
+        this.onClose = onClose;
+        this.timer = windowMs > 0
+                ? Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("pipeline-correlate").daemon().factory())
+                : null;
+    }
+
+    /**
+     * 尝试把任务放入所属链路的窗口
+     *
+     * @return true 表示已缓冲，由窗口结束时的回调继续处理；false 表示不关联，调用方照常处理
+     */
+    boolean hold(PipelineTask task) {
+        String traceId = task.record.getTraceId();
+        if (timer == null || traceId == null || traceId.isBlank()) {
+            return false;
+        }
+        long holdMs = holdMillis(task.deadline);
+        if ((holdMs <= 0 || groups.size() >= maxPendingTraces) && !groups.containsKey(traceId)) {
+            return false;
+        }
+        TraceGroup group = groups.compute(traceId, (id, current) -> {
+            TraceGroup target = current != null ? current : new TraceGroup(id);
+            target.tasks.add(task);
+            long closeAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(holdMs);
+            // 新到的任务比已安排的结束时间更早到期时提前结束窗口，重复的定时结束由 close 去重
+            if (current == null || closeAt - target.closeAtNanos < 0) {
+                target.closeAtNanos = closeAt;
+                timer.schedule(() -> close(target), holdMs, TimeUnit.MILLISECONDS);
+            }
+            return target;
+        });
+        if (group.tasks.size() >= maxRecordsPerTrace || holdMs <= 0) {
+            close(group);
+        }
+        return true;
+    }
+
+    /**
+     * 任务最多缓冲的时长：窗口长度，带时间预算时不超过剩余时间减去预留的分析时间
+     */
+    private long holdMillis(Deadline deadline) {
+        if (!deadline.isBounded()) {
+            return windowMs;
+        }
+        return Math.max(0, Math.min(windowMs, deadline.remainingMillis() - analysisReserveMs));
+    }
+
+    /**
+     * 缓冲中的链路数
+     */
+    int pendingTraces() {
+        return groups.size();
+    }
+
+    void shutdown() {
+        if (timer != null) {
+            timer.shutdownNow();
+        }
+    }
+
+    private void close(TraceGroup group) {
+        // 定时结束与条数上限可能同时触发，只有成功移除的一方继续处理
+        if (!groups.remove(group.traceId, group)) {
+            return;
+        }
+        try {
+            onClose.accept(group);
+        } catch (Exception e) {
+            log.error("链路 {} 关联处理失败", group.traceId, e);
+            group.tasks.forEach(task -> task.result.completeExceptionally(e));
+        }
+    }
+
+    /**
+     * 选出链路中的源头异常：span 调用深度最大者（沿父 span 在本组内能追溯的层数），
+     * 深度相同（含都没有 span 信息）时取异常时间最早的，再相同取最先到达的
+     *
+     * @return 源头记录在列表中的下标
+     */
+    static int selectOrigin(List<LogRecord> records) {
+        Map<String, String> parents = new HashMap<>();
+        for (LogRecord record : records) {
+            if (record.getSpanId() != null && record.getParentSpanId() != null) {
+                parents.putIfAbsent(record.getSpanId(), record.getParentSpanId());
+            }
+        }
+        Comparator<Integer> deepestFirst = Comparator
+                .comparingInt((Integer i) -> -depth(records.get(i).getSpanId(), parents))
+                .thenComparingLong(i -> timestampOrder(records.get(i)))
+                .thenComparingInt(i -> i);
+        int origin = 0;
+        for (int i = 1; i < records.size(); i++) {
+            if (deepestFirst.compare(i, origin) < 0) {
+                origin = i;
+            }
+        }
+        return origin;
+    }
+
+    private static int depth(String spanId, Map<String, String> parents) {
+        if (spanId == null) {
+            return 0;
+        }
+        Set<String> visited = new HashSet<>();
+        int depth = 0;
+        String current = spanId;
+        while (visited.add(current) && parents.containsKey(current)) {
+            current = parents.get(current);
+            depth++;
+        }
+        return depth;
+    }
+
+    private static long timestampOrder(LogRecord record) {
+        return record.getTimestamp() == LogRecord.UNKNOWN_TIMESTAMP ? Long.MAX_VALUE : record.getTimestamp();
+    }
+}
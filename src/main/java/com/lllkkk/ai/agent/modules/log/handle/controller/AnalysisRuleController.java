@@ -0,0 +1,31 @@
+package com.lllkkk.ai.agent.modules.log.handle.controller;
+
+import com.lllkkk.ai.agent.modules.log.handle.domain.service.impl.RuleBasedAnalyzer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 本地分析规则的命中统计
+ */
+@RestController
+@RequestMapping("/api/log-analysis/rules")
+@RequiredArgsConstructor
+public class AnalysisRuleController {
+
+    private final RuleBasedAnalyzer ruleBasedAnalyzer;
+
+    @GetMapping
+    public ResponseEntity<?> stats() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("rules", ruleBasedAnalyzer.stats());
+        response.put("misses", ruleBasedAnalyzer.misses());
+        response.put("timestamp", System.currentTimeMillis());
+        return ResponseEntity.ok(response);
+    }
+}
@@ -0,0 +1,67 @@
+package com.lllkkk.ai.agent.modules.log.handle.controller;
+
+import com.lllkkk.ai.agent.modules.log.handle.application.LogProcessingPipeline;
+import com.lllkkk.ai.agent.modules.log.handle.application.PipelineResult;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.Deadline;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.LogRecord;
+import com.lllkkk.ai.agent.modules.log.handle.infrastructure.cluster.ShardRouter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 集群节点间接口
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/log-analysis")
+@RequiredArgsConstructor
+public class ClusterController {
+
+    private final LogProcessingPipeline pipeline;
+    private final ShardRouter router;
+
+    /**
+     * 分析其他节点转发来的记录，本节点是该指纹的负责节点，只做本地分析
+     *
+     * @param record   已解析的日志记录
+     * @param budgetMs 转发方剩余的时间预算（毫秒）
+     * @return 分析结果
+     */
+    @PostMapping("/internal/analyze")
+    public ResponseEntity<?> analyzeForwarded(@RequestBody LogRecord record,
+                                              @RequestHeader(value = LogAnalysisController.DEADLINE_HEADER, required = false) Long budgetMs) {
+        record.setReceivedFromPeer(true);
+        Deadline deadline = budgetMs != null ? Deadline.after(Duration.ofMillis(budgetMs)) : Deadline.none();
+        try {
+            PipelineResult result = pipeline.submitParsed(record, deadline).join();
+            return ResponseEntity.ok(result.analysis());
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RejectedExecutionException) {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+            }
+            log.error("分析转发记录失败", e.getCause());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * 查看本节点的分片配置，用于核对各节点的节点列表是否一致
+     */
+    @GetMapping("/cluster")
+    public ResponseEntity<?> cluster() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("enabled", router.isEnabled());
+        response.put("self", router.selfId());
+        response.put("peers", router.peers());
+        return ResponseEntity.ok(response);
+    }
+}
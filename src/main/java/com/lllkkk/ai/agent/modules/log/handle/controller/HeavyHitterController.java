@@ -0,0 +1,60 @@
+package com.lllkkk.ai.agent.modules.log.handle.controller;
+
+import com.lllkkk.ai.agent.modules.log.handle.domain.service.hotspot.HeavyHitter;
+import com.lllkkk.ai.agent.modules.log.handle.domain.service.hotspot.HeavyHitterTracker;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 当前时间窗口内的高频异常
+ */
+@RestController
+@RequestMapping("/api/log-analysis/top")
+@RequiredArgsConstructor
+public class HeavyHitterController {
+
+    /**
+     * 不指定项目时最多统计的条数
+     */
+    private static final int MAX_HITTERS = 1000;
+
+    private final HeavyHitterTracker tracker;
+
+    /**
+     * 按项目分组返回高频异常，项目按其最高次数降序排列
+     *
+     * @param project 只查看该项目
+     * @param limit   每个项目最多返回条数
+     */
+    @GetMapping
+    public ResponseEntity<?> top(@RequestParam(required = false) String project,
+                                 @RequestParam(defaultValue = "10") int limit) {
+        HeavyHitterTracker.Snapshot snapshot = tracker.snapshot(project, MAX_HITTERS);
+        Map<String, List<HeavyHitter>> projects = new LinkedHashMap<>();
+        for (HeavyHitter hitter : snapshot.hitters()) {
+            List<HeavyHitter> hitters = projects.computeIfAbsent(hitter.project(), k -> new ArrayList<>());
+            if (hitters.size() < limit) {
+                hitters.add(hitter);
+            }
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("windowStart", snapshot.windowStart());
+        response.put("windowMinutes", snapshot.windowMillis() / 60_000);
+        response.put("total", snapshot.total());
+        response.put("previousTotal", snapshot.previousTotal());
+        response.put("projects", projects);
+        response.put("timestamp", System.currentTimeMillis());
+        return ResponseEntity.ok(response);
+    }
+}
@@ -1,17 +1,33 @@
 package com.lllkkk.ai.agent.modules.log.handle.controller;
 
+import com.lllkkk.ai.agent.modules.log.handle.application.AdmissionGate;
+import com.lllkkk.ai.agent.modules.log.handle.application.LogProcessingPipeline;
+import com.lllkkk.ai.agent.modules.log.handle.application.PipelineResult;
 import com.lllkkk.ai.agent.modules.log.handle.domain.model.AnalysisResult;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.Deadline;
 import com.lllkkk.ai.agent.modules.log.handle.domain.model.LogRecord;
-import com.lllkkk.ai.agent.modules.log.handle.domain.service.AIAnalyzer;
-import com.lllkkk.ai.agent.modules.log.handle.domain.service.LogFilter;
-import com.lllkkk.ai.agent.modules.log.handle.domain.service.LogParser;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.LivenessState;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * 日志分析控制器
@@ -23,54 +39,69 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class LogAnalysisController {
 
-    private final LogParser logParser;
-    private final LogFilter logFilter;
-    private final AIAnalyzer aiAnalyzer;
+    /**
+     * 调用方指定时间预算（毫秒）的请求头
+     */
+    public static final String DEADLINE_HEADER = "X-Deadline-Ms";
+
+    private final LogProcessingPipeline pipeline;
+    private final AdmissionGate admissionGate;
+    private final ApplicationAvailability availability;
+
+    /**
+     * 调用方未通过请求头指定时使用的时间预算（毫秒），小于等于 0 表示不限
+     */
+    @Value("${analysis.deadline.default-ms:30000}")
+    private long defaultBudgetMs = 30000;
+
+    /**
+     * 到期后继续等待流水线自身降级结果的宽限时间（毫秒），超出后直接返回降级结果
+     */
+    @Value("${analysis.deadline.response-grace-ms:200}")
+    private long responseGraceMs = 200;
+
+    @Value("${pipeline.max-batch-size:100}")
+    private int maxBatchSize = 100;
 
     /**
      * 分析日志字符串
      *
      * @param logContent 日志内容字符串
+     * @param budgetMs   本次请求的时间预算（毫秒），超出后返回降级结果
      * @return 分析结果
      */
     @PostMapping("/analyze")
-    public ResponseEntity<?> analyzeLog(@RequestBody String logContent) {
+    public ResponseEntity<?> analyzeLog(@RequestBody String logContent,
+                                        @RequestHeader(value = DEADLINE_HEADER, required = false) Long budgetMs) {
         log.info("接收到日志分析请求，内容长度: {}", logContent.length());
+        Deadline deadline = resolveDeadline(budgetMs);
 
-        try {
-            // 1. 解析日志
-            LogRecord parsedRecord = logParser.parse(logContent);
-            if (parsedRecord == null) {
+        try (AdmissionGate.Permit permit = admissionGate.tryAcquire(logContent)) {
+            if (!permit.admitted()) {
+                return shed(logContent, permit);
+            }
+            PipelineResult result = await(pipeline.submit(logContent, deadline), deadline);
+            if (!result.parsed()) {
                 return ResponseEntity.badRequest().body(createErrorResponse("无法解析日志内容，请检查日志格式"));
             }
+            log.info("日志分析完成: {}", result.analysis() != null ? result.analysis().getSummary() : "无分析结果");
+            return ResponseEntity.ok(createSuccessResponse(result));
 
-            log.info("日志解析成功: {} - {}", parsedRecord.getExceptionClass(), parsedRecord.getExceptionMessage());
-
-            // 2. 过滤日志（提取业务相关信息）
-            LogRecord filteredRecord = logFilter.filter(parsedRecord);
-
-            // 3. AI分析
-            AnalysisResult analysisResult = aiAnalyzer.analyze(filteredRecord);
-
-            if (analysisResult == null){
-                return null;
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof TimeoutException) {
+                log.warn("⚠️ 流水线未能在时间预算内返回，返回降级结果: {}", deadline);
+                return ResponseEntity.ok(createDeadlineExceededResponse());
             }
-
-            // 4. 构建响应
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", true);
-            response.put("data", analysisResult);
-            response.put("logInfo", Map.of(
-                "exceptionClass", parsedRecord.getExceptionClass(),
-                "exceptionMessage", parsedRecord.getExceptionMessage(),
-                "timestamp", parsedRecord.getTimestamp(),
-                "level", parsedRecord.getLevel()
-            ));
-
-            log.info("日志分析完成: {}", analysisResult.getSummary());
-            return ResponseEntity.ok(response);
-
-        } catch (Exception e) {
+            if (e.getCause() instanceof RejectedExecutionException) {
+                log.warn("⚠️ {}", e.getCause().getMessage());
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .body(createErrorResponse("服务繁忙，请稍后重试"));
+            }
+            log.error("日志分析过程发生错误", e.getCause());
+            return ResponseEntity.internalServerError()
+                .body(createErrorResponse("分析过程发生错误: " + e.getCause().getMessage()));
+        } catch (RuntimeException e) {
+            // 请求线程上同步抛出的异常（如被拒绝时查找历史结果的解析、等待被取消）同样返回统一的错误格式
             log.error("日志分析过程发生错误", e);
             return ResponseEntity.internalServerError()
                 .body(createErrorResponse("分析过程发生错误: " + e.getMessage()));
@@ -78,19 +109,164 @@ public class LogAnalysisController {
     }
 
     /**
-     * 简单的健康检查接口
+     * 批量分析日志，各条日志在流水线中并发处理，共享同一个时间预算
+     *
+     * @param logContents 日志内容列表
+     * @param budgetMs    本次请求的时间预算（毫秒）
+     * @return 与输入顺序一致的分析结果列表
+     */
+    @PostMapping("/analyze/batch")
+    public ResponseEntity<?> analyzeBatch(@RequestBody List<String> logContents,
+                                          @RequestHeader(value = DEADLINE_HEADER, required = false) Long budgetMs) {
+        if (logContents.size() > maxBatchSize) {
+            return ResponseEntity.badRequest().body(createErrorResponse("单次最多分析 " + maxBatchSize + " 条日志"));
+        }
+        log.info("接收到批量日志分析请求，条数: {}", logContents.size());
+        Deadline deadline = resolveDeadline(budgetMs);
+
+        List<CompletableFuture<PipelineResult>> futures = logContents.stream()
+                .map(logContent -> submitQuietly(logContent, deadline))
+                .toList();
+        List<Map<String, Object>> results = new ArrayList<>(futures.size());
+        for (CompletableFuture<PipelineResult> future : futures) {
+            try {
+                PipelineResult result = await(future, deadline);
+                results.add(result.parsed()
+                        ? createSuccessResponse(result)
+                        : createErrorResponse("无法解析日志内容，请检查日志格式"));
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof TimeoutException) {
+                    results.add(createDeadlineExceededResponse());
+                    continue;
+                }
+                results.add(createErrorResponse(e.getCause() instanceof RejectedExecutionException
+                        ? "服务繁忙，请稍后重试"
+                        : "分析过程发生错误: " + e.getCause().getMessage()));
+            } catch (RuntimeException e) {
+                log.error("批量分析中单条日志发生错误", e);
+                results.add(createErrorResponse("分析过程发生错误: " + e.getMessage()));
+            }
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("results", results);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * 健康检查接口，status 反映存活状态，readiness 反映是否已完成预热、可以接收流量
      *
      * @return 服务状态
      */
-    @GetMapping("/health")
+    @RequestMapping(value = "/health", method = {RequestMethod.GET, RequestMethod.POST})
     public ResponseEntity<?> health() {
+        LivenessState liveness = availability.getLivenessState();
+        ReadinessState readiness = availability.getReadinessState();
         Map<String, Object> response = new HashMap<>();
-        response.put("status", "UP");
+        response.put("status", liveness == LivenessState.CORRECT ? "UP" : "DOWN");
+        response.put("liveness", liveness);
+        response.put("readiness", readiness);
+        response.put("admission", admissionGate.stats());
         response.put("service", "Log Analysis Service");
         response.put("timestamp", System.currentTimeMillis());
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * 存活检查，供编排系统判断是否需要重启实例
+     */
+    @GetMapping("/health/liveness")
+    public ResponseEntity<?> liveness() {
+        LivenessState state = availability.getLivenessState();
+        return ResponseEntity.status(state == LivenessState.CORRECT ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE)
+                .body(Map.of("liveness", state));
+    }
+
+    /**
+     * 就绪检查，预热完成前返回 503，负载均衡据此决定是否导入流量
+     */
+    @GetMapping("/health/readiness")
+    public ResponseEntity<?> readiness() {
+        ReadinessState state = availability.getReadinessState();
+        return ResponseEntity.status(state == ReadinessState.ACCEPTING_TRAFFIC ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE)
+                .body(Map.of("readiness", state));
+    }
+
+    /**
+     * 被准入控制拒绝：近期分析过相同异常时返回历史结果，否则返回 503 和 Retry-After
+     */
+    private ResponseEntity<?> shed(String logContent, AdmissionGate.Permit permit) {
+        Optional<AdmissionGate.CachedResult> cached = admissionGate.recentResult(logContent);
+        if (cached.isPresent()) {
+            Map<String, Object> response = createSuccessResponse(
+                    new PipelineResult(cached.get().record(), cached.get().analysis()));
+            response.put("servedFromCache", true);
+            return ResponseEntity.ok(response);
+        }
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, Integer.toString(permit.retryAfterSeconds()))
+                .body(createErrorResponse("服务繁忙，请稍后重试"));
+    }
+
+    /**
+     * 等待流水线结果，最多等到截止时间后再加宽限时间；超时以 TimeoutException 结束。
+     * 流水线自身会在到期时返回带解析信息的降级结果，这里兜住排队、下游不响应等流水线迟迟不返回的情况。
+     * 在副本上设置超时，不影响流水线内部和其他调用方持有的 future
+     */
+    private PipelineResult await(CompletableFuture<PipelineResult> future, Deadline deadline) {
+        if (!deadline.isBounded()) {
+            return future.join();
+        }
+        return future.copy()
+                .orTimeout(deadline.remainingMillis() + responseGraceMs, TimeUnit.MILLISECONDS)
+                .join();
+    }
+
+    /**
+     * 提交时同步抛出的异常转为失败的 future，批量请求中单条出错不影响其他条目
+     */
+    private CompletableFuture<PipelineResult> submitQuietly(String logContent, Deadline deadline) {
+        try {
+            return pipeline.submit(logContent, deadline);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private Deadline resolveDeadline(Long budgetMs) {
+        long budget = budgetMs != null ? budgetMs : defaultBudgetMs;
+        if (budgetMs == null && budget <= 0) {
+            return Deadline.none();
+        }
+        return Deadline.after(Duration.ofMillis(budget));
+    }
+
+    private Map<String, Object> createSuccessResponse(PipelineResult result) {
+        LogRecord record = result.record();
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", result.analysis());
+        // 时间戳等字段可能缺失，Map.of 不接受 null
+        Map<String, Object> logInfo = new HashMap<>();
+        logInfo.put("exceptionClass", record.getExceptionClass());
+        logInfo.put("exceptionMessage", record.getExceptionMessage());
+        logInfo.put("timestamp", record.getTimestampText());
+        logInfo.put("level", record.getLevel());
+        logInfo.put("recordId", record.getRecordId());
+        logInfo.put("traceId", record.getTraceId());
+        response.put("logInfo", logInfo);
+        return response;
+    }
+
+    private Map<String, Object> createDeadlineExceededResponse() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", AnalysisResult.deadlineExceeded());
+        response.put("timestamp", System.currentTimeMillis());
+        return response;
+    }
+
     /**
      * 创建错误响应
      */
@@ -0,0 +1,97 @@
+package com.lllkkk.ai.agent.modules.log.handle.controller;
+
+import com.lllkkk.ai.agent.modules.log.handle.application.LogProcessingPipeline;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.Deadline;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.LogRecord;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.StackFrame;
+import com.lllkkk.ai.agent.modules.log.handle.domain.service.BusinessPackageMatcher;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 结构化记录接入接口
+ * 接收客户端 Appender 直接由 Throwable 转换来的记录，跳过文本解析从 filter 阶段进入流水线，
+ * 受理后立即返回，分析结果交给各 PipelineSink
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/log-analysis")
+@RequiredArgsConstructor
+public class RecordIngestController {
+
+    private final LogProcessingPipeline pipeline;
+    private final BusinessPackageMatcher businessPackageMatcher;
+
+    @Value("${pipeline.max-batch-size:100}")
+    private int maxBatchSize = 100;
+
+    /**
+     * 批量接收结构化异常记录
+     *
+     * @param records 记录列表
+     * @return 受理数与因流水线繁忙被拒绝的条数
+     */
+    @PostMapping("/records")
+    public ResponseEntity<?> ingest(@RequestBody List<LogRecord> records) {
+        if (records.size() > maxBatchSize) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("success", false);
+            error.put("error", "单次最多接收 " + maxBatchSize + " 条记录");
+            return ResponseEntity.badRequest().body(error);
+        }
+
+        int accepted = 0;
+        for (LogRecord record : records) {
+            markBusinessFrames(record);
+            if (!pipeline.submitParsed(record, Deadline.none()).isCompletedExceptionally()) {
+                accepted++;
+            }
+        }
+        int rejected = records.size() - accepted;
+        if (rejected > 0) {
+            log.warn("⚠️ 流水线繁忙，拒绝 {} 条上报记录", rejected);
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("accepted", accepted);
+        response.put("rejected", rejected);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+    }
+
+    /**
+     * 客户端不知道服务端的业务包配置，业务帧标记在这里补齐；
+     * 与二进制帧解码一致，缺失的类名、方法名补为空串，空的堆栈帧直接丢弃，后续阶段不必再判空
+     */
+    private void markBusinessFrames(LogRecord record) {
+        if (record.getProjectName() == null) {
+            record.setProjectName("");
+        }
+        if (record.getStackFrames() == null) {
+            return;
+        }
+        List<StackFrame> frames = new ArrayList<>(record.getStackFrames());
+        frames.removeIf(Objects::isNull);
+        record.setStackFrames(frames);
+        for (StackFrame frame : frames) {
+            frame.setClassName(nullToEmpty(frame.getClassName()));
+            frame.setMethodName(nullToEmpty(frame.getMethodName()));
+            frame.setFullyQualifiedName(frame.getClassName());
+            frame.setBusinessFlag(businessPackageMatcher.isBusinessClass(record.getProjectName(), frame.getClassName()));
+        }
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+}
@@ -0,0 +1,82 @@
+package com.lllkkk.ai.agent.modules.log.handle.controller;
+
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.LogRecord;
+import com.lllkkk.ai.agent.modules.log.handle.domain.service.search.AnalysisSearchIndex;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 历史分析检索：按关键词查找以前分析过的相似异常
+ */
+@RestController
+@RequestMapping("/api/log-analysis/search")
+@RequiredArgsConstructor
+public class SearchController {
+
+    /**
+     * 单次最多返回的条数
+     */
+    private static final int MAX_LIMIT = 100;
+
+    private final AnalysisSearchIndex index;
+
+    /**
+     * 按 BM25 相关度返回历史分析，未指定关键词时按时间倒序返回
+     *
+     * @param q       关键词（异常类、消息、业务类和方法、根因等）
+     * @param project 只检索该项目
+     * @param from    异常时间下限，epoch 毫秒或 yyyy-MM-dd HH:mm:ss
+     * @param to      异常时间上限，epoch 毫秒或 yyyy-MM-dd HH:mm:ss
+     * @param limit   最多返回条数
+     */
+    @GetMapping
+    public ResponseEntity<?> search(@RequestParam(required = false) String q,
+                                    @RequestParam(required = false) String project,
+                                    @RequestParam(required = false) String from,
+                                    @RequestParam(required = false) String to,
+                                    @RequestParam(defaultValue = "20") int limit) {
+        long fromMillis = parseTime(from, Long.MIN_VALUE);
+        long toMillis = parseTime(to, Long.MAX_VALUE);
+        if (fromMillis == LogRecord.UNKNOWN_TIMESTAMP || toMillis == LogRecord.UNKNOWN_TIMESTAMP) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("success", false);
+            error.put("error", "时间格式错误，应为 epoch 毫秒或 yyyy-MM-dd HH:mm:ss");
+            return ResponseEntity.badRequest().body(error);
+        }
+
+        long start = System.nanoTime();
+        AnalysisSearchIndex.Result result = index.search(q, project, fromMillis, toMillis,
+                Math.max(1, Math.min(limit, MAX_LIMIT)));
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("total", result.total());
+        response.put("totalExact", result.totalExact());
+        response.put("hits", result.hits());
+        response.put("tookMs", (System.nanoTime() - start) / 1_000_000.0);
+        response.put("timestamp", System.currentTimeMillis());
+        return ResponseEntity.ok(response);
+    }
+
+    private static long parseTime(String text, long unbounded) {
+        if (text == null || text.isBlank()) {
+            return unbounded;
+        }
+        String value = text.trim();
+        if (value.chars().allMatch(Character::isDigit)) {
+            try {
+                return Long.parseLong(value);
+            } catch (NumberFormatException e) {
+                return LogRecord.UNKNOWN_TIMESTAMP;
+            }
+        }
+        return LogRecord.parseTimestamp(value);
+    }
+}
@@ -1,12 +1,15 @@
 package com.lllkkk.ai.agent.modules.log.handle.domain.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
+
 @Data
-@Builder
+@Builder(toBuilder = true)
 @AllArgsConstructor
 @NoArgsConstructor
 public class AnalysisResult {
@@ -14,4 +17,75 @@ public class AnalysisResult {
     public String summary;
     public String fixSuggestion;
     public String relatedLocation;
+    /**
+     * 复用历史分析时与历史异常的相似度（SimHash 相似度，1.0 表示签名完全一致），非复用结果为空
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public Double matchScore;
+    /**
+     * 由本地规则给出结论时的规则 ID，经大模型分析的结果为空
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public String ruleId;
+    /**
+     * 按复杂度路由时命中的模型档位，未经大模型或未启用路由时为空
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public String modelTier;
+    /**
+     * 集群部署时实际完成分析的节点，本节点分析的结果为空
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public String analyzedBy;
+    /**
+     * 按分布式链路关联分析时的链路 ID，未关联时为空
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public String traceId;
+    /**
+     * 链路中实际被分析的源头异常记录 ID，未关联时为空
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public String originRecordId;
+    /**
+     * 同一链路中共享本结论的其他记录 ID，未关联时为空
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public List<String> correlatedRecordIds;
+    /**
+     * 是否为降级结果（AI 不可用或响应无法解析时的兜底分析）
+     */
+    public boolean degraded;
+    /**
+     * 降级原因，非降级结果为空
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public DegradeReason degradedReason;
+
+    /**
+     * 流水线未能在截止时间前返回、连解析结果也没有时的降级结果
+     */
+    public static AnalysisResult deadlineExceeded() {
+        return AnalysisResult.builder()
+                .rootCause("分析未能在时间预算内完成")
+                .summary("分析超时，未能给出诊断")
+                .fixSuggestion("请稍后重试，或通过 X-Deadline-Ms 请求头放宽时间预算")
+                .degraded(true)
+                .degradedReason(DegradeReason.DEADLINE_EXCEEDED)
+                .build();
+    }
+
+    /**
+     * 不经大模型、仅根据解析出的异常信息给出的降级结果
+     */
+    public static AnalysisResult degraded(LogRecord record, DegradeReason reason) {
+        return AnalysisResult.builder()
+                .rootCause("异常类型: " + record.getExceptionClass() + " - " + record.getExceptionMessage())
+                .summary("发生" + record.getExceptionClass() + "异常，需要检查相关代码逻辑")
+                .fixSuggestion("建议检查异常堆栈中指向的业务代码，确认是否有空指针、数组越界、类型转换等常见问题")
+                .relatedLocation(record.getTopFrameLocation())
+                .degraded(true)
+                .degradedReason(reason)
+                .build();
+    }
 }
@@ -0,0 +1,29 @@
+package com.lllkkk.ai.agent.modules.log.handle.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CodeSnippet {
+    public String filePath;
+    /**
+     * 所在方法名，目标行不在方法内时为空
+     */
+    public String methodName;
+    /**
+     * 片段首行在源文件中的行号（从 1 开始）
+     */
+    public int startLine;
+    /**
+     * 异常发生的行号
+     */
+    public int targetLine;
+    public List<String> lines;
+}
@@ -0,0 +1,77 @@
+package com.lllkkk.ai.agent.modules.log.handle.domain.model;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 压缩保存的文本
+ * 以 Deflate 压缩后的 UTF-8 字节驻留内存，只有调用 {@link #decode()} 时才解压，且不缓存解压结果
+ */
+public final class CompressedText {
+
+    private final byte[] compressed;
+    private final int originalLength;
+
+    private CompressedText(byte[] compressed, int originalLength) {
+        this.compressed = compressed;
+        this.originalLength = originalLength;
+    }
+
+    public static CompressedText of(String text) {
+        if (text == null) {
+            return null;
+        }
+        byte[] input = text.getBytes(StandardCharsets.UTF_8);
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(input);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, input.length / 4));
+            byte[] buffer = new byte[1024];
+            while (!deflater.finished()) {
+                int n = deflater.deflate(buffer);
+                out.write(buffer, 0, n);
+            }
+            return new CompressedText(out.toByteArray(), input.length);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * 解压出原始文本，每次调用都会重新解压
+     */
+    public String decode() {
+        byte[] output = new byte[originalLength];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            int offset = 0;
+            while (offset < originalLength && !inflater.finished()) {
+                offset += inflater.inflate(output, offset, originalLength - offset);
+            }
+            return new String(output, 0, offset, StandardCharsets.UTF_8);
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("压缩文本已损坏", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    public int compressedSize() {
+        return compressed.length;
+    }
+
+    public int originalSize() {
+        return originalLength;
+    }
+
+    @Override
+    public String toString() {
+        // 避免日志打印 LogRecord 时顺带解压整段原文
+        return "CompressedText(" + originalLength + " -> " + compressed.length + " bytes)";
+    }
+}
@@ -0,0 +1,58 @@
+package com.lllkkk.ai.agent.modules.log.handle.domain.model;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 请求的截止时间
+ * 在入口处按时间预算创建，随请求传给各处理阶段；各阶段据此决定是否继续以及等待多久
+ */
+public final class Deadline {
+
+    private static final Deadline NONE = new Deadline(Long.MAX_VALUE, false);
+
+    private final long deadlineNanos;
+    private final boolean bounded;
+
+    private Deadline(long deadlineNanos, boolean bounded) {
+        this.deadlineNanos = deadlineNanos;
+        this.bounded = bounded;
+    }
+
+    /**
+     * 从现在起经过指定预算后到期
+     */
+    public static Deadline after(Duration budget) {
+        return new Deadline(System.nanoTime() + Math.max(0, budget.toNanos()), true);
+    }
+
+    /**
+     * 没有截止时间
+     */
+    public static Deadline none() {
+        return NONE;
+    }
+
+    public boolean isBounded() {
+        return bounded;
+    }
+
+    public boolean isExpired() {
+        return bounded && System.nanoTime() - deadlineNanos >= 0;
+    }
+
+    /**
+     * 剩余时间（毫秒），已到期时为 0，没有截止时间时为 Long.MAX_VALUE
+     */
+    public long remainingMillis() {
+        if (!bounded) {
+            return Long.MAX_VALUE;
+        }
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime()));
+    }
+
+    @Override
+    public String toString() {
+        return bounded ? "Deadline[剩余 " + remainingMillis() + " ms]" : "Deadline[无]";
+    }
+}
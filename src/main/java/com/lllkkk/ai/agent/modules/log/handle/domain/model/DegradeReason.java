@@ -0,0 +1,19 @@
+package com.lllkkk.ai.agent.modules.log.handle.domain.model;
+
+/**
+ * 分析结果降级原因
+ */
+public enum DegradeReason {
+    /**
+     * 请求的时间预算已用完
+     */
+    DEADLINE_EXCEEDED,
+    /**
+     * 大模型调用失败
+     */
+    UPSTREAM_FAILURE,
+    /**
+     * 大模型响应无法解析
+     */
+    UNPARSEABLE_RESPONSE
+}
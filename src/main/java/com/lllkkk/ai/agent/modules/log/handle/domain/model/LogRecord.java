@@ -1,22 +1,144 @@
 package com.lllkkk.ai.agent.modules.log.handle.domain.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
 
 @Data
 @Builder
 @AllArgsConstructor
 @NoArgsConstructor
 public class LogRecord {
+
+    /**
+     * 未知时间戳
+     */
+    public static final long UNKNOWN_TIMESTAMP = -1L;
+
+    private static final DateTimeFormatter TIMESTAMP_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    /**
+     * 记录 ID，进入流水线时分配，用于在关联的分析结果之间互相引用
+     */
+    public String recordId;
     public String projectName;
-    public String timestamp;
+    /**
+     * 产生异常的代码版本（提交 SHA、标签或分支），来自日志中的“代码版本”字段，未提供时为空
+     */
+    public String version;
+    /**
+     * 异常时间（epoch 毫秒），未解析到时为 {@link #UNKNOWN_TIMESTAMP}
+     */
+    @Builder.Default
+    public long timestamp = UNKNOWN_TIMESTAMP;
     public String level;
     public String exceptionClass;
     public String exceptionMessage;
     public List<StackFrame> stackFrames;
-    public String rawLog;
+    /**
+     * 异常原因链（由外到内），每项为 "异常类: 消息"，无原因时为空
+     */
+    public List<String> causes;
+    /**
+     * 分布式链路 ID（来自 MDC 字段或日志中的 traceId、X-B3-TraceId、traceparent 等），未提供时为空
+     */
+    public String traceId;
+    /**
+     * 产生本条异常的 span ID，未提供时为空
+     */
+    public String spanId;
+    /**
+     * 父 span ID（调用方的 span），用于在同一链路中判断调用深度，未提供时为空
+     */
+    public String parentSpanId;
+    /**
+     * 原始日志，按 {@link RawLogRetention} 压缩保留或为空
+     */
+    @JsonIgnore
+    public CompressedText rawLog;
+
+    /**
+     * 流水线 enrich 阶段补充的源码片段，与前几个堆栈帧一一对应，未补充时为空
+     */
+    @JsonIgnore
+    public List<CodeSnippet> codeSnippets;
+
+    /**
+     * 异常之前同一日志源的若干行（按时间顺序），文件跟踪接入时附加，其他来源为空；
+     * 转发到负责节点时随记录一起发送，对方据此生成同样的提示词
+     */
+    public List<String> contextLines;
+
+    /**
+     * 由集群中其他节点转发而来，本节点只做本地分析，不再转发
+     */
+    @JsonIgnore
+    public boolean receivedFromPeer;
+
+    /**
+     * 格式化后的时间戳文本（yyyy-MM-dd HH:mm:ss），未知时返回 null
+     */
+    @JsonIgnore
+    public String getTimestampText() {
+        if (timestamp == UNKNOWN_TIMESTAMP) {
+            return null;
+        }
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(timestamp), ZoneId.systemDefault())
+                .format(TIMESTAMP_FORMATTER);
+    }
+
+    /**
+     * 解压后的原始日志，未保留时返回 null
+     */
+    @JsonIgnore
+    public String getRawLogText() {
+        return rawLog == null ? null : rawLog.decode();
+    }
+
+    /**
+     * 顶部堆栈帧位置（类.方法:行号），无堆栈时返回“未知位置”
+     */
+    @JsonIgnore
+    public String getTopFrameLocation() {
+        if (stackFrames == null || stackFrames.isEmpty()) {
+            return "未知位置";
+        }
+        StackFrame frame = stackFrames.get(0);
+        return String.format("%s.%s:%d", frame.getClassName(), frame.getMethodName(), frame.getLineNumber());
+    }
+
+    /**
+     * 生成新的记录 ID（16 位十六进制）
+     */
+    public static String newRecordId() {
+        return HexFormat.of().toHexDigits(ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * 把 yyyy-MM-dd HH:mm:ss 格式的时间解析为 epoch 毫秒
+     */
+    public static long parseTimestamp(String text) {
+        if (text == null || text.isBlank()) {
+            return UNKNOWN_TIMESTAMP;
+        }
+        try {
+            return LocalDateTime.parse(text.trim(), TIMESTAMP_FORMATTER)
+                    .atZone(ZoneId.systemDefault())
+                    .toInstant()
+                    .toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return UNKNOWN_TIMESTAMP;
+        }
+    }
 }
@@ -0,0 +1,15 @@
+package com.lllkkk.ai.agent.modules.log.handle.domain.model;
+
+/**
+ * 原始日志保留策略
+ */
+public enum RawLogRetention {
+    /**
+     * 不保留原始日志（下游均只读取结构化字段）
+     */
+    NONE,
+    /**
+     * 压缩保留，按需解压
+     */
+    COMPRESSED
+}
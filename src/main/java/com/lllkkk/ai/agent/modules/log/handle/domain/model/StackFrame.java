@@ -16,4 +16,24 @@ public class StackFrame {
     public String methodName;
     public int lineNumber;
     public boolean businessFlag;
+    /**
+     * 本条为折叠摘要时，表示被折叠的连续框架帧数；此时 className 为摘要文本
+     */
+    public int collapsedFrames;
+    /**
+     * 连续重复（递归）的次数，大于 1 时提示词中标记为 ×N
+     */
+    public int repeatCount;
+
+    public StackFrame(String fullyQualifiedName, String className, String methodName, int lineNumber,
+                      boolean businessFlag) {
+        this(fullyQualifiedName, className, methodName, lineNumber, businessFlag, 0, 0);
+    }
+
+    /**
+     * 是否为折叠后的摘要条目（不对应真实代码位置）
+     */
+    public boolean isCollapsed() {
+        return collapsedFrames > 0;
+    }
 }
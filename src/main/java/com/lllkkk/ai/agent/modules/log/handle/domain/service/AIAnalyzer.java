@@ -1,8 +1,25 @@
 package com.lllkkk.ai.agent.modules.log.handle.domain.service;
 
 import com.lllkkk.ai.agent.modules.log.handle.domain.model.AnalysisResult;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.Deadline;
 import com.lllkkk.ai.agent.modules.log.handle.domain.model.LogRecord;
 
+import java.util.List;
+
 public interface AIAnalyzer {
     AnalysisResult analyze(LogRecord record);
+
+    /**
+     * 在截止时间内分析，预算用完时返回降级结果；默认实现不感知截止时间
+     */
+    default AnalysisResult analyze(LogRecord record, Deadline deadline) {
+        return analyze(record);
+    }
+
+    /**
+     * 一次分析多条记录（定时摘要），返回结果与 records 一一对应；默认逐条分析
+     */
+    default List<AnalysisResult> analyzeAll(List<LogRecord> records, Deadline deadline) {
+        return records.stream().map(record -> analyze(record, deadline)).toList();
+    }
 }
@@ -0,0 +1,32 @@
+package com.lllkkk.ai.agent.modules.log.handle.domain.service;
+
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.AnalysisResult;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.Deadline;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.LogRecord;
+
+import java.util.Optional;
+
+/**
+ * 分析链中的一环，位于大模型分析之前
+ */
+public interface AnalyzerLink {
+    /**
+     * 尝试直接给出分析结果
+     * @param record 过滤后的日志记录
+     * @return 分析结果，为空时交给下一环
+     */
+    Optional<AnalysisResult> tryAnalyze(LogRecord record);
+
+    /**
+     * 带时间预算的尝试，需要远程调用的环节据此限制等待时间
+     */
+    default Optional<AnalysisResult> tryAnalyze(LogRecord record, Deadline deadline) {
+        return tryAnalyze(record);
+    }
+
+    /**
+     * 记录由后续环节（最终为大模型）分析完成后回调
+     */
+    default void onAnalyzed(LogRecord record, AnalysisResult result) {
+    }
+}
@@ -0,0 +1,11 @@
+package com.lllkkk.ai.agent.modules.log.handle.domain.service;
+
+public interface BusinessPackageMatcher {
+    /**
+     * 判断类是否属于项目的业务包
+     * @param projectName 异常项目名，为空或未配置时使用默认业务包
+     * @param className 全限定类名
+     * @return 是否业务代码
+     */
+    boolean isBusinessClass(String projectName, String className);
+}
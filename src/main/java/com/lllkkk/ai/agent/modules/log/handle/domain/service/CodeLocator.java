@@ -1,9 +1,11 @@
 package com.lllkkk.ai.agent.modules.log.handle.domain.service;
 
-import com.lllkkk.ai.agent.modules.log.handle.domain.model.LogRecord;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.CodeSnippet;
 import com.lllkkk.ai.agent.modules.log.handle.domain.model.StackFrame;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 public interface CodeLocator {
     /**
@@ -15,4 +17,27 @@ public interface CodeLocator {
     List<String> fetchSnippet(StackFrame frame, int contextLines);
 
     List<String> fetchSnippet(String projectName, StackFrame frame);
+
+    /**
+     * 定位堆栈帧所在方法的源码
+     * @param projectName 异常项目名
+     * @param frame 堆栈信息
+     * @return 包含异常行的方法体（过长时截取），带起始行号
+     */
+    Optional<CodeSnippet> locate(String projectName, StackFrame frame);
+
+    /**
+     * 按产生异常的代码版本定位源码，使行号与出错时的代码一致
+     * @param version 提交 SHA、标签或分支，为空时由实现决定（如使用部署映射），默认忽略版本
+     */
+    default Optional<CodeSnippet> locate(String projectName, String version, StackFrame frame) {
+        return locate(projectName, frame);
+    }
+
+    /**
+     * 启动预热：预先加载各项目的定位数据（如方法边界索引），加载完成时 future 完成
+     */
+    default CompletableFuture<Void> warmUp() {
+        return CompletableFuture.completedFuture(null);
+    }
 }
@@ -0,0 +1,10 @@
+package com.lllkkk.ai.agent.modules.log.handle.domain.service;
+
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.LogRecord;
+
+/**
+ * 流式观察每条过滤后的日志记录（不论是否进入大模型分析），在流水线 filter 阶段同步调用，须快速返回
+ */
+public interface RecordObserver {
+    void observe(LogRecord record);
+}
@@ -0,0 +1,71 @@
+package com.lllkkk.ai.agent.modules.log.handle.domain.service.hotspot;
+
+import java.util.Arrays;
+
+/**
+ * Count-Min Sketch
+ * depth 行 × width 列计数器，每行用一个由双哈希派生的独立哈希定位；估计值取各行最小值，
+ * 只会高估不会低估，误差上界约为 总数 × e / width（概率 1 - e^-depth）。内存固定，与写入量无关。
+ * 非线程安全，由调用方加锁
+ */
+public class CountMinSketch {
+
+    private final int depth;
+    private final int width;
+    private final long[][] counters;
+    private long total;
+
+    public CountMinSketch(int depth, int width) {
+        if (depth <= 0 || width <= 0) {
+            throw new IllegalArgumentException("depth 与 width 必须为正数");
+        }
+        this.depth = depth;
+        this.width = width;
+        this.counters = new long[depth][width];
+    }
+
+    /**
+     * 计数加一
+     *
+     * @param hash 键的 64 位哈希
+     * @return 加一之后的估计值
+     */
+    public long add(long hash) {
+        total++;
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            long value = ++counters[row][index(hash, row)];
+            estimate = Math.min(estimate, value);
+        }
+        return estimate;
+    }
+
+    public long estimate(long hash) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters[row][index(hash, row)]);
+        }
+        return estimate;
+    }
+
+    /**
+     * 写入总次数
+     */
+    public long total() {
+        return total;
+    }
+
+    public void clear() {
+        for (long[] row : counters) {
+            Arrays.fill(row, 0L);
+        }
+        total = 0;
+    }
+
+    private int index(long hash, int row) {
+        // Kirsch-Mitzenmacher：h1 + row × h2
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        return Math.floorMod(h1 + row * h2, width);
+    }
+}
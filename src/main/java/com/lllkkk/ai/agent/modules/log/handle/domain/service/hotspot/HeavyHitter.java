@@ -0,0 +1,27 @@
+package com.lllkkk.ai.agent.modules.log.handle.domain.service.hotspot;
+
+/**
+ * 当前窗口内的一个高频异常
+ *
+ * @param project        异常项目
+ * @param fingerprint    异常指纹（异常类 + 规范化堆栈）
+ * @param exceptionClass 异常类
+ * @param sampleMessage  最近一条的异常消息（截断）
+ * @param count          当前窗口内的近似次数（只会高估）
+ * @param previousCount  上一窗口内的近似次数
+ * @param trend          按已过去的窗口比例折算后与上一窗口对比的趋势
+ * @param lastSeen       最近一次出现的时间（epoch 毫秒）
+ */
+public record HeavyHitter(String project, String fingerprint, String exceptionClass, String sampleMessage,
+                          long count, long previousCount, Trend trend, long lastSeen) {
+
+    public enum Trend {
+        /**
+         * 上一窗口未出现
+         */
+        NEW,
+        RISING,
+        STEADY,
+        FALLING
+    }
+}
@@ -0,0 +1,270 @@
+package com.lllkkk.ai.agent.modules.log.handle.domain.service.hotspot;
+
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.LogRecord;
+import com.lllkkk.ai.agent.modules.log.handle.domain.service.RecordObserver;
+import com.lllkkk.ai.agent.modules.log.handle.domain.service.similarity.ExceptionSignature;
+import com.lllkkk.ai.agent.modules.log.handle.infrastructure.config.HeavyHitterConfig;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * 高频异常统计
+ * 每条过滤后的记录按 "项目|指纹" 计入当前窗口的 Count-Min Sketch（所有项目共用），每个项目各自维护一个
+ * 按近似次数排序的 top-K 最小堆，某个项目的大量异常不会把其他项目挤出统计；项目数有上限，超出时淘汰峰值最低的项目。
+ * 窗口到期时当前窗口转为上一窗口，用于计算趋势。只保留两个窗口，内存与写入量无关
+ */
+@Component
+public class HeavyHitterTracker implements RecordObserver {
+
+    static final String UNKNOWN_PROJECT = "unknown";
+
+    private static final int MAX_SAMPLE_LENGTH = 200;
+    /**
+     * 当前窗口过去不足该比例时按该比例折算，避免窗口刚开始时趋势剧烈波动
+     */
+    private static final double MIN_ELAPSED_FRACTION = 0.1;
+    private static final double RISING_RATIO = 1.5;
+    private static final double FALLING_RATIO = 0.67;
+
+    private final boolean enabled;
+    private final int topK;
+    private final int maxProjects;
+    private final long windowMillis;
+    private final LongSupplier clock;
+
+    private Window current;
+    private Window previous;
+
+    @Autowired
+    public HeavyHitterTracker(HeavyHitterConfig config) {
+        this(config, System::currentTimeMillis);
+    }
+
+    HeavyHitterTracker(HeavyHitterConfig config, LongSupplier clock) {
+        this.enabled = config.isEnabled();
+        this.topK = Math.max(1, config.getTopK());
+        this.maxProjects = Math.max(1, config.getMaxProjects());
+        this.windowMillis = TimeUnit.MINUTES.toMillis(config.getWindowMinutes());
+        this.clock = clock;
+        long start = alignedStart(clock.getAsLong());
+        this.current = new Window(start, config);
+        this.previous = new Window(start - windowMillis, config);
+    }
+
+    @Override
+    public void observe(LogRecord record) {
+        if (!enabled || record == null) {
+            return;
+        }
+        String project = record.getProjectName() == null || record.getProjectName().isBlank()
+                ? UNKNOWN_PROJECT : record.getProjectName();
+        String fingerprint = ExceptionSignature.of(record).fingerprint();
+        String key = project + '|' + fingerprint;
+        long hash = ExceptionSignature.hash64(key);
+        long now = clock.getAsLong();
+
+        synchronized (this) {
+            rotate(now);
+            long count = current.sketch.add(hash);
+            current.offer(project, key, count, () -> new Entry(key, hash, project, fingerprint, record.getExceptionClass()))
+                    .touch(record.getExceptionMessage(), now);
+        }
+    }
+
+    /**
+     * 当前窗口的高频异常，按近似次数降序
+     *
+     * @param project 只返回该项目的异常，为空时返回全部
+     * @param limit   最多返回条数
+     */
+    public synchronized Snapshot snapshot(String project, int limit) {
+        long now = clock.getAsLong();
+        rotate(now);
+        double elapsed = Math.min(Math.max((double) (now - current.start) / windowMillis, MIN_ELAPSED_FRACTION), 1.0);
+
+        List<Entry> entries = new ArrayList<>();
+        if (project == null) {
+            current.projects.values().forEach(top -> entries.addAll(top.entries.values()));
+        } else if (current.projects.containsKey(project)) {
+            entries.addAll(current.projects.get(project).entries.values());
+        }
+        List<HeavyHitter> hitters = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            long previousCount = previous.sketch.estimate(entry.hash);
+            hitters.add(new HeavyHitter(entry.project, entry.fingerprint, entry.exceptionClass, entry.sampleMessage,
+                    entry.count, previousCount, trend(entry.count / elapsed, previousCount), entry.lastSeen));
+        }
+        hitters.sort(Comparator.comparingLong(HeavyHitter::count).reversed());
+        if (hitters.size() > limit) {
+            hitters = new ArrayList<>(hitters.subList(0, limit));
+        }
+        return new Snapshot(current.start, windowMillis, current.sketch.total(), previous.sketch.total(), hitters);
+    }
+
+    /**
+     * @param windowStart   当前窗口开始时间（epoch 毫秒）
+     * @param windowMillis  窗口长度
+     * @param total         当前窗口记录总数
+     * @param previousTotal 上一窗口记录总数
+     * @param hitters       高频异常
+     */
+    public record Snapshot(long windowStart, long windowMillis, long total, long previousTotal,
+                           List<HeavyHitter> hitters) {
+    }
+
+    static HeavyHitter.Trend trend(double projected, long previousCount) {
+        if (previousCount == 0) {
+            return HeavyHitter.Trend.NEW;
+        }
+        double ratio = projected / previousCount;
+        if (ratio >= RISING_RATIO) {
+            return HeavyHitter.Trend.RISING;
+        }
+        if (ratio <= FALLING_RATIO) {
+            return HeavyHitter.Trend.FALLING;
+        }
+        return HeavyHitter.Trend.STEADY;
+    }
+
+    private void rotate(long now) {
+        long start = alignedStart(now);
+        if (start == current.start) {
+            return;
+        }
+        // 复用上一窗口的计数器数组，保持内存固定
+        Window recycled = previous;
+        if (start - current.start == windowMillis) {
+            previous = current;
+        } else {
+            // 中间有空窗口，上一窗口视为没有记录
+            current.reset(start - windowMillis);
+            previous = current;
+        }
+        recycled.reset(start);
+        current = recycled;
+    }
+
+    private long alignedStart(long now) {
+        return now - Math.floorMod(now, windowMillis);
+    }
+
+    private final class Window {
+        private long start;
+        private final CountMinSketch sketch;
+        private final Map<String, ProjectTopK> projects = new HashMap<>();
+
+        private Window(long start, HeavyHitterConfig config) {
+            this.start = start;
+            this.sketch = new CountMinSketch(config.getSketchDepth(), config.getSketchWidth());
+        }
+
+        /**
+         * 以新的近似次数更新该项目的 top-K，返回该键对应的条目（未进入 top-K 时返回一个不保留的临时条目）
+         */
+        private Entry offer(String project, String key, long count, Supplier<Entry> factory) {
+            ProjectTopK top = projects.get(project);
+            if (top == null) {
+                if (projects.size() >= maxProjects && !evictColdestProject(count)) {
+                    return Entry.DISCARDED;
+                }
+                top = new ProjectTopK();
+                projects.put(project, top);
+            }
+            return top.offer(key, count, factory);
+        }
+
+        /**
+         * 项目数已满：峰值次数最低的项目低于新记录的次数时将其淘汰
+         */
+        private boolean evictColdestProject(long count) {
+            Map.Entry<String, ProjectTopK> coldest = null;
+            for (Map.Entry<String, ProjectTopK> candidate : projects.entrySet()) {
+                if (coldest == null || candidate.getValue().peak < coldest.getValue().peak) {
+                    coldest = candidate;
+                }
+            }
+            if (coldest == null || coldest.getValue().peak >= count) {
+                return false;
+            }
+            projects.remove(coldest.getKey());
+            return true;
+        }
+
+        private void reset(long start) {
+            this.start = start;
+            sketch.clear();
+            projects.clear();
+        }
+    }
+
+    private final class ProjectTopK {
+        private final Map<String, Entry> entries = new HashMap<>();
+        private final PriorityQueue<Entry> heap = new PriorityQueue<>(Comparator.comparingLong(entry -> entry.count));
+        /**
+         * 本窗口内该项目单个异常达到的最高次数
+         */
+        private long peak;
+
+        private Entry offer(String key, long count, Supplier<Entry> factory) {
+            peak = Math.max(peak, count);
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                heap.remove(entry);
+                entry.count = count;
+                heap.add(entry);
+                return entry;
+            }
+            if (entries.size() >= topK) {
+                if (heap.isEmpty() || heap.peek().count >= count) {
+                    return Entry.DISCARDED;
+                }
+                entries.remove(heap.poll().key);
+            }
+            entry = factory.get();
+            entry.count = count;
+            entries.put(key, entry);
+            heap.add(entry);
+            return entry;
+        }
+    }
+
+    private static final class Entry {
+        private static final Entry DISCARDED = new Entry(null, 0, null, null, null);
+
+        private final String key;
+        private final long hash;
+        private final String project;
+        private final String fingerprint;
+        private final String exceptionClass;
+        private long count;
+        private String sampleMessage;
+        private long lastSeen;
+
+        private Entry(String key, long hash, String project, String fingerprint, String exceptionClass) {
+            this.key = key;
+            this.hash = hash;
+            this.project = project;
+            this.fingerprint = fingerprint;
+            this.exceptionClass = exceptionClass;
+        }
+
+        private void touch(String message, long now) {
+            if (this == DISCARDED) {
+                return;
+            }
+            sampleMessage = message == null || message.length() <= MAX_SAMPLE_LENGTH
+                    ? message : message.substring(0, MAX_SAMPLE_LENGTH);
+            lastSeen = now;
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.lllkkk.ai.agent.modules.log.handle.domain.service.impl;
+
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.AnalysisResult;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.Deadline;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.DegradeReason;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.LogRecord;
+import com.lllkkk.ai.agent.modules.log.handle.domain.service.AIAnalyzer;
+import com.lllkkk.ai.agent.modules.log.handle.domain.service.AnalyzerLink;
+import com.lllkkk.ai.agent.modules.log.handle.domain.service.similarity.ExceptionSignature;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 分析链
+ * 按 @Order 顺序依次尝试各 {@link AnalyzerLink}，都未给出结果时交给大模型分析，
+ * 完成后再逆序通知前面的环节；时间预算用完时不再调用大模型，直接返回降级结果。
+ * 签名相同的异常同时到达时（如各节点把同一异常同时转发给负责节点）只分析一次，其余请求等待并共用结果。
+ * 批量分析时各环节仍逐条尝试，剩下的记录一次交给大模型
+ */
+@Slf4j
+@Primary
+@Service
+public class AnalyzerChain implements AIAnalyzer {
+
+    private final List<AnalyzerLink> links;
+    private final AIAnalyzer terminal;
+
+    /**
+     * 分析中的异常：键为指纹 + SimHash，签名完全一致才合并，避免同一方法里消息不同的异常共用结论
+     */
+    private final ConcurrentHashMap<String, CompletableFuture<AnalysisResult>> inProgress = new ConcurrentHashMap<>();
+
+    public AnalyzerChain(List<AnalyzerLink> links, @Qualifier("kimiAnalyzerImpl") AIAnalyzer terminal) {
+        this.links = links;
+        this.terminal = terminal;
+        log.info("分析链: {} -> {}", links.stream().map(link -> link.getClass().getSimpleName()).toList(),
+                terminal.getClass().getSimpleName());
+    }
+
+    @Override
+    public AnalysisResult analyze(LogRecord record) {
+        return analyze(record, Deadline.none());
+    }
+
+    @Override
+    public AnalysisResult analyze(LogRecord record, Deadline deadline) {
+        ExceptionSignature signature = ExceptionSignature.of(record);
+        String key = signature.fingerprint() + ':' + Long.toHexString(signature.simHash());
+        CompletableFuture<AnalysisResult> mine = new CompletableFuture<>();
+        CompletableFuture<AnalysisResult> running = inProgress.putIfAbsent(key, mine);
+        if (running != null) {
+            Optional<AnalysisResult> joined = join(running, record, deadline);
+            if (joined.isPresent()) {
+                return joined.get();
+            }
+            // 先到的分析失败或被降级，按本请求的时间预算自行分析
+            return analyzeOnce(record, deadline);
+        }
+        try {
+            AnalysisResult result = analyzeOnce(record, deadline);
+            mine.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inProgress.remove(key, mine);
+        }
+    }
+
+    /**
+     * 等待同一签名的分析完成，最多等到本请求的截止时间；到期返回降级结果，
+     * 先到的分析失败或只得到降级结果时返回空
+     */
+    private Optional<AnalysisResult> join(CompletableFuture<AnalysisResult> running, LogRecord record, Deadline deadline) {
+        try {
+            AnalysisResult result = deadline.isBounded()
+                    ? running.get(deadline.remainingMillis(), TimeUnit.MILLISECONDS)
+                    : running.get();
+            if (result == null || result.isDegraded()) {
+                return Optional.empty();
+            }
+            log.debug("合并同一异常的并发分析: {}", record.getExceptionClass());
+            return Optional.of(result);
+        } catch (TimeoutException e) {
+            return Optional.of(AnalysisResult.degraded(record, DegradeReason.DEADLINE_EXCEEDED));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Optional.of(AnalysisResult.degraded(record, DegradeReason.DEADLINE_EXCEEDED));
+        } catch (ExecutionException e) {
+            return Optional.empty();
+        }
+    }
+
+    private AnalysisResult analyzeOnce(LogRecord record, Deadline deadline) {
+        for (int i = 0; i < links.size(); i++) {
+            Optional<AnalysisResult> result = links.get(i).tryAnalyze(record, deadline);
+            if (result.isPresent()) {
+                notifyLinks(i - 1, record, result.get());
+                return result.get();
+            }
+        }
+        if (deadline.isExpired()) {
+            return AnalysisResult.degraded(record, DegradeReason.DEADLINE_EXCEEDED);
+        }
+        AnalysisResult result = terminal.analyze(record, deadline);
+        notifyLinks(links.size() - 1, record, result);
+        return result;
+    }
+
+    @Override
+    public List<AnalysisResult> analyzeAll(List<LogRecord> records, Deadline deadline) {
+        AnalysisResult[] results = new AnalysisResult[records.size()];
+        List<Integer> pending = new ArrayList<>();
+        for (int r = 0; r < records.size(); r++) {
+            LogRecord record = records.get(r);
+            for (int i = 0; i < links.size() && results[r] == null; i++) {
+                Optional<AnalysisResult> result = links.get(i).tryAnalyze(record, deadline);
+                if (result.isPresent()) {
+                    notifyLinks(i - 1, record, result.get());
+                    results[r] = result.get();
+                }
+            }
+            if (results[r] == null) {
+                pending.add(r);
+            }
+        }
+        if (pending.isEmpty()) {
+            return Arrays.asList(results);
+        }
+        if (deadline.isExpired()) {
+            pending.forEach(r -> results[r] = AnalysisResult.degraded(records.get(r), DegradeReason.DEADLINE_EXCEEDED));
+            return Arrays.asList(results);
+        }
+        List<AnalysisResult> analyzed = terminal.analyzeAll(pending.stream().map(records::get).toList(), deadline);
+        for (int i = 0; i < pending.size(); i++) {
+            int r = pending.get(i);
+            results[r] = analyzed.get(i);
+            notifyLinks(links.size() - 1, records.get(r), results[r]);
+        }
+        return Arrays.asList(results);
+    }
+
+    private void notifyLinks(int from, LogRecord record, AnalysisResult result) {
+        for (int i = from; i >= 0; i--) {
+            try {
+                links.get(i).onAnalyzed(record, result);
+            } catch (Exception e) {
+                log.warn("分析链回调失败: {}", links.get(i).getClass().getSimpleName(), e);
+            }
+        }
+    }
+}
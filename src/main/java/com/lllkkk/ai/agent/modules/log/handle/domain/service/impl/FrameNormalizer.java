@@ -0,0 +1,192 @@
+package com.lllkkk.ai.agent.modules.log.handle.domain.service.impl;
+
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.StackFrame;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * 堆栈帧规范化
+ * 1. 连续重复的帧或帧序列（递归）折叠为一份，标记重复次数 ×N；
+ * 2. 业务帧全部保留；业务帧之间和两端的框架帧（代理、反射、AOP、容器等）折叠为一条摘要，
+ *    只保留抛出点（第 0 帧）以及紧贴业务代码的边界帧，代理、反射、AOP 帧不作为边界帧保留。
+ * 规范化是幂等的：转发到负责节点的记录会再经过一次过滤，已带折叠摘要或重复标记的堆栈原样返回，
+ * 否则摘要文本会被当作类名再次归类（"org.apache.catalina ×1, org.apache.tomcat ×1" 变成 "…, org ×1"），指纹随之改变
+ */
+public class FrameNormalizer {
+
+    /**
+     * 识别递归时考虑的最大循环长度
+     */
+    static final int MAX_RECURSION_PERIOD = 8;
+
+    public List<StackFrame> normalize(List<StackFrame> frames, Predicate<StackFrame> isBusiness) {
+        if (frames == null || frames.isEmpty() || isNormalized(frames)) {
+            return frames;
+        }
+        // 业务类的 CGLIB 代理帧也按框架帧处理
+        Predicate<StackFrame> business = isBusiness.and(frame -> !"代理".equals(category(frame.getClassName())));
+        return collapseFramework(foldRecursion(frames), business);
+    }
+
+    /**
+     * 规范化结果中没有折叠和重复标记时，框架帧段最多剩两端的边界帧，再规范化一次结果不变；
+     * 有标记则说明已经规范化过
+     */
+    static boolean isNormalized(List<StackFrame> frames) {
+        for (StackFrame frame : frames) {
+            if (frame.isCollapsed() || frame.getRepeatCount() > 1) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 折叠连续重复的帧序列，每个位置取覆盖帧数最多的循环长度
+     */
+    List<StackFrame> foldRecursion(List<StackFrame> frames) {
+        List<StackFrame> folded = new ArrayList<>(frames.size());
+        int i = 0;
+        while (i < frames.size()) {
+            int bestPeriod = 1;
+            int bestRepeats = 1;
+            for (int period = 1; period <= MAX_RECURSION_PERIOD && i + 2 * period <= frames.size(); period++) {
+                int repeats = 1;
+                while (i + (repeats + 1) * period <= frames.size() && sameBlock(frames, i, i + repeats * period, period)) {
+                    repeats++;
+                }
+                if (repeats > 1 && repeats * period > bestRepeats * bestPeriod) {
+                    bestPeriod = period;
+                    bestRepeats = repeats;
+                }
+            }
+            for (int j = 0; j < bestPeriod; j++) {
+                StackFrame frame = frames.get(i + j);
+                folded.add(bestRepeats > 1 ? withRepeat(frame, bestRepeats) : frame);
+            }
+            i += bestPeriod * bestRepeats;
+        }
+        return folded;
+    }
+
+    private List<StackFrame> collapseFramework(List<StackFrame> frames, Predicate<StackFrame> isBusiness) {
+        List<StackFrame> result = new ArrayList<>();
+        int i = 0;
+        while (i < frames.size()) {
+            if (isBusiness.test(frames.get(i))) {
+                result.add(frames.get(i++));
+                continue;
+            }
+            int start = i;
+            while (i < frames.size() && !isBusiness.test(frames.get(i))) {
+                i++;
+            }
+            appendFrameworkRun(result, frames.subList(start, i),
+                    start == 0, start > 0, i < frames.size());
+        }
+        return result;
+    }
+
+    /**
+     * @param atThrowSite   该段从第 0 帧开始（抛出点）
+     * @param belowBusiness 该段上方（被调用方向）紧邻业务帧之下，即业务代码的调用者
+     * @param aboveBusiness 该段下方紧邻业务帧，即业务代码调用的框架方法
+     */
+    private void appendFrameworkRun(List<StackFrame> out, List<StackFrame> run,
+                                    boolean atThrowSite, boolean belowBusiness, boolean aboveBusiness) {
+        int from = 0;
+        int to = run.size();
+        StackFrame head = null;
+        StackFrame tail = null;
+        if (atThrowSite || (belowBusiness && !isNoise(run.get(0)))) {
+            head = run.get(from++);
+        }
+        if (from < to && aboveBusiness && !isNoise(run.get(to - 1))) {
+            tail = run.get(--to);
+        }
+
+        if (head != null) {
+            out.add(head);
+        }
+        if (from < to) {
+            out.add(summary(run.subList(from, to)));
+        }
+        if (tail != null) {
+            out.add(tail);
+        }
+    }
+
+    private StackFrame summary(List<StackFrame> collapsed) {
+        int total = collapsed.stream().mapToInt(frame -> Math.max(1, frame.getRepeatCount())).sum();
+        Map<String, Integer> groups = new LinkedHashMap<>();
+        for (StackFrame frame : collapsed) {
+            groups.merge(category(frame.getClassName()), Math.max(1, frame.getRepeatCount()), Integer::sum);
+        }
+        String text = groups.entrySet().stream()
+                .map(entry -> entry.getKey() + " ×" + entry.getValue())
+                .collect(Collectors.joining(", "));
+        return StackFrame.builder()
+                .className(text)
+                .collapsedFrames(total)
+                .build();
+    }
+
+    /**
+     * 代理、反射、AOP 帧：不携带业务信息，不作为边界帧保留
+     */
+    static boolean isNoise(StackFrame frame) {
+        String category = category(frame.getClassName());
+        return "代理".equals(category) || "反射".equals(category) || "AOP".equals(category);
+    }
+
+    static String category(String className) {
+        if (className == null) {
+            return "未知";
+        }
+        if (className.contains("$$") || className.startsWith("jdk.proxy") || className.contains("$Proxy")) {
+            return "代理";
+        }
+        if (className.startsWith("jdk.internal.reflect.") || className.startsWith("sun.reflect.")
+                || className.startsWith("java.lang.reflect.") || className.startsWith("java.lang.invoke.")) {
+            return "反射";
+        }
+        if (className.startsWith("org.springframework.aop.") || className.startsWith("org.springframework.cglib.")
+                || className.startsWith("org.aopalliance.")) {
+            return "AOP";
+        }
+        String[] segments = className.split("\\.");
+        return segments.length <= 2 ? className : segments[0] + '.' + segments[1] + '.' + segments[2];
+    }
+
+    private static boolean sameBlock(List<StackFrame> frames, int a, int b, int length) {
+        for (int k = 0; k < length; k++) {
+            if (!sameFrame(frames.get(a + k), frames.get(b + k))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean sameFrame(StackFrame a, StackFrame b) {
+        return a.getLineNumber() == b.getLineNumber()
+                && Objects.equals(a.getClassName(), b.getClassName())
+                && Objects.equals(a.getMethodName(), b.getMethodName());
+    }
+
+    private static StackFrame withRepeat(StackFrame frame, int repeats) {
+        return StackFrame.builder()
+                .fullyQualifiedName(frame.getFullyQualifiedName())
+                .className(frame.getClassName())
+                .methodName(frame.getMethodName())
+                .lineNumber(frame.getLineNumber())
+                .businessFlag(frame.isBusinessFlag())
+                .repeatCount(repeats)
+                .build();
+    }
+}
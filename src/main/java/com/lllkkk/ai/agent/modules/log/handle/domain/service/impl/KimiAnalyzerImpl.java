@@ -1,33 +1,100 @@
 package com.lllkkk.ai.agent.modules.log.handle.domain.service.impl;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.lllkkk.ai.agent.modules.log.handle.domain.model.AnalysisResult;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.CodeSnippet;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.Deadline;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.DegradeReason;
 import com.lllkkk.ai.agent.modules.log.handle.domain.model.LogRecord;
-import com.lllkkk.ai.agent.modules.log.handle.domain.model.StackFrame;
 import com.lllkkk.ai.agent.modules.log.handle.domain.service.AIAnalyzer;
-import com.lllkkk.ai.agent.modules.log.handle.domain.service.CodeLocator;
-import com.lllkkk.ai.agent.modules.log.handle.infrastructure.client.KimiAIClient;
+import com.lllkkk.ai.agent.modules.log.handle.domain.service.prompt.AnalysisPromptBuilder;
+import com.lllkkk.ai.agent.modules.log.handle.domain.service.prompt.CodeSnippetEnricher;
+import com.lllkkk.ai.agent.modules.log.handle.domain.service.prompt.ModelRoute;
+import com.lllkkk.ai.agent.modules.log.handle.domain.service.prompt.ModelRouter;
+import com.lllkkk.ai.agent.modules.log.handle.infrastructure.client.ChatPrompt;
+import com.lllkkk.ai.agent.modules.log.handle.infrastructure.client.LLMClient;
+import com.lllkkk.ai.agent.modules.log.handle.infrastructure.config.DigestConfig;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class KimiAnalyzerImpl implements AIAnalyzer {
 
-    private final KimiAIClient kimiAIClient;
-    private final CodeLocator codeLocator;
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final LLMClient llmClient;
+    private final AnalysisPromptBuilder promptBuilder;
+    private final CodeSnippetEnricher snippetEnricher;
+    private final ModelRouter modelRouter;
+    private final DigestConfig digestConfig;
+
+    /**
+     * 一次摘要调用：合并的记录下标、按编号渲染的内容与估算令牌数
+     */
+    private static final class DigestCall {
+        final Map<String, Integer> indexById = new HashMap<>();
+        final List<String> items = new ArrayList<>();
+        int tokens;
+        CompletableFuture<String> response;
+
+        DigestCall(int systemTokens) {
+            this.tokens = systemTokens;
+        }
+    }
 
     @Override
     public AnalysisResult analyze(LogRecord record) {
+        return analyze(record, Deadline.none());
+    }
+
+    @Override
+    public AnalysisResult analyze(LogRecord record, Deadline deadline) {
+        CompletableFuture<String> call = null;
         try {
-            String prompt = buildAnalysisPrompt(record);
+            // 流水线的 enrich 阶段已补充过片段时直接使用
+            List<CodeSnippet> snippets = record.getCodeSnippets() != null
+                    ? record.getCodeSnippets()
+                    : snippetEnricher.fetchSnippets(record, deadline);
+            if (deadline.isExpired()) {
+                log.warn("⚠️ 获取代码片段后时间预算已用完，跳过AI分析: {}", record.getExceptionClass());
+                return AnalysisResult.degraded(record, DegradeReason.DEADLINE_EXCEEDED);
+            }
+            ModelRoute route = modelRouter.route(record, snippets);
+            ChatPrompt prompt = route.applyTo(promptBuilder.build(record, snippets, route.variant()));
 
-            String aiResponse = kimiAIClient.analyzeLog(prompt);
-            return parseAIResponse(aiResponse, record);
+            call = llmClient.chat(prompt);
+            String aiResponse = call.get(deadline.remainingMillis(), TimeUnit.MILLISECONDS);
+            AnalysisResult result = parseAIResponse(aiResponse, record);
+            result.setModelTier(route.tier());
+            return result;
+        } catch (TimeoutException e) {
+            // 取消上游请求，对冲中的请求一并取消
+            call.cancel(true);
+            log.warn("⚠️ AI分析超出时间预算，返回降级结果: {}", record.getExceptionClass());
+            return AnalysisResult.degraded(record, DegradeReason.DEADLINE_EXCEEDED);
+        } catch (ExecutionException e) {
+            log.error("AI分析日志失败", e.getCause());
+            return buildFallbackResult(record, e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (call != null) {
+                call.cancel(true);
+            }
+            return AnalysisResult.degraded(record, DegradeReason.DEADLINE_EXCEEDED);
         } catch (Exception e) {
             log.error("AI分析日志失败", e);
             return buildFallbackResult(record, e.getMessage());
@@ -35,66 +102,104 @@ public class KimiAnalyzerImpl implements AIAnalyzer {
     }
 
     /**
-     * 构建AI分析提示词
+     * 定时摘要：按令牌预算把多条记录打包为尽量少的调用（各批并发发出），按编号拆回各条结果；
+     * 单条超出预算、模型遗漏或整批失败的记录逐条补充分析
      */
-    private String buildAnalysisPrompt(LogRecord record) {
-        StringBuilder prompt = new StringBuilder();
-
-        prompt.append("你是一位Java异常分析专家，请分析以下异常日志并给出专业的诊断建议。\n\n");
-
-        // 基本信息
-        prompt.append("=== 异常基本信息 ===\n");
-        prompt.append("时间戳: ").append(record.getTimestamp()).append("\n");
-        prompt.append("异常级别: ").append(record.getLevel()).append("\n");
-        prompt.append("异常类: ").append(record.getExceptionClass()).append("\n");
-        prompt.append("异常消息: ").append(record.getExceptionMessage()).append("\n\n");
-
-        // 堆栈信息
-        if (record.getStackFrames() != null && !record.getStackFrames().isEmpty()) {
-            prompt.append("=== 业务相关堆栈信息 ===\n");
-            for (int i = 0; i < Math.min(5, record.getStackFrames().size()); i++) {
-                StackFrame frame = record.getStackFrames().get(i);
-                prompt.append(String.format("%d. %s.%s(%s:%d)\n",
-                    i + 1,
-                    frame.getClassName(),
-                    frame.getMethodName(),
-                    frame.getClassName().substring(frame.getClassName().lastIndexOf('.') + 1),
-                    frame.getLineNumber()));
-
-                // 获取源码上下文
-                try {
-                    List<String> codeSnippet = codeLocator.fetchSnippet(record.getProjectName(), frame);
-                    if (!codeSnippet.isEmpty()) {
-                        prompt.append("   相关代码片段:\n");
-                        int startLine = Math.max(1, frame.getLineNumber() - 2);
-                        for (int j = 0; j < codeSnippet.size(); j++) {
-                            int lineNum = startLine + j;
-                            String marker = (lineNum == frame.getLineNumber()) ? ">" : " ";
-                            prompt.append(String.format("   %s %4d: %s\n", marker, lineNum, codeSnippet.get(j).trim()));
-                        }
+    @Override
+    public List<AnalysisResult> analyzeAll(List<LogRecord> records, Deadline deadline) {
+        AnalysisResult[] results = new AnalysisResult[records.size()];
+        int systemTokens = AnalysisPromptBuilder.estimateTokens(promptBuilder.digestSystemMessage().getContent());
+        List<DigestCall> calls = new ArrayList<>();
+        DigestCall current = null;
+        for (int i = 0; i < records.size(); i++) {
+            String id = String.valueOf(i + 1);
+            String item = promptBuilder.renderDigestItem(id, records.get(i));
+            int tokens = AnalysisPromptBuilder.estimateTokens(item);
+            if (systemTokens + tokens > digestConfig.getMaxPromptTokens()) {
+                continue;
+            }
+            if (current == null || current.tokens + tokens > digestConfig.getMaxPromptTokens()
+                    || current.items.size() >= digestConfig.getMaxItemsPerCall()) {
+                current = new DigestCall(systemTokens);
+                calls.add(current);
+            }
+            current.indexById.put(id, i);
+            current.items.add(item);
+            current.tokens += tokens;
+        }
+
+        for (DigestCall call : calls) {
+            ChatPrompt prompt = promptBuilder.buildDigest(call.items);
+            prompt.setMaxTokens(call.items.size() * digestConfig.getOutputTokensPerItem());
+            call.response = llmClient.chat(prompt);
+        }
+        boolean interrupted = false;
+        for (DigestCall call : calls) {
+            if (interrupted) {
+                call.response.cancel(true);
+                continue;
+            }
+            try {
+                String response = call.response.get(deadline.remainingMillis(), TimeUnit.MILLISECONDS);
+                parseDigestResponse(response).forEach((id, result) -> {
+                    Integer index = call.indexById.get(id);
+                    if (index != null) {
+                        results[index] = result;
                     }
-                } catch (Exception e) {
-                    log.warn("获取代码片段失败: {}", frame, e);
-                }
-                prompt.append("\n");
+                });
+            } catch (TimeoutException e) {
+                call.response.cancel(true);
+                log.warn("⚠️ 摘要分析超出时间预算: {} 条", call.items.size());
+            } catch (ExecutionException e) {
+                log.warn("摘要分析失败，改为逐条分析: {} 条", call.items.size(), e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                call.response.cancel(true);
+                interrupted = true;
             }
         }
 
-        prompt.append("=== 分析要求 ===\n");
-        prompt.append("1. 根因分析: 请分析导致此异常的根本原因\n");
-        prompt.append("2. 错误摘要: 用简洁的语言描述问题\n");
-        prompt.append("3. 修复建议: 提供具体的解决方案和代码修改建议\n");
-        prompt.append("4. 相关位置: 指出可能需要修改的代码位置\n\n");
-
-        prompt.append("请以以下JSON格式返回分析结果:\n");
-        prompt.append("{\n");
-        prompt.append("  \"rootCause\": \"根本原因\",\n");
-        prompt.append("  \"summary\": \"错误摘要\",\n");
-        prompt.append("  \"fixSuggestion\": \"修复建议\",\n");
-        prompt.append("  \"relatedLocation\": \"相关代码位置\",\n");
-        prompt.append("}\n");
-
-        return prompt.toString();
+        int fallback = 0;
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] == null) {
+                results[i] = interrupted
+                        ? AnalysisResult.degraded(records.get(i), DegradeReason.DEADLINE_EXCEEDED)
+                        : analyze(records.get(i), deadline);
+                fallback++;
+            }
+        }
+        log.info("📦 摘要分析 {} 条异常: 合并调用 {} 次，逐条补充 {} 条", records.size(), calls.size(), fallback);
+        return Arrays.asList(results);
+    }
+
+    /**
+     * 解析摘要响应中的 JSON 数组，返回 编号 → 结果；缺少根因的条目视为遗漏
+     */
+    private Map<String, AnalysisResult> parseDigestResponse(String aiResponse) {
+        Map<String, AnalysisResult> results = new HashMap<>();
+        int start = aiResponse.indexOf('[');
+        int end = aiResponse.lastIndexOf(']');
+        if (start < 0 || end <= start) {
+            log.warn("摘要响应中没有 JSON 数组");
+            return results;
+        }
+        try {
+            for (JsonNode item : MAPPER.readTree(aiResponse.substring(start, end + 1))) {
+                String rootCause = item.path("rootCause").asText("");
+                if (rootCause.isEmpty()) {
+                    continue;
+                }
+                results.put(item.path("id").asText(), AnalysisResult.builder()
+                        .rootCause(rootCause)
+                        .summary(item.path("summary").asText(""))
+                        .fixSuggestion(item.path("fixSuggestion").asText(""))
+                        .relatedLocation(item.path("relatedLocation").asText(""))
+                        .build());
+            }
+        } catch (Exception e) {
+            log.warn("解析摘要响应失败", e);
+        }
+        return results;
     }
 
     /**
@@ -171,12 +276,7 @@ public class KimiAnalyzerImpl implements AIAnalyzer {
      * 构建默认分析结果
      */
     private AnalysisResult buildDefaultResult(LogRecord record) {
-        return AnalysisResult.builder()
-                .rootCause("异常类型: " + record.getExceptionClass() + " - " + record.getExceptionMessage())
-                .summary("发生" + record.getExceptionClass() + "异常，需要检查相关代码逻辑")
-                .fixSuggestion("建议检查异常堆栈中指向的业务代码，确认是否有空指针、数组越界、类型转换等常见问题")
-                .relatedLocation(getTopStackFrameLocation(record))
-                .build();
+        return AnalysisResult.degraded(record, DegradeReason.UNPARSEABLE_RESPONSE);
     }
 
     /**
@@ -187,21 +287,9 @@ public class KimiAnalyzerImpl implements AIAnalyzer {
                 .rootCause("AI分析暂时不可用: " + error)
                 .summary("日志中包含" + record.getExceptionClass() + "异常")
                 .fixSuggestion("请稍后重试，或根据堆栈信息手动分析代码问题")
-                .relatedLocation(getTopStackFrameLocation(record))
+                .relatedLocation(record.getTopFrameLocation())
+                .degraded(true)
+                .degradedReason(DegradeReason.UPSTREAM_FAILURE)
                 .build();
     }
-
-    /**
-     * 获取顶部堆栈帧位置
-     */
-    private String getTopStackFrameLocation(LogRecord record) {
-        if (record.getStackFrames() != null && !record.getStackFrames().isEmpty()) {
-            StackFrame frame = record.getStackFrames().get(0);
-            return String.format("%s.%s:%d",
-                frame.getClassName(),
-                frame.getMethodName(),
-                frame.getLineNumber());
-        }
-        return "未知位置";
-    }
 }
@@ -2,22 +2,38 @@ package com.lllkkk.ai.agent.modules.log.handle.domain.service.impl;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.CodeSnippet;
 import com.lllkkk.ai.agent.modules.log.handle.domain.model.StackFrame;
 import com.lllkkk.ai.agent.modules.log.handle.domain.service.CodeLocator;
+import com.lllkkk.ai.agent.modules.log.handle.infrastructure.config.GitSourceConfig;
+import com.lllkkk.ai.agent.modules.log.handle.infrastructure.source.GitObjectStore;
+import com.lllkkk.ai.agent.modules.log.handle.infrastructure.source.GitRevisionSource;
+import com.lllkkk.ai.agent.modules.log.handle.infrastructure.source.JavaMethodScanner;
+import com.lllkkk.ai.agent.modules.log.handle.infrastructure.source.MethodBoundaryIndex;
+import com.lllkkk.ai.agent.modules.log.handle.infrastructure.source.MethodRange;
+import com.lllkkk.ai.agent.modules.log.handle.infrastructure.source.SourceArchiveIndex;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
 
 @Slf4j
+@Lazy
 @Service
 public class LocalCodeLocator implements CodeLocator {
 
@@ -30,25 +46,153 @@ public class LocalCodeLocator implements CodeLocator {
     @Value("${code.locator.path-file:code-locator-paths.json}")
     private String pathFile;
 
+    /**
+     * 返回方法体时的最大行数，超过时以异常行为中心截取
+     */
+    @Value("${code.locator.max-method-lines:60}")
+    private int maxMethodLines = 60;
+
+    /**
+     * 是否在启动时构建方法边界索引
+     */
+    @Value("${code.locator.index-on-startup:true}")
+    private boolean indexOnStartup = true;
+
+    /**
+     * 额外的 -sources.jar 路径（共享库源码）
+     */
+    @Value("${code.locator.source-jars:}")
+    private List<String> sourceJars = List.of();
+
+    /**
+     * 本地 Maven 仓库根目录
+     */
+    @Value("${code.locator.maven-repository:${user.home}/.m2/repository}")
+    private String mavenRepository;
+
+    /**
+     * 需要从本地 Maven 仓库查找 -sources.jar 的 groupId，为空时不扫描仓库
+     */
+    @Value("${code.locator.maven-group-ids:}")
+    private List<String> mavenGroupIds = List.of();
+
+    /**
+     * 同时保持打开的源码归档上限
+     */
+    @Value("${code.locator.max-open-archives:32}")
+    private int maxOpenArchives = 32;
+
+    /**
+     * 按代码版本从 git 对象库读取源码的配置
+     */
+    @Autowired(required = false)
+    private GitSourceConfig gitConfig = new GitSourceConfig();
+
+    /**
+     * 目标行不在任何方法内时，上下各取的行数
+     */
+    private static final int FALLBACK_CONTEXT_LINES = 5;
+
     private Map<String, String> projectPathMap = new HashMap<>();
 
+    private final MethodBoundaryIndex methodIndex = new MethodBoundaryIndex();
+
+    private volatile SourceArchiveIndex archiveIndex = new SourceArchiveIndex(maxOpenArchives);
+
+    /**
+     * 项目名 -> 该项目仓库的按版本读取器，找不到仓库时为空
+     */
+    private final Map<String, Optional<GitRevisionSource>> revisionSources = new ConcurrentHashMap<>();
+
+    /**
+     * 各项目方法边界索引的构建进度，尚未构建时为空
+     */
+    private volatile CompletableFuture<Void> projectIndexing;
+
+    /**
+     * 源码归档索引的构建进度，尚未构建时为空
+     */
+    private volatile CompletableFuture<Void> archiveIndexing;
+
     @PostConstruct
     public void loadProjectPaths() {
         File file = new File(pathFile);
         if (!file.exists()) {
             log.warn("⚠️ 未找到本地路径配置文件 [{}]，源码定位功能将受限", pathFile);
-            return;
+        } else {
+            try {
+                ObjectMapper mapper = new ObjectMapper();
+                projectPathMap = mapper.readValue(file, new TypeReference<>() {});
+                log.info("✅ 成功加载本地项目路径配置，共 {} 个项目", projectPathMap.size());
+            } catch (IOException e) {
+                log.error("❌ 加载本地路径配置文件失败: {}", pathFile, e);
+            }
         }
 
-        try {
-            ObjectMapper mapper = new ObjectMapper();
-            projectPathMap = mapper.readValue(file, new TypeReference<>() {});
-            log.info("✅ 成功加载本地项目路径配置，共 {} 个项目", projectPathMap.size());
-        } catch (IOException e) {
-            log.error("❌ 加载本地路径配置文件失败: {}", pathFile, e);
+        if (indexOnStartup && enableSourceLookup) {
+            buildProjectIndexes();
+            buildArchiveIndex();
         }
     }
 
+    /**
+     * 启动预热时调用，未在启动时构建的项目索引和源码归档索引在此构建
+     */
+    @Override
+    public synchronized CompletableFuture<Void> warmUp() {
+        if (!enableSourceLookup) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return CompletableFuture.allOf(
+                projectIndexing != null ? projectIndexing : buildProjectIndexes(),
+                archiveIndexing != null ? archiveIndexing : buildArchiveIndex());
+    }
+
+    private synchronized CompletableFuture<Void> buildProjectIndexes() {
+        projectIndexing = CompletableFuture.allOf(projectPathMap.entrySet().stream()
+                .map(entry -> methodIndex.build(entry.getKey(), entry.getValue()))
+                .toArray(CompletableFuture[]::new));
+        return projectIndexing;
+    }
+
+    private synchronized CompletableFuture<Void> buildArchiveIndex() {
+        archiveIndexing = CompletableFuture.runAsync(this::indexSourceArchives)
+                .exceptionally(e -> {
+                    log.warn("⚠️ 索引源码归档失败，共享库源码将无法定位", e);
+                    return null;
+                });
+        return archiveIndexing;
+    }
+
+    /**
+     * 索引配置的 -sources.jar 以及本地 Maven 仓库中的源码包
+     */
+    public void indexSourceArchives() {
+        List<Path> archives = new ArrayList<>();
+        sourceJars.stream()
+                .filter(jar -> !jar.isBlank())
+                .map(jar -> Paths.get(jar.trim()))
+                .forEach(archives::add);
+        List<String> groupIds = mavenGroupIds.stream().filter(id -> !id.isBlank()).toList();
+        if (!groupIds.isEmpty() && mavenRepository != null) {
+            archives.addAll(SourceArchiveIndex.findMavenSourceJars(Paths.get(mavenRepository), groupIds));
+        }
+        if (archives.isEmpty()) {
+            return;
+        }
+
+        SourceArchiveIndex index = new SourceArchiveIndex(maxOpenArchives);
+        index.indexArchives(archives);
+        SourceArchiveIndex previous = archiveIndex;
+        archiveIndex = index;
+        previous.close();
+    }
+
+    @PreDestroy
+    public void close() {
+        archiveIndex.close();
+    }
+
     @Override
     public List<String> fetchSnippet(StackFrame frame, int contextLines) {
         if (frame == null || frame.getClassName() == null || frame.getLineNumber() <= 0) {
@@ -77,59 +221,179 @@ public class LocalCodeLocator implements CodeLocator {
 
     @Override
     public List<String> fetchSnippet(String projectName, StackFrame frame) {
+        return locate(projectName, frame).map(CodeSnippet::getLines).orElse(List.of());
+    }
+
+    @Override
+    public Optional<CodeSnippet> locate(String projectName, StackFrame frame) {
         if (frame == null || frame.getClassName() == null || frame.getLineNumber() <= 0) {
             log.warn("无效的堆栈帧: {}", frame);
-            return List.of();
+            return Optional.empty();
         }
 
         if (!enableSourceLookup) {
             log.debug("源码查找功能已禁用");
-            return List.of();
+            return Optional.empty();
         }
 
-        List<String> sourceCode = getSourceCode(projectName, frame);
-        return sourceCode;
+        Optional<CodeSnippet> snippet = getSourceFromFileSystem(projectName, frame)
+                .or(() -> getSourceFromArchives(frame));
+        if (snippet.isEmpty()) {
+            log.warn("无法获取类 {} 的源码，已尝试所有方法", frame.getClassName());
+        }
+        return snippet;
+    }
+
+    /**
+     * 有代码版本（日志提供或部署映射）时先从 git 对象库读取该版本的源码，读取不到再回退到工作目录
+     */
+    @Override
+    public Optional<CodeSnippet> locate(String projectName, String version, StackFrame frame) {
+        if (frame == null || frame.getClassName() == null || frame.getLineNumber() <= 0 || !enableSourceLookup) {
+            return locate(projectName, frame);
+        }
+        String revision = version != null ? version : gitConfig.getDeployments().get(projectName);
+        if (revision != null && gitConfig.isEnabled()) {
+            Optional<CodeSnippet> snippet = getSourceFromGit(projectName, revision, frame);
+            if (snippet.isPresent()) {
+                return snippet;
+            }
+            log.debug("版本 {} 中未找到类 {} 的源码，回退到工作目录", revision, frame.getClassName());
+        }
+        return locate(projectName, frame);
     }
 
-    private List<String> getSourceCode(String projectName, StackFrame frame) {
-        String fullClassName = frame.getFullyQualifiedName();
-        List<String> sourceCode = getSourceFromFileSystem(projectName, frame);
-        if (!sourceCode.isEmpty()) {
-            log.debug("从文件系统获取源码成功: {}", fullClassName);
-            return sourceCode;
+    private Optional<CodeSnippet> getSourceFromGit(String projectName, String revision, StackFrame frame) {
+        Optional<GitRevisionSource> revisions = revisionSources.computeIfAbsent(projectName, this::openRepository);
+        if (revisions.isEmpty()) {
+            return Optional.empty();
+        }
+        try {
+            return revisions.get().find(revision, frame.getClassName())
+                    .flatMap(source -> snippetFromContent(
+                            source.path() + "@" + source.commitId().substring(0, 10), source.content(), frame.getLineNumber()));
+        } catch (IOException | RuntimeException e) {
+            log.warn("⚠️ 从仓库 {} 读取版本 {} 的源码失败: {}", revisions.get().gitDir(), revision, e.getMessage());
+            return Optional.empty();
         }
+    }
 
-        log.warn("无法获取类 {} 的源码，已尝试所有方法", fullClassName);
-        return List.of();
+    private Optional<GitRevisionSource> openRepository(String projectName) {
+        String configured = gitConfig.getRepositories().get(projectName);
+        String start = configured != null ? configured : getRootDirPath(projectName);
+        if (start == null) {
+            log.debug("未配置项目 [{}] 的仓库路径", projectName);
+            return Optional.empty();
+        }
+        Optional<Path> gitDir = GitObjectStore.findGitDir(Paths.get(start));
+        if (gitDir.isEmpty()) {
+            log.warn("⚠️ 项目 [{}] 的路径 {} 不在 git 仓库中，无法按版本读取源码", projectName, start);
+            return Optional.empty();
+        }
+        log.info("✅ 项目 [{}] 按版本读取源码，仓库: {}", projectName, gitDir.get());
+        return Optional.of(new GitRevisionSource(new GitObjectStore(gitDir.get()),
+                gitConfig.getBlobCacheMb() * 1024L * 1024L, gitConfig.getCommitCacheSize()));
     }
 
-    private List<String> getSourceFromFileSystem(String projectName, StackFrame frame) {
+    private Optional<CodeSnippet> getSourceFromFileSystem(String projectName, StackFrame frame) {
         String rootDirPath = getRootDirPath(projectName);
         if (rootDirPath == null) {
-            log.warn("未配置项目 [{}] 的路径，请在 code-locator-paths.json 中添加", projectName);
-            return List.of();
+            log.debug("未配置项目 [{}] 的路径，请在 code-locator-paths.json 中添加", projectName);
+            return Optional.empty();
         }
 
-        List<String> filePaths = findJavaSource(rootDirPath, frame.getFullyQualifiedName());
-        if (filePaths.isEmpty()) {
-            return List.of();
+        Optional<MethodBoundaryIndex.Location> location =
+                methodIndex.locate(projectName, frame.getClassName(), frame.getLineNumber());
+        if (location.isEmpty()) {
+            // 索引未就绪或文件为启动后新增，回退到目录遍历
+            String topLevelClass = frame.getClassName().split("\\$", 2)[0];
+            List<String> filePaths = findJavaSource(rootDirPath, topLevelClass);
+            if (filePaths.isEmpty()) {
+                return Optional.empty();
+            }
+            Path path = Paths.get(filePaths.get(0));
+            methodIndex.register(projectName, path);
+            location = methodIndex.locate(projectName, frame.getClassName(), frame.getLineNumber())
+                    .or(() -> Optional.of(new MethodBoundaryIndex.Location(path, null)));
         }
 
-        String filePath = filePaths.get(0);
-        Path path = Paths.get(filePath);
+        MethodBoundaryIndex.Location found = location.get();
+        int[] range = snippetRange(found.method(), frame.getLineNumber());
+        try (Stream<String> stream = Files.lines(found.path(), StandardCharsets.UTF_8)) {
+            List<String> lines = stream.skip(range[0] - 1L).limit(range[1] - range[0] + 1L).toList();
+            return buildSnippet(found.path().toString(), found.method(), range[0], lines, frame.getLineNumber());
+        } catch (IOException | UncheckedIOException e) {
+            log.error("读取源码文件失败: {}", found.path(), e);
+            return Optional.empty();
+        }
+    }
 
-        try {
-            List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
-            if (frame.getLineNumber() > 0 && frame.getLineNumber() <= lines.size()) {
-                int start = Math.max(0, frame.getLineNumber() - 5);
-                int end = Math.min(lines.size(), frame.getLineNumber() + 5);
-                return lines.subList(start, end);
+    private Optional<CodeSnippet> getSourceFromArchives(StackFrame frame) {
+        // 未在启动时索引且未预热时，首次查找触发后台索引，之后的查找即可命中
+        if (archiveIndexing == null) {
+            synchronized (this) {
+                if (archiveIndexing == null) {
+                    buildArchiveIndex();
+                }
             }
-            return lines;
-        } catch (IOException e) {
-            log.error("读取源码文件失败: {}", filePath, e);
-            return List.of();
         }
+        Optional<SourceArchiveIndex.ArchiveSource> source = archiveIndex.find(frame.getClassName());
+        if (source.isEmpty()) {
+            return Optional.empty();
+        }
+
+        return snippetFromContent(source.get().archive() + "!/" + source.get().entryName(),
+                source.get().content(), source.get().methods(), frame.getLineNumber());
+    }
+
+    /**
+     * 从完整的源码内容中截取异常行所在方法
+     */
+    private Optional<CodeSnippet> snippetFromContent(String filePath, String content, int line) {
+        return snippetFromContent(filePath, content, JavaMethodScanner.scan(content).methods(), line);
+    }
+
+    /**
+     * 从完整的源码内容中截取异常行所在方法，methods 为已扫描好的方法边界
+     */
+    private Optional<CodeSnippet> snippetFromContent(String filePath, String content, List<MethodRange> methods, int line) {
+        MethodRange method = methods.stream()
+                .filter(range -> range.contains(line))
+                .min(Comparator.comparingInt(MethodRange::length))
+                .orElse(null);
+        int[] range = snippetRange(method, line);
+        List<String> lines = content.lines().skip(range[0] - 1L).limit(range[1] - range[0] + 1L).toList();
+        return buildSnippet(filePath, method, range[0], lines, line);
+    }
+
+    /**
+     * 计算片段的起止行：优先取所在方法（过长时以异常行为中心截取），否则取异常行上下若干行
+     */
+    private int[] snippetRange(MethodRange method, int line) {
+        if (method == null) {
+            return new int[]{Math.max(1, line - FALLBACK_CONTEXT_LINES + 1), line + FALLBACK_CONTEXT_LINES};
+        }
+        int start = method.startLine();
+        int end = method.endLine();
+        if (method.length() > maxMethodLines) {
+            start = Math.max(method.startLine(), line - maxMethodLines / 2);
+            end = Math.min(method.endLine(), start + maxMethodLines - 1);
+        }
+        return new int[]{start, end};
+    }
+
+    private Optional<CodeSnippet> buildSnippet(String filePath, MethodRange method, int start, List<String> lines, int line) {
+        if (lines.size() < line - start + 1) {
+            log.warn("行号超出范围: 文件={}, 目标行号={}", filePath, line);
+            return Optional.empty();
+        }
+        return Optional.of(CodeSnippet.builder()
+                .filePath(filePath)
+                .methodName(method == null ? null : method.methodName())
+                .startLine(start)
+                .targetLine(line)
+                .lines(lines)
+                .build());
     }
 
     private String getRootDirPath(String projectName) {
@@ -2,7 +2,10 @@ package com.lllkkk.ai.agent.modules.log.handle.domain.service.impl;
 
 import com.lllkkk.ai.agent.modules.log.handle.domain.model.LogRecord;
 import com.lllkkk.ai.agent.modules.log.handle.domain.model.StackFrame;
+import com.lllkkk.ai.agent.modules.log.handle.domain.service.BusinessPackageMatcher;
 import com.lllkkk.ai.agent.modules.log.handle.domain.service.LogFilter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -10,9 +13,26 @@ import java.util.List;
 @Service
 public class LogFilterImpl implements LogFilter {
 
-    private static final String[] BUSINESS_PACKAGES = {
-            "com.dyyl", "com.wkb"
-    };
+    private final BusinessPackageMatcher businessPackageMatcher;
+    /**
+     * 为空时只保留业务帧（无业务帧时保留第 0 帧）
+     */
+    private final FrameNormalizer frameNormalizer;
+
+    public LogFilterImpl() {
+        this(TrieBusinessPackageMatcher.withDefaults());
+    }
+
+    public LogFilterImpl(BusinessPackageMatcher businessPackageMatcher) {
+        this(businessPackageMatcher, false);
+    }
+
+    @Autowired
+    public LogFilterImpl(BusinessPackageMatcher businessPackageMatcher,
+                         @Value("${log.filter.collapse-frames:true}") boolean collapseFrames) {
+        this.businessPackageMatcher = businessPackageMatcher;
+        this.frameNormalizer = collapseFrames ? new FrameNormalizer() : null;
+    }
 
     @Override
     public LogRecord filter(LogRecord record) {
@@ -20,8 +40,14 @@ public class LogFilterImpl implements LogFilter {
             return record;
         }
 
+        if (frameNormalizer != null) {
+            record.setStackFrames(frameNormalizer.normalize(record.getStackFrames(),
+                    frame -> isBusinessFrame(record.getProjectName(), frame)));
+            return record;
+        }
+
         List<StackFrame> filteredFrames = record.getStackFrames().stream()
-                .filter(this::isBusinessFrame)
+                .filter(frame -> isBusinessFrame(record.getProjectName(), frame))
                 .filter(frame -> frame.getLineNumber() > 0)
                 .toList();
 
@@ -33,12 +59,7 @@ public class LogFilterImpl implements LogFilter {
         return record;
     }
 
-    private boolean isBusinessFrame(StackFrame frame) {
-        String fullClass = frame.getClassName();
-        if (fullClass == null) return false;
-        for (String pkg : BUSINESS_PACKAGES) {
-            if (fullClass.startsWith(pkg)) return true;
-        }
-        return false;
+    private boolean isBusinessFrame(String projectName, StackFrame frame) {
+        return businessPackageMatcher.isBusinessClass(projectName, frame.getClassName());
     }
 }
@@ -1,8 +1,13 @@
 package com.lllkkk.ai.agent.modules.log.handle.domain.service.impl;
 
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.CompressedText;
 import com.lllkkk.ai.agent.modules.log.handle.domain.model.LogRecord;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.RawLogRetention;
 import com.lllkkk.ai.agent.modules.log.handle.domain.model.StackFrame;
+import com.lllkkk.ai.agent.modules.log.handle.domain.service.BusinessPackageMatcher;
 import com.lllkkk.ai.agent.modules.log.handle.domain.service.LogParser;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
@@ -15,6 +20,7 @@ public class RegexLogParser implements LogParser {
 
     private static final Pattern EXCEPTION_PROJECT_PATTERN = Pattern.compile("异常项目: (.+)");
     private static final Pattern TIMESTAMP_PATTERN = Pattern.compile("异常时间: (\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2})");
+    private static final Pattern VERSION_PATTERN = Pattern.compile("代码版本: (\\S+)");
     private static final Pattern LEVEL_PATTERN = Pattern.compile("异常级别: (\\w+)");
     private static final Pattern EXCEPTION_DESC_PATTERN = Pattern.compile("异常描述: (.+)", Pattern.MULTILINE);
     private static final Pattern STACK_TRACE_PATTERN =
@@ -22,6 +28,44 @@ public class RegexLogParser implements LogParser {
 
     private static final Pattern STACK_FRAME_PATTERN = Pattern.compile("([^\\(]+)\\(([^:]+)(?::(\\d+))?\\)");
     private static final Pattern FRAME_SPLITTER = Pattern.compile(",\\s*");
+    /**
+     * 原因链："Caused by: X: msg" 行，或 Spring 风格消息中的 "nested exception is X: msg"
+     */
+    private static final Pattern CAUSE_PATTERN = Pattern.compile(
+            "(?:Caused by:|nested exception is)\\s*([\\w$]+(?:\\.[\\w$]+)+(?:: .*?)?)(?=;\\s*nested exception is|\\r?\\n|$)");
+    private static final int MAX_CAUSES = 8;
+    /**
+     * 链路字段：MDC 输出的 traceId=…、"traceId":"…"、X-B3-TraceId: …、SkyWalking 的 [TID:…] 以及 "链路ID: …"
+     */
+    private static final Pattern TRACE_ID_PATTERN = Pattern.compile(
+            "(?i)(?:\\btrace[_-]?id|\\btid|链路ID)[\"']?\\s*[:=]\\s*[\"']?([0-9a-z][0-9a-z.-]{7,63})");
+    private static final Pattern SPAN_ID_PATTERN = Pattern.compile(
+            "(?i)(?<!parent[_-])\\bspan[_-]?id[\"']?\\s*[:=]\\s*[\"']?([0-9a-z][0-9a-z.-]{0,63})");
+    private static final Pattern PARENT_SPAN_ID_PATTERN = Pattern.compile(
+            "(?i)\\bparent[_-]?(?:span[_-]?)?id[\"']?\\s*[:=]\\s*[\"']?([0-9a-z][0-9a-z.-]{0,63})");
+    /**
+     * W3C traceparent：版本-traceId-调用方 spanId-标志，服务收到的 traceparent 中的 span 即父 span
+     */
+    private static final Pattern TRACEPARENT_PATTERN = Pattern.compile(
+            "(?i)\\btraceparent[\"']?\\s*[:=]\\s*[\"']?[0-9a-f]{2}-([0-9a-f]{32})-([0-9a-f]{16})-[0-9a-f]{2}");
+
+    /**
+     * 原始日志保留策略，默认不保留（下游只使用结构化字段）
+     */
+    @Value("${log.parser.raw-log-retention:NONE}")
+    private RawLogRetention rawLogRetention = RawLogRetention.NONE;
+
+    private final BusinessPackageMatcher businessPackageMatcher;
+
+    public RegexLogParser() {
+        this(TrieBusinessPackageMatcher.withDefaults());
+    }
+
+    @Autowired
+    public RegexLogParser(BusinessPackageMatcher businessPackageMatcher) {
+        this.businessPackageMatcher = businessPackageMatcher;
+    }
+
     @Override
     public LogRecord parse(String rawLog) {
         String projectName = extractValue(rawLog, EXCEPTION_PROJECT_PATTERN, "");
@@ -39,23 +83,48 @@ public class RegexLogParser implements LogParser {
             }
         }
 
+        String traceId = extractValue(rawLog, TRACE_ID_PATTERN, null);
+        String parentSpanId = extractValue(rawLog, PARENT_SPAN_ID_PATTERN, null);
+        Matcher traceparent = TRACEPARENT_PATTERN.matcher(rawLog);
+        if (traceId == null && traceparent.find()) {
+            traceId = traceparent.group(1);
+            parentSpanId = parentSpanId == null ? traceparent.group(2) : parentSpanId;
+        }
+
         return LogRecord.builder()
                 .projectName(projectName)
-                .rawLog(rawLog)
-                .timestamp(timestamp)
+                .version(extractValue(rawLog, VERSION_PATTERN, null))
+                .rawLog(rawLogRetention == RawLogRetention.COMPRESSED ? CompressedText.of(rawLog) : null)
+                .timestamp(LogRecord.parseTimestamp(timestamp))
                 .level(level)
                 .exceptionClass(exceptionClass)
                 .exceptionMessage(exceptionMessage)
-                .stackFrames(parseStackTrace(rawLog))
+                .causes(parseCauses(rawLog))
+                .stackFrames(parseStackTrace(rawLog, projectName))
+                .traceId(traceId)
+                .spanId(extractValue(rawLog, SPAN_ID_PATTERN, null))
+                .parentSpanId(parentSpanId)
                 .build();
     }
 
+    private List<String> parseCauses(String rawLog) {
+        List<String> causes = new ArrayList<>();
+        Matcher matcher = CAUSE_PATTERN.matcher(rawLog);
+        while (matcher.find() && causes.size() < MAX_CAUSES) {
+            String cause = matcher.group(1).trim();
+            if (!causes.contains(cause)) {
+                causes.add(cause);
+            }
+        }
+        return causes;
+    }
+
     private String extractValue(String log, Pattern pattern, String defaultValue) {
         Matcher matcher = pattern.matcher(log);
         return matcher.find() ? matcher.group(1).trim() : defaultValue;
     }
 
-    private List<StackFrame> parseStackTrace(String rawLog) {
+    private List<StackFrame> parseStackTrace(String rawLog, String projectName) {
         List<StackFrame> stackFrames = new ArrayList<>();
 
         Matcher matcher = STACK_TRACE_PATTERN.matcher(rawLog);
@@ -87,7 +156,7 @@ public class RegexLogParser implements LogParser {
                 frame.lineNumber = (lineNumberStr != null) ? Integer.parseInt(lineNumberStr) : -1;
 
                 frame.fullyQualifiedName = frame.className;
-                frame.businessFlag = fullMethodPath.startsWith("com.dyyl"); // 你自己定义
+                frame.businessFlag = businessPackageMatcher.isBusinessClass(projectName, frame.className);
                 stackFrames.add(frame);
             }
         }
@@ -0,0 +1,205 @@
+package com.lllkkk.ai.agent.modules.log.handle.domain.service.impl;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.AnalysisResult;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.LogRecord;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.StackFrame;
+import com.lllkkk.ai.agent.modules.log.handle.domain.service.AnalyzerLink;
+import com.lllkkk.ai.agent.modules.log.handle.domain.service.prompt.PromptTemplate;
+import com.lllkkk.ai.agent.modules.log.handle.domain.service.rule.AnalysisRule;
+import com.lllkkk.ai.agent.modules.log.handle.infrastructure.config.AnalysisRuleConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 本地规则快速分析
+ * 对空指针、越界、连接池超时等常见异常按规则直接给出模板化结论，不再调用大模型。
+ * 规则按异常类建立索引，一次分析只检查同一异常类下的规则
+ */
+@Slf4j
+@Component
+@Order(50)
+public class RuleBasedAnalyzer implements AnalyzerLink {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String[] TEMPLATE_VARIABLES = {"exceptionClass", "exceptionMessage", "location", "detail"};
+
+    private final boolean enabled;
+    private final Map<String, List<CompiledRule>> rulesByException = new HashMap<>();
+    private final Map<String, CompiledRule> rulesById = new LinkedHashMap<>();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * 规则命中统计
+     *
+     * @param id   规则 ID
+     * @param hits 命中次数
+     */
+    public record RuleStats(String id, long hits) {
+    }
+
+    @Autowired
+    public RuleBasedAnalyzer(AnalysisRuleConfig config) {
+        this(config.isEnabled() ? load(config.getLocation()) : List.of(), config.getMinConfidence(), config.isEnabled());
+    }
+
+    public RuleBasedAnalyzer(List<AnalysisRule> rules, double minConfidence) {
+        this(rules, minConfidence, true);
+    }
+
+    private RuleBasedAnalyzer(List<AnalysisRule> rules, double minConfidence, boolean enabled) {
+        this.enabled = enabled;
+        for (AnalysisRule rule : rules) {
+            if (rule.getConfidence() < minConfidence) {
+                log.info("规则 {} 可信度 {} 低于阈值 {}，不生效", rule.getId(), rule.getConfidence(), minConfidence);
+                continue;
+            }
+            CompiledRule compiled = new CompiledRule(rule);
+            rulesById.put(rule.getId(), compiled);
+            for (String exceptionClass : rule.getExceptionClasses()) {
+                rulesByException.computeIfAbsent(exceptionClass, key -> new ArrayList<>()).add(compiled);
+            }
+        }
+        log.info("✅ 已加载 {} 条分析规则", rulesById.size());
+    }
+
+    @Override
+    public Optional<AnalysisResult> tryAnalyze(LogRecord record) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        List<CompiledRule> candidates = rulesByException.get(record.getExceptionClass());
+        if (candidates != null) {
+            for (CompiledRule rule : candidates) {
+                Optional<AnalysisResult> result = rule.apply(record);
+                if (result.isPresent()) {
+                    rule.hits.increment();
+                    log.info("⚡ 规则 {} 命中，跳过AI分析: {}", rule.id, record.getExceptionClass());
+                    return result;
+                }
+            }
+        }
+        misses.increment();
+        return Optional.empty();
+    }
+
+    /**
+     * 各规则命中次数，按加载顺序
+     */
+    public List<RuleStats> stats() {
+        return rulesById.values().stream().map(rule -> new RuleStats(rule.id, rule.hits.sum())).toList();
+    }
+
+    /**
+     * 未命中任何规则、交给后续环节的次数
+     */
+    public long misses() {
+        return misses.sum();
+    }
+
+    static List<AnalysisRule> load(String location) {
+        Resource resource = new DefaultResourceLoader().getResource(location);
+        if (!resource.exists()) {
+            log.warn("⚠️ 规则文件不存在: {}", location);
+            return List.of();
+        }
+        try (InputStream in = resource.getInputStream()) {
+            return MAPPER.readValue(in, new TypeReference<List<AnalysisRule>>() {
+            });
+        } catch (IOException e) {
+            throw new IllegalStateException("规则文件格式错误: " + location, e);
+        }
+    }
+
+    private static final class CompiledRule {
+        final String id;
+        final Pattern messagePattern;
+        final Pattern framePattern;
+        final PromptTemplate rootCause;
+        final PromptTemplate summary;
+        final PromptTemplate fixSuggestion;
+        final LongAdder hits = new LongAdder();
+
+        CompiledRule(AnalysisRule rule) {
+            this.id = rule.getId();
+            this.messagePattern = compile(rule.getMessagePattern());
+            this.framePattern = compile(rule.getFramePattern());
+            this.rootCause = PromptTemplate.compile(rule.getRootCause(), TEMPLATE_VARIABLES);
+            this.summary = PromptTemplate.compile(rule.getSummary(), TEMPLATE_VARIABLES);
+            this.fixSuggestion = PromptTemplate.compile(rule.getFixSuggestion(), TEMPLATE_VARIABLES);
+        }
+
+        Optional<AnalysisResult> apply(LogRecord record) {
+            String detail = "";
+            if (messagePattern != null) {
+                String message = record.getExceptionMessage() == null ? "" : record.getExceptionMessage();
+                Matcher matcher = messagePattern.matcher(message);
+                if (!matcher.find()) {
+                    return Optional.empty();
+                }
+                if (messagePattern.pattern().contains("(?<detail>") && matcher.group("detail") != null) {
+                    detail = matcher.group("detail");
+                }
+            }
+            if (framePattern != null && !matchesAnyFrame(record.getStackFrames())) {
+                return Optional.empty();
+            }
+
+            Object[] values = {record.getExceptionClass(), record.getExceptionMessage(), location(record), detail};
+            return Optional.of(AnalysisResult.builder()
+                    .rootCause(rootCause.render(new StringBuilder(), values).toString())
+                    .summary(summary.render(new StringBuilder(), values).toString())
+                    .fixSuggestion(fixSuggestion.render(new StringBuilder(), values).toString())
+                    .relatedLocation(location(record))
+                    .ruleId(id)
+                    .build());
+        }
+
+        private boolean matchesAnyFrame(List<StackFrame> frames) {
+            if (frames == null) {
+                return false;
+            }
+            for (StackFrame frame : frames) {
+                if (!frame.isCollapsed() && framePattern.matcher(frame.getClassName() + '.' + frame.getMethodName()).find()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * 优先取第一个业务帧的位置
+         */
+        private static String location(LogRecord record) {
+            if (record.getStackFrames() != null) {
+                for (StackFrame frame : record.getStackFrames()) {
+                    if (frame.isBusinessFlag() && !frame.isCollapsed()) {
+                        return String.format("%s.%s:%d", frame.getClassName(), frame.getMethodName(), frame.getLineNumber());
+                    }
+                }
+            }
+            return record.getTopFrameLocation();
+        }
+
+        private static Pattern compile(String regex) {
+            return regex == null || regex.isBlank() ? null : Pattern.compile(regex);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.lllkkk.ai.agent.modules.log.handle.domain.service.impl;
+
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.AnalysisResult;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.Deadline;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.LogRecord;
+import com.lllkkk.ai.agent.modules.log.handle.domain.service.AnalyzerLink;
+import com.lllkkk.ai.agent.modules.log.handle.infrastructure.cluster.PeerClient;
+import com.lllkkk.ai.agent.modules.log.handle.infrastructure.cluster.ShardRouter;
+import com.lllkkk.ai.agent.modules.log.handle.infrastructure.config.ClusterConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * 集群分片转发
+ * 位于本地规则之后、历史复用之前：指纹不归本节点负责时转发给负责节点，由其复用或分析；
+ * 负责节点不可达时退回本地分析，保证可用性优先
+ */
+@Slf4j
+@Component
+@Order(80)
+public class ShardForwardingLink implements AnalyzerLink {
+
+    private final ShardRouter router;
+    private final PeerClient peerClient;
+    private final ClusterConfig config;
+
+    public ShardForwardingLink(ShardRouter router, PeerClient peerClient, ClusterConfig config) {
+        this.router = router;
+        this.peerClient = peerClient;
+        this.config = config;
+    }
+
+    @Override
+    public Optional<AnalysisResult> tryAnalyze(LogRecord record) {
+        return tryAnalyze(record, Deadline.none());
+    }
+
+    @Override
+    public Optional<AnalysisResult> tryAnalyze(LogRecord record, Deadline deadline) {
+        if (!router.isEnabled() || record.isReceivedFromPeer()) {
+            return Optional.empty();
+        }
+        String owner = router.ownerOf(record);
+        if (router.isSelf(owner)) {
+            return Optional.empty();
+        }
+        long timeoutMs = deadline.isBounded()
+                ? Math.min(deadline.remainingMillis(), config.getForwardTimeoutMs())
+                : config.getForwardTimeoutMs();
+        if (timeoutMs <= 0) {
+            return Optional.empty();
+        }
+
+        try {
+            AnalysisResult result = peerClient.analyze(router.peerUrl(owner), record, timeoutMs);
+            log.debug("已转发到节点 {}: {}", owner, record.getExceptionClass());
+            return Optional.of(result.getAnalyzedBy() != null ? result : result.toBuilder().analyzedBy(owner).build());
+        } catch (IOException e) {
+            log.warn("⚠️ 转发到节点 {} 失败，改为本地分析: {}", owner, e.getMessage());
+            return Optional.empty();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Optional.empty();
+        }
+    }
+}
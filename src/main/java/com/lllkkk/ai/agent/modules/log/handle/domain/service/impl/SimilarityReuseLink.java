@@ -0,0 +1,56 @@
+package com.lllkkk.ai.agent.modules.log.handle.domain.service.impl;
+
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.AnalysisResult;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.LogRecord;
+import com.lllkkk.ai.agent.modules.log.handle.domain.service.AnalyzerLink;
+import com.lllkkk.ai.agent.modules.log.handle.domain.service.similarity.ExceptionSignature;
+import com.lllkkk.ai.agent.modules.log.handle.domain.service.similarity.SimilarityIndex;
+import com.lllkkk.ai.agent.modules.log.handle.infrastructure.config.AnalysisReuseConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 近似重复异常复用
+ * 与历史异常的 SimHash 相似度达到阈值时直接返回历史分析结果，并带上相似度
+ */
+@Slf4j
+@Component
+@Order(100)
+public class SimilarityReuseLink implements AnalyzerLink {
+
+    private final AnalysisReuseConfig config;
+    private final SimilarityIndex<AnalysisResult> index;
+
+    public SimilarityReuseLink(AnalysisReuseConfig config) {
+        this.config = config;
+        this.index = new SimilarityIndex<>(config.getMaxEntries(), TimeUnit.MINUTES.toMillis(config.getTtlMinutes()));
+    }
+
+    @Override
+    public Optional<AnalysisResult> tryAnalyze(LogRecord record) {
+        if (!config.isEnabled()) {
+            return Optional.empty();
+        }
+        return index.findSimilar(ExceptionSignature.of(record), config.getSimilarityThreshold())
+                .map(match -> {
+                    log.info("♻️ 复用历史分析结果: {}, 相似度 {}", record.getExceptionClass(), match.score());
+                    return match.value().toBuilder().matchScore(match.score()).build();
+                });
+    }
+
+    @Override
+    public void onAnalyzed(LogRecord record, AnalysisResult result) {
+        // 降级结果不代表真实分析，不进入索引
+        if (config.isEnabled() && result != null && !result.isDegraded() && result.getMatchScore() == null) {
+            index.put(ExceptionSignature.of(record), result);
+        }
+    }
+
+    public int indexedCount() {
+        return index.size();
+    }
+}
@@ -0,0 +1,119 @@
+package com.lllkkk.ai.agent.modules.log.handle.domain.service.impl;
+
+import com.lllkkk.ai.agent.modules.log.handle.domain.service.BusinessPackageMatcher;
+import com.lllkkk.ai.agent.modules.log.handle.infrastructure.config.BusinessPackageConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 基于包名分段前缀树的业务包匹配器
+ * 每个项目一棵前缀树，并按类名缓存判定结果（超过上限时整体清空）
+ */
+@Slf4j
+@Service
+public class TrieBusinessPackageMatcher implements BusinessPackageMatcher {
+
+    private final Map<String, ProjectMatcher> projectMatchers = new HashMap<>();
+    private final ProjectMatcher defaultMatcher;
+
+    public TrieBusinessPackageMatcher(BusinessPackageConfig config) {
+        int cacheSize = Math.max(1, config.getVerdictCacheSize());
+        this.defaultMatcher = new ProjectMatcher(config.getDefaultPackages(), cacheSize);
+        config.getProjects().forEach((project, packages) ->
+                projectMatchers.put(project, new ProjectMatcher(packages, cacheSize)));
+        log.info("业务包匹配器初始化完成: 默认包 {} 个, 项目 {} 个",
+                config.getDefaultPackages().size(), projectMatchers.size());
+    }
+
+    /**
+     * 使用默认配置创建匹配器（未接入 Spring 时使用）
+     */
+    public static TrieBusinessPackageMatcher withDefaults() {
+        return new TrieBusinessPackageMatcher(new BusinessPackageConfig());
+    }
+
+    @Override
+    public boolean isBusinessClass(String projectName, String className) {
+        if (className == null || className.isEmpty()) {
+            return false;
+        }
+        ProjectMatcher matcher = projectName == null ? defaultMatcher
+                : projectMatchers.getOrDefault(projectName, defaultMatcher);
+        return matcher.matches(className);
+    }
+
+    private static final class ProjectMatcher {
+        private final PackageTrie trie = new PackageTrie();
+        private final Map<String, Boolean> verdictCache = new ConcurrentHashMap<>();
+        private final int cacheSize;
+
+        ProjectMatcher(List<String> packages, int cacheSize) {
+            this.cacheSize = cacheSize;
+            if (packages != null) {
+                packages.forEach(trie::add);
+            }
+        }
+
+        boolean matches(String className) {
+            Boolean cached = verdictCache.get(className);
+            if (cached != null) {
+                return cached;
+            }
+            boolean verdict = trie.matchesPrefix(className);
+            if (verdictCache.size() >= cacheSize) {
+                verdictCache.clear();
+            }
+            verdictCache.put(className, verdict);
+            return verdict;
+        }
+    }
+
+    /**
+     * 按 '.' 分段的包名前缀树，只做整段匹配（com.dyyl 不会匹配 com.dyylx）
+     */
+    static final class PackageTrie {
+        private final Node root = new Node();
+
+        void add(String packageName) {
+            if (packageName == null || packageName.isBlank()) {
+                return;
+            }
+            Node node = root;
+            for (String segment : packageName.trim().split("\\.")) {
+                if (!segment.isEmpty()) {
+                    node = node.children.computeIfAbsent(segment, k -> new Node());
+                }
+            }
+            node.terminal = true;
+        }
+
+        boolean matchesPrefix(String className) {
+            Node node = root;
+            int start = 0;
+            int length = className.length();
+            while (start < length) {
+                int dot = className.indexOf('.', start);
+                int end = dot == -1 ? length : dot;
+                node = node.children.get(className.substring(start, end));
+                if (node == null) {
+                    return false;
+                }
+                if (node.terminal) {
+                    return true;
+                }
+                start = end + 1;
+            }
+            return false;
+        }
+
+        private static final class Node {
+            private final Map<String, Node> children = new HashMap<>();
+            private boolean terminal;
+        }
+    }
+}
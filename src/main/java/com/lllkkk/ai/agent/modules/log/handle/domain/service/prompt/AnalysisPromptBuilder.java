@@ -0,0 +1,306 @@
+package com.lllkkk.ai.agent.modules.log.handle.domain.service.prompt;
+
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.CodeSnippet;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.LogRecord;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.StackFrame;
+import com.lllkkk.ai.agent.modules.log.handle.infrastructure.client.ChatPrompt;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 异常分析提示词构建器
+ * 不变的角色说明、分析要求与 JSON 格式放在固定的 system 消息中（只构建一次，便于提供方做上下文缓存），
+ * 每条记录只渲染 user 消息，且复用线程内缓冲区。
+ * 定时摘要把多条记录按编号合并到一条 user 消息中，要求模型按编号返回 JSON 数组
+ */
+@Component
+public class AnalysisPromptBuilder {
+
+    /**
+     * 提示词中最多展示的堆栈帧数
+     */
+    public static final int MAX_PROMPT_FRAMES = 5;
+
+    private static final String SYSTEM_PROMPT = """
+            你是一位Java异常分析专家，请分析用户提供的异常日志并给出专业的诊断建议。
+
+            === 分析要求 ===
+            1. 根因分析: 请分析导致此异常的根本原因
+            2. 错误摘要: 用简洁的语言描述问题
+            3. 修复建议: 提供具体的解决方案和代码修改建议
+            4. 相关位置: 指出可能需要修改的代码位置
+
+            请以以下JSON格式返回分析结果:
+            {
+              "rootCause": "根本原因",
+              "summary": "错误摘要",
+              "fixSuggestion": "修复建议",
+              "relatedLocation": "相关代码位置"
+            }
+            """;
+
+    private static final String COMPACT_SYSTEM_PROMPT = """
+            你是一位Java异常分析专家，请简要分析用户提供的异常日志。
+            每个字段不超过两句话，只给出最可能的根因和最直接的修复方式。
+
+            请以以下JSON格式返回分析结果:
+            {
+              "rootCause": "根本原因",
+              "summary": "错误摘要",
+              "fixSuggestion": "修复建议",
+              "relatedLocation": "相关代码位置"
+            }
+            """;
+
+    private static final String DIGEST_SYSTEM_PROMPT = """
+            你是一位Java异常分析专家。用户会一次提供多条互不相关的异常日志，每条以 "=== 异常 #编号 ===" 开头。
+            请逐条简要分析，每个字段不超过两句话，只给出最可能的根因和最直接的修复方式。
+
+            请以JSON数组返回分析结果，每条异常对应一个对象，id 与异常编号一致，不要遗漏:
+            [
+              {
+                "id": "编号",
+                "rootCause": "根本原因",
+                "summary": "错误摘要",
+                "fixSuggestion": "修复建议",
+                "relatedLocation": "相关代码位置"
+              }
+            ]
+            """;
+
+    private static final ChatPrompt.Message SYSTEM_MESSAGE = new ChatPrompt.Message("system", SYSTEM_PROMPT);
+    private static final ChatPrompt.Message COMPACT_SYSTEM_MESSAGE = new ChatPrompt.Message("system", COMPACT_SYSTEM_PROMPT);
+    private static final ChatPrompt.Message DIGEST_SYSTEM_MESSAGE = new ChatPrompt.Message("system", DIGEST_SYSTEM_PROMPT);
+
+    private static final PromptTemplate RECORD_TEMPLATE = PromptTemplate.compile("""
+            === 异常基本信息 ===
+            时间戳: ${timestamp}
+            异常级别: ${level}
+            异常类: ${exceptionClass}
+            异常消息: ${exceptionMessage}
+
+            """, "timestamp", "level", "exceptionClass", "exceptionMessage");
+
+    private static final String CAUSES_HEADER = "=== 异常原因链 ===\n";
+    private static final String FRAMES_HEADER = "=== 业务相关堆栈信息 ===\n";
+    private static final String SNIPPET_HEADER = "   相关代码片段:\n";
+    private static final String CONTEXT_HEADER = "=== 异常前的日志（最近 %d 行）===\n";
+
+    /**
+     * 提示词中单行上下文日志的最大字符数
+     */
+    private static final int MAX_CONTEXT_LINE_CHARS = 300;
+
+    /**
+     * 超过该容量的缓冲区用完后丢弃，避免个别超长日志让线程长期持有大数组
+     */
+    private static final int MAX_RETAINED_BUFFER = 64 * 1024;
+
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(4096));
+
+    /**
+     * 完整变体中附加的异常前日志行数（取记录上下文的最后若干行），0 表示不附加
+     */
+    @Value("${analysis.prompt.context-lines:20}")
+    private int promptContextLines = 20;
+
+    /**
+     * 固定的 system 消息
+     */
+    public ChatPrompt.Message systemMessage() {
+        return SYSTEM_MESSAGE;
+    }
+
+    /**
+     * 构建完整的对话请求
+     * @param record 过滤后的日志记录
+     * @param snippets 与前 {@link #promptFrameCount} 个条目一一对应的代码片段，可为 null
+     */
+    public ChatPrompt build(LogRecord record, List<CodeSnippet> snippets) {
+        return build(record, snippets, PromptVariant.FULL);
+    }
+
+    /**
+     * 按指定变体构建对话请求，各变体的 system 消息都是固定的
+     */
+    public ChatPrompt build(LogRecord record, List<CodeSnippet> snippets, PromptVariant variant) {
+        ChatPrompt.Message system = variant == PromptVariant.COMPACT ? COMPACT_SYSTEM_MESSAGE : SYSTEM_MESSAGE;
+        return ChatPrompt.builder()
+                .messages(List.of(system, new ChatPrompt.Message("user", renderUserMessage(record, snippets, variant))))
+                .build();
+    }
+
+    /**
+     * 渲染单条记录相关的 user 消息
+     */
+    public String renderUserMessage(LogRecord record, List<CodeSnippet> snippets) {
+        return renderUserMessage(record, snippets, PromptVariant.FULL);
+    }
+
+    /**
+     * 按变体渲染 user 消息，精简变体展示的堆栈帧更少
+     */
+    public String renderUserMessage(LogRecord record, List<CodeSnippet> snippets, PromptVariant variant) {
+        StringBuilder out = BUFFER.get();
+        out.setLength(0);
+        try {
+            RECORD_TEMPLATE.render(out, record.getTimestampText(), record.getLevel(),
+                    record.getExceptionClass(), record.getExceptionMessage());
+            appendCauses(out, record.getCauses());
+            appendFrames(out, record.getStackFrames(), snippets, variant.maxFrames());
+            if (variant == PromptVariant.FULL) {
+                appendContext(out, record.getContextLines());
+            }
+            return out.toString();
+        } finally {
+            if (out.capacity() > MAX_RETAINED_BUFFER) {
+                BUFFER.remove();
+            }
+        }
+    }
+
+    /**
+     * 摘要的固定 system 消息
+     */
+    public ChatPrompt.Message digestSystemMessage() {
+        return DIGEST_SYSTEM_MESSAGE;
+    }
+
+    /**
+     * 渲染摘要中的一条异常：编号标题 + 项目 + 精简变体的记录内容（使用 enrich 阶段补充的片段）
+     */
+    public String renderDigestItem(String id, LogRecord record) {
+        String project = record.getProjectName() == null || record.getProjectName().isEmpty()
+                ? "" : "项目: " + record.getProjectName() + "\n";
+        return "=== 异常 #" + id + " ===\n" + project
+                + renderUserMessage(record, record.getCodeSnippets(), PromptVariant.COMPACT);
+    }
+
+    /**
+     * 把已渲染的多条异常合并为一次摘要请求
+     */
+    public ChatPrompt buildDigest(List<String> renderedItems) {
+        return ChatPrompt.builder()
+                .messages(List.of(DIGEST_SYSTEM_MESSAGE, new ChatPrompt.Message("user", String.join("\n", renderedItems))))
+                .build();
+    }
+
+    /**
+     * 粗略估算文本的令牌数：ASCII 字符约 4 个一个令牌，其余（中文等）每字符一个令牌
+     */
+    public static int estimateTokens(CharSequence text) {
+        int ascii = 0;
+        int other = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) < 0x80) {
+                ascii++;
+            } else {
+                other++;
+            }
+        }
+        return other + (ascii + 3) / 4;
+    }
+
+    private void appendCauses(StringBuilder out, List<String> causes) {
+        if (causes == null || causes.isEmpty()) {
+            return;
+        }
+        out.append(CAUSES_HEADER);
+        for (String cause : causes) {
+            out.append("Caused by: ").append(cause).append('\n');
+        }
+        out.append('\n');
+    }
+
+    private void appendContext(StringBuilder out, List<String> context) {
+        if (promptContextLines <= 0 || context == null || context.isEmpty()) {
+            return;
+        }
+        int from = Math.max(0, context.size() - promptContextLines);
+        out.append(String.format(CONTEXT_HEADER, context.size() - from));
+        for (String line : context.subList(from, context.size())) {
+            if (line.length() > MAX_CONTEXT_LINE_CHARS) {
+                out.append(line, 0, MAX_CONTEXT_LINE_CHARS).append(" ...\n");
+            } else {
+                out.append(line).append('\n');
+            }
+        }
+        out.append('\n');
+    }
+
+    private void appendFrames(StringBuilder out, List<StackFrame> frames, List<CodeSnippet> snippets, int maxFrames) {
+        if (frames == null || frames.isEmpty()) {
+            return;
+        }
+        out.append(FRAMES_HEADER);
+        int count = promptFrameCount(frames, maxFrames);
+        int number = 0;
+        for (int i = 0; i < count; i++) {
+            StackFrame frame = frames.get(i);
+            if (frame.isCollapsed()) {
+                out.append("   ... 省略 ").append(frame.getCollapsedFrames())
+                        .append(" 个框架帧 (").append(frame.getClassName()).append(")\n\n");
+                continue;
+            }
+            // 结构化接入的帧可能缺少类名或方法名
+            String className = frame.getClassName() == null ? "" : frame.getClassName();
+            out.append(++number).append(". ")
+                    .append(className).append('.').append(frame.getMethodName() == null ? "" : frame.getMethodName())
+                    .append('(').append(className, className.lastIndexOf('.') + 1, className.length())
+                    .append(':').append(frame.getLineNumber()).append(')');
+            if (frame.getRepeatCount() > 1) {
+                out.append(" ×").append(frame.getRepeatCount());
+            }
+            out.append('\n');
+
+            CodeSnippet snippet = snippets == null || i >= snippets.size() ? null : snippets.get(i);
+            if (snippet != null && snippet.getLines() != null && !snippet.getLines().isEmpty()) {
+                appendSnippet(out, snippet, frame.getLineNumber());
+            }
+            out.append('\n');
+        }
+    }
+
+    /**
+     * 提示词中展示的条目数：覆盖前 {@link #MAX_PROMPT_FRAMES} 个真实堆栈帧，以及夹在其间的折叠摘要
+     */
+    public static int promptFrameCount(List<StackFrame> frames) {
+        return promptFrameCount(frames, MAX_PROMPT_FRAMES);
+    }
+
+    static int promptFrameCount(List<StackFrame> frames, int maxFrames) {
+        int real = 0;
+        int count = 0;
+        while (count < frames.size() && real < maxFrames) {
+            if (!frames.get(count++).isCollapsed()) {
+                real++;
+            }
+        }
+        return count;
+    }
+
+    private void appendSnippet(StringBuilder out, CodeSnippet snippet, int targetLine) {
+        out.append(SNIPPET_HEADER);
+        List<String> lines = snippet.getLines();
+        for (int j = 0; j < lines.size(); j++) {
+            int lineNum = snippet.getStartLine() + j;
+            out.append("   ").append(lineNum == targetLine ? '>' : ' ').append(' ');
+            // 行号右对齐到 4 位
+            for (int pad = 4 - digits(lineNum); pad > 0; pad--) {
+                out.append(' ');
+            }
+            out.append(lineNum).append(": ").append(lines.get(j).strip()).append('\n');
+        }
+    }
+
+    private static int digits(int value) {
+        int digits = 1;
+        while (value >= 10) {
+            value /= 10;
+            digits++;
+        }
+        return digits;
+    }
+}
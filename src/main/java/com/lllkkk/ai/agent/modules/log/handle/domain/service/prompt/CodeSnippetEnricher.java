@@ -0,0 +1,100 @@
+package com.lllkkk.ai.agent.modules.log.handle.domain.service.prompt;
+
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.CodeSnippet;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.Deadline;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.LogRecord;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.StackFrame;
+import com.lllkkk.ai.agent.modules.log.handle.domain.service.CodeLocator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 为日志记录补充提示词中各堆栈帧的源码片段
+ */
+@Slf4j
+@Component
+public class CodeSnippetEnricher {
+
+    private static final ExecutorService SNIPPET_EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * 源码定位器不在启动关键路径上，首次分析时才初始化
+     */
+    private final CodeLocator codeLocator;
+
+    public CodeSnippetEnricher(@Lazy CodeLocator codeLocator) {
+        this.codeLocator = codeLocator;
+    }
+
+    /**
+     * 获取前几个堆栈帧的源码片段并写入 {@link LogRecord#codeSnippets}
+     */
+    public List<CodeSnippet> enrich(LogRecord record, Deadline deadline) {
+        List<CodeSnippet> snippets = fetchSnippets(record, deadline);
+        record.setCodeSnippets(snippets);
+        return snippets;
+    }
+
+    /**
+     * 获取提示词中各堆栈帧的源码片段，与堆栈帧一一对应，折叠摘要和获取失败的位置为 null。
+     * 有截止时间时在虚拟线程中查找，到期即中断，已取到的片段照常使用
+     */
+    public List<CodeSnippet> fetchSnippets(LogRecord record, Deadline deadline) {
+        List<StackFrame> frames = record.getStackFrames();
+        if (frames == null || frames.isEmpty()) {
+            return List.of();
+        }
+        int count = AnalysisPromptBuilder.promptFrameCount(frames);
+        AtomicReferenceArray<CodeSnippet> snippets = new AtomicReferenceArray<>(count);
+        Runnable lookup = () -> {
+            for (int i = 0; i < count && !Thread.currentThread().isInterrupted(); i++) {
+                if (!frames.get(i).isCollapsed()) {
+                    snippets.set(i, locateQuietly(record, frames.get(i)));
+                }
+            }
+        };
+
+        if (!deadline.isBounded()) {
+            lookup.run();
+        } else {
+            Future<?> task = SNIPPET_EXECUTOR.submit(lookup);
+            try {
+                task.get(deadline.remainingMillis(), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                task.cancel(true);
+                log.warn("⚠️ 获取代码片段超出时间预算，已取消");
+            } catch (InterruptedException e) {
+                task.cancel(true);
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                log.warn("获取代码片段失败", e.getCause());
+            }
+        }
+
+        List<CodeSnippet> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(snippets.get(i));
+        }
+        return result;
+    }
+
+    private CodeSnippet locateQuietly(LogRecord record, StackFrame frame) {
+        try {
+            return codeLocator.locate(record.getProjectName(), record.getVersion(), frame).orElse(null);
+        } catch (Exception e) {
+            log.warn("获取代码片段失败: {}", frame, e);
+            return null;
+        }
+    }
+}
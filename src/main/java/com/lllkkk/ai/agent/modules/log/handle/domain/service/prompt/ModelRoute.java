@@ -0,0 +1,34 @@
+package com.lllkkk.ai.agent.modules.log.handle.domain.service.prompt;
+
+import com.lllkkk.ai.agent.modules.log.handle.infrastructure.client.ChatPrompt;
+
+/**
+ * 单条记录的模型路由结果
+ *
+ * @param tier      命中的档位名称，未启用路由时为空
+ * @param score     复杂度得分
+ * @param model     主提供方使用的模型，为空时使用提供方配置
+ * @param maxTokens 最大输出令牌数，为空时使用提供方配置
+ * @param variant   提示词变体
+ * @param provider  model 覆盖生效的提供方
+ */
+public record ModelRoute(String tier, int score, String model, Integer maxTokens,
+                         PromptVariant variant, String provider) {
+
+    /**
+     * 不做路由：完整提示词，模型和令牌数沿用提供方配置
+     */
+    public static ModelRoute defaults(int score) {
+        return new ModelRoute(null, score, null, null, PromptVariant.FULL, null);
+    }
+
+    /**
+     * 把模型和令牌数覆盖写入对话请求
+     */
+    public ChatPrompt applyTo(ChatPrompt prompt) {
+        prompt.setModel(model);
+        prompt.setMaxTokens(maxTokens);
+        prompt.setModelProvider(provider);
+        return prompt;
+    }
+}
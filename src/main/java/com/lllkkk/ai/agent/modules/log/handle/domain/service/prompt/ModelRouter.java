@@ -0,0 +1,76 @@
+package com.lllkkk.ai.agent.modules.log.handle.domain.service.prompt;
+
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.CodeSnippet;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.LogRecord;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.StackFrame;
+import com.lllkkk.ai.agent.modules.log.handle.infrastructure.config.LLMProviderConfig;
+import com.lllkkk.ai.agent.modules.log.handle.infrastructure.config.ModelRoutingConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 按异常复杂度选择模型、最大令牌数和提示词变体
+ * 得分 = 真实堆栈帧数 + 2 × 业务帧数 + 4 × 原因链深度 + 代码片段行数 / 10，
+ * 简单异常（如单帧 NPE）走更快的模型和更短的输出，深层嵌套异常保留完整分析
+ */
+@Slf4j
+@Component
+public class ModelRouter {
+
+    private final ModelRoutingConfig config;
+    private final String primaryProvider;
+
+    public ModelRouter(ModelRoutingConfig config, LLMProviderConfig providerConfig) {
+        this.config = config;
+        this.primaryProvider = providerConfig.getPrimary();
+    }
+
+    public ModelRoute route(LogRecord record, List<CodeSnippet> snippets) {
+        int score = score(record, snippets);
+        if (!config.isEnabled() || config.getTiers() == null || config.getTiers().isEmpty()) {
+            return ModelRoute.defaults(score);
+        }
+        ModelRoutingConfig.Tier tier = selectTier(score);
+        log.debug("复杂度得分 {}，使用档位 {}: {}", score, tier.getName(), record.getExceptionClass());
+        return new ModelRoute(tier.getName(), score, tier.getModel(), tier.getMaxTokens(),
+                tier.getVariant() != null ? tier.getVariant() : PromptVariant.FULL, primaryProvider);
+    }
+
+    private ModelRoutingConfig.Tier selectTier(int score) {
+        List<ModelRoutingConfig.Tier> tiers = config.getTiers();
+        for (ModelRoutingConfig.Tier tier : tiers) {
+            if (tier.getMaxScore() == null || score <= tier.getMaxScore()) {
+                return tier;
+            }
+        }
+        return tiers.get(tiers.size() - 1);
+    }
+
+    static int score(LogRecord record, List<CodeSnippet> snippets) {
+        int frames = 0;
+        int business = 0;
+        if (record.getStackFrames() != null) {
+            for (StackFrame frame : record.getStackFrames()) {
+                if (frame.isCollapsed()) {
+                    continue;
+                }
+                frames++;
+                if (frame.isBusinessFlag()) {
+                    business++;
+                }
+            }
+        }
+        int causeDepth = record.getCauses() == null ? 0 : record.getCauses().size();
+        int snippetLines = 0;
+        if (snippets != null) {
+            for (CodeSnippet snippet : snippets) {
+                if (snippet != null && snippet.getLines() != null) {
+                    snippetLines += snippet.getLines().size();
+                }
+            }
+        }
+        return frames + 2 * business + 4 * causeDepth + snippetLines / 10;
+    }
+}
@@ -0,0 +1,70 @@
+package com.lllkkk.ai.agent.modules.log.handle.domain.service.prompt;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 预编译的提示词模板
+ * 模板中的 ${name} 占位符在编译时拆分为 字面量/变量 段，渲染时按变量声明顺序直接追加到缓冲区，
+ * 不再逐次解析格式串
+ */
+public final class PromptTemplate {
+
+    private final String[] literals;
+    private final int[] variableSlots;
+
+    private PromptTemplate(String[] literals, int[] variableSlots) {
+        this.literals = literals;
+        this.variableSlots = variableSlots;
+    }
+
+    /**
+     * 编译模板
+     * @param template 模板文本
+     * @param variables 变量名，渲染时按此顺序传值
+     */
+    public static PromptTemplate compile(String template, String... variables) {
+        List<String> literals = new ArrayList<>();
+        List<Integer> slots = new ArrayList<>();
+        int pos = 0;
+        while (true) {
+            int open = template.indexOf("${", pos);
+            if (open < 0) {
+                literals.add(template.substring(pos));
+                break;
+            }
+            int close = template.indexOf('}', open);
+            if (close < 0) {
+                throw new IllegalArgumentException("模板占位符未闭合: " + template.substring(open));
+            }
+            String name = template.substring(open + 2, close);
+            int slot = indexOf(variables, name);
+            if (slot < 0) {
+                throw new IllegalArgumentException("模板变量未声明: " + name);
+            }
+            literals.add(template.substring(pos, open));
+            slots.add(slot);
+            pos = close + 1;
+        }
+        return new PromptTemplate(literals.toArray(String[]::new), slots.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    /**
+     * 渲染到缓冲区，null 值按 "null" 输出
+     */
+    public StringBuilder render(StringBuilder out, Object... values) {
+        for (int i = 0; i < variableSlots.length; i++) {
+            out.append(literals[i]).append(values[variableSlots[i]]);
+        }
+        return out.append(literals[literals.length - 1]);
+    }
+
+    private static int indexOf(String[] variables, String name) {
+        for (int i = 0; i < variables.length; i++) {
+            if (variables[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,25 @@
+package com.lllkkk.ai.agent.modules.log.handle.domain.service.prompt;
+
+/**
+ * 提示词变体
+ */
+public enum PromptVariant {
+    /**
+     * 完整分析：展示前 5 个堆栈帧，要求详细的根因和修复建议
+     */
+    FULL(AnalysisPromptBuilder.MAX_PROMPT_FRAMES),
+    /**
+     * 精简分析：用于简单异常，只展示前 3 个堆栈帧，要求每项简短作答
+     */
+    COMPACT(3);
+
+    private final int maxFrames;
+
+    PromptVariant(int maxFrames) {
+        this.maxFrames = maxFrames;
+    }
+
+    public int maxFrames() {
+        return maxFrames;
+    }
+}
@@ -0,0 +1,41 @@
+package com.lllkkk.ai.agent.modules.log.handle.domain.service.rule;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 本地分析规则，从 JSON 加载
+ * 异常类、消息模式、堆栈帧模式中配置了的条件全部满足时命中；
+ * 结论模板中可使用 ${exceptionClass}、${exceptionMessage}、${location}，
+ * 以及消息模式中命名分组 detail 捕获的 ${detail}
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class AnalysisRule {
+    public String id;
+    /**
+     * 匹配的异常类（全限定名），任一相同即可
+     */
+    public List<String> exceptionClasses;
+    /**
+     * 异常消息正则（find 语义），可为空
+     */
+    public String messagePattern;
+    /**
+     * 堆栈帧正则，匹配 类名.方法名，任一帧匹配即可，可为空
+     */
+    public String framePattern;
+    /**
+     * 规则结论的可信度（0~1），低于配置阈值的规则不生效
+     */
+    public double confidence;
+    public String rootCause;
+    public String summary;
+    public String fixSuggestion;
+}
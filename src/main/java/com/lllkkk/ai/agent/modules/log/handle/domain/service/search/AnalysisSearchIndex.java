@@ -0,0 +1,590 @@
+package com.lllkkk.ai.agent.modules.log.handle.domain.service.search;
+
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.AnalysisResult;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.LogRecord;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.StackFrame;
+import com.lllkkk.ai.agent.modules.log.handle.infrastructure.config.SearchIndexConfig;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongSupplier;
+
+/**
+ * 历史分析的内存倒排索引
+ * 每条完成的分析按写入顺序分配递增的文档号，异常类、业务堆栈帧、异常消息、项目和分析结论分词后写入各词项的倒排表
+ * （文档号升序，附带按字段加权的词频）。文档存放在定长的环形数组中，写满后淘汰最早的文档；
+ * 因为淘汰总是按文档号从小到大，倒排表中失效的条目总在开头，写入时顺带截掉，并定期清理整个词典；每个项目另有一份文档号列表。
+ * 查询只在读锁内取各倒排表的快照（数组引用和长度），遍历在锁外进行：写入只在快照长度之后追加，扩容和截断都换新数组，
+ * 快照期间被淘汰的文档按文档号校验后跳过。
+ * 查询从最新的文档起按文档号倒序同时遍历各查询词的倒排表（document-at-a-time），先按项目和时间过滤再计算 BM25，
+ * 用大小为 limit 的最小堆保留得分最高的文档，同分时先到的较新文档优先。
+ * 满足条件的文档数精确统计到 {@link #TOTAL_HITS_THRESHOLD} 条，之后按 MaxScore 剪枝：各词项按得分上界（最大词频、最短文档）升序排列，
+ * 上界之和不超过堆中最低分的词项只用来补分、不再产生候选文档，所有词项都如此时提前结束，结果与不剪枝时逐位相同。
+ * 文档数足够时，出现在过半文档中的词项（如 java、exception）在还有其他查询词时只给候选文档补分，不单独产生候选，
+ * 避免遍历几乎覆盖全部文档的倒排表，同时保留它对排序的作用
+ */
+@Component
+public class AnalysisSearchIndex {
+
+    /**
+     * 单次查询最多使用的词项数
+     */
+    static final int MAX_QUERY_TERMS = 16;
+
+    /**
+     * 满足条件的文档数精确统计的上限，超过后开始剪枝，总数只是下限
+     */
+    static final int TOTAL_HITS_THRESHOLD = 1000;
+
+    /**
+     * 文档频率超过存活文档数该比例的词项视为常见词，查询中还有其他词项时只补分、不产生候选文档
+     */
+    static final double STOP_TERM_RATIO = 0.5;
+
+    /**
+     * 存活文档数达到该值才判断常见词，文档太少时文档频率没有代表性
+     */
+    static final int STOP_TERM_MIN_DOCUMENTS = 1000;
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private static final int CLASS_WEIGHT = 3;
+    private static final int FRAME_WEIGHT = 2;
+    private static final int TEXT_WEIGHT = 1;
+
+    /**
+     * 每写入该数量的文档清理一次词典，去掉只含失效文档的词项
+     */
+    private static final int MAX_SWEEP_INTERVAL = 1 << 16;
+
+    private final boolean enabled;
+    private final int capacity;
+    private final int maxMessageChars;
+    private final int sweepInterval;
+    private final LongSupplier clock;
+
+    private final Document[] documents;
+    private final Map<String, Postings> dictionary = new HashMap<>();
+    private final Map<String, Postings> projectDocuments = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private int nextDocId;
+    private long totalLength;
+
+    /**
+     * 查询结果
+     *
+     * @param total      满足条件的文档数
+     * @param totalExact total 是否精确；超过 {@link #TOTAL_HITS_THRESHOLD} 后停止计数，total 为下限
+     * @param hits       得分最高的至多 limit 条，按得分降序（未指定查询词时按写入时间倒序）
+     */
+    public record Result(int total, boolean totalExact, List<SearchHit> hits) {
+    }
+
+    private record Document(int id, String recordId, String projectName, String exceptionClass, String message,
+                            String location, long timestamp, AnalysisResult analysis, int length) {
+    }
+
+    private record Scored(Document document, double score) {
+    }
+
+    @Autowired
+    public AnalysisSearchIndex(SearchIndexConfig config) {
+        this(config, System::currentTimeMillis);
+    }
+
+    AnalysisSearchIndex(SearchIndexConfig config, LongSupplier clock) {
+        this.enabled = config.isEnabled();
+        this.capacity = enabled ? Math.max(1, config.getMaxDocuments()) : 1;
+        this.maxMessageChars = config.getMaxMessageChars();
+        this.sweepInterval = Math.min(capacity, MAX_SWEEP_INTERVAL);
+        this.clock = clock;
+        this.documents = new Document[capacity];
+    }
+
+    /**
+     * 写入一条完成的分析，分词在加锁之前完成
+     */
+    public void add(LogRecord record, AnalysisResult analysis) {
+        if (!enabled || record == null) {
+            return;
+        }
+        String message = truncate(record.getExceptionMessage());
+        Map<String, Integer> frequencies = new HashMap<>();
+        SearchTokenizer.tokenize(record.getExceptionClass(), term -> frequencies.merge(term, CLASS_WEIGHT, Integer::sum));
+        if (record.getStackFrames() != null) {
+            for (StackFrame frame : record.getStackFrames()) {
+                if (frame.isBusinessFlag() && !frame.isCollapsed()) {
+                    SearchTokenizer.tokenize(frame.getClassName() + "." + frame.getMethodName(),
+                            term -> frequencies.merge(term, FRAME_WEIGHT, Integer::sum));
+                }
+            }
+        }
+        SearchTokenizer.tokenize(message, term -> frequencies.merge(term, TEXT_WEIGHT, Integer::sum));
+        SearchTokenizer.tokenize(record.getProjectName(), term -> frequencies.merge(term, TEXT_WEIGHT, Integer::sum));
+        if (analysis != null) {
+            for (String text : new String[]{analysis.getRootCause(), analysis.getSummary(),
+                    analysis.getFixSuggestion(), analysis.getRelatedLocation()}) {
+                SearchTokenizer.tokenize(text, term -> frequencies.merge(term, TEXT_WEIGHT, Integer::sum));
+            }
+        }
+        int length = frequencies.values().stream().mapToInt(Integer::intValue).sum();
+        long timestamp = record.getTimestamp() == LogRecord.UNKNOWN_TIMESTAMP ? clock.getAsLong() : record.getTimestamp();
+
+        lock.writeLock().lock();
+        try {
+            if (nextDocId == Integer.MAX_VALUE) {
+                clear();
+            }
+            int id = nextDocId++;
+            int slot = id % capacity;
+            if (documents[slot] != null) {
+                totalLength -= documents[slot].length();
+            }
+            documents[slot] = new Document(id, record.getRecordId(), record.getProjectName(),
+                    record.getExceptionClass(), message, record.getTopFrameLocation(), timestamp, analysis, length);
+            totalLength += length;
+
+            int minLive = minLiveId();
+            for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+                dictionary.computeIfAbsent(entry.getKey(), term -> new Postings()).add(id, entry.getValue(), length, minLive);
+            }
+            if (record.getProjectName() != null) {
+                projectDocuments.computeIfAbsent(record.getProjectName(), project -> new Postings())
+                        .add(id, 0, length, minLive);
+            }
+            if (nextDocId % sweepInterval == 0) {
+                sweep(minLive);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 检索
+     *
+     * @param query   查询文本，按写入时相同的方式分词，任一词项命中即参与排序；为空时只按条件过滤
+     * @param project 只检索该项目，为空不限
+     * @param from    异常时间下限（epoch 毫秒，含）
+     * @param to      异常时间上限（epoch 毫秒，含）
+     * @param limit   最多返回条数
+     */
+    public Result search(String query, String project, long from, long to, int limit) {
+        Set<String> terms = new LinkedHashSet<>();
+        SearchTokenizer.tokenize(query, term -> {
+            if (terms.size() < MAX_QUERY_TERMS) {
+                terms.add(term);
+            }
+        });
+        String projectFilter = project == null || project.isBlank() ? null : project;
+        int size = Math.max(0, limit);
+
+        Snapshot snapshot;
+        lock.readLock().lock();
+        try {
+            snapshot = snapshot(terms, projectFilter);
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (terms.isEmpty()) {
+            return latest(snapshot, projectFilter, from, to, size);
+        }
+        return ranked(snapshot, projectFilter, from, to, size);
+    }
+
+    /**
+     * 当前保留的文档数
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return nextDocId - minLiveId();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 当前词典中的词项数（含尚未清理的失效词项）
+     */
+    public int termCount() {
+        lock.readLock().lock();
+        try {
+            return dictionary.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 查询所需状态的快照，在读锁内取得
+     *
+     * @param minLive         最小存活文档号
+     * @param end             快照时的下一个文档号
+     * @param averageLength   文档平均长度
+     * @param cursors         各查询词的倒排表游标，未命中的词项不在其中；常见词排在前面
+     * @param scoreOnly       cursors 开头只补分、不产生候选文档的常见词个数
+     * @param projectPostings 项目过滤时该项目的文档号列表，项目不存在时为空列表，不过滤时为 null
+     */
+    private record Snapshot(int minLive, int end, double averageLength, List<Cursor> cursors, int scoreOnly,
+                            Cursor projectPostings) {
+    }
+
+    private Snapshot snapshot(Set<String> terms, String project) {
+        int minLive = minLiveId();
+        int liveDocuments = nextDocId - minLive;
+        double averageLength = Math.max(1.0, (double) totalLength / Math.max(1, liveDocuments));
+        List<Cursor> cursors = new ArrayList<>(terms.size());
+        for (String term : terms) {
+            Postings postings = dictionary.get(term);
+            if (postings == null) {
+                continue;
+            }
+            int position = postings.firstLive(minLive);
+            int df = postings.size - position;
+            if (df > 0) {
+                double idf = Math.log(1 + (liveDocuments - df + 0.5) / (df + 0.5));
+                cursors.add(new Cursor(postings, position, idf, averageLength));
+            }
+        }
+        int scoreOnly = 0;
+        if (liveDocuments >= STOP_TERM_MIN_DOCUMENTS) {
+            List<Cursor> common = new ArrayList<>();
+            List<Cursor> selective = new ArrayList<>();
+            for (Cursor cursor : cursors) {
+                (cursor.documentFrequency() > liveDocuments * STOP_TERM_RATIO ? common : selective).add(cursor);
+            }
+            if (!common.isEmpty() && !selective.isEmpty()) {
+                scoreOnly = common.size();
+                common.addAll(selective);
+                cursors = common;
+            }
+        }
+        Cursor projectPostings = null;
+        if (project != null) {
+            Postings postings = projectDocuments.get(project);
+            projectPostings = postings == null
+                    ? new Cursor(new Postings(), 0, 0, averageLength)
+                    : new Cursor(postings, postings.firstLive(minLive), 0, averageLength);
+        }
+        return new Snapshot(minLive, nextDocId, averageLength, cursors, scoreOnly, projectPostings);
+    }
+
+    /**
+     * 不带查询词：从最新的文档往前找，指定项目时只遍历该项目的文档号列表；
+     * 不限时间时总数即列表长度，否则统计到阈值后提前结束
+     */
+    private Result latest(Snapshot snapshot, String project, long from, long to, int limit) {
+        boolean unboundedTime = from == Long.MIN_VALUE && to == Long.MAX_VALUE;
+        Cursor ids = snapshot.projectPostings();
+        int count = ids != null ? ids.documentFrequency() : snapshot.end() - snapshot.minLive();
+        int total = 0;
+        List<SearchHit> hits = new ArrayList<>(Math.min(limit, 64));
+        for (int i = count - 1; i >= 0; i--) {
+            int id = ids != null ? ids.docs[ids.start + i] : snapshot.minLive() + i;
+            Document document = live(id);
+            if (document == null || !matches(document, project, from, to)) {
+                continue;
+            }
+            total++;
+            if (hits.size() < limit) {
+                hits.add(toHit(document, 0));
+            } else if (unboundedTime) {
+                return new Result(count, true, hits);
+            } else if (total >= TOTAL_HITS_THRESHOLD) {
+                return new Result(total, false, hits);
+            }
+        }
+        return new Result(total, true, hits);
+    }
+
+    private Result ranked(Snapshot snapshot, String project, long from, long to, int limit) {
+        // 常见词在前，其余词项按得分上界升序，bounds[i] 为前 i + 1 个词项的上界之和
+        Cursor[] cursors = snapshot.cursors().toArray(new Cursor[0]);
+        Arrays.sort(cursors, 0, snapshot.scoreOnly(), Comparator.comparingDouble(Cursor::upperBound));
+        Arrays.sort(cursors, snapshot.scoreOnly(), cursors.length, Comparator.comparingDouble(Cursor::upperBound));
+        double[] bounds = new double[cursors.length];
+        for (int i = 0; i < cursors.length; i++) {
+            bounds[i] = (i == 0 ? 0 : bounds[i - 1]) + cursors[i].upperBound();
+        }
+
+        int total = 0;
+        boolean pruning = false;
+        double threshold = 0;
+        // [0, essential) 为非必要词项：只给候选文档补分，不产生候选；常见词始终是非必要词项
+        int essential = snapshot.scoreOnly();
+        double[] contributions = new double[cursors.length];
+        PriorityQueue<Scored> top = new PriorityQueue<>(Comparator.comparingDouble(Scored::score)
+                .thenComparingInt(scored -> scored.document().id()));
+        while (essential < cursors.length) {
+            int id = -1;
+            for (int i = essential; i < cursors.length; i++) {
+                if (cursors[i].hasNext()) {
+                    id = Math.max(id, cursors[i].doc());
+                }
+            }
+            if (id < 0) {
+                break;
+            }
+            Document document = live(id);
+            boolean matches = document != null && matches(document, project, from, to);
+            // 各词项得分按固定顺序求和，剪枝与否得分逐位相同，同分文档的先后不受影响
+            Arrays.fill(contributions, 0);
+            double partial = 0;
+            for (int i = essential; i < cursors.length; i++) {
+                if (cursors[i].hasNext() && cursors[i].doc() == id) {
+                    if (matches) {
+                        contributions[i] = cursors[i].score(document);
+                        partial += contributions[i];
+                    }
+                    cursors[i].position--;
+                }
+            }
+            if (!matches) {
+                continue;
+            }
+            boolean competitive = true;
+            for (int i = essential - 1; i >= 0; i--) {
+                if (partial + bounds[i] <= threshold) {
+                    competitive = false;
+                    break;
+                }
+                if (cursors[i].advance(id) && cursors[i].doc() == id) {
+                    contributions[i] = cursors[i].score(document);
+                    partial += contributions[i];
+                }
+            }
+            if (!competitive) {
+                continue;
+            }
+            double score = 0;
+            for (double contribution : contributions) {
+                score += contribution;
+            }
+            total++;
+            if (top.size() < limit) {
+                top.add(new Scored(document, score));
+            } else if (limit > 0 && score > top.peek().score()) {
+                // 倒序遍历，同分时保留先到的较新文档
+                top.poll();
+                top.add(new Scored(document, score));
+            }
+            if (!pruning && limit > 0 && top.size() == limit && total >= TOTAL_HITS_THRESHOLD) {
+                pruning = true;
+            }
+            if (pruning) {
+                threshold = top.peek().score();
+                while (essential < cursors.length && bounds[essential] <= threshold) {
+                    essential++;
+                }
+            }
+        }
+
+        Scored[] ordered = top.toArray(new Scored[0]);
+        Arrays.sort(ordered, Comparator.comparingDouble(Scored::score).reversed()
+                .thenComparing(Comparator.comparingInt((Scored scored) -> scored.document().id()).reversed()));
+        List<SearchHit> hits = new ArrayList<>(ordered.length);
+        for (Scored scored : ordered) {
+            hits.add(toHit(scored.document(), scored.score()));
+        }
+        return new Result(total, !pruning, hits);
+    }
+
+    /**
+     * 文档号对应的存活文档；快照之后被淘汰（槽位已被新文档占用）时为 null
+     */
+    private Document live(int id) {
+        Document document = documents[id % capacity];
+        return document != null && document.id() == id ? document : null;
+    }
+
+    private static boolean matches(Document document, String project, long from, long to) {
+        return (project == null || project.equals(document.projectName()))
+                && document.timestamp() >= from && document.timestamp() <= to;
+    }
+
+    private static SearchHit toHit(Document document, double score) {
+        AnalysisResult analysis = document.analysis();
+        return new SearchHit(document.recordId(), document.projectName(), document.exceptionClass(),
+                document.message(), document.location(), document.timestamp(),
+                analysis == null ? null : analysis.getRootCause(),
+                analysis == null ? null : analysis.getSummary(),
+                analysis == null ? null : analysis.getFixSuggestion(),
+                analysis != null && analysis.isDegraded(), score);
+    }
+
+    private String truncate(String message) {
+        if (message == null || message.length() <= maxMessageChars) {
+            return message;
+        }
+        return message.substring(0, Math.max(0, maxMessageChars));
+    }
+
+    private int minLiveId() {
+        return Math.max(0, nextDocId - capacity);
+    }
+
+    private void sweep(int minLive) {
+        sweep(dictionary, minLive);
+        sweep(projectDocuments, minLive);
+    }
+
+    private static void sweep(Map<String, Postings> postingsMap, int minLive) {
+        Iterator<Postings> iterator = postingsMap.values().iterator();
+        while (iterator.hasNext()) {
+            Postings postings = iterator.next();
+            postings.trim(minLive);
+            if (postings.size == 0) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private void clear() {
+        Arrays.fill(documents, null);
+        dictionary.clear();
+        projectDocuments.clear();
+        nextDocId = 0;
+        totalLength = 0;
+    }
+
+    /**
+     * 一个词项的倒排表：文档号升序，[0, size) 中文档号小于最小存活文档号的前缀已失效。
+     * 只在 size 之后追加，扩容和截断都换新数组，查询持有的旧数组及其长度始终有效
+     */
+    private static final class Postings {
+
+        private int[] docs = new int[2];
+        private int[] freqs = new int[2];
+        private int size;
+        /**
+         * 写入过的最大词频和最短文档长度，截断后不回退，仍可作为得分上界的依据
+         */
+        private int maxFreq;
+        private int minLength = Integer.MAX_VALUE;
+
+        void add(int doc, int freq, int length, int minLive) {
+            trim(minLive);
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                freqs = Arrays.copyOf(freqs, size * 2);
+            }
+            docs[size] = doc;
+            freqs[size] = freq;
+            size++;
+            maxFreq = Math.max(maxFreq, freq);
+            minLength = Math.min(minLength, length);
+        }
+
+        /**
+         * 第一个存活条目的下标
+         */
+        int firstLive(int minLive) {
+            if (size == 0 || docs[0] >= minLive) {
+                return 0;
+            }
+            int index = Arrays.binarySearch(docs, 0, size, minLive);
+            return index >= 0 ? index : -index - 1;
+        }
+
+        /**
+         * 失效前缀超过一半时截掉，复制到新数组（不在原数组上移动，避免影响进行中的查询）
+         */
+        void trim(int minLive) {
+            int dead = firstLive(minLive);
+            if (dead == 0 || dead * 2 < size) {
+                return;
+            }
+            int live = size - dead;
+            int capacity = Math.max(2, live * 2);
+            docs = Arrays.copyOfRange(docs, dead, dead + capacity);
+            freqs = Arrays.copyOfRange(freqs, dead, dead + capacity);
+            size = live;
+        }
+    }
+
+    /**
+     * 倒排表快照 [start, size) 上的游标，从最新的文档往前移动
+     */
+    private static final class Cursor {
+
+        private final int[] docs;
+        private final int[] freqs;
+        private final int start;
+        private final double idf;
+        private final double averageLength;
+        private final double upperBound;
+        private int position;
+
+        Cursor(Postings postings, int start, double idf, double averageLength) {
+            this.docs = postings.docs;
+            this.freqs = postings.freqs;
+            this.start = start;
+            this.position = postings.size - 1;
+            this.idf = idf;
+            this.averageLength = averageLength;
+            int tf = postings.maxFreq;
+            double norm = K1 * (1 - B + B * Math.min(postings.minLength, Integer.MAX_VALUE / 2) / averageLength);
+            this.upperBound = tf == 0 ? 0 : idf * tf * (K1 + 1) / (tf + norm);
+        }
+
+        int documentFrequency() {
+            return position - start + 1;
+        }
+
+        /**
+         * 得分上界：最大词频、最短文档长度下的 BM25
+         */
+        double upperBound() {
+            return upperBound;
+        }
+
+        boolean hasNext() {
+            return position >= start;
+        }
+
+        int doc() {
+            return docs[position];
+        }
+
+        double score(Document document) {
+            int tf = freqs[position];
+            double norm = K1 * (1 - B + B * document.length() / averageLength);
+            return idf * tf * (K1 + 1) / (tf + norm);
+        }
+
+        /**
+         * 后退到最后一个文档号不大于 target 的位置（倍增后二分），返回是否还有条目
+         */
+        boolean advance(int target) {
+            if (position < start || docs[position] <= target) {
+                return position >= start;
+            }
+            int step = 1;
+            int high = position;
+            int low = position - 1;
+            while (low >= start && docs[low] > target) {
+                high = low;
+                step <<= 1;
+                low = position - step;
+            }
+            int from = Math.max(low, start);
+            int index = Arrays.binarySearch(docs, from, high, target);
+            position = index >= 0 ? index : -index - 2;
+            return position >= start;
+        }
+    }
+}
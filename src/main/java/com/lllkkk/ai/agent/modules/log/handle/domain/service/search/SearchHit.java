@@ -0,0 +1,21 @@
+package com.lllkkk.ai.agent.modules.log.handle.domain.service.search;
+
+/**
+ * 历史分析检索命中
+ *
+ * @param recordId         记录 ID
+ * @param projectName      项目名
+ * @param exceptionClass   异常类
+ * @param exceptionMessage 异常消息（截断）
+ * @param location         顶部堆栈帧位置
+ * @param timestamp        异常时间（epoch 毫秒），日志未带时间时为写入索引的时间
+ * @param rootCause        分析得出的根因
+ * @param summary          错误摘要
+ * @param fixSuggestion    修复建议
+ * @param degraded         是否为降级结果
+ * @param score            BM25 相关度，未指定查询词时为 0
+ */
+public record SearchHit(String recordId, String projectName, String exceptionClass, String exceptionMessage,
+                        String location, long timestamp, String rootCause, String summary, String fixSuggestion,
+                        boolean degraded, double score) {
+}
@@ -0,0 +1,90 @@
+package com.lllkkk.ai.agent.modules.log.handle.domain.service.search;
+
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/**
+ * 检索分词
+ * 字母数字串转小写后作为词项，驼峰标识符再拆出各部分（NullPointerException → nullpointerexception、null、pointer、exception），
+ * 包名、方法名按 "." 等分隔符自然切开；中日韩文字按相邻两字切分（单字串保留单字）。
+ * 单个 ASCII 字符和过长的串（哈希、令牌等）不作为词项
+ */
+final class SearchTokenizer {
+
+    static final int MAX_TOKEN_LENGTH = 40;
+
+    private SearchTokenizer() {
+    }
+
+    static void tokenize(String text, Consumer<String> out) {
+        if (text == null || text.isEmpty()) {
+            return;
+        }
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            char c = text.charAt(i);
+            if (isCjk(c)) {
+                int start = i;
+                while (i < length && isCjk(text.charAt(i))) {
+                    i++;
+                }
+                emitBigrams(text, start, i, out);
+            } else if (Character.isLetterOrDigit(c)) {
+                int start = i;
+                while (i < length && Character.isLetterOrDigit(text.charAt(i)) && !isCjk(text.charAt(i))) {
+                    i++;
+                }
+                emitWord(text, start, i, out);
+            } else {
+                i++;
+            }
+        }
+    }
+
+    private static void emitWord(String text, int start, int end, Consumer<String> out) {
+        if (end - start < 2 || end - start > MAX_TOKEN_LENGTH) {
+            return;
+        }
+        out.accept(text.substring(start, end).toLowerCase(Locale.ROOT));
+        // 驼峰拆分：小写/数字后接大写，或连续大写后接大写+小写（如 SQLException 的 SQL|Exception）处为边界
+        int partStart = start;
+        boolean split = false;
+        for (int i = start + 1; i < end; i++) {
+            char previous = text.charAt(i - 1);
+            char current = text.charAt(i);
+            boolean boundary = Character.isUpperCase(current) && (!Character.isUpperCase(previous)
+                    || (i + 1 < end && Character.isLowerCase(text.charAt(i + 1))));
+            if (boundary) {
+                emitPart(text, partStart, i, out);
+                partStart = i;
+                split = true;
+            }
+        }
+        if (split) {
+            emitPart(text, partStart, end, out);
+        }
+    }
+
+    private static void emitPart(String text, int start, int end, Consumer<String> out) {
+        if (end - start >= 2) {
+            out.accept(text.substring(start, end).toLowerCase(Locale.ROOT));
+        }
+    }
+
+    private static void emitBigrams(String text, int start, int end, Consumer<String> out) {
+        if (end - start == 1) {
+            out.accept(text.substring(start, end));
+            return;
+        }
+        for (int i = start; i + 1 < end; i++) {
+            out.accept(text.substring(i, i + 2));
+        }
+    }
+
+    private static boolean isCjk(char c) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(c);
+        return script == Character.UnicodeScript.HAN || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA || script == Character.UnicodeScript.HANGUL;
+    }
+}
@@ -0,0 +1,165 @@
+package com.lllkkk.ai.agent.modules.log.handle.domain.service.similarity;
+
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.LogRecord;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.StackFrame;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * 异常签名
+ * fingerprint 为异常类 + 规范化堆栈帧的精确指纹（不含行号和消息），相同指纹视为同一异常；
+ * simHash 为规范化堆栈帧、相邻帧对和消息词项的 64 位 SimHash，用于近似重复判断；
+ * 异常类不参与 SimHash（帧数少时会主导签名），由索引要求异常类相同
+ *
+ * @param exceptionClass 异常类名
+ * @param fingerprint    精确指纹（16 位十六进制）
+ * @param simHash        64 位 SimHash
+ */
+public record ExceptionSignature(String exceptionClass, String fingerprint, long simHash) {
+
+    /**
+     * 参与签名的最大堆栈帧数
+     */
+    static final int MAX_FRAMES = 20;
+
+    private static final int FRAME_WEIGHT = 2;
+    private static final int FRAME_PAIR_WEIGHT = 1;
+    private static final int TOKEN_WEIGHT = 1;
+
+    private static final Pattern GENERATED_SUFFIX = Pattern.compile(
+            "\\$\\$(EnhancerBySpringCGLIB|SpringCGLIB|FastClassBySpringCGLIB|Lambda|EnhancerByCGLIB)\\$?.*$");
+    private static final Pattern LAMBDA_METHOD = Pattern.compile("^(lambda\\$\\w+?)\\$\\d+$");
+    private static final Pattern DYNAMIC_PROXY = Pattern.compile("^(jdk\\.proxy\\d+\\.)?\\$Proxy\\d+$");
+    private static final Pattern TOKEN_SPLIT = Pattern.compile("[^\\p{L}\\p{N}_$.]+");
+    private static final Pattern NUMBER_LIKE = Pattern.compile("^(0x)?[0-9a-f]*[0-9][0-9a-f.]*$");
+    private static final Pattern UUID_LIKE = Pattern.compile("^[0-9a-f]{8}(-?[0-9a-f]{4}){3}-?[0-9a-f]{12}$");
+
+    /**
+     * 计算日志记录的签名
+     */
+    public static ExceptionSignature of(LogRecord record) {
+        String exceptionClass = record.getExceptionClass() == null ? "" : record.getExceptionClass();
+        List<String> frames = normalizedFrames(record.getStackFrames());
+
+        long fingerprint = hash64(exceptionClass);
+        for (String frame : frames) {
+            fingerprint = mix(fingerprint * 31 + hash64(frame));
+        }
+
+        int[] weights = new int[64];
+        for (int i = 0; i < frames.size(); i++) {
+            accumulate(weights, hash64("F:" + frames.get(i)), FRAME_WEIGHT);
+            if (i > 0) {
+                accumulate(weights, hash64("P:" + frames.get(i - 1) + '>' + frames.get(i)), FRAME_PAIR_WEIGHT);
+            }
+        }
+        for (String token : messageTokens(record.getExceptionMessage())) {
+            accumulate(weights, hash64("T:" + token), TOKEN_WEIGHT);
+        }
+
+        long simHash = 0L;
+        for (int bit = 0; bit < 64; bit++) {
+            if (weights[bit] > 0) {
+                simHash |= 1L << bit;
+            }
+        }
+        return new ExceptionSignature(exceptionClass, String.format("%016x", fingerprint), simHash);
+    }
+
+    /**
+     * 两个签名的相似度，1 - 汉明距离 / 64
+     */
+    public double similarity(ExceptionSignature other) {
+        return similarity(simHash, other.simHash);
+    }
+
+    public static double similarity(long a, long b) {
+        return 1.0 - Long.bitCount(a ^ b) / 64.0;
+    }
+
+    /**
+     * 规范化堆栈帧：去掉行号，去掉 CGLIB/Lambda 等生成类后缀和 lambda 序号，动态代理类统一为 $Proxy
+     */
+    static List<String> normalizedFrames(List<StackFrame> stackFrames) {
+        List<String> frames = new ArrayList<>();
+        if (stackFrames == null) {
+            return frames;
+        }
+        for (StackFrame frame : stackFrames) {
+            if (frames.size() >= MAX_FRAMES) {
+                break;
+            }
+            frames.add(normalizeClass(frame.getClassName()) + '.' + normalizeMethod(frame.getMethodName()));
+        }
+        return frames;
+    }
+
+    static String normalizeClass(String className) {
+        if (className == null) {
+            return "";
+        }
+        String normalized = GENERATED_SUFFIX.matcher(className).replaceFirst("");
+        return DYNAMIC_PROXY.matcher(normalized).matches() ? "$Proxy" : normalized;
+    }
+
+    static String normalizeMethod(String methodName) {
+        if (methodName == null) {
+            return "";
+        }
+        return LAMBDA_METHOD.matcher(methodName).replaceFirst("$1");
+    }
+
+    /**
+     * 消息词项：小写化，数字、十六进制和 UUID 等易变值替换为占位符
+     */
+    static List<String> messageTokens(String message) {
+        List<String> tokens = new ArrayList<>();
+        if (message == null || message.isBlank()) {
+            return tokens;
+        }
+        for (String raw : TOKEN_SPLIT.split(message.toLowerCase(Locale.ROOT))) {
+            if (raw.isEmpty()) {
+                continue;
+            }
+            if (UUID_LIKE.matcher(raw).matches()) {
+                tokens.add("<uuid>");
+            } else if (NUMBER_LIKE.matcher(raw).matches()) {
+                tokens.add("<num>");
+            } else {
+                tokens.add(raw);
+            }
+        }
+        return tokens;
+    }
+
+    private static void accumulate(int[] weights, long hash, int weight) {
+        for (int bit = 0; bit < 64; bit++) {
+            weights[bit] += ((hash >>> bit) & 1L) != 0 ? weight : -weight;
+        }
+    }
+
+    /**
+     * FNV-1a 64 位哈希，再经 murmur3 终结函数打散
+     */
+    public static long hash64(String text) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : text.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,159 @@
+package com.lllkkk.ai.agent.modules.log.handle.domain.service.similarity;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongSupplier;
+
+/**
+ * 基于 SimHash 分段的 LSH 内存索引
+ * 64 位签名切成 {@link #BANDS} 段，每段 8 位作为桶键；任一段完全相同的条目成为候选，再按汉明距离精确比较。
+ * 汉明距离不超过 BANDS - 1（相似度约 0.89）时必定至少有一段相同，因此阈值不低于该值时不会漏召回。
+ * 条目按写入顺序淘汰，超过存活时间的条目不再命中
+ *
+ * @param <V> 条目携带的值
+ */
+public class SimilarityIndex<V> {
+
+    static final int BANDS = 8;
+    private static final int BAND_BITS = 64 / BANDS;
+    private static final long BAND_MASK = (1L << BAND_BITS) - 1;
+
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final LongSupplier clock;
+
+    private final Map<String, Entry<V>> byFingerprint = new HashMap<>();
+    private final Map<Integer, List<Entry<V>>> buckets = new HashMap<>();
+    private final ArrayDeque<Entry<V>> insertionOrder = new ArrayDeque<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * 命中结果
+     *
+     * @param value 条目的值
+     * @param score 相似度（SimHash）
+     */
+    public record Match<V>(V value, double score) {
+    }
+
+    private record Entry<V>(ExceptionSignature signature, V value, long storedAt) {
+    }
+
+    public SimilarityIndex(int maxEntries, long ttlMillis) {
+        this(maxEntries, ttlMillis, System::currentTimeMillis);
+    }
+
+    SimilarityIndex(int maxEntries, long ttlMillis, LongSupplier clock) {
+        this.maxEntries = Math.max(1, maxEntries);
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * 查找与签名最相似且相似度不低于阈值的条目；只在异常类相同的条目中查找。
+     * 指纹不含消息和行号，同一方法里消息不同的异常指纹相同，因此精确指纹命中同样按 SimHash 相似度过阈值
+     */
+    public Optional<Match<V>> findSimilar(ExceptionSignature signature, double threshold) {
+        long now = clock.getAsLong();
+        lock.readLock().lock();
+        try {
+            Entry<V> exact = byFingerprint.get(signature.fingerprint());
+            if (exact != null && isAlive(exact, now)) {
+                double score = signature.similarity(exact.signature());
+                if (score >= threshold) {
+                    return Optional.of(new Match<>(exact.value(), score));
+                }
+            }
+
+            Entry<V> best = null;
+            double bestScore = threshold;
+            Map<Entry<V>, Boolean> visited = new IdentityHashMap<>();
+            for (int band = 0; band < BANDS; band++) {
+                List<Entry<V>> bucket = buckets.get(bucketKey(signature.simHash(), band));
+                if (bucket == null) {
+                    continue;
+                }
+                for (Entry<V> candidate : bucket) {
+                    if (visited.put(candidate, Boolean.TRUE) != null || !isAlive(candidate, now)
+                            || !candidate.signature().exceptionClass().equals(signature.exceptionClass())) {
+                        continue;
+                    }
+                    double score = signature.similarity(candidate.signature());
+                    if (score >= bestScore) {
+                        best = candidate;
+                        bestScore = score;
+                    }
+                }
+            }
+            return best == null ? Optional.empty() : Optional.of(new Match<>(best.value(), bestScore));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 写入条目，相同指纹的旧条目被替换
+     */
+    public void put(ExceptionSignature signature, V value) {
+        Entry<V> entry = new Entry<>(signature, value, clock.getAsLong());
+        lock.writeLock().lock();
+        try {
+            Entry<V> previous = byFingerprint.put(signature.fingerprint(), entry);
+            if (previous != null) {
+                unlinkBuckets(previous);
+                insertionOrder.remove(previous);
+            }
+            for (int band = 0; band < BANDS; band++) {
+                buckets.computeIfAbsent(bucketKey(signature.simHash(), band), key -> new ArrayList<>(2)).add(entry);
+            }
+            insertionOrder.addLast(entry);
+            while (insertionOrder.size() > maxEntries) {
+                evict(insertionOrder.pollFirst());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return byFingerprint.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void evict(Entry<V> entry) {
+        byFingerprint.remove(entry.signature().fingerprint(), entry);
+        unlinkBuckets(entry);
+    }
+
+    private void unlinkBuckets(Entry<V> entry) {
+        for (int band = 0; band < BANDS; band++) {
+            int key = bucketKey(entry.signature().simHash(), band);
+            List<Entry<V>> bucket = buckets.get(key);
+            if (bucket != null) {
+                bucket.remove(entry);
+                if (bucket.isEmpty()) {
+                    buckets.remove(key);
+                }
+            }
+        }
+    }
+
+    private boolean isAlive(Entry<V> entry, long now) {
+        return ttlMillis <= 0 || now - entry.storedAt() <= ttlMillis;
+    }
+
+    private static int bucketKey(long simHash, int band) {
+        return band << BAND_BITS | (int) ((simHash >>> (band * BAND_BITS)) & BAND_MASK);
+    }
+}
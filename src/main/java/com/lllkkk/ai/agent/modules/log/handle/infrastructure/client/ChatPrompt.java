@@ -0,0 +1,47 @@
+package com.lllkkk.ai.agent.modules.log.handle.infrastructure.client;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 发送给大模型的一次对话请求
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ChatPrompt {
+
+    private List<Message> messages;
+
+    /**
+     * 覆盖提供方默认模型，为空时使用提供方配置
+     */
+    private String model;
+
+    /**
+     * 覆盖提供方默认最大令牌数，为空时使用提供方配置
+     */
+    private Integer maxTokens;
+
+    /**
+     * model 覆盖只对该提供方生效（其他提供方如对冲备用方仍用自己的配置），为空时对所有提供方生效
+     */
+    private String modelProvider;
+
+    public static ChatPrompt ofUserMessage(String content) {
+        return ChatPrompt.builder().messages(List.of(new Message("user", content))).build();
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Message {
+        private String role;
+        private String content;
+    }
+}
@@ -0,0 +1,181 @@
+package com.lllkkk.ai.agent.modules.log.handle.infrastructure.client;
+
+import com.lllkkk.ai.agent.modules.log.handle.infrastructure.config.AIConfig;
+import com.lllkkk.ai.agent.modules.log.handle.infrastructure.config.LLMProviderConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 大模型调用入口
+ * 请求发往主提供方；启用对冲时，若主提供方超过其历史耗时分位值仍未返回（或已失败），
+ * 则向备用提供方发出同样的请求，取先返回的有效结果并取消另一方
+ */
+@Slf4j
+@Component
+public class LLMClient implements DisposableBean {
+
+    private final Map<String, LLMProvider> providers;
+    private final LLMProvider primary;
+    private final LLMProvider secondary;
+    private final LLMProviderConfig.Hedging hedging;
+    private final LatencyTracker primaryLatency;
+    private final ScheduledExecutorService scheduler;
+
+    @Autowired
+    public LLMClient(AIConfig aiConfig, LLMProviderConfig config) {
+        this(createProviders(aiConfig, config), config.getPrimary(), config.getHedging());
+    }
+
+    LLMClient(Map<String, LLMProvider> providers, String primaryName, LLMProviderConfig.Hedging hedging) {
+        this.providers = providers;
+        this.primary = providers.get(primaryName);
+        if (primary == null) {
+            throw new IllegalArgumentException("未配置主提供方: " + primaryName);
+        }
+        this.hedging = hedging;
+        this.secondary = hedging.isEnabled() ? providers.get(hedging.getSecondary()) : null;
+        if (hedging.isEnabled() && secondary == null) {
+            log.warn("⚠️ 已启用对冲请求，但未找到备用提供方 [{}]，对冲不生效", hedging.getSecondary());
+        }
+        this.primaryLatency = new LatencyTracker(hedging.getWindowSize());
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "llm-hedge-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        log.info("大模型提供方: {}, 主: {}, 对冲备用: {}", providers.keySet(), primary.name(),
+                secondary == null ? "无" : secondary.name());
+    }
+
+    private static Map<String, LLMProvider> createProviders(AIConfig aiConfig, LLMProviderConfig config) {
+        Map<String, LLMProvider> providers = new LinkedHashMap<>();
+        providers.put(LLMProviderConfig.KIMI, new OpenAICompatibleProvider(LLMProviderConfig.KIMI, aiConfig.toProvider()));
+        config.getProviders().forEach((name, settings) -> providers.put(name, new OpenAICompatibleProvider(name, settings)));
+        return providers;
+    }
+
+    /**
+     * 预先建立到全部提供方的连接
+     */
+    public CompletableFuture<Void> warmUp() {
+        return CompletableFuture.allOf(providers.values().stream()
+                .map(LLMProvider::warmUp)
+                .toArray(CompletableFuture[]::new));
+    }
+
+    public CompletableFuture<String> chat(ChatPrompt prompt) {
+        if (secondary == null) {
+            return timed(primary.chat(prompt));
+        }
+        return hedged(prompt);
+    }
+
+    /**
+     * 当前对冲延迟：主提供方耗时的配置分位值，样本不足时使用初始延迟
+     */
+    public long currentHedgeDelayMs() {
+        long delay = primaryLatency.count() < hedging.getMinSamples()
+                ? hedging.getInitialDelayMs()
+                : primaryLatency.percentile(hedging.getPercentile());
+        return Math.max(hedging.getMinDelayMs(), Math.min(hedging.getMaxDelayMs(), delay));
+    }
+
+    public Map<String, LLMProvider> getProviders() {
+        return providers;
+    }
+
+    /**
+     * 记录主提供方成功调用的耗时；对冲胜出后被取消的慢请求同样记录，其耗时是下限，
+     * 若不计入，分位值只从快请求中学习，对冲延迟会持续偏低。
+     * 失败的调用（限流、连接被拒等）往往立即返回，计入会把分位值拉到下限，恢复后几乎每个请求都被对冲
+     */
+    private CompletableFuture<String> timed(CompletableFuture<String> call) {
+        long start = System.nanoTime();
+        call.whenComplete((content, error) -> {
+            boolean succeeded = error == null && !isBlank(content);
+            if (succeeded || unwrap(error) instanceof CancellationException) {
+                primaryLatency.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            }
+        });
+        return call;
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    private CompletableFuture<String> hedged(ChatPrompt prompt) {
+        CompletableFuture<String> result = new CompletableFuture<>();
+        // 仍在进行中的请求数，全部失败时才让结果失败
+        AtomicInteger pending = new AtomicInteger(1);
+        CompletableFuture<String> primaryCall = timed(primary.chat(prompt));
+        CompletableFuture<CompletableFuture<String>> secondaryCall = new CompletableFuture<>();
+
+        Runnable startSecondary = () -> {
+            if (result.isDone() || secondaryCall.isDone()) {
+                return;
+            }
+            pending.incrementAndGet();
+            CompletableFuture<String> call = secondary.chat(prompt);
+            if (!secondaryCall.complete(call)) {
+                call.cancel(true);
+                pending.decrementAndGet();
+                return;
+            }
+            log.debug("主提供方 {} 未及时返回，向 {} 发出对冲请求", primary.name(), secondary.name());
+            call.whenComplete((content, error) -> onComplete(result, pending, content, error, secondary));
+        };
+
+        ScheduledFuture<?> timer = scheduler.schedule(startSecondary, currentHedgeDelayMs(), TimeUnit.MILLISECONDS);
+        primaryCall.whenComplete((content, error) -> {
+            if (error != null || isBlank(content)) {
+                // 主提供方已失败，不再等待对冲延迟
+                timer.cancel(false);
+                startSecondary.run();
+            }
+            onComplete(result, pending, content, error, primary);
+        });
+
+        result.whenComplete((content, error) -> {
+            timer.cancel(false);
+            primaryCall.cancel(true);
+            secondaryCall.thenAccept(call -> call.cancel(true));
+        });
+        return result;
+    }
+
+    private void onComplete(CompletableFuture<String> result, AtomicInteger pending, String content, Throwable error,
+                            LLMProvider provider) {
+        if (error == null && !isBlank(content)) {
+            // 先返回有效结果的一方胜出，另一方在 result 完成回调中取消
+            result.complete(content);
+            return;
+        }
+        if (pending.decrementAndGet() == 0) {
+            result.completeExceptionally(error != null ? error
+                    : new LLMProviderException(provider.name(), 200, provider.name() + " 返回空内容"));
+        }
+    }
+
+    private static boolean isBlank(String content) {
+        return content == null || content.isBlank();
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,23 @@
+package com.lllkkk.ai.agent.modules.log.handle.infrastructure.client;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 大模型提供方
+ */
+public interface LLMProvider {
+
+    String name();
+
+    /**
+     * 异步发起对话，返回模型回复内容；取消返回的 future 会中止底层请求
+     */
+    CompletableFuture<String> chat(ChatPrompt prompt);
+
+    /**
+     * 预先建立到提供方的连接（完成 DNS、TCP 与 TLS 握手），结果不论成败都只用于预热
+     */
+    default CompletableFuture<Void> warmUp() {
+        return CompletableFuture.completedFuture(null);
+    }
+}
@@ -0,0 +1,19 @@
+package com.lllkkk.ai.agent.modules.log.handle.infrastructure.client;
+
+import lombok.Getter;
+
+/**
+ * 提供方返回非成功响应
+ */
+@Getter
+public class LLMProviderException extends RuntimeException {
+
+    private final String provider;
+    private final int statusCode;
+
+    public LLMProviderException(String provider, int statusCode, String message) {
+        super(message);
+        this.provider = provider;
+        this.statusCode = statusCode;
+    }
+}
@@ -0,0 +1,147 @@
+package com.lllkkk.ai.agent.modules.log.handle.infrastructure.client;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lllkkk.ai.agent.modules.log.handle.infrastructure.config.LLMProviderConfig;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * OpenAI 兼容 /chat/completions 接口的提供方（Kimi、其他云厂商或本地模型服务）
+ */
+@Slf4j
+public class OpenAICompatibleProvider implements LLMProvider {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private final String name;
+    private final LLMProviderConfig.Provider settings;
+    private final HttpClient httpClient;
+    private final URI endpoint;
+    private final URI modelsEndpoint;
+
+    public OpenAICompatibleProvider(String name, LLMProviderConfig.Provider settings) {
+        this.name = name;
+        this.settings = settings;
+        this.endpoint = URI.create(stripTrailingSlash(settings.getBaseUrl()) + "/chat/completions");
+        this.modelsEndpoint = URI.create(stripTrailingSlash(settings.getBaseUrl()) + "/models");
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(settings.getConnectTimeoutMs()))
+                .build();
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public CompletableFuture<String> chat(ChatPrompt prompt) {
+        ChatRequest request = new ChatRequest();
+        boolean override = prompt.getModelProvider() == null || prompt.getModelProvider().equals(name);
+        request.setModel(override && prompt.getModel() != null ? prompt.getModel() : settings.getModel());
+        request.setMaxTokens(prompt.getMaxTokens() != null ? prompt.getMaxTokens() : settings.getMaxTokens());
+        request.setTemperature(settings.getTemperature());
+        request.setMessages(prompt.getMessages());
+
+        HttpRequest.Builder builder = HttpRequest.newBuilder(endpoint)
+                .timeout(Duration.ofMillis(settings.getRequestTimeoutMs()))
+                .header("Content-Type", "application/json");
+        if (settings.getApiKey() != null && !settings.getApiKey().isBlank()) {
+            builder.header("Authorization", "Bearer " + settings.getApiKey());
+        }
+        try {
+            builder.POST(HttpRequest.BodyPublishers.ofByteArray(MAPPER.writeValueAsBytes(request)));
+        } catch (JsonProcessingException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        CompletableFuture<HttpResponse<byte[]>> exchange =
+                httpClient.sendAsync(builder.build(), HttpResponse.BodyHandlers.ofByteArray());
+        CompletableFuture<String> result = exchange.thenApply(this::extractContent);
+        // 取消结果时一并中止 HTTP 交换，避免对冲落败的一方继续占用连接
+        result.whenComplete((content, error) -> {
+            if (result.isCancelled()) {
+                exchange.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * 请求 /models 建立连接，HttpClient 会保留该连接供后续对话请求复用；不论响应状态如何都视为完成
+     */
+    @Override
+    public CompletableFuture<Void> warmUp() {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(modelsEndpoint)
+                .timeout(Duration.ofMillis(settings.getRequestTimeoutMs()))
+                .GET();
+        if (settings.getApiKey() != null && !settings.getApiKey().isBlank()) {
+            builder.header("Authorization", "Bearer " + settings.getApiKey());
+        }
+        return httpClient.sendAsync(builder.build(), HttpResponse.BodyHandlers.discarding())
+                .handle((response, error) -> {
+                    if (error != null) {
+                        log.warn("⚠️ 预热连接 {} 失败: {}", name, error.getMessage());
+                    } else {
+                        log.debug("已预热到 {} 的连接，HTTP {}", name, response.statusCode());
+                    }
+                    return null;
+                });
+    }
+
+    private String extractContent(HttpResponse<byte[]> response) {
+        if (response.statusCode() / 100 != 2) {
+            throw new CompletionException(new LLMProviderException(name, response.statusCode(),
+                    "调用 " + name + " 失败，HTTP " + response.statusCode()));
+        }
+        try {
+            ChatResponse body = MAPPER.readValue(response.body(), ChatResponse.class);
+            if (body.getChoices() == null || body.getChoices().isEmpty()
+                    || body.getChoices().get(0).getMessage() == null) {
+                throw new CompletionException(new LLMProviderException(name, response.statusCode(), name + " 未返回有效内容"));
+            }
+            return body.getChoices().get(0).getMessage().getContent();
+        } catch (IOException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    private static String stripTrailingSlash(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+
+    @Data
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    static class ChatRequest {
+        private String model;
+        private List<ChatPrompt.Message> messages;
+        @JsonProperty("max_tokens")
+        private int maxTokens;
+        private double temperature;
+    }
+
+    @Data
+    static class ChatResponse {
+        private List<Choice> choices;
+
+        @Data
+        static class Choice {
+            private ChatPrompt.Message message;
+        }
+    }
+}
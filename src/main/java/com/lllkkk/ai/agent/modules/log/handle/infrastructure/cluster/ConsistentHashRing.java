@@ -0,0 +1,49 @@
+package com.lllkkk.ai.agent.modules.log.handle.infrastructure.cluster;
+
+import com.lllkkk.ai.agent.modules.log.handle.domain.service.similarity.ExceptionSignature;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * 一致性哈希环
+ * 每个节点按 "节点ID#序号" 放置若干虚拟节点，键归属顺时针方向的第一个虚拟节点；
+ * 增删一个节点时只有相邻区间的键迁移。构建后不可变，可并发读取
+ */
+public final class ConsistentHashRing {
+
+    private final NavigableMap<Long, String> ring = new TreeMap<>();
+    private final List<String> nodes;
+
+    public ConsistentHashRing(Collection<String> nodes, int virtualNodes) {
+        if (nodes.isEmpty()) {
+            throw new IllegalArgumentException("哈希环至少需要一个节点");
+        }
+        if (virtualNodes <= 0) {
+            throw new IllegalArgumentException("虚拟节点数必须为正数: " + virtualNodes);
+        }
+        this.nodes = List.copyOf(nodes);
+        for (String node : this.nodes) {
+            for (int i = 0; i < virtualNodes; i++) {
+                // 哈希冲突时保留字典序较小的节点，保证各节点构建出的环一致
+                ring.merge(ExceptionSignature.hash64(node + "#" + i), node,
+                        (existing, candidate) -> existing.compareTo(candidate) <= 0 ? existing : candidate);
+            }
+        }
+    }
+
+    /**
+     * 键所属的节点
+     */
+    public String ownerOf(String key) {
+        Map.Entry<Long, String> entry = ring.ceilingEntry(ExceptionSignature.hash64(key));
+        return entry != null ? entry.getValue() : ring.firstEntry().getValue();
+    }
+
+    public List<String> nodes() {
+        return nodes;
+    }
+}
@@ -0,0 +1,64 @@
+package com.lllkkk.ai.agent.modules.log.handle.infrastructure.cluster;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.AnalysisResult;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.LogRecord;
+import com.lllkkk.ai.agent.modules.log.handle.infrastructure.config.ClusterConfig;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+/**
+ * 把已解析的日志记录转发给负责节点的内部分析接口
+ */
+@Component
+public class PeerClient {
+
+    /**
+     * 节点间内部分析接口路径
+     */
+    public static final String INTERNAL_ANALYZE_PATH = "/api/log-analysis/internal/analyze";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private final HttpClient httpClient;
+
+    public PeerClient(ClusterConfig config) {
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(config.getConnectTimeoutMs()))
+                .build();
+    }
+
+    /**
+     * 同步转发并等待负责节点的分析结果
+     *
+     * @param baseUrl   负责节点的基础 URL
+     * @param timeoutMs 最长等待时间，同时作为对方的时间预算
+     * @throws IOException 连接失败、超时或对方返回非 2xx
+     */
+    public AnalysisResult analyze(String baseUrl, LogRecord record, long timeoutMs)
+            throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(stripTrailingSlash(baseUrl) + INTERNAL_ANALYZE_PATH))
+                .timeout(Duration.ofMillis(timeoutMs))
+                .header("Content-Type", "application/json")
+                .header("X-Deadline-Ms", Long.toString(timeoutMs))
+                .POST(HttpRequest.BodyPublishers.ofByteArray(MAPPER.writeValueAsBytes(record)))
+                .build();
+        HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() / 100 != 2) {
+            throw new IOException("节点 " + baseUrl + " 返回 HTTP " + response.statusCode());
+        }
+        return MAPPER.readValue(response.body(), AnalysisResult.class);
+    }
+
+    private static String stripTrailingSlash(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+}
@@ -0,0 +1,64 @@
+package com.lllkkk.ai.agent.modules.log.handle.infrastructure.cluster;
+
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.LogRecord;
+import com.lllkkk.ai.agent.modules.log.handle.domain.service.similarity.ExceptionSignature;
+import com.lllkkk.ai.agent.modules.log.handle.infrastructure.config.ClusterConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * 按异常指纹确定负责分析的节点
+ * 同一异常（指纹相同）总是落到同一节点，由该节点的历史复用索引保证集群内只分析一次
+ */
+@Slf4j
+@Component
+public class ShardRouter {
+
+    private final ClusterConfig config;
+    private final ConsistentHashRing ring;
+
+    public ShardRouter(ClusterConfig config) {
+        this.config = config;
+        if (!config.isEnabled()) {
+            this.ring = null;
+            return;
+        }
+        if (config.getSelfId() == null || !config.getPeers().containsKey(config.getSelfId())) {
+            throw new IllegalStateException("cluster.self-id [" + config.getSelfId() + "] 不在 cluster.peers 中");
+        }
+        this.ring = new ConsistentHashRing(config.getPeers().keySet(), config.getVirtualNodes());
+        log.info("集群分片已启用，本节点: {}, 全部节点: {}", config.getSelfId(), ring.nodes());
+    }
+
+    public boolean isEnabled() {
+        return ring != null;
+    }
+
+    /**
+     * 负责分析该记录的节点 ID，未启用分片时为本节点
+     */
+    public String ownerOf(LogRecord record) {
+        if (ring == null) {
+            return config.getSelfId();
+        }
+        return ring.ownerOf(ExceptionSignature.of(record).fingerprint());
+    }
+
+    public boolean isSelf(String nodeId) {
+        return ring == null || nodeId.equals(config.getSelfId());
+    }
+
+    public String selfId() {
+        return config.getSelfId();
+    }
+
+    public Map<String, String> peers() {
+        return config.getPeers();
+    }
+
+    public String peerUrl(String nodeId) {
+        return config.getPeers().get(nodeId);
+    }
+}
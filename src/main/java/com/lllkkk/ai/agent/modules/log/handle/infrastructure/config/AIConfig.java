@@ -33,4 +33,29 @@ public class AIConfig {
      * 温度参数（创造性）
      */
     private double temperature = 0.6;
+
+    /**
+     * 建立连接超时（毫秒）
+     */
+    private int connectTimeoutMs = 3000;
+
+    /**
+     * 单次请求超时（毫秒）
+     */
+    private int requestTimeoutMs = 60000;
+
+    /**
+     * 转换为通用的 OpenAI 兼容提供方配置
+     */
+    public LLMProviderConfig.Provider toProvider() {
+        LLMProviderConfig.Provider provider = new LLMProviderConfig.Provider();
+        provider.setBaseUrl(baseUrl);
+        provider.setApiKey(apiKey);
+        provider.setModel(model);
+        provider.setMaxTokens(maxTokens);
+        provider.setTemperature(temperature);
+        provider.setConnectTimeoutMs(connectTimeoutMs);
+        provider.setRequestTimeoutMs(requestTimeoutMs);
+        return provider;
+    }
 }
\ No newline at end of file
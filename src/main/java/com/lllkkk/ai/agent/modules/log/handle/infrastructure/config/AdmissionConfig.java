@@ -0,0 +1,54 @@
+package com.lllkkk.ai.agent.modules.log.handle.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "admission")
+public class AdmissionConfig {
+
+    /**
+     * 是否对同步分析接口做准入控制
+     */
+    private boolean enabled = true;
+
+    /**
+     * 同时处理中的同步分析请求上限，超过后所有请求都被拒绝
+     */
+    private int maxInFlight = 256;
+
+    /**
+     * 低优先级请求可占用的处理中名额比例（0~1），超过后先拒绝低优先级请求
+     */
+    private double lowPriorityShare = 0.5;
+
+    /**
+     * 流水线平均排队时间超过该值（毫秒）时拒绝低优先级请求
+     */
+    private long targetQueueDelayMs = 1000;
+
+    /**
+     * 拒绝时 Retry-After 的最小秒数，排队时间更长时按排队时间给出
+     */
+    private int retryAfterSeconds = 5;
+
+    /**
+     * 低优先级的异常级别
+     */
+    private List<String> lowPriorityLevels = new ArrayList<>(List.of("WARN", "INFO", "DEBUG", "TRACE"));
+
+    /**
+     * 低优先级项目（不论级别）
+     */
+    private List<String> lowPriorityProjects = new ArrayList<>();
+
+    /**
+     * 高优先级项目（不论级别）
+     */
+    private List<String> highPriorityProjects = new ArrayList<>();
+}
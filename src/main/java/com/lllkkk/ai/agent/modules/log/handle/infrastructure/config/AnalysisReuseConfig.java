@@ -0,0 +1,31 @@
+package com.lllkkk.ai.agent.modules.log.handle.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "analysis.reuse")
+public class AnalysisReuseConfig {
+
+    /**
+     * 是否复用近似重复异常的历史分析结果
+     */
+    private boolean enabled = true;
+
+    /**
+     * 相似度阈值（0~1），达到阈值时直接返回历史结果
+     */
+    private double similarityThreshold = 0.9;
+
+    /**
+     * 索引保留的历史分析条数上限
+     */
+    private int maxEntries = 10000;
+
+    /**
+     * 历史分析的存活时间（分钟），小于等于 0 表示不过期
+     */
+    private long ttlMinutes = 1440;
+}
@@ -0,0 +1,26 @@
+package com.lllkkk.ai.agent.modules.log.handle.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "analysis.rules")
+public class AnalysisRuleConfig {
+
+    /**
+     * 是否启用本地规则快速分析
+     */
+    private boolean enabled = true;
+
+    /**
+     * 规则文件位置，支持 classpath: 和 file: 前缀
+     */
+    private String location = "classpath:analysis-rules.json";
+
+    /**
+     * 规则生效的最低可信度（0~1）
+     */
+    private double minConfidence = 0.8;
+}
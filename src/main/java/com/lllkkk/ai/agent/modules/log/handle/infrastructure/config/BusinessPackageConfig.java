@@ -0,0 +1,31 @@
+package com.lllkkk.ai.agent.modules.log.handle.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "log.business")
+public class BusinessPackageConfig {
+
+    /**
+     * 默认业务包前缀，未单独配置的项目使用
+     */
+    private List<String> defaultPackages = new ArrayList<>(List.of("com.dyyl", "com.wkb"));
+
+    /**
+     * 各项目的业务包前缀，key 为日志中的异常项目名
+     */
+    private Map<String, List<String>> projects = new HashMap<>();
+
+    /**
+     * 每个项目缓存的类名判定结果上限
+     */
+    private int verdictCacheSize = 10000;
+}
@@ -0,0 +1,45 @@
+package com.lllkkk.ai.agent.modules.log.handle.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "cluster")
+public class ClusterConfig {
+
+    /**
+     * 是否按异常指纹在多个节点间分片，关闭时每个节点独立分析
+     */
+    private boolean enabled = false;
+
+    /**
+     * 本节点 ID，必须是 peers 中的一个 key
+     */
+    private String selfId;
+
+    /**
+     * 全部节点（含本节点），key 为节点 ID，value 为节点基础 URL（如 http://10.0.0.1:8080）；
+     * 各节点须配置相同的列表，才能得到一致的分片
+     */
+    private Map<String, String> peers = new LinkedHashMap<>();
+
+    /**
+     * 每个节点在哈希环上的虚拟节点数，越大分片越均匀
+     */
+    private int virtualNodes = 160;
+
+    /**
+     * 转发请求的连接超时
+     */
+    private int connectTimeoutMs = 1000;
+
+    /**
+     * 转发请求的最长等待，请求自身的时间预算更短时以预算为准
+     */
+    private long forwardTimeoutMs = 30000;
+}
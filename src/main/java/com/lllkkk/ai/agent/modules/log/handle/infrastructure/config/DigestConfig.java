@@ -0,0 +1,54 @@
+package com.lllkkk.ai.agent.modules.log.handle.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "analysis.digest")
+public class DigestConfig {
+
+    /**
+     * 是否启用定时摘要：后台接入的非紧急异常按周期攒批，多条合并到一次大模型调用
+     */
+    private boolean enabled = false;
+
+    /**
+     * 摘要周期（秒）
+     */
+    private int intervalSeconds = 60;
+
+    /**
+     * 进入摘要的日志级别，其余级别仍逐条分析
+     */
+    private List<String> levels = new ArrayList<>(List.of("WARN"));
+
+    /**
+     * 一个周期内最多缓冲的不同异常数，超过后新异常逐条分析
+     */
+    private int maxPendingRecords = 1000;
+
+    /**
+     * 同一异常在一个周期内最多保留的记录数，超出的重复记录只计数，结论不再逐条交给 sink
+     */
+    private int maxRecordsPerGroup = 100;
+
+    /**
+     * 单次调用的提示词令牌预算（估算值，含 system 消息），超出后拆成多次调用
+     */
+    private int maxPromptTokens = 6000;
+
+    /**
+     * 单次调用最多合并的异常数
+     */
+    private int maxItemsPerCall = 20;
+
+    /**
+     * 每条异常预留的输出令牌数，单次调用的最大输出令牌数为 条数 × 该值
+     */
+    private int outputTokensPerItem = 300;
+}
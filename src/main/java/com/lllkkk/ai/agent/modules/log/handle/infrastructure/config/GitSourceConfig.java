@@ -0,0 +1,39 @@
+package com.lllkkk.ai.agent.modules.log.handle.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "code.locator.git")
+public class GitSourceConfig {
+
+    /**
+     * 是否按代码版本从本地 git 对象库读取源码，关闭时只读取工作目录
+     */
+    private boolean enabled = true;
+
+    /**
+     * 项目名 -> 仓库路径（.git 目录或工作目录），未配置的项目从 code-locator-paths.json 中的路径向上查找 .git
+     */
+    private Map<String, String> repositories = new HashMap<>();
+
+    /**
+     * 项目名 -> 当前部署的版本（提交 SHA、标签或分支），日志中没有“代码版本”字段时使用
+     */
+    private Map<String, String> deployments = new HashMap<>();
+
+    /**
+     * blob 内容缓存上限（MB）
+     */
+    private int blobCacheMb = 32;
+
+    /**
+     * 每个仓库缓存目录树索引的提交数
+     */
+    private int commitCacheSize = 8;
+}
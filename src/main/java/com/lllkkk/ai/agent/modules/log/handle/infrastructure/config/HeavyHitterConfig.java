@@ -0,0 +1,37 @@
+package com.lllkkk.ai.agent.modules.log.handle.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "analysis.heavy-hitters")
+public class HeavyHitterConfig {
+
+    /**
+     * 是否统计高频异常
+     */
+    private boolean enabled = true;
+
+    /**
+     * 统计窗口长度（分钟），趋势为当前窗口与上一窗口的对比
+     */
+    private int windowMinutes = 5;
+
+    /**
+     * 每个窗口内每个项目保留的高频异常条数
+     */
+    private int topK = 50;
+
+    /**
+     * 每个窗口最多统计的项目数，超出时淘汰峰值最低的项目；单个窗口最多保留 项目数 × topK 条
+     */
+    private int maxProjects = 100;
+
+    /**
+     * Count-Min Sketch 的行数与列数，误差约为 窗口总条数 × 2.72 / 列数
+     */
+    private int sketchDepth = 4;
+    private int sketchWidth = 4096;
+}
@@ -0,0 +1,46 @@
+package com.lllkkk.ai.agent.modules.log.handle.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "ingest.tcp")
+public class IngestConfig {
+
+    /**
+     * 是否启动二进制帧 TCP 接入
+     */
+    private boolean enabled = false;
+
+    /**
+     * 监听地址
+     */
+    private String host = "0.0.0.0";
+
+    /**
+     * 监听端口，0 表示随机端口
+     */
+    private int port = 9460;
+
+    /**
+     * 每个连接读缓冲区（池化的直接缓冲区）字节数，单帧不能超过该值减 4
+     */
+    private int bufferSize = 64 * 1024;
+
+    /**
+     * 缓冲池最多保留的空闲缓冲区数
+     */
+    private int maxPooledBuffers = 256;
+
+    /**
+     * 已受理但尚未分析完成的记录数上限，达到后停止读取所有连接，由 TCP 窗口把压力传回发送方
+     */
+    private int maxInFlight = 1024;
+
+    /**
+     * 接入记录的分析时间预算（毫秒），小于等于 0 表示不限
+     */
+    private long analysisBudgetMs = 0;
+}
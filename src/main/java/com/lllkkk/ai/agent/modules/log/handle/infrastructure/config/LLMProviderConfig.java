@@ -0,0 +1,83 @@
+package com.lllkkk.ai.agent.modules.log.handle.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "ai.llm")
+public class LLMProviderConfig {
+
+    /**
+     * Kimi 提供方名称，对应 ai.kimi 配置
+     */
+    public static final String KIMI = "kimi";
+
+    /**
+     * 主提供方名称
+     */
+    private String primary = KIMI;
+
+    /**
+     * 额外的 OpenAI 兼容提供方（如备用云厂商、本地模型服务），key 为提供方名称
+     */
+    private Map<String, Provider> providers = new LinkedHashMap<>();
+
+    /**
+     * 对冲请求配置
+     */
+    private Hedging hedging = new Hedging();
+
+    @Data
+    public static class Provider {
+        /**
+         * 接口基础URL，请求发往 {baseUrl}/chat/completions
+         */
+        private String baseUrl;
+        private String apiKey;
+        private String model;
+        private int maxTokens = 2000;
+        private double temperature = 0.6;
+        private int connectTimeoutMs = 3000;
+        private int requestTimeoutMs = 60000;
+    }
+
+    @Data
+    public static class Hedging {
+        /**
+         * 是否启用对冲请求
+         */
+        private boolean enabled = false;
+
+        /**
+         * 备用提供方名称
+         */
+        private String secondary;
+
+        /**
+         * 主提供方耗时超过该分位值仍未返回时，向备用提供方发出同样的请求
+         */
+        private double percentile = 95;
+
+        /**
+         * 样本不足时使用的对冲延迟
+         */
+        private long initialDelayMs = 3000;
+
+        /**
+         * 对冲延迟下限与上限
+         */
+        private long minDelayMs = 200;
+        private long maxDelayMs = 15000;
+
+        /**
+         * 统计主提供方耗时的滑动窗口大小，以及开始按分位值计算前所需的最少样本数
+         */
+        private int windowSize = 200;
+        private int minSamples = 20;
+    }
+}
@@ -0,0 +1,51 @@
+package com.lllkkk.ai.agent.modules.log.handle.infrastructure.config;
+
+import com.lllkkk.ai.agent.modules.log.handle.domain.service.prompt.PromptVariant;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "ai.routing")
+public class ModelRoutingConfig {
+
+    /**
+     * 是否按异常复杂度选择模型、最大令牌数和提示词变体
+     */
+    private boolean enabled = true;
+
+    /**
+     * 复杂度分档，按 maxScore 从小到大排列，取第一个 maxScore 不小于得分的档位；
+     * 最后一档的 maxScore 可为空，表示不设上限
+     */
+    private List<Tier> tiers = new ArrayList<>(List.of(
+            new Tier("simple", 6, null, 600, PromptVariant.COMPACT),
+            new Tier("standard", 20, null, 1200, PromptVariant.FULL),
+            new Tier("complex", null, null, 2000, PromptVariant.FULL)));
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Tier {
+        private String name;
+        /**
+         * 该档位的最高复杂度得分，为空表示不设上限
+         */
+        private Integer maxScore;
+        /**
+         * 主提供方使用的模型，为空时使用提供方配置
+         */
+        private String model;
+        /**
+         * 最大输出令牌数，为空时使用提供方配置
+         */
+        private Integer maxTokens;
+        private PromptVariant variant = PromptVariant.FULL;
+    }
+}
@@ -0,0 +1,51 @@
+package com.lllkkk.ai.agent.modules.log.handle.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "pipeline")
+public class PipelineConfig {
+
+    /**
+     * 每个阶段的队列容量，下游队列满时上游阻塞等待
+     */
+    private int queueCapacity = 256;
+
+    /**
+     * parse 阶段的平台线程数，默认为 CPU 核数
+     */
+    private int parseThreads = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * filter 阶段的平台线程数，默认为 CPU 核数
+     */
+    private int filterThreads = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * enrich 阶段（读取源码）的虚拟线程数
+     */
+    private int enrichConcurrency = 64;
+
+    /**
+     * analyze 阶段（调用大模型）的虚拟线程数
+     */
+    private int analyzeConcurrency = 64;
+
+    /**
+     * sink 阶段的虚拟线程数
+     */
+    private int sinkConcurrency = 4;
+
+    /**
+     * 提交时入口队列已满的最长等待时间（毫秒），超时则拒绝
+     */
+    private long submitTimeoutMs = 1000;
+
+    /**
+     * 批量分析接口单次最多的日志条数
+     */
+    private int maxBatchSize = 100;
+}
@@ -0,0 +1,26 @@
+package com.lllkkk.ai.agent.modules.log.handle.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "analysis.search")
+public class SearchIndexConfig {
+
+    /**
+     * 是否把完成的分析写入检索索引（GET /api/log-analysis/search）
+     */
+    private boolean enabled = true;
+
+    /**
+     * 索引保留的分析条数上限，超过后淘汰最早写入的条目
+     */
+    private int maxDocuments = 1_000_000;
+
+    /**
+     * 索引中保存的异常消息最大字符数，超出部分不参与检索也不返回
+     */
+    private int maxMessageChars = 300;
+}
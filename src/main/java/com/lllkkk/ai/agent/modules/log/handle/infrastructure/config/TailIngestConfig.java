@@ -0,0 +1,64 @@
+package com.lllkkk.ai.agent.modules.log.handle.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "ingest.tail")
+public class TailIngestConfig {
+
+    /**
+     * 是否跟踪日志文件
+     */
+    private boolean enabled = false;
+
+    /**
+     * 跟踪的日志文件路径，每个文件为一个日志源
+     */
+    private List<String> sources = new ArrayList<>();
+
+    /**
+     * 启动时是否从文件开头读取，默认只处理启动后新写入的内容
+     */
+    private boolean fromBeginning = false;
+
+    /**
+     * 没有新内容时的轮询间隔（毫秒），空闲一个间隔后结束未完成的异常块
+     */
+    private long pollIntervalMs = 500;
+
+    /**
+     * 每个日志源的读缓冲区（直接缓冲区）大小（KB），超过该长度的单行按多行处理
+     */
+    private int readBufferKb = 64;
+
+    /**
+     * 每个日志源在堆外保留的最近日志行字节数（MB）
+     */
+    private int contextBufferMb = 1;
+
+    /**
+     * 附加到异常记录上的前置日志行数，0 表示不附加
+     */
+    private int contextLines = 50;
+
+    /**
+     * 异常块起始行的前缀
+     */
+    private String blockStartPrefix = "异常项目:";
+
+    /**
+     * 单个异常块最多的行数，超过后截断
+     */
+    private int maxBlockLines = 500;
+
+    /**
+     * 跟踪到的异常的分析时间预算（毫秒），<= 0 不限
+     */
+    private long analysisBudgetMs = 0;
+}
@@ -0,0 +1,36 @@
+package com.lllkkk.ai.agent.modules.log.handle.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "pipeline.trace-correlation")
+public class TraceCorrelationConfig {
+
+    /**
+     * 是否按链路 ID 关联分析：同一链路的异常只分析源头一条，其余共享结论
+     */
+    private boolean enabled = true;
+
+    /**
+     * 同一链路的记录从第一条到达起缓冲的时长（毫秒），窗口结束后选出源头进入分析
+     */
+    private long windowMs = 2000;
+
+    /**
+     * 带时间预算的记录为源头分析预留的时间（毫秒）：最多缓冲到截止时间前该时长，剩余时间不足时不缓冲
+     */
+    private long analysisReserveMs = 3000;
+
+    /**
+     * 单个链路最多缓冲的记录数，达到后立即结束窗口
+     */
+    private int maxRecordsPerTrace = 32;
+
+    /**
+     * 同时缓冲的链路数上限，超过后新链路的记录不再关联，直接分析
+     */
+    private int maxPendingTraces = 10000;
+}
@@ -0,0 +1,36 @@
+package com.lllkkk.ai.agent.modules.log.handle.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "warmup")
+public class WarmUpConfig {
+
+    /**
+     * 是否在就绪前执行预热
+     */
+    private boolean enabled = true;
+
+    /**
+     * 样例日志语料位置，支持 classpath: 和 file: 前缀
+     */
+    private String corpus = "classpath:warmup/sample-logs.txt";
+
+    /**
+     * 样例日志走解析、过滤和提示词渲染的轮数，用于触发 JIT 编译
+     */
+    private int iterations = 200;
+
+    /**
+     * 是否预先建立到各大模型提供方的连接
+     */
+    private boolean connectUpstream = true;
+
+    /**
+     * 预热最长耗时，超时后不再等待未完成的项目，直接进入就绪
+     */
+    private long timeoutMs = 15000;
+}
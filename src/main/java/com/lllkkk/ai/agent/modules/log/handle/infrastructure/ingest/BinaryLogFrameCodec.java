@@ -0,0 +1,215 @@
+package com.lllkkk.ai.agent.modules.log.handle.infrastructure.ingest;
+
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.LogRecord;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.StackFrame;
+import com.lllkkk.ai.agent.modules.log.handle.domain.service.BusinessPackageMatcher;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 二进制日志帧编解码
+ * <pre>
+ * 帧     := u32 长度（不含自身） | 载荷
+ * 载荷   := u8 版本(1) | 字符串表 | i64 时间戳(epoch 毫秒，-1 未知)
+ *          | u16 项目 | u16 代码版本 | u16 级别 | u16 异常类 | u16 异常消息
+ *          | u8 原因数 | u16 原因 * N
+ *          | u16 帧数 | (u16 类名 | u16 方法名 | i32 行号) * N
+ * 字符串表 := u16 条数 | (u16 字节数 | UTF-8 字节) * N
+ * </pre>
+ * 所有整数为大端序，字符串字段均为字符串表下标，0xFFFF 表示空值。
+ * 同一帧内重复的类名、方法名只在字符串表中出现一次，解码后共享同一个 String 实例。
+ * 解码器复用内部缓冲区，非线程安全，每个接入线程使用各自的实例
+ */
+public class BinaryLogFrameCodec {
+
+    public static final int VERSION = 1;
+
+    /**
+     * 空值对应的字符串下标
+     */
+    public static final int NULL_INDEX = 0xFFFF;
+
+    private static final int MAX_CAUSES = 255;
+
+    private final BusinessPackageMatcher businessPackageMatcher;
+
+    private byte[] scratch = new byte[256];
+
+    public BinaryLogFrameCodec(BusinessPackageMatcher businessPackageMatcher) {
+        this.businessPackageMatcher = businessPackageMatcher;
+    }
+
+    /**
+     * 解码一帧的载荷（不含长度前缀），读取位置从 payload 的当前位置到 limit
+     *
+     * @throws IllegalArgumentException 帧格式错误
+     */
+    public LogRecord decode(ByteBuffer payload) {
+        try {
+            int version = payload.get() & 0xff;
+            if (version != VERSION) {
+                throw new IllegalArgumentException("不支持的帧版本: " + version);
+            }
+            String[] strings = readStrings(payload);
+            long timestamp = payload.getLong();
+            String projectName = lookup(strings, payload);
+            String codeVersion = lookup(strings, payload);
+            String level = lookup(strings, payload);
+            String exceptionClass = lookup(strings, payload);
+            String exceptionMessage = lookup(strings, payload);
+
+            int causeCount = payload.get() & 0xff;
+            List<String> causes = new ArrayList<>(causeCount);
+            for (int i = 0; i < causeCount; i++) {
+                causes.add(lookup(strings, payload));
+            }
+
+            int frameCount = payload.getShort() & 0xffff;
+            List<StackFrame> frames = new ArrayList<>(frameCount);
+            String project = projectName == null ? "" : projectName;
+            for (int i = 0; i < frameCount; i++) {
+                StackFrame frame = new StackFrame();
+                frame.className = nonNull(lookup(strings, payload));
+                frame.methodName = nonNull(lookup(strings, payload));
+                frame.lineNumber = payload.getInt();
+                frame.fullyQualifiedName = frame.className;
+                frame.businessFlag = businessPackageMatcher.isBusinessClass(project, frame.className);
+                frames.add(frame);
+            }
+            if (payload.hasRemaining()) {
+                throw new IllegalArgumentException("帧尾部有 " + payload.remaining() + " 字节多余数据");
+            }
+
+            return LogRecord.builder()
+                    .projectName(project)
+                    .version(codeVersion)
+                    .timestamp(timestamp)
+                    .level(level == null ? "UNKNOWN" : level)
+                    .exceptionClass(exceptionClass)
+                    .exceptionMessage(exceptionMessage == null ? "" : exceptionMessage)
+                    .causes(causes)
+                    .stackFrames(frames)
+                    .build();
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("帧长度不足", e);
+        }
+    }
+
+    private String[] readStrings(ByteBuffer payload) {
+        int count = payload.getShort() & 0xffff;
+        String[] strings = new String[count];
+        for (int i = 0; i < count; i++) {
+            int length = payload.getShort() & 0xffff;
+            if (length > payload.remaining()) {
+                throw new IllegalArgumentException("字符串长度越界: " + length);
+            }
+            if (payload.hasArray()) {
+                strings[i] = new String(payload.array(), payload.arrayOffset() + payload.position(), length,
+                        StandardCharsets.UTF_8);
+                payload.position(payload.position() + length);
+            } else {
+                // 直接缓冲区先批量复制到复用的数组，避免逐字节读取
+                if (scratch.length < length) {
+                    scratch = new byte[Math.max(length, scratch.length * 2)];
+                }
+                payload.get(scratch, 0, length);
+                strings[i] = new String(scratch, 0, length, StandardCharsets.UTF_8);
+            }
+        }
+        return strings;
+    }
+
+    private static String lookup(String[] strings, ByteBuffer payload) {
+        int index = payload.getShort() & 0xffff;
+        if (index == NULL_INDEX) {
+            return null;
+        }
+        if (index >= strings.length) {
+            throw new IllegalArgumentException("字符串下标越界: " + index);
+        }
+        return strings[index];
+    }
+
+    private static String nonNull(String value) {
+        return value == null ? "" : value;
+    }
+
+    /**
+     * 把记录编码为带长度前缀的完整帧，供发送方和测试使用
+     */
+    public static ByteBuffer encode(LogRecord record) {
+        Map<String, Integer> dictionary = new LinkedHashMap<>();
+        List<String> causes = record.getCauses() == null ? List.of() : record.getCauses();
+        List<StackFrame> frames = record.getStackFrames() == null ? List.of() : record.getStackFrames();
+        int causeCount = Math.min(causes.size(), MAX_CAUSES);
+        if (frames.size() > 0xFFFF) {
+            throw new IllegalArgumentException("堆栈帧过多: " + frames.size());
+        }
+
+        int[] header = {
+                intern(dictionary, record.getProjectName()),
+                intern(dictionary, record.getVersion()),
+                intern(dictionary, record.getLevel()),
+                intern(dictionary, record.getExceptionClass()),
+                intern(dictionary, record.getExceptionMessage())
+        };
+        int[] causeIndexes = new int[causeCount];
+        for (int i = 0; i < causeCount; i++) {
+            causeIndexes[i] = intern(dictionary, causes.get(i));
+        }
+        int[] frameIndexes = new int[frames.size() * 2];
+        for (int i = 0; i < frames.size(); i++) {
+            frameIndexes[2 * i] = intern(dictionary, frames.get(i).getClassName());
+            frameIndexes[2 * i + 1] = intern(dictionary, frames.get(i).getMethodName());
+        }
+
+        List<byte[]> encoded = dictionary.keySet().stream().map(s -> s.getBytes(StandardCharsets.UTF_8)).toList();
+        int length = 1 + 2 + encoded.stream().mapToInt(bytes -> 2 + bytes.length).sum()
+                + 8 + header.length * 2 + 1 + causeCount * 2 + 2 + frames.size() * 8;
+        ByteBuffer out = ByteBuffer.allocate(4 + length);
+        out.putInt(length);
+        out.put((byte) VERSION);
+        out.putShort((short) encoded.size());
+        for (byte[] bytes : encoded) {
+            if (bytes.length > 0xFFFF) {
+                throw new IllegalArgumentException("字符串过长: " + bytes.length + " 字节");
+            }
+            out.putShort((short) bytes.length).put(bytes);
+        }
+        out.putLong(record.getTimestamp());
+        for (int index : header) {
+            out.putShort((short) index);
+        }
+        out.put((byte) causeCount);
+        for (int index : causeIndexes) {
+            out.putShort((short) index);
+        }
+        out.putShort((short) frames.size());
+        for (int i = 0; i < frames.size(); i++) {
+            out.putShort((short) frameIndexes[2 * i]).putShort((short) frameIndexes[2 * i + 1])
+                    .putInt(frames.get(i).getLineNumber());
+        }
+        return out.flip();
+    }
+
+    private static int intern(Map<String, Integer> dictionary, String value) {
+        if (value == null) {
+            return NULL_INDEX;
+        }
+        Integer index = dictionary.get(value);
+        if (index == null) {
+            index = dictionary.size();
+            if (index >= NULL_INDEX) {
+                throw new IllegalArgumentException("字符串表条数超过上限");
+            }
+            dictionary.put(value, index);
+        }
+        return index;
+    }
+}
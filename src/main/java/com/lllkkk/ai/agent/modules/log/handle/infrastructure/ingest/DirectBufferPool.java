@@ -0,0 +1,52 @@
+package com.lllkkk.ai.agent.modules.log.handle.infrastructure.ingest;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 定长直接缓冲区池
+ * 直接缓冲区分配和回收代价高，连接只在有未处理完的数据时持有缓冲区，处理完即归还，
+ * 池中最多保留 maxPooled 个，超出的交给 GC
+ */
+public class DirectBufferPool {
+
+    private final int bufferSize;
+    private final ArrayBlockingQueue<ByteBuffer> free;
+    private final LongAdder allocated = new LongAdder();
+
+    public DirectBufferPool(int bufferSize, int maxPooled) {
+        this.bufferSize = bufferSize;
+        this.free = new ArrayBlockingQueue<>(Math.max(1, maxPooled));
+    }
+
+    public ByteBuffer acquire() {
+        ByteBuffer buffer = free.poll();
+        if (buffer == null) {
+            allocated.increment();
+            buffer = ByteBuffer.allocateDirect(bufferSize);
+        }
+        return buffer;
+    }
+
+    public void release(ByteBuffer buffer) {
+        if (buffer != null && buffer.isDirect() && buffer.capacity() == bufferSize) {
+            free.offer(buffer.clear());
+        }
+    }
+
+    public int bufferSize() {
+        return bufferSize;
+    }
+
+    public int pooled() {
+        return free.size();
+    }
+
+    /**
+     * 累计新分配的缓冲区数，持续增长说明池容量不足
+     */
+    public long allocated() {
+        return allocated.sum();
+    }
+}
@@ -0,0 +1,105 @@
+package com.lllkkk.ai.agent.modules.log.handle.infrastructure.ingest;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 从一个日志源的逐行输入中切出异常块
+ * 以 blockStartPrefix 开头的行开始一个异常块，"详细信息:" 之后出现 "]"（堆栈列表结束）、
+ * 下一个异常块开始、达到最大行数或调用方认为输入已空闲时结束。
+ * 所有行都写入堆外的 {@link OffHeapLineRing}，只有异常块内的行和开始时取出的前若干行上下文会解码为 String。
+ * 非线程安全，每个日志源使用各自的实例
+ */
+public class ExceptionBlockAssembler {
+
+    private static final String FRAMES_MARKER = "详细信息:";
+
+    /**
+     * 切出的异常块
+     *
+     * @param rawLog  异常块原文
+     * @param context 异常块之前的若干行，按时间顺序排列
+     */
+    public record Block(String rawLog, List<String> context) {
+    }
+
+    private final OffHeapLineRing ring;
+    private final byte[] startPrefix;
+    private final int contextLines;
+    private final int maxBlockLines;
+    private final Consumer<Block> sink;
+
+    private StringBuilder block;
+    private List<String> context;
+    private int blockLines;
+    private boolean framesStarted;
+
+    public ExceptionBlockAssembler(OffHeapLineRing ring, String blockStartPrefix, int contextLines, int maxBlockLines,
+                                   Consumer<Block> sink) {
+        this.ring = ring;
+        this.startPrefix = blockStartPrefix.getBytes(StandardCharsets.UTF_8);
+        this.contextLines = contextLines;
+        this.maxBlockLines = Math.max(1, maxBlockLines);
+        this.sink = sink;
+    }
+
+    /**
+     * 输入一行（position 到 limit，不含换行符），读取后 line 的 position 移到 limit
+     */
+    public void accept(ByteBuffer line) {
+        if (startsWithPrefix(line)) {
+            flush();
+            // 先取上下文再写入本行，上下文只包含异常块之前的行
+            context = contextLines > 0 ? ring.lastLines(contextLines) : List.of();
+            block = new StringBuilder(1024);
+        }
+        if (block == null) {
+            ring.append(line);
+            return;
+        }
+        String text = StandardCharsets.UTF_8.decode(line.duplicate()).toString();
+        ring.append(line);
+        block.append(text).append('\n');
+        blockLines++;
+        if (text.contains(FRAMES_MARKER)) {
+            framesStarted = true;
+        }
+        if ((framesStarted && text.indexOf(']') >= 0) || blockLines >= maxBlockLines) {
+            flush();
+        }
+    }
+
+    /**
+     * 结束当前未完成的异常块（如输入空闲或日志源轮转时）
+     */
+    public void flush() {
+        if (block == null) {
+            return;
+        }
+        Block done = new Block(block.toString(), context);
+        block = null;
+        context = null;
+        blockLines = 0;
+        framesStarted = false;
+        sink.accept(done);
+    }
+
+    public boolean inBlock() {
+        return block != null;
+    }
+
+    private boolean startsWithPrefix(ByteBuffer line) {
+        if (line.remaining() < startPrefix.length) {
+            return false;
+        }
+        int position = line.position();
+        for (int i = 0; i < startPrefix.length; i++) {
+            if (line.get(position + i) != startPrefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
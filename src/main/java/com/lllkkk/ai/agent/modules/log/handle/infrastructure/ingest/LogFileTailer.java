@@ -0,0 +1,219 @@
+package com.lllkkk.ai.agent.modules.log.handle.infrastructure.ingest;
+
+import com.lllkkk.ai.agent.modules.log.handle.application.LogProcessingPipeline;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.Deadline;
+import com.lllkkk.ai.agent.modules.log.handle.infrastructure.config.TailIngestConfig;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 日志文件跟踪接入
+ * 每个日志源一个虚拟线程，按块读入直接缓冲区并就地切分行：所有行写入该源的堆外环形缓冲区，
+ * 遇到异常块时连同之前的若干行上下文一起提交到流水线。支持文件截断和轮转（按文件标识判断）
+ */
+@Slf4j
+@Component
+public class LogFileTailer implements DisposableBean {
+
+    private final TailIngestConfig config;
+    private final LogProcessingPipeline pipeline;
+
+    private final List<Thread> workers = new ArrayList<>();
+    private final LongAdder blocks = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private volatile boolean running;
+
+    public LogFileTailer(TailIngestConfig config, LogProcessingPipeline pipeline) {
+        this.config = config;
+        this.pipeline = pipeline;
+    }
+
+    /**
+     * 跟踪统计
+     *
+     * @param sources  跟踪中的日志源数
+     * @param blocks   累计提交的异常块数
+     * @param rejected 累计因流水线繁忙被拒绝的异常块数
+     */
+    public record Stats(int sources, long blocks, long rejected) {
+    }
+
+    @PostConstruct
+    public void startIfEnabled() {
+        if (config.isEnabled()) {
+            start();
+        }
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        for (String source : config.getSources()) {
+            Path path = Path.of(source);
+            workers.add(Thread.ofVirtual().name("ingest-tail-" + path.getFileName()).start(() -> tail(path)));
+        }
+        log.info("✅ 日志文件跟踪已启动: {}，每个源保留最近 {} MB，附加前 {} 行上下文",
+                config.getSources(), config.getContextBufferMb(), config.getContextLines());
+    }
+
+    public Stats stats() {
+        return new Stats(workers.size(), blocks.sum(), rejected.sum());
+    }
+
+    @Override
+    public synchronized void destroy() {
+        running = false;
+        workers.forEach(Thread::interrupt);
+        for (Thread worker : workers) {
+            try {
+                worker.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        workers.clear();
+    }
+
+    private void tail(Path path) {
+        OffHeapLineRing ring = new OffHeapLineRing(config.getContextBufferMb() * 1024 * 1024);
+        ExceptionBlockAssembler assembler = new ExceptionBlockAssembler(ring, config.getBlockStartPrefix(),
+                config.getContextLines(), config.getMaxBlockLines(), block -> submit(path, block));
+        ByteBuffer buffer = ByteBuffer.allocateDirect(Math.max(1, config.getReadBufferKb()) * 1024);
+        FileChannel channel = null;
+        Object fileKey = null;
+        long position = config.isFromBeginning() ? 0 : -1;
+        boolean idle = false;
+        try {
+            while (running) {
+                try {
+                    if (channel == null) {
+                        channel = FileChannel.open(path, StandardOpenOption.READ);
+                        fileKey = fileKey(path);
+                        position = position < 0 ? channel.size() : position;
+                    }
+                    if (channel.size() < position) {
+                        log.info("日志文件被截断，从头读取: {}", path);
+                        assembler.flush();
+                        position = 0;
+                        buffer.clear();
+                    }
+                    int read = channel.read(buffer, position);
+                    if (read > 0) {
+                        position += read;
+                        idle = false;
+                        buffer.flip();
+                        splitLines(buffer, assembler);
+                        buffer.compact();
+                        continue;
+                    }
+                    // 连续空闲一个轮询间隔且没有未读完的半行时，结束未完成的异常块
+                    if (idle && buffer.position() == 0) {
+                        assembler.flush();
+                    }
+                    idle = true;
+                    if (!Objects.equals(fileKey, fileKey(path))) {
+                        log.info("日志文件已轮转: {}", path);
+                        channel = reopen(channel, assembler, buffer);
+                        position = 0;
+                        continue;
+                    }
+                } catch (NoSuchFileException e) {
+                    // 文件尚未创建或处于轮转间隙，之后从新文件开头读取
+                    if (channel != null) {
+                        channel = reopen(channel, assembler, buffer);
+                        position = 0;
+                    }
+                } catch (IOException e) {
+                    log.warn("读取日志文件失败: {}", path, e);
+                    channel = closeQuietly(channel);
+                }
+                Thread.sleep(config.getPollIntervalMs());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            assembler.flush();
+            closeQuietly(channel);
+        }
+    }
+
+    /**
+     * 按换行符把缓冲区切成行视图交给 assembler，不复制内容；剩余的半行留在缓冲区中，
+     * 整个缓冲区都没有换行符时按一行处理
+     */
+    static void splitLines(ByteBuffer buffer, ExceptionBlockAssembler assembler) {
+        int start = buffer.position();
+        for (int i = start; i < buffer.limit(); i++) {
+            if (buffer.get(i) != '\n') {
+                continue;
+            }
+            int end = i > start && buffer.get(i - 1) == '\r' ? i - 1 : i;
+            assembler.accept(buffer.slice(start, end - start));
+            start = i + 1;
+        }
+        if (start == 0 && buffer.limit() == buffer.capacity()) {
+            assembler.accept(buffer.slice(0, buffer.limit()));
+            start = buffer.limit();
+        }
+        buffer.position(start);
+    }
+
+    private void submit(Path path, ExceptionBlockAssembler.Block block) {
+        Deadline deadline = config.getAnalysisBudgetMs() > 0
+                ? Deadline.after(Duration.ofMillis(config.getAnalysisBudgetMs()))
+                : Deadline.none();
+        blocks.increment();
+        pipeline.submitBackground(block.rawLog(), block.context(), deadline).whenComplete((result, error) -> {
+            if (error != null) {
+                rejected.increment();
+                log.warn("⚠️ 跟踪到的异常未能分析: {} - {}", path, error.getMessage());
+            }
+        });
+    }
+
+    /**
+     * 旧文件已读到末尾：残留的半行按最后一行处理，结束未完成的异常块，返回 null 以便下一轮打开新文件
+     */
+    private static FileChannel reopen(FileChannel channel, ExceptionBlockAssembler assembler, ByteBuffer buffer) {
+        if (buffer.position() > 0) {
+            buffer.flip();
+            assembler.accept(buffer);
+        }
+        buffer.clear();
+        assembler.flush();
+        return closeQuietly(channel);
+    }
+
+    private static Object fileKey(Path path) throws IOException {
+        return Files.readAttributes(path, BasicFileAttributes.class).fileKey();
+    }
+
+    private static FileChannel closeQuietly(FileChannel channel) {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // 关闭失败不影响重新打开
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,116 @@
+package com.lllkkk.ai.agent.modules.log.handle.infrastructure.ingest;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 堆外的最近日志行环形缓冲区
+ * 每行以 u32 长度 | UTF-8 字节 | u32 长度 的形式写入一块直接缓冲区，写满后覆盖最早的行；
+ * 行尾的长度用于从最新一行向前回溯。行内容只在 {@link #lastLines} 取出时才解码为 String，
+ * 平时跟踪的日志不在堆上留副本。非线程安全，每个日志源使用各自的实例
+ */
+public class OffHeapLineRing {
+
+    private static final int LENGTH_BYTES = 4;
+    private static final int OVERHEAD = 2 * LENGTH_BYTES;
+
+    private final ByteBuffer ring;
+    private final int capacity;
+
+    /**
+     * 下一次写入位置与最早一行的起始位置（绝对偏移，取模后为缓冲区下标）
+     */
+    private long head;
+    private long tail;
+    private int lines;
+
+    public OffHeapLineRing(int capacityBytes) {
+        this.capacity = Math.max(64, capacityBytes);
+        this.ring = ByteBuffer.allocateDirect(capacity);
+    }
+
+    /**
+     * 追加一行（line 的 position 到 limit，不含换行符），读取后 line 的 position 移到 limit；
+     * 超过容量的行只保留开头部分
+     */
+    public void append(ByteBuffer line) {
+        int length = Math.min(line.remaining(), capacity - OVERHEAD);
+        long need = length + OVERHEAD;
+        while (head + need - tail > capacity) {
+            tail += readLength(tail) + OVERHEAD;
+            lines--;
+        }
+        writeLength(head, length);
+        int start = index(head + LENGTH_BYTES);
+        int first = Math.min(length, capacity - start);
+        ring.put(start, line, line.position(), first);
+        ring.put(0, line, line.position() + first, length - first);
+        writeLength(head + LENGTH_BYTES + length, length);
+        head += need;
+        lines++;
+        line.position(line.limit());
+    }
+
+    /**
+     * 最近的至多 count 行，按时间顺序排列
+     */
+    public List<String> lastLines(int count) {
+        int n = Math.min(count, lines);
+        String[] out = new String[n];
+        long end = head;
+        for (int i = n - 1; i >= 0; i--) {
+            int length = readLength(end - LENGTH_BYTES);
+            long start = end - LENGTH_BYTES - length;
+            out[i] = decode(start, length);
+            end = start - LENGTH_BYTES;
+        }
+        return Arrays.asList(out);
+    }
+
+    /**
+     * 当前保留的行数
+     */
+    public int lineCount() {
+        return lines;
+    }
+
+    /**
+     * 当前占用的字节数（含每行的长度字段）
+     */
+    public long usedBytes() {
+        return head - tail;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    private String decode(long from, int length) {
+        byte[] bytes = new byte[length];
+        int start = index(from);
+        int first = Math.min(length, capacity - start);
+        ring.get(start, bytes, 0, first);
+        ring.get(0, bytes, first, length - first);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private int readLength(long at) {
+        int value = 0;
+        for (int i = 0; i < LENGTH_BYTES; i++) {
+            value = (value << 8) | (ring.get(index(at + i)) & 0xff);
+        }
+        return value;
+    }
+
+    private void writeLength(long at, int value) {
+        for (int i = 0; i < LENGTH_BYTES; i++) {
+            ring.put(index(at + i), (byte) (value >>> (8 * (LENGTH_BYTES - 1 - i))));
+        }
+    }
+
+    private int index(long position) {
+        return (int) (position % capacity);
+    }
+}
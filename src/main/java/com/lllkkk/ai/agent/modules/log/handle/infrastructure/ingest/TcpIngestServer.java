@@ -0,0 +1,409 @@
+package com.lllkkk.ai.agent.modules.log.handle.infrastructure.ingest;
+
+import com.lllkkk.ai.agent.modules.log.handle.application.LogProcessingPipeline;
+import com.lllkkk.ai.agent.modules.log.handle.application.PipelineResult;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.Deadline;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.LogRecord;
+import com.lllkkk.ai.agent.modules.log.handle.domain.service.BusinessPackageMatcher;
+import com.lllkkk.ai.agent.modules.log.handle.infrastructure.config.IngestConfig;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 二进制帧 TCP 接入（{@link BinaryLogFrameCodec} 格式）
+ * 单个选择器线程负责所有连接：读入池化的直接缓冲区，就地切出完整帧解码为 LogRecord，
+ * 不等待地提交到流水线的 filter 阶段，并按帧顺序回复一个字节：
+ * {@link #ACK} 已受理、{@link #BUSY} 流水线队列已满（发送方稍后重发）、{@link #ERROR} 帧格式错误。
+ * 已受理未完成的记录达到上限时停止读取所有连接，TCP 接收窗口填满后发送方的写入自然阻塞
+ */
+@Slf4j
+@Component
+public class TcpIngestServer implements DisposableBean {
+
+    public static final byte ACK = 1;
+    public static final byte BUSY = 2;
+    public static final byte ERROR = 3;
+
+    /**
+     * 每个连接待发送应答的缓冲区大小，发送方长期不读取应答、缓冲区写满时断开连接
+     */
+    private static final int REPLY_BUFFER_SIZE = 4096;
+
+    private final IngestConfig config;
+    private final LogProcessingPipeline pipeline;
+    private final BinaryLogFrameCodec codec;
+    private final DirectBufferPool bufferPool;
+    private final int maxFrameBytes;
+
+    private final List<Connection> connections = new ArrayList<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicBoolean resumeRequested = new AtomicBoolean();
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder busy = new LongAdder();
+    private final LongAdder malformed = new LongAdder();
+    private final LongAdder pauses = new LongAdder();
+
+    private volatile Selector selector;
+    private volatile ServerSocketChannel server;
+    private volatile boolean paused;
+    private Thread selectorThread;
+
+    public TcpIngestServer(IngestConfig config, LogProcessingPipeline pipeline,
+                           BusinessPackageMatcher businessPackageMatcher) {
+        this.config = config;
+        this.pipeline = pipeline;
+        this.codec = new BinaryLogFrameCodec(businessPackageMatcher);
+        this.bufferPool = new DirectBufferPool(config.getBufferSize(), config.getMaxPooledBuffers());
+        this.maxFrameBytes = config.getBufferSize() - 4;
+    }
+
+    /**
+     * 接入统计
+     *
+     * @param connections     当前连接数
+     * @param inFlight        已受理未完成的记录数
+     * @param paused          是否因在途记录过多暂停读取
+     * @param accepted        累计受理帧数
+     * @param busy            累计回复 BUSY 的帧数
+     * @param malformed       累计格式错误的帧数
+     * @param pauses          累计暂停读取次数
+     * @param pooledBuffers   池中空闲缓冲区数
+     * @param allocatedBuffers 累计分配的缓冲区数
+     */
+    public record Stats(int connections, int inFlight, boolean paused, long accepted, long busy, long malformed,
+                        long pauses, int pooledBuffers, long allocatedBuffers) {
+    }
+
+    @PostConstruct
+    public void startIfEnabled() throws IOException {
+        if (config.isEnabled()) {
+            start();
+        }
+    }
+
+    public synchronized void start() throws IOException {
+        if (selectorThread != null) {
+            return;
+        }
+        selector = Selector.open();
+        server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress(config.getHost(), config.getPort()));
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+        selectorThread = Thread.ofPlatform().name("ingest-tcp").daemon().start(this::loop);
+        log.info("✅ 二进制帧接入已监听 {}，单帧上限 {} 字节，在途上限 {}",
+                server.getLocalAddress(), maxFrameBytes, config.getMaxInFlight());
+    }
+
+    /**
+     * 实际监听的端口，未启动时为 -1
+     */
+    public int port() {
+        try {
+            return server == null ? -1 : ((InetSocketAddress) server.getLocalAddress()).getPort();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    public Stats stats() {
+        int open;
+        synchronized (connections) {
+            open = connections.size();
+        }
+        return new Stats(open, inFlight.get(), paused, accepted.sum(), busy.sum(), malformed.sum(), pauses.sum(),
+                bufferPool.pooled(), bufferPool.allocated());
+    }
+
+    @Override
+    public synchronized void destroy() throws IOException {
+        if (selectorThread == null) {
+            return;
+        }
+        selectorThread.interrupt();
+        selector.wakeup();
+        try {
+            selectorThread.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        selectorThread = null;
+    }
+
+    private void loop() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                selector.select();
+                if (resumeRequested.getAndSet(false)) {
+                    maybeResume();
+                }
+                for (SelectionKey key : selector.selectedKeys()) {
+                    try {
+                        handle(key);
+                    } catch (IOException | RuntimeException e) {
+                        log.debug("连接异常关闭: {}", e.getMessage());
+                        close((Connection) key.attachment());
+                    }
+                }
+                selector.selectedKeys().clear();
+            }
+        } catch (IOException e) {
+            log.error("❌ 二进制帧接入选择器异常退出", e);
+        } finally {
+            shutdown();
+        }
+    }
+
+    private void handle(SelectionKey key) throws IOException {
+        if (!key.isValid()) {
+            return;
+        }
+        if (key.isAcceptable()) {
+            accept();
+            return;
+        }
+        Connection connection = (Connection) key.attachment();
+        if (key.isWritable()) {
+            flush(connection);
+        }
+        // 同一轮中前面的连接可能已触发暂停
+        if (key.isValid() && key.isReadable() && !paused) {
+            read(connection);
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = server.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        Connection connection = new Connection(channel);
+        connection.key = channel.register(selector, paused ? 0 : SelectionKey.OP_READ, connection);
+        synchronized (connections) {
+            connections.add(connection);
+        }
+    }
+
+    private void read(Connection connection) throws IOException {
+        if (connection.buffer == null) {
+            connection.buffer = bufferPool.acquire();
+        }
+        int read = connection.channel.read(connection.buffer);
+        if (read < 0) {
+            close(connection);
+            return;
+        }
+        drain(connection);
+    }
+
+    /**
+     * 处理缓冲区中的完整帧，剩余的半帧留到下次读取；缓冲区清空后归还到池中
+     */
+    private void drain(Connection connection) throws IOException {
+        ByteBuffer buffer = connection.buffer;
+        if (buffer == null) {
+            return;
+        }
+        buffer.flip();
+        while (buffer.remaining() >= 4) {
+            if (inFlight.get() >= config.getMaxInFlight()) {
+                pause();
+                break;
+            }
+            int length = buffer.getInt(buffer.position());
+            if (length <= 0 || length > maxFrameBytes) {
+                malformed.increment();
+                log.warn("⚠️ 帧长度 {} 超出范围 (1~{})，断开连接 {}", length, maxFrameBytes, connection.channel);
+                reply(connection, ERROR);
+                close(connection);
+                return;
+            }
+            if (buffer.remaining() < 4 + length) {
+                break;
+            }
+            ByteBuffer payload = buffer.slice(buffer.position() + 4, length);
+            buffer.position(buffer.position() + 4 + length);
+            reply(connection, submit(payload));
+            if (!connection.channel.isOpen()) {
+                return;
+            }
+        }
+        buffer.compact();
+        if (buffer.position() == 0) {
+            bufferPool.release(buffer);
+            connection.buffer = null;
+        }
+    }
+
+    private byte submit(ByteBuffer payload) {
+        LogRecord record;
+        try {
+            record = codec.decode(payload);
+        } catch (IllegalArgumentException e) {
+            malformed.increment();
+            log.debug("帧格式错误: {}", e.getMessage());
+            return ERROR;
+        }
+        CompletableFuture<PipelineResult> future = pipeline.trySubmitParsed(record, deadline());
+        if (future.isCompletedExceptionally()) {
+            busy.increment();
+            return BUSY;
+        }
+        inFlight.incrementAndGet();
+        accepted.increment();
+        future.whenComplete((result, error) -> {
+            if (inFlight.decrementAndGet() <= resumeThreshold()) {
+                requestResume();
+            }
+        });
+        return ACK;
+    }
+
+    private Deadline deadline() {
+        long budget = config.getAnalysisBudgetMs();
+        return budget > 0 ? Deadline.after(Duration.ofMillis(budget)) : Deadline.none();
+    }
+
+    private void pause() {
+        if (paused) {
+            return;
+        }
+        paused = true;
+        pauses.increment();
+        log.debug("在途记录达到上限 {}，暂停读取", config.getMaxInFlight());
+        for (Connection connection : snapshot()) {
+            if (connection.key.isValid()) {
+                connection.key.interestOps(connection.key.interestOps() & ~SelectionKey.OP_READ);
+            }
+        }
+        // 暂停前在途记录可能已全部完成，此时不会再有回调唤醒选择器
+        if (inFlight.get() <= resumeThreshold()) {
+            requestResume();
+        }
+    }
+
+    /**
+     * 在途记录降到上限的 3/4 及以下时恢复读取
+     */
+    private int resumeThreshold() {
+        return config.getMaxInFlight() * 3 / 4;
+    }
+
+    private void requestResume() {
+        if (paused && resumeRequested.compareAndSet(false, true)) {
+            selector.wakeup();
+        }
+    }
+
+    /**
+     * 恢复读取，先处理各连接缓冲区中积压的帧
+     */
+    private void maybeResume() {
+        if (!paused) {
+            return;
+        }
+        paused = false;
+        for (Connection connection : snapshot()) {
+            if (paused) {
+                break;
+            }
+            if (connection.key.isValid()) {
+                try {
+                    connection.key.interestOps(connection.key.interestOps() | SelectionKey.OP_READ);
+                    drain(connection);
+                } catch (IOException | RuntimeException e) {
+                    log.debug("连接异常关闭: {}", e.getMessage());
+                    close(connection);
+                }
+            }
+        }
+    }
+
+    private void reply(Connection connection, byte code) throws IOException {
+        if (!connection.replies.hasRemaining()) {
+            log.warn("⚠️ 发送方长期未读取应答，断开连接 {}", connection.channel);
+            close(connection);
+            return;
+        }
+        connection.replies.put(code);
+        flush(connection);
+    }
+
+    private void flush(Connection connection) throws IOException {
+        if (!connection.channel.isOpen()) {
+            return;
+        }
+        connection.replies.flip();
+        connection.channel.write(connection.replies);
+        connection.replies.compact();
+        int ops = connection.key.interestOps();
+        connection.key.interestOps(connection.replies.position() > 0
+                ? ops | SelectionKey.OP_WRITE
+                : ops & ~SelectionKey.OP_WRITE);
+    }
+
+    private List<Connection> snapshot() {
+        synchronized (connections) {
+            return List.copyOf(connections);
+        }
+    }
+
+    private void close(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        synchronized (connections) {
+            connections.remove(connection);
+        }
+        try {
+            connection.channel.close();
+        } catch (IOException e) {
+            log.debug("关闭连接失败", e);
+        }
+        bufferPool.release(connection.buffer);
+        connection.buffer = null;
+    }
+
+    private void shutdown() {
+        snapshot().forEach(this::close);
+        try {
+            server.close();
+            selector.close();
+        } catch (IOException e) {
+            log.debug("关闭监听失败", e);
+        }
+        log.info("二进制帧接入已停止: {}", stats());
+    }
+
+    private static final class Connection {
+        private final SocketChannel channel;
+        private final ByteBuffer replies = ByteBuffer.allocate(REPLY_BUFFER_SIZE);
+        private SelectionKey key;
+        /**
+         * 有未处理完的数据时持有的池化缓冲区，否则为空
+         */
+        private ByteBuffer buffer;
+
+        private Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+    }
+}
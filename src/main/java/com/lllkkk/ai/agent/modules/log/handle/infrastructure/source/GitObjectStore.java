@@ -0,0 +1,358 @@
+package com.lllkkk.ai.agent.modules.log.handle.infrastructure.source;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * 本地 git 对象库的只读访问：松散对象、包文件与引用
+ * 直接读取 .git 目录，不检出、不调用 git 命令；包文件在首次访问时映射，
+ * 找不到对象时重新扫描 pack 目录一次，以便感知 gc / fetch 后新增的包
+ */
+@Slf4j
+public class GitObjectStore {
+
+    private static final HexFormat HEX = HexFormat.of();
+
+    /**
+     * git 对象类型
+     */
+    public enum Type {
+        COMMIT, TREE, BLOB, TAG
+    }
+
+    /**
+     * git 对象
+     */
+    public record GitObject(Type type, byte[] data) {
+    }
+
+    private final Path gitDir;
+    private final Path objectsDir;
+    private volatile List<GitPackFile> packs;
+    private volatile long packDirModified = Long.MIN_VALUE;
+
+    public GitObjectStore(Path gitDir) {
+        this.gitDir = gitDir;
+        this.objectsDir = gitDir.resolve("objects");
+    }
+
+    public Path gitDir() {
+        return gitDir;
+    }
+
+    /**
+     * 从给定路径向上查找 git 目录：普通仓库的 .git 目录、工作树/子模块的 .git 文件（gitdir: 指向），或裸仓库本身
+     */
+    public static Optional<Path> findGitDir(Path start) {
+        for (Path dir = start.toAbsolutePath().normalize(); dir != null; dir = dir.getParent()) {
+            Path dotGit = dir.resolve(".git");
+            if (Files.isDirectory(dotGit)) {
+                return Optional.of(dotGit);
+            }
+            if (Files.isRegularFile(dotGit)) {
+                try {
+                    String content = Files.readString(dotGit, StandardCharsets.UTF_8).trim();
+                    if (content.startsWith("gitdir:")) {
+                        return Optional.of(dir.resolve(content.substring("gitdir:".length()).trim()).normalize());
+                    }
+                } catch (IOException e) {
+                    log.debug("读取 .git 文件失败: {}", dotGit, e);
+                }
+            }
+            if (Files.isDirectory(dir.resolve("objects")) && Files.isRegularFile(dir.resolve("HEAD"))) {
+                return Optional.of(dir);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * 读取对象，不存在时返回空
+     */
+    public Optional<GitObject> read(String id) throws IOException {
+        return Optional.ofNullable(read(HEX.parseHex(id)));
+    }
+
+    GitObject read(byte[] id) throws IOException {
+        GitPackFile.RawObject raw = readRaw(id);
+        return raw == null ? null : new GitObject(Type.values()[raw.type() - 1], raw.data());
+    }
+
+    private GitPackFile.RawObject readRaw(byte[] id) throws IOException {
+        for (GitPackFile pack : packs()) {
+            GitPackFile.RawObject raw = pack.read(id, this::readRaw);
+            if (raw != null) {
+                return raw;
+            }
+        }
+        GitPackFile.RawObject loose = readLoose(id);
+        if (loose != null) {
+            return loose;
+        }
+        // 可能是启动后 gc / fetch 新生成的包
+        if (rescanPacks()) {
+            for (GitPackFile pack : packs) {
+                GitPackFile.RawObject raw = pack.read(id, this::readRaw);
+                if (raw != null) {
+                    return raw;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 松散对象为 zlib 压缩的 "类型 长度\0内容"
+     */
+    private GitPackFile.RawObject readLoose(byte[] id) throws IOException {
+        String hex = HEX.formatHex(id);
+        Path file = objectsDir.resolve(hex.substring(0, 2)).resolve(hex.substring(2));
+        byte[] data;
+        try (InputStream in = new InflaterInputStream(Files.newInputStream(file))) {
+            data = in.readAllBytes();
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+        int space = indexOf(data, (byte) ' ', 0);
+        int nul = indexOf(data, (byte) 0, 0);
+        if (space < 0 || nul < space) {
+            throw new IOException("无效的松散对象: " + file);
+        }
+        int type = switch (new String(data, 0, space, StandardCharsets.US_ASCII)) {
+            case "commit" -> GitPackFile.OBJ_COMMIT;
+            case "tree" -> GitPackFile.OBJ_TREE;
+            case "blob" -> GitPackFile.OBJ_BLOB;
+            case "tag" -> GitPackFile.OBJ_TAG;
+            default -> throw new IOException("未知的松散对象类型: " + file);
+        };
+        byte[] content = new byte[data.length - nul - 1];
+        System.arraycopy(data, nul + 1, content, 0, content.length);
+        return new GitPackFile.RawObject(type, content);
+    }
+
+    private List<GitPackFile> packs() {
+        List<GitPackFile> current = packs;
+        if (current == null) {
+            rescanPacks();
+            current = packs;
+        }
+        return current;
+    }
+
+    /**
+     * pack 目录有变化时重新映射全部包，返回是否发生了变化
+     */
+    private synchronized boolean rescanPacks() {
+        Path packDir = objectsDir.resolve("pack");
+        long modified;
+        try {
+            modified = Files.isDirectory(packDir) ? Files.getLastModifiedTime(packDir).toMillis() : 0;
+        } catch (IOException e) {
+            modified = 0;
+        }
+        if (packs != null && modified == packDirModified) {
+            return false;
+        }
+        List<GitPackFile> opened = new ArrayList<>();
+        if (modified != 0) {
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(packDir, "*.idx")) {
+                for (Path idxPath : stream) {
+                    try {
+                        opened.add(GitPackFile.open(idxPath));
+                    } catch (IOException e) {
+                        log.warn("⚠️ 无法打开包文件 {}: {}", idxPath, e.getMessage());
+                    }
+                }
+            } catch (IOException e) {
+                log.warn("⚠️ 扫描包目录失败: {}", packDir, e);
+            }
+        }
+        packDirModified = modified;
+        packs = List.copyOf(opened);
+        return true;
+    }
+
+    /**
+     * 把版本解析为提交 ID：完整 SHA、引用名（HEAD、分支、标签，含 packed-refs）或至少 4 位的缩写 SHA，
+     * 附注标签会剥离到其指向的提交
+     */
+    public Optional<String> resolveCommit(String revision) throws IOException {
+        if (revision == null || revision.isBlank()) {
+            return Optional.empty();
+        }
+        String rev = revision.trim();
+        String id = resolveRef(rev);
+        if (id == null && rev.matches("[0-9a-fA-F]{4,40}")) {
+            id = resolveAbbreviated(rev.toLowerCase());
+        }
+        return id == null ? Optional.empty() : Optional.ofNullable(peelToCommit(id));
+    }
+
+    private String resolveRef(String name) throws IOException {
+        if (name.matches("[0-9a-fA-F]{40}")) {
+            return name.toLowerCase();
+        }
+        for (String candidate : List.of(name, "refs/" + name, "refs/tags/" + name, "refs/heads/" + name,
+                "refs/remotes/" + name)) {
+            String id = readRef(candidate, 0);
+            if (id != null) {
+                return id;
+            }
+        }
+        return null;
+    }
+
+    private String readRef(String name, int depth) throws IOException {
+        if (depth > 5 || name.startsWith("/") || name.contains("..")) {
+            return null;
+        }
+        Path file = gitDir.resolve(name);
+        if (Files.isRegularFile(file)) {
+            String content = Files.readString(file, StandardCharsets.UTF_8).trim();
+            if (content.startsWith("ref:")) {
+                return readRef(content.substring("ref:".length()).trim(), depth + 1);
+            }
+            return content.matches("[0-9a-f]{40}") ? content : null;
+        }
+        return readPackedRef(name);
+    }
+
+    private String readPackedRef(String name) throws IOException {
+        Path packedRefs = gitDir.resolve("packed-refs");
+        if (!Files.isRegularFile(packedRefs)) {
+            return null;
+        }
+        for (String line : Files.readAllLines(packedRefs, StandardCharsets.UTF_8)) {
+            // "^" 开头的剥离行紧跟在附注标签之后，这里不需要，peelToCommit 会读取标签对象
+            if (line.length() > 41 && line.charAt(40) == ' ' && line.substring(41).equals(name)) {
+                return line.substring(0, 40);
+            }
+        }
+        return null;
+    }
+
+    private String resolveAbbreviated(String prefix) throws IOException {
+        int nibbles = prefix.length();
+        byte[] prefixBytes = HEX.parseHex(nibbles % 2 == 0 ? prefix : prefix + "0");
+        Set<String> matches = new LinkedHashSet<>();
+        for (GitPackFile pack : packs()) {
+            pack.findByPrefix(prefixBytes, nibbles, id -> matches.add(HEX.formatHex(id)));
+        }
+        Path looseDir = objectsDir.resolve(prefix.substring(0, 2));
+        if (Files.isDirectory(looseDir)) {
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(looseDir, prefix.substring(2) + "*")) {
+                stream.forEach(file -> matches.add(prefix.substring(0, 2) + file.getFileName()));
+            }
+        }
+        if (matches.size() > 1) {
+            log.warn("⚠️ 缩写版本 {} 对应多个对象，无法确定提交", prefix);
+            return null;
+        }
+        return matches.isEmpty() ? null : matches.iterator().next();
+    }
+
+    private String peelToCommit(String id) throws IOException {
+        for (int depth = 0; depth < 10; depth++) {
+            GitObject object = read(HEX.parseHex(id));
+            if (object == null) {
+                return null;
+            }
+            if (object.type() == Type.COMMIT) {
+                return id;
+            }
+            if (object.type() != Type.TAG) {
+                return null;
+            }
+            id = header(object.data(), "object");
+            if (id == null) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 提交的根目录树 ID
+     */
+    public Optional<String> commitTree(String commitId) throws IOException {
+        GitObject commit = read(HEX.parseHex(commitId));
+        if (commit == null || commit.type() != Type.COMMIT) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(header(commit.data(), "tree"));
+    }
+
+    /**
+     * 递归遍历目录树，把每个文件的路径与 blob ID 交给回调
+     */
+    public void walkTree(String treeId, String prefix, TreeVisitor visitor) throws IOException {
+        GitObject tree = read(HEX.parseHex(treeId));
+        if (tree == null || tree.type() != Type.TREE) {
+            return;
+        }
+        byte[] data = tree.data();
+        int pos = 0;
+        while (pos < data.length) {
+            int space = indexOf(data, (byte) ' ', pos);
+            int nul = indexOf(data, (byte) 0, space);
+            String mode = new String(data, pos, space - pos, StandardCharsets.US_ASCII);
+            String name = new String(data, space + 1, nul - space - 1, StandardCharsets.UTF_8);
+            String id = HEX.formatHex(data, nul + 1, nul + 21);
+            pos = nul + 21;
+            if (mode.equals("40000")) {
+                walkTree(id, prefix + name + "/", visitor);
+            } else if (mode.startsWith("100")) {
+                // 跳过子模块（160000）与符号链接（120000）
+                visitor.visit(prefix + name, id);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface TreeVisitor {
+        void visit(String path, String blobId);
+    }
+
+    /**
+     * 读取对象头部（第一个空行之前）中指定字段的值
+     */
+    private static String header(byte[] data, String field) {
+        String prefix = field + " ";
+        int pos = 0;
+        while (pos < data.length && data[pos] != '\n') {
+            int end = indexOf(data, (byte) '\n', pos);
+            if (end < 0) {
+                end = data.length;
+            }
+            String line = new String(data, pos, end - pos, StandardCharsets.UTF_8);
+            if (line.startsWith(prefix)) {
+                return line.substring(prefix.length()).trim();
+            }
+            pos = end + 1;
+        }
+        return null;
+    }
+
+    private static int indexOf(byte[] data, byte value, int from) {
+        for (int i = from; i < data.length; i++) {
+            if (data[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
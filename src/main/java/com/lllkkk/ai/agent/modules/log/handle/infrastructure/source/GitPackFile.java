@@ -0,0 +1,312 @@
+package com.lllkkk.ai.agent.modules.log.handle.infrastructure.source;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * git 包文件（.pack）及其 v2 索引（.idx）的只读访问
+ * 两个文件都以内存映射方式打开，查找对象为一次扇出表定位加一次 SHA 二分查找，
+ * 对象数据直接从映射区解压；只使用绝对位置读取，可被多个线程同时访问
+ */
+final class GitPackFile {
+
+    static final int OBJ_COMMIT = 1;
+    static final int OBJ_TREE = 2;
+    static final int OBJ_BLOB = 3;
+    static final int OBJ_TAG = 4;
+    private static final int OBJ_OFS_DELTA = 6;
+    private static final int OBJ_REF_DELTA = 7;
+
+    private static final int IDX_MAGIC = 0xff744f63;
+    private static final int FANOUT_OFFSET = 8;
+    private static final int ID_LENGTH = 20;
+
+    /**
+     * 增量链的最大深度（git 默认打包深度为 50），防止损坏的包导致无限递归
+     */
+    private static final int MAX_DELTA_DEPTH = 1000;
+
+    /**
+     * 解压出的原始对象
+     *
+     * @param type 对象类型，取值为 OBJ_COMMIT ~ OBJ_TAG
+     */
+    record RawObject(int type, byte[] data) {
+    }
+
+    /**
+     * REF_DELTA 的基对象可能在其他包或松散对象中，由对象库负责查找
+     */
+    interface BaseResolver {
+        RawObject read(byte[] id) throws IOException;
+    }
+
+    private final Path packPath;
+    private final MappedByteBuffer idx;
+    private final MappedByteBuffer pack;
+    private final int objectCount;
+    private final int idsOffset;
+    private final int offsetsOffset;
+    private final int largeOffsetsOffset;
+
+    private GitPackFile(Path packPath, MappedByteBuffer idx, MappedByteBuffer pack) throws IOException {
+        this.packPath = packPath;
+        this.idx = idx;
+        this.pack = pack;
+        if (idx.getInt(0) != IDX_MAGIC || idx.getInt(4) != 2) {
+            throw new IOException("仅支持 v2 格式的包索引: " + packPath);
+        }
+        if (pack.getInt(0) != 0x5041434b) {
+            throw new IOException("无效的包文件: " + packPath);
+        }
+        this.objectCount = idx.getInt(FANOUT_OFFSET + 255 * 4);
+        this.idsOffset = FANOUT_OFFSET + 256 * 4;
+        int crcOffset = idsOffset + objectCount * ID_LENGTH;
+        this.offsetsOffset = crcOffset + objectCount * 4;
+        this.largeOffsetsOffset = offsetsOffset + objectCount * 4;
+    }
+
+    /**
+     * 映射 .idx 及同名的 .pack 文件；映射在文件通道关闭后仍然有效，由 GC 回收
+     */
+    static GitPackFile open(Path idxPath) throws IOException {
+        String name = idxPath.getFileName().toString();
+        Path packPath = idxPath.resolveSibling(name.substring(0, name.length() - ".idx".length()) + ".pack");
+        return new GitPackFile(packPath, map(idxPath), map(packPath));
+    }
+
+    private static MappedByteBuffer map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("不支持超过 2GB 的包文件: " + path);
+            }
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    /**
+     * 读取对象，不在本包中时返回 null
+     */
+    RawObject read(byte[] id, BaseResolver resolver) throws IOException {
+        long offset = findOffset(id);
+        return offset < 0 ? null : readAt(offset, resolver, 0);
+    }
+
+    /**
+     * 收集以给定前缀开头的对象 ID，用于缩写 SHA 解析
+     *
+     * @param prefix  前缀对应的字节，奇数位缩写的最后半字节补 0
+     * @param nibbles 前缀的十六进制位数
+     */
+    void findByPrefix(byte[] prefix, int nibbles, Consumer<byte[]> matches) {
+        int first = prefix[0] & 0xff;
+        int low = first == 0 ? 0 : idx.getInt(FANOUT_OFFSET + (first - 1) * 4);
+        int high = idx.getInt(FANOUT_OFFSET + first * 4);
+        // 下界二分：第一个不小于前缀的位置
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compareId(mid, prefix, prefix.length) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        for (int i = low; i < objectCount; i++) {
+            byte[] id = idAt(i);
+            if (!matchesPrefix(id, prefix, nibbles)) {
+                break;
+            }
+            matches.accept(id);
+        }
+    }
+
+    static boolean matchesPrefix(byte[] id, byte[] prefix, int nibbles) {
+        int fullBytes = nibbles / 2;
+        if (!Arrays.equals(id, 0, fullBytes, prefix, 0, fullBytes)) {
+            return false;
+        }
+        return nibbles % 2 == 0 || (id[fullBytes] & 0xf0) == (prefix[fullBytes] & 0xf0);
+    }
+
+    private long findOffset(byte[] id) {
+        int first = id[0] & 0xff;
+        int low = first == 0 ? 0 : idx.getInt(FANOUT_OFFSET + (first - 1) * 4);
+        int high = idx.getInt(FANOUT_OFFSET + first * 4) - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compareId(mid, id, ID_LENGTH);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return offsetAt(mid);
+            }
+        }
+        return -1;
+    }
+
+    private int compareId(int position, byte[] id, int length) {
+        int base = idsOffset + position * ID_LENGTH;
+        for (int i = 0; i < length; i++) {
+            int cmp = Integer.compare(idx.get(base + i) & 0xff, id[i] & 0xff);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return 0;
+    }
+
+    private byte[] idAt(int position) {
+        byte[] id = new byte[ID_LENGTH];
+        idx.get(idsOffset + position * ID_LENGTH, id);
+        return id;
+    }
+
+    /**
+     * 4 字节偏移表的最高位为 1 时，低 31 位是 8 字节大偏移表中的下标
+     */
+    private long offsetAt(int position) {
+        int offset = idx.getInt(offsetsOffset + position * 4);
+        if (offset >= 0) {
+            return offset;
+        }
+        return idx.getLong(largeOffsetsOffset + (offset & 0x7fffffff) * 8);
+    }
+
+    private RawObject readAt(long offset, BaseResolver resolver, int depth) throws IOException {
+        if (depth > MAX_DELTA_DEPTH) {
+            throw new IOException("增量链过深: " + packPath + "@" + offset);
+        }
+        int pos = Math.toIntExact(offset);
+        int c = pack.get(pos++) & 0xff;
+        int type = (c >> 4) & 0x07;
+        long size = c & 0x0f;
+        int shift = 4;
+        while ((c & 0x80) != 0) {
+            c = pack.get(pos++) & 0xff;
+            size |= (long) (c & 0x7f) << shift;
+            shift += 7;
+        }
+
+        switch (type) {
+            case OBJ_COMMIT, OBJ_TREE, OBJ_BLOB, OBJ_TAG -> {
+                return new RawObject(type, inflate(pos, size));
+            }
+            case OBJ_OFS_DELTA -> {
+                c = pack.get(pos++) & 0xff;
+                long distance = c & 0x7f;
+                while ((c & 0x80) != 0) {
+                    c = pack.get(pos++) & 0xff;
+                    distance = ((distance + 1) << 7) | (c & 0x7f);
+                }
+                RawObject base = readAt(offset - distance, resolver, depth + 1);
+                return new RawObject(base.type(), applyDelta(base.data(), inflate(pos, size)));
+            }
+            case OBJ_REF_DELTA -> {
+                byte[] baseId = new byte[ID_LENGTH];
+                pack.get(pos, baseId);
+                pos += ID_LENGTH;
+                long baseOffset = findOffset(baseId);
+                RawObject base = baseOffset >= 0 ? readAt(baseOffset, resolver, depth + 1) : resolver.read(baseId);
+                if (base == null) {
+                    throw new IOException("缺少增量基对象: " + packPath + "@" + offset);
+                }
+                return new RawObject(base.type(), applyDelta(base.data(), inflate(pos, size)));
+            }
+            default -> throw new IOException("未知的包对象类型 " + type + ": " + packPath + "@" + offset);
+        }
+    }
+
+    private byte[] inflate(int pos, long size) throws IOException {
+        byte[] out = new byte[Math.toIntExact(size)];
+        Inflater inflater = new Inflater();
+        try {
+            ByteBuffer input = pack.slice(pos, pack.limit() - pos);
+            inflater.setInput(input);
+            int n = 0;
+            while (n < out.length) {
+                int read = inflater.inflate(out, n, out.length - n);
+                if (read == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IOException("包对象数据不完整: " + packPath + "@" + pos);
+                }
+                n += read;
+            }
+            return out;
+        } catch (DataFormatException e) {
+            throw new IOException("包对象解压失败: " + packPath + "@" + pos, e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * 按 git 增量格式还原对象：头部为基对象与结果的长度，随后是 复制基对象区间 / 插入字面量 指令
+     */
+    static byte[] applyDelta(byte[] base, byte[] delta) throws IOException {
+        int[] cursor = {0};
+        long baseSize = readSize(delta, cursor);
+        long resultSize = readSize(delta, cursor);
+        if (baseSize != base.length) {
+            throw new IOException("增量基对象长度不匹配: " + baseSize + " != " + base.length);
+        }
+        byte[] out = new byte[Math.toIntExact(resultSize)];
+        int p = cursor[0];
+        int o = 0;
+        while (p < delta.length) {
+            int cmd = delta[p++] & 0xff;
+            if ((cmd & 0x80) != 0) {
+                long copyOffset = 0;
+                int copySize = 0;
+                if ((cmd & 0x01) != 0) copyOffset |= delta[p++] & 0xff;
+                if ((cmd & 0x02) != 0) copyOffset |= (delta[p++] & 0xff) << 8;
+                if ((cmd & 0x04) != 0) copyOffset |= (delta[p++] & 0xff) << 16;
+                if ((cmd & 0x08) != 0) copyOffset |= (long) (delta[p++] & 0xff) << 24;
+                if ((cmd & 0x10) != 0) copySize |= delta[p++] & 0xff;
+                if ((cmd & 0x20) != 0) copySize |= (delta[p++] & 0xff) << 8;
+                if ((cmd & 0x40) != 0) copySize |= (delta[p++] & 0xff) << 16;
+                if (copySize == 0) {
+                    copySize = 0x10000;
+                }
+                if (copyOffset + copySize > base.length || o + copySize > out.length) {
+                    throw new IOException("增量复制指令越界");
+                }
+                System.arraycopy(base, (int) copyOffset, out, o, copySize);
+                o += copySize;
+            } else if (cmd != 0) {
+                if (p + cmd > delta.length || o + cmd > out.length) {
+                    throw new IOException("增量插入指令越界");
+                }
+                System.arraycopy(delta, p, out, o, cmd);
+                p += cmd;
+                o += cmd;
+            } else {
+                throw new IOException("无效的增量指令 0");
+            }
+        }
+        if (o != out.length) {
+            throw new IOException("增量结果长度不匹配: " + o + " != " + out.length);
+        }
+        return out;
+    }
+
+    private static long readSize(byte[] data, int[] cursor) {
+        long size = 0;
+        int shift = 0;
+        int c;
+        do {
+            c = data[cursor[0]++] & 0xff;
+            size |= (long) (c & 0x7f) << shift;
+            shift += 7;
+        } while ((c & 0x80) != 0);
+        return size;
+    }
+}
@@ -0,0 +1,207 @@
+package com.lllkkk.ai.agent.modules.log.handle.infrastructure.source;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * 按提交读取源码：把类名映射到该提交目录树中的 .java 文件，再从对象库读取 blob
+ * 每个提交的 文件名 -> 路径 索引只遍历一次目录树，放在按提交数淘汰的 LRU 中，并发查询同一新版本时共用一次遍历；
+ * blob 内容放在按字节数淘汰的 LRU 中，同一版本的热点文件只解压一次
+ */
+@Slf4j
+public class GitRevisionSource {
+
+    /**
+     * 某个提交中的源文件
+     *
+     * @param commitId 提交 ID
+     * @param path     仓库内路径，如 order-service/src/main/java/com/dyyl/order/OrderService.java
+     * @param content  源码内容
+     */
+    public record RevisionSource(String commitId, String path, String content) {
+    }
+
+    private record TreeEntry(String path, String blobId) {
+    }
+
+    private final GitObjectStore store;
+    private final long blobCacheBytes;
+    private final Map<String, String> resolvedRevisions;
+    private final Map<String, CompletableFuture<Map<String, List<TreeEntry>>>> commitIndexes;
+    private final LinkedHashMap<String, String> blobCache = new LinkedHashMap<>(64, 0.75f, true);
+    private long cachedBytes;
+
+    public GitRevisionSource(GitObjectStore store, long blobCacheBytes, int commitCacheSize) {
+        this.store = store;
+        this.blobCacheBytes = Math.max(0, blobCacheBytes);
+        int commits = Math.max(1, commitCacheSize);
+        this.commitIndexes = new LinkedHashMap<>(commits * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CompletableFuture<Map<String, List<TreeEntry>>>> eldest) {
+                return size() > commits;
+            }
+        };
+        // 只缓存完整 SHA 的校验结果；分支、标签名可能移动，每次重新解析
+        this.resolvedRevisions = new LinkedHashMap<>(commits * 4, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > commits * 4;
+            }
+        };
+    }
+
+    public Path gitDir() {
+        return store.gitDir();
+    }
+
+    /**
+     * 读取指定版本中某个类的源文件
+     *
+     * @param revision  提交 SHA（可缩写）、标签或分支名
+     * @param className 全限定类名，内部类取外部类所在文件
+     */
+    public Optional<RevisionSource> find(String revision, String className) throws IOException {
+        Optional<String> commitId = resolve(revision);
+        if (commitId.isEmpty()) {
+            log.debug("仓库 {} 中未找到版本 {}", store.gitDir(), revision);
+            return Optional.empty();
+        }
+        String topLevelClass = className.split("\\$", 2)[0];
+        String relativePath = topLevelClass.replace('.', '/') + ".java";
+        String fileName = relativePath.substring(relativePath.lastIndexOf('/') + 1);
+
+        List<TreeEntry> candidates = commitIndex(commitId.get()).getOrDefault(fileName, List.of());
+        Optional<TreeEntry> entry = candidates.stream()
+                .filter(candidate -> candidate.path().equals(relativePath) || candidate.path().endsWith("/" + relativePath))
+                // 多模块仓库中同名类优先取 main 源码目录，其次取路径最短的
+                .min(Comparator.comparing((TreeEntry candidate) -> !candidate.path().contains("src/main/java/"))
+                        .thenComparingInt(candidate -> candidate.path().length()));
+        if (entry.isEmpty()) {
+            return Optional.empty();
+        }
+        String content = blob(entry.get().blobId());
+        return content == null ? Optional.empty()
+                : Optional.of(new RevisionSource(commitId.get(), entry.get().path(), content));
+    }
+
+    private Optional<String> resolve(String revision) throws IOException {
+        boolean immutable = revision.matches("[0-9a-fA-F]{40}");
+        if (immutable) {
+            synchronized (resolvedRevisions) {
+                String cached = resolvedRevisions.get(revision);
+                if (cached != null) {
+                    return Optional.of(cached);
+                }
+            }
+        }
+        Optional<String> commitId = store.resolveCommit(revision);
+        if (immutable && commitId.isPresent()) {
+            synchronized (resolvedRevisions) {
+                resolvedRevisions.put(revision, commitId.get());
+            }
+        }
+        return commitId;
+    }
+
+    /**
+     * 提交的 文件名 -> 路径 索引；第一个查询者遍历目录树，同时到达的查询等待同一结果，遍历失败时移除以便之后重试
+     */
+    private Map<String, List<TreeEntry>> commitIndex(String commitId) throws IOException {
+        CompletableFuture<Map<String, List<TreeEntry>>> created = new CompletableFuture<>();
+        CompletableFuture<Map<String, List<TreeEntry>>> future;
+        synchronized (commitIndexes) {
+            future = commitIndexes.computeIfAbsent(commitId, id -> created);
+        }
+        if (future == created) {
+            try {
+                created.complete(buildIndex(commitId));
+            } catch (IOException | RuntimeException e) {
+                synchronized (commitIndexes) {
+                    commitIndexes.remove(commitId, created);
+                }
+                created.completeExceptionally(e);
+                throw e;
+            }
+        }
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw e;
+        }
+    }
+
+    private Map<String, List<TreeEntry>> buildIndex(String commitId) throws IOException {
+        Map<String, List<TreeEntry>> index = new HashMap<>();
+        Optional<String> tree = store.commitTree(commitId);
+        if (tree.isPresent()) {
+            long startTime = System.currentTimeMillis();
+            store.walkTree(tree.get(), "", (path, blobId) -> {
+                if (path.endsWith(".java")) {
+                    index.computeIfAbsent(path.substring(path.lastIndexOf('/') + 1), name -> new ArrayList<>(1))
+                            .add(new TreeEntry(path, blobId));
+                }
+            });
+            log.info("✅ 已索引提交 {} 的源码树，共 {} 个文件名，耗时 {} ms",
+                    commitId.substring(0, 10), index.size(), System.currentTimeMillis() - startTime);
+        }
+        return index;
+    }
+
+    private String blob(String blobId) throws IOException {
+        synchronized (blobCache) {
+            String cached = blobCache.get(blobId);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        Optional<GitObjectStore.GitObject> object = store.read(blobId);
+        if (object.isEmpty() || object.get().type() != GitObjectStore.Type.BLOB) {
+            return null;
+        }
+        String content = new String(object.get().data(), StandardCharsets.UTF_8);
+        cache(blobId, content);
+        return content;
+    }
+
+    private void cache(String blobId, String content) {
+        long size = weight(content);
+        if (size > blobCacheBytes) {
+            return;
+        }
+        synchronized (blobCache) {
+            if (blobCache.put(blobId, content) == null) {
+                cachedBytes += size;
+            }
+            var iterator = blobCache.entrySet().iterator();
+            while (cachedBytes > blobCacheBytes && iterator.hasNext()) {
+                cachedBytes -= weight(iterator.next().getValue());
+                iterator.remove();
+            }
+        }
+    }
+
+    long cachedBytes() {
+        synchronized (blobCache) {
+            return cachedBytes;
+        }
+    }
+
+    private static long weight(String content) {
+        return 2L * content.length();
+    }
+}
@@ -0,0 +1,288 @@
+package com.lllkkk.ai.agent.modules.log.handle.infrastructure.source;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 轻量级 Java 源码扫描器
+ * 只识别注释、字符串与花括号结构，提取包名、顶层类型名和各方法的行范围，不构建语法树
+ */
+public final class JavaMethodScanner {
+
+    private static final Pattern PACKAGE_PATTERN = Pattern.compile("^\\s*package\\s+([\\w.]+)\\s*;", Pattern.MULTILINE);
+    private static final Pattern TYPE_DECLARATION = Pattern.compile("(?:^|\\s)(?:class|interface|enum|record|@interface)\\s+(\\w+)");
+    private static final Pattern ANONYMOUS_CLASS = Pattern.compile("\\bnew\\s+[\\w.$<>?,\\s\\[\\]]+\\([^)]*\\)\\s*$");
+    private static final Pattern ANNOTATION = Pattern.compile("@(?!interface\\b)[\\w.]+");
+    private static final Set<String> NON_METHOD_KEYWORDS = Set.of(
+            "if", "for", "while", "switch", "catch", "synchronized", "try", "return", "new", "else", "do", "throw");
+
+    private JavaMethodScanner() {
+    }
+
+    /**
+     * 扫描结果
+     *
+     * @param packageName 包名，默认包为空串
+     * @param topLevelTypes 文件内声明的顶层类型名
+     * @param methods 方法行范围，按起始行排序
+     */
+    public record ScanResult(String packageName, List<String> topLevelTypes, List<MethodRange> methods) {
+    }
+
+    public static ScanResult scan(CharSequence source) {
+        return new Scanner(source).run();
+    }
+
+    private enum ScopeKind { TYPE, METHOD, BLOCK }
+
+    /**
+     * @param typeName 所在（或自身声明的）类型名
+     * @param methodName 方法名，仅 METHOD 有值
+     */
+    private record Scope(ScopeKind kind, String typeName, String methodName, int startLine) {
+    }
+
+    private static final class Scanner {
+        private final CharSequence src;
+        private final Deque<Scope> scopes = new ArrayDeque<>();
+        private final StringBuilder header = new StringBuilder();
+        private final List<MethodRange> methods = new ArrayList<>();
+        private final List<String> topLevelTypes = new ArrayList<>();
+        private int line = 1;
+        private int headerStartLine = -1;
+
+        Scanner(CharSequence src) {
+            this.src = src;
+        }
+
+        ScanResult run() {
+            int n = src.length();
+            int i = 0;
+            while (i < n) {
+                char c = src.charAt(i);
+                char next = i + 1 < n ? src.charAt(i + 1) : '\0';
+                if (c == '\n') {
+                    line++;
+                    appendHeader(' ');
+                    i++;
+                } else if (c == '/' && next == '/') {
+                    while (i < n && src.charAt(i) != '\n') {
+                        i++;
+                    }
+                } else if (c == '/' && next == '*') {
+                    i = skipUntil(i + 2, "*/");
+                } else if (c == '"' && next == '"' && i + 2 < n && src.charAt(i + 2) == '"') {
+                    i = skipUntil(i + 3, "\"\"\"");
+                    appendHeader('"');
+                    appendHeader('"');
+                } else if (c == '"' || c == '\'') {
+                    i = skipQuoted(i + 1, c);
+                    appendHeader(c);
+                    appendHeader(c);
+                } else if (c == '{') {
+                    openScope();
+                    i++;
+                } else if (c == '}') {
+                    closeScope();
+                    i++;
+                } else if (c == ';') {
+                    resetHeader();
+                    i++;
+                } else {
+                    appendHeader(c);
+                    i++;
+                }
+            }
+            methods.sort((a, b) -> Integer.compare(a.startLine(), b.startLine()));
+            Matcher pkg = PACKAGE_PATTERN.matcher(src);
+            String packageName = pkg.find() ? pkg.group(1) : "";
+            return new ScanResult(packageName, List.copyOf(topLevelTypes), List.copyOf(methods));
+        }
+
+        private void appendHeader(char c) {
+            if (headerStartLine < 0 && !Character.isWhitespace(c)) {
+                headerStartLine = line;
+            }
+            header.append(c);
+        }
+
+        private void resetHeader() {
+            header.setLength(0);
+            headerStartLine = -1;
+        }
+
+        private int skipUntil(int i, String terminator) {
+            int n = src.length();
+            while (i < n) {
+                if (src.charAt(i) == '\n') {
+                    line++;
+                }
+                if (startsWith(i, terminator)) {
+                    return i + terminator.length();
+                }
+                i++;
+            }
+            return n;
+        }
+
+        private int skipQuoted(int i, char quote) {
+            int n = src.length();
+            while (i < n) {
+                char c = src.charAt(i);
+                if (c == '\\') {
+                    i += 2;
+                    continue;
+                }
+                if (c == quote) {
+                    return i + 1;
+                }
+                if (c == '\n') {
+                    // 未闭合的字面量，按行结束处理，避免吞掉后续代码
+                    return i;
+                }
+                i++;
+            }
+            return n;
+        }
+
+        private boolean startsWith(int i, String s) {
+            if (i + s.length() > src.length()) {
+                return false;
+            }
+            for (int k = 0; k < s.length(); k++) {
+                if (src.charAt(i + k) != s.charAt(k)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void openScope() {
+            String text = ANNOTATION.matcher(stripParenthesizedAnnotations(header.toString())).replaceAll(" ").trim();
+            int startLine = headerStartLine > 0 ? headerStartLine : line;
+            Scope parent = scopes.peek();
+            Scope scope;
+
+            if (parent != null && parent.kind() != ScopeKind.TYPE) {
+                // 方法体内部：只关心匿名类，其余均视为普通代码块
+                scope = ANONYMOUS_CLASS.matcher(text).find()
+                        ? new Scope(ScopeKind.TYPE, parent.typeName(), null, startLine)
+                        : new Scope(ScopeKind.BLOCK, parent.typeName(), null, startLine);
+            } else {
+                Matcher type = TYPE_DECLARATION.matcher(text);
+                int paren = text.indexOf('(');
+                if (type.find() && (paren < 0 || paren > type.start())) {
+                    String name = type.group(1);
+                    if (parent == null) {
+                        topLevelTypes.add(name);
+                    }
+                    String typeName = parent == null ? name : parent.typeName() + "$" + name;
+                    scope = new Scope(ScopeKind.TYPE, typeName, null, startLine);
+                } else if (parent == null) {
+                    scope = new Scope(ScopeKind.BLOCK, "", null, startLine);
+                } else {
+                    String methodName = methodName(text, parent.typeName());
+                    scope = methodName == null
+                            ? new Scope(ScopeKind.BLOCK, parent.typeName(), null, startLine)
+                            : new Scope(ScopeKind.METHOD, parent.typeName(), methodName, startLine);
+                }
+            }
+
+            scopes.push(scope);
+            resetHeader();
+        }
+
+        private void closeScope() {
+            Scope scope = scopes.poll();
+            if (scope != null && scope.kind() == ScopeKind.METHOD) {
+                methods.add(new MethodRange(scope.typeName(), scope.methodName(), scope.startLine(), line));
+            }
+            resetHeader();
+        }
+
+        /**
+         * 判断类体中的块头是否为方法/构造器/初始化块，返回方法名，其余情况返回 null
+         */
+        private String methodName(String text, String ownerName) {
+            if (text.isEmpty()) {
+                return "<init>";
+            }
+            if (text.equals("static")) {
+                return "<clinit>";
+            }
+            int paren = text.indexOf('(');
+            if (paren < 0) {
+                // record 的紧凑构造器：Name {
+                String simpleOwner = ownerName.substring(ownerName.lastIndexOf('$') + 1);
+                return text.endsWith(simpleOwner) ? "<init>" : null;
+            }
+            if (text.substring(0, paren).contains("=")) {
+                return null;
+            }
+            int end = paren;
+            while (end > 0 && Character.isWhitespace(text.charAt(end - 1))) {
+                end--;
+            }
+            int start = end;
+            while (start > 0 && Character.isJavaIdentifierPart(text.charAt(start - 1))) {
+                start--;
+            }
+            if (start == end) {
+                return null;
+            }
+            String name = text.substring(start, end);
+            if (NON_METHOD_KEYWORDS.contains(name)) {
+                return null;
+            }
+            String simpleOwner = ownerName.substring(ownerName.lastIndexOf('$') + 1);
+            return name.equals(simpleOwner) ? "<init>" : name;
+        }
+
+        /**
+         * 去掉注解的括号参数（可能包含嵌套括号与 = 号），例如 @RequestParam(value = "id")
+         */
+        private static String stripParenthesizedAnnotations(String text) {
+            StringBuilder out = new StringBuilder(text.length());
+            int i = 0;
+            int n = text.length();
+            while (i < n) {
+                char c = text.charAt(i);
+                if (c == '@' && !text.startsWith("@interface", i)) {
+                    int j = i + 1;
+                    while (j < n && (Character.isJavaIdentifierPart(text.charAt(j)) || text.charAt(j) == '.')) {
+                        j++;
+                    }
+                    int k = j;
+                    while (k < n && Character.isWhitespace(text.charAt(k))) {
+                        k++;
+                    }
+                    if (k < n && text.charAt(k) == '(') {
+                        int depth = 0;
+                        while (k < n) {
+                            char ch = text.charAt(k);
+                            if (ch == '(') {
+                                depth++;
+                            } else if (ch == ')' && --depth == 0) {
+                                k++;
+                                break;
+                            }
+                            k++;
+                        }
+                        j = k;
+                    }
+                    out.append(' ');
+                    i = j;
+                } else {
+                    out.append(c);
+                    i++;
+                }
+            }
+            return out.toString();
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.lllkkk.ai.agent.modules.log.handle.infrastructure.source;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.charset.MalformedInputException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * 按项目维护的方法边界索引
+ * 启动时并行扫描项目下全部 .java 文件，记录 类名 -> 源文件 及每个方法的行范围；
+ * 查询时只比对文件修改时间，文件变更后才重新扫描该文件
+ */
+@Slf4j
+public class MethodBoundaryIndex {
+
+    private final Map<String, CompletableFuture<ProjectIndex>> projects = new ConcurrentHashMap<>();
+
+    /**
+     * 定位结果
+     *
+     * @param path   源文件路径
+     * @param method 包含目标行的最内层方法，不在任何方法内时为 null
+     */
+    public record Location(Path path, MethodRange method) {
+    }
+
+    /**
+     * 异步构建项目索引，同一项目重复调用会重建
+     */
+    public CompletableFuture<Void> build(String projectName, String rootDirPath) {
+        CompletableFuture<ProjectIndex> future = CompletableFuture.supplyAsync(() -> scanProject(projectName, rootDirPath));
+        projects.put(projectName, future);
+        return future.thenAccept(index -> { });
+    }
+
+    /**
+     * 项目索引是否已构建完成
+     */
+    public boolean isReady(String projectName) {
+        CompletableFuture<ProjectIndex> future = projects.get(projectName);
+        return future != null && future.isDone() && !future.isCompletedExceptionally();
+    }
+
+    /**
+     * 查找类所在文件以及包含指定行的方法；索引未就绪或未收录该类时返回空
+     */
+    public Optional<Location> locate(String projectName, String className, int lineNumber) {
+        ProjectIndex index = readyIndex(projectName);
+        if (index == null || className == null) {
+            return Optional.empty();
+        }
+        SourceFile file = index.files.get(topLevelClassName(className));
+        if (file == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new Location(file.path, file.currentMethods().stream()
+                .filter(range -> range.contains(lineNumber))
+                .min((a, b) -> Integer.compare(a.length(), b.length()))
+                .orElse(null)));
+    }
+
+    /**
+     * 把索引外发现的源文件（例如启动后新增的文件）登记到项目索引
+     */
+    public void register(String projectName, Path path) {
+        ProjectIndex index = readyIndex(projectName);
+        if (index == null) {
+            // 未在启动时构建的项目按文件逐步建立索引
+            CompletableFuture<ProjectIndex> created = CompletableFuture.completedFuture(new ProjectIndex());
+            index = projects.computeIfAbsent(projectName, k -> created).getNow(null);
+        }
+        if (index != null) {
+            index.add(path);
+        }
+    }
+
+    private ProjectIndex readyIndex(String projectName) {
+        return isReady(projectName) ? projects.get(projectName).join() : null;
+    }
+
+    private ProjectIndex scanProject(String projectName, String rootDirPath) {
+        long start = System.currentTimeMillis();
+        ProjectIndex index = new ProjectIndex();
+        List<Path> sources;
+        try (Stream<Path> walk = Files.walk(Paths.get(rootDirPath))) {
+            sources = walk.filter(path -> path.toString().endsWith(".java")).toList();
+        } catch (IOException e) {
+            log.error("扫描项目 [{}] 源码目录失败: {}", projectName, rootDirPath, e);
+            return index;
+        }
+
+        sources.parallelStream().forEach(index::add);
+        log.info("✅ 项目 [{}] 方法索引构建完成: {} 个文件, {} 个类, 耗时 {} ms",
+                projectName, sources.size(), index.files.size(), System.currentTimeMillis() - start);
+        return index;
+    }
+
+    static String topLevelClassName(String className) {
+        int dollar = className.indexOf('$');
+        return dollar < 0 ? className : className.substring(0, dollar);
+    }
+
+    static String readSource(Path path) throws IOException {
+        try {
+            return Files.readString(path, StandardCharsets.UTF_8);
+        } catch (MalformedInputException e) {
+            return Files.readString(path, StandardCharsets.ISO_8859_1);
+        }
+    }
+
+    private static final class ProjectIndex {
+        private final Map<String, SourceFile> files = new ConcurrentHashMap<>();
+
+        void add(Path path) {
+            SourceFile file = new SourceFile(path);
+            JavaMethodScanner.ScanResult result = file.rescan();
+            if (result == null) {
+                return;
+            }
+            String prefix = result.packageName().isEmpty() ? "" : result.packageName() + ".";
+            for (String type : result.topLevelTypes()) {
+                files.put(prefix + type, file);
+            }
+        }
+    }
+
+    private static final class SourceFile {
+        private final Path path;
+        private volatile long lastModified = -1;
+        private volatile List<MethodRange> methods = List.of();
+
+        SourceFile(Path path) {
+            this.path = path;
+        }
+
+        List<MethodRange> currentMethods() {
+            try {
+                if (Files.getLastModifiedTime(path).toMillis() != lastModified) {
+                    rescan();
+                }
+            } catch (IOException e) {
+                log.debug("读取源文件修改时间失败: {}", path, e);
+            }
+            return methods;
+        }
+
+        synchronized JavaMethodScanner.ScanResult rescan() {
+            try {
+                long modified = Files.getLastModifiedTime(path).toMillis();
+                JavaMethodScanner.ScanResult result = JavaMethodScanner.scan(readSource(path));
+                methods = result.methods();
+                lastModified = modified;
+                return result;
+            } catch (IOException e) {
+                log.warn("扫描源文件失败: {}", path, e);
+                return null;
+            }
+        }
+    }
+}
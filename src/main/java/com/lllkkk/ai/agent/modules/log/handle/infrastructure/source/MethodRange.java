@@ -0,0 +1,20 @@
+package com.lllkkk.ai.agent.modules.log.handle.infrastructure.source;
+
+/**
+ * 方法在源文件中的行范围（行号从 1 开始，首尾均包含）
+ *
+ * @param className  所在类名（嵌套类以 $ 连接，不含包名）
+ * @param methodName 方法名，与堆栈帧一致：构造器和实例初始化块为 &lt;init&gt;，静态初始化块为 &lt;clinit&gt;
+ * @param startLine  声明起始行（含注解与修饰符）
+ * @param endLine    方法体结束的右花括号所在行
+ */
+public record MethodRange(String className, String methodName, int startLine, int endLine) {
+
+    public boolean contains(int line) {
+        return line >= startLine && line <= endLine;
+    }
+
+    public int length() {
+        return endLine - startLine + 1;
+    }
+}
@@ -0,0 +1,238 @@
+package com.lllkkk.ai.agent.modules.log.handle.infrastructure.source;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * -sources.jar 源码归档索引
+ * 每个归档的中央目录只读取一次，记录 源文件路径 -> 归档；查询时为一次哈希探测加一次条目读取，
+ * 每个条目的方法边界只扫描一次并缓存（归档内容不变）。
+ * 打开的 ZipFile 放在有界 LRU 缓存中复用，锁只在打开、淘汰时持有；读取在锁外并发进行，
+ * 被淘汰的归档在最后一个读取者释放后才关闭
+ */
+@Slf4j
+public class SourceArchiveIndex implements Closeable {
+
+    private final Map<String, Path> entryIndex = new ConcurrentHashMap<>();
+    private final Map<String, List<MethodRange>> methodCache = new ConcurrentHashMap<>();
+    private final Map<Path, OpenArchive> openArchives;
+
+    /**
+     * 归档中的源文件
+     *
+     * @param archive   所在归档
+     * @param entryName 条目名，如 com/dyyl/common/Util.java
+     * @param content   源码内容
+     * @param methods   源文件中各方法的行范围
+     */
+    public record ArchiveSource(Path archive, String entryName, String content, List<MethodRange> methods) {
+    }
+
+    /**
+     * 打开的归档及其当前读取者数，只在持有 openArchives 锁时修改
+     */
+    private static final class OpenArchive {
+
+        private final ZipFile zip;
+        private int readers;
+        private boolean evicted;
+
+        OpenArchive(ZipFile zip) {
+            this.zip = zip;
+        }
+    }
+
+    public SourceArchiveIndex(int maxOpenArchives) {
+        int capacity = Math.max(1, maxOpenArchives);
+        this.openArchives = new LinkedHashMap<>(capacity * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Path, OpenArchive> eldest) {
+                if (size() > capacity) {
+                    evict(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * 索引指定的归档文件；同一源文件出现在多个归档时，以修改时间最新的归档为准
+     */
+    public void indexArchives(Collection<Path> archives) {
+        long start = System.currentTimeMillis();
+        List<Path> ordered = archives.stream()
+                .filter(Files::isRegularFile)
+                .sorted(Comparator.comparingLong(SourceArchiveIndex::lastModified))
+                .toList();
+        for (Path archive : ordered) {
+            indexArchive(archive);
+        }
+        log.info("✅ 源码归档索引完成: {} 个归档, {} 个源文件, 耗时 {} ms",
+                ordered.size(), entryIndex.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 在本地 Maven 仓库的指定 groupId 目录下查找 -sources.jar
+     *
+     * @param repository 本地仓库根目录
+     * @param groupIds   groupId 列表，如 com.dyyl，避免遍历整个仓库
+     */
+    public static List<Path> findMavenSourceJars(Path repository, Collection<String> groupIds) {
+        return groupIds.stream()
+                .map(groupId -> repository.resolve(groupId.trim().replace('.', '/')))
+                .filter(Files::isDirectory)
+                .flatMap(SourceArchiveIndex::walkSourceJars)
+                .toList();
+    }
+
+    /**
+     * 按全限定类名查找源码（内部类按外部类文件查找）
+     */
+    public Optional<ArchiveSource> find(String className) {
+        if (className == null || className.isEmpty()) {
+            return Optional.empty();
+        }
+        String entryName = MethodBoundaryIndex.topLevelClassName(className).replace('.', '/') + ".java";
+        Path archive = entryIndex.get(entryName);
+        if (archive == null) {
+            return Optional.empty();
+        }
+
+        OpenArchive open;
+        try {
+            open = acquire(archive);
+        } catch (IOException e) {
+            log.warn("打开源码归档失败: {}", archive, e);
+            return Optional.empty();
+        }
+        try {
+            ZipEntry entry = open.zip.getEntry(entryName);
+            if (entry == null) {
+                return Optional.empty();
+            }
+            String content;
+            try (InputStream in = open.zip.getInputStream(entry)) {
+                content = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            }
+            List<MethodRange> methods = methodCache.computeIfAbsent(entryName,
+                    name -> JavaMethodScanner.scan(content).methods());
+            return Optional.of(new ArchiveSource(archive, entryName, content, methods));
+        } catch (IOException e) {
+            log.warn("读取源码归档失败: {}!{}", archive, entryName, e);
+            return Optional.empty();
+        } finally {
+            release(open);
+        }
+    }
+
+    public int size() {
+        return entryIndex.size();
+    }
+
+    @Override
+    public void close() {
+        synchronized (openArchives) {
+            openArchives.values().forEach(this::evict);
+            openArchives.clear();
+        }
+    }
+
+    private void indexArchive(Path archive) {
+        OpenArchive open;
+        try {
+            open = acquire(archive);
+        } catch (IOException e) {
+            log.warn("索引源码归档失败: {}", archive, e);
+            return;
+        }
+        try {
+            Enumeration<? extends ZipEntry> entries = open.zip.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                if (!entry.isDirectory() && entry.getName().endsWith(".java")) {
+                    entryIndex.put(entry.getName(), archive);
+                    methodCache.remove(entry.getName());
+                }
+            }
+        } finally {
+            release(open);
+        }
+    }
+
+    /**
+     * 取得打开的归档并登记为读取者，未打开时打开并放入缓存
+     */
+    private OpenArchive acquire(Path archive) throws IOException {
+        synchronized (openArchives) {
+            OpenArchive open = openArchives.get(archive);
+            if (open == null) {
+                open = new OpenArchive(new ZipFile(archive.toFile()));
+                openArchives.put(archive, open);
+            }
+            open.readers++;
+            return open;
+        }
+    }
+
+    private void release(OpenArchive open) {
+        synchronized (openArchives) {
+            open.readers--;
+            if (open.evicted && open.readers == 0) {
+                closeQuietly(open.zip);
+            }
+        }
+    }
+
+    /**
+     * 淘汰归档，仍有读取者时推迟到最后一个读取者释放后关闭；调用方持有 openArchives 锁
+     */
+    private void evict(OpenArchive open) {
+        open.evicted = true;
+        if (open.readers == 0) {
+            closeQuietly(open.zip);
+        }
+    }
+
+    private static Stream<Path> walkSourceJars(Path dir) {
+        try (Stream<Path> walk = Files.walk(dir)) {
+            return walk.filter(path -> path.getFileName().toString().endsWith("-sources.jar")).toList().stream();
+        } catch (IOException e) {
+            log.warn("遍历 Maven 仓库目录失败: {}", dir, e);
+            return Stream.empty();
+        }
+    }
+
+    private static long lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+
+    private static void closeQuietly(ZipFile zip) {
+        try {
+            zip.close();
+        } catch (IOException e) {
+            log.debug("关闭源码归档失败: {}", zip.getName(), e);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.lllkkk.ai.agent.modules.log.handle.application;
+
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.AnalysisResult;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.LogRecord;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.StackFrame;
+import com.lllkkk.ai.agent.modules.log.handle.domain.service.impl.SimilarityReuseLink;
+import com.lllkkk.ai.agent.modules.log.handle.infrastructure.config.AdmissionConfig;
+import com.lllkkk.ai.agent.modules.log.handle.infrastructure.config.AnalysisReuseConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AdmissionGateTest {
+
+    private static final String ERROR_LOG = "异常项目: order-web\n异常级别: ERROR\n异常描述: java.lang.NullPointerException";
+    private static final String WARN_LOG = "异常项目: order-web\n异常级别: WARN\n异常描述: java.lang.NullPointerException";
+
+    private final AdmissionConfig config = new AdmissionConfig();
+    private final AtomicLong queueDelay = new AtomicLong();
+    private final SimilarityReuseLink reuseLink = new SimilarityReuseLink(new AnalysisReuseConfig());
+    private AdmissionGate gate;
+
+    @BeforeEach
+    void setUp() {
+        config.setMaxInFlight(4);
+        config.setLowPriorityShare(0.5);
+        config.setHighPriorityProjects(List.of("pay-gateway"));
+        LogProcessingPipeline pipeline = mock(LogProcessingPipeline.class);
+        when(pipeline.queueDelayMillis()).thenAnswer(invocation -> queueDelay.get());
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("reuseLink", reuseLink);
+        gate = new AdmissionGate(config, pipeline,
+                raw -> LogRecord.builder()
+                        .exceptionClass("java.lang.NullPointerException")
+                        .stackFrames(List.of(new StackFrame(null, "com.dyyl.order.OrderService", "create", 42, true)))
+                        .build(),
+                record -> record,
+                beanFactory.getBeanProvider(SimilarityReuseLink.class));
+    }
+
+    @Test
+    void testLowPriorityShedFirstByInFlight() {
+        AdmissionGate.Permit first = gate.tryAcquire(WARN_LOG);
+        AdmissionGate.Permit second = gate.tryAcquire(WARN_LOG);
+        AdmissionGate.Permit third = gate.tryAcquire(WARN_LOG);
+
+        assertTrue(first.admitted());
+        assertTrue(second.admitted());
+        assertFalse(third.admitted(), "低优先级最多占用一半名额");
+        assertTrue(gate.tryAcquire(ERROR_LOG).admitted());
+        assertTrue(gate.tryAcquire(ERROR_LOG).admitted());
+        assertFalse(gate.tryAcquire(ERROR_LOG).admitted(), "达到上限后高优先级也被拒绝");
+
+        first.close();
+        first.close();
+        assertEquals(3, gate.stats().inFlight(), "重复关闭只释放一次");
+        assertEquals(2, gate.stats().shed());
+    }
+
+    @Test
+    void testLowPriorityShedWhenQueueingIsSlow() {
+        queueDelay.set(3500);
+
+        AdmissionGate.Permit low = gate.tryAcquire(WARN_LOG);
+
+        assertFalse(low.admitted());
+        assertEquals(5, low.retryAfterSeconds());
+        assertTrue(gate.tryAcquire(ERROR_LOG).admitted());
+        queueDelay.set(9200);
+        assertEquals(10, gate.tryAcquire(WARN_LOG).retryAfterSeconds(), "排队更久时按排队时间给出 Retry-After");
+    }
+
+    @Test
+    void testClassify_ProjectOverridesLevel() {
+        config.setLowPriorityProjects(List.of("order-web"));
+
+        assertEquals(AdmissionGate.Priority.LOW, gate.classify(ERROR_LOG));
+        assertEquals(AdmissionGate.Priority.HIGH, gate.classify("异常项目: pay-gateway\n异常级别: INFO"));
+        assertEquals(AdmissionGate.Priority.HIGH, gate.classify("无法识别的日志"));
+    }
+
+    @Test
+    void testRecentResultServedInsteadOfRejection() {
+        assertTrue(gate.recentResult(ERROR_LOG).isEmpty());
+        LogRecord analyzed = LogRecord.builder()
+                .exceptionClass("java.lang.NullPointerException")
+                .stackFrames(List.of(new StackFrame(null, "com.dyyl.order.OrderService", "create", 42, true)))
+                .build();
+        reuseLink.onAnalyzed(analyzed, AnalysisResult.builder().rootCause("订单为空").build());
+
+        AdmissionGate.CachedResult cached = gate.recentResult(ERROR_LOG).orElseThrow();
+
+        assertEquals("订单为空", cached.analysis().getRootCause());
+        assertEquals(1, gate.stats().servedFromCache());
+    }
+
+    @Test
+    void testDisabled_AdmitsEverything() {
+        config.setEnabled(false);
+        config.setMaxInFlight(0);
+
+        assertTrue(gate.tryAcquire(WARN_LOG).admitted());
+    }
+}
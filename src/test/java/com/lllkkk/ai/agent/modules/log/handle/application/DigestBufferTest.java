@@ -0,0 +1,125 @@
+package com.lllkkk.ai.agent.modules.log.handle.application;
+
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.Deadline;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.LogRecord;
+import com.lllkkk.ai.agent.modules.log.handle.infrastructure.config.DigestConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DigestBufferTest {
+
+    private final List<List<List<PipelineTask>>> flushed = new CopyOnWriteArrayList<>();
+    private DigestConfig config;
+    private DigestBuffer buffer;
+
+    @BeforeEach
+    void setUp() {
+        config = new DigestConfig();
+        config.setEnabled(true);
+        config.setIntervalSeconds(3600);
+        config.setMaxPendingRecords(2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (buffer != null) {
+            buffer.shutdown();
+        }
+    }
+
+    @Test
+    void testOffer_GroupsByProjectAndFingerprint() {
+        buffer = new DigestBuffer(config, flushed::add);
+
+        assertTrue(buffer.offer(task("order-web", "warn", "A", Deadline.none())));
+        assertTrue(buffer.offer(task("order-web", "WARN", "A", Deadline.none())));
+        assertTrue(buffer.offer(task("stock-web", "WARN", "A", Deadline.none())));
+        assertEquals(2, buffer.pendingRecords());
+        // 已满：新异常逐条分析，已有异常仍可合并
+        assertFalse(buffer.offer(task("order-web", "WARN", "B", Deadline.none())));
+        assertTrue(buffer.offer(task("stock-web", "WARN", "A", Deadline.none())));
+
+        buffer.flush();
+        buffer.flush();
+
+        assertEquals(1, flushed.size());
+        assertEquals(List.of(2, 2), flushed.get(0).stream().map(List::size).toList());
+        assertEquals(0, buffer.pendingRecords());
+    }
+
+    @Test
+    void testOffer_SkipsUrgentOrForegroundRecords() {
+        buffer = new DigestBuffer(config, flushed::add);
+
+        assertFalse(buffer.offer(task("order-web", "ERROR", "A", Deadline.none())));
+        assertFalse(buffer.offer(task("order-web", "WARN", "A", Deadline.after(Duration.ofSeconds(30)))));
+        PipelineTask foreground = task("order-web", "WARN", "A", Deadline.none());
+        foreground.background = false;
+        assertFalse(buffer.offer(foreground));
+
+        config.setEnabled(false);
+        DigestBuffer disabled = new DigestBuffer(config, flushed::add);
+        assertFalse(disabled.offer(task("order-web", "WARN", "A", Deadline.none())));
+        disabled.shutdown();
+    }
+
+    @Test
+    void testOffer_CompletesTaskAsDeferred() {
+        buffer = new DigestBuffer(config, groups -> {
+            throw new IllegalStateException("boom");
+        });
+        PipelineTask task = task("order-web", "WARN", "A", Deadline.none());
+        assertTrue(buffer.offer(task));
+
+        // 接入端不必等到周期结束
+        PipelineResult deferred = task.result.getNow(null);
+        assertNotNull(deferred);
+        assertTrue(deferred.deferred());
+        assertNull(deferred.analysis());
+
+        assertDoesNotThrow(buffer::flush);
+        assertEquals(0, buffer.pendingRecords());
+    }
+
+    @Test
+    void testOffer_DuplicateStormKeepsBoundedSample() {
+        config.setMaxRecordsPerGroup(3);
+        buffer = new DigestBuffer(config, flushed::add);
+
+        List<PipelineTask> tasks = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            PipelineTask task = task("order-web", "WARN", "A", Deadline.none());
+            tasks.add(task);
+            assertTrue(buffer.offer(task));
+        }
+        buffer.flush();
+
+        assertEquals(List.of(3), flushed.get(0).stream().map(List::size).toList());
+        assertTrue(tasks.stream().allMatch(task -> task.result.isDone()), "超出上限的重复记录也应立即完成");
+    }
+
+    @Test
+    void testOffer_SkipsTraceOrigins() {
+        buffer = new DigestBuffer(config, flushed::add);
+        PipelineTask origin = task("order-web", "WARN", "A", Deadline.none());
+        origin.correlated = List.of(task("order-web", "WARN", "B", Deadline.none()));
+
+        assertFalse(buffer.offer(origin));
+        assertFalse(origin.result.isDone());
+    }
+
+    private static PipelineTask task(String project, String level, String exceptionClass, Deadline deadline) {
+        PipelineTask task = new PipelineTask(null, LogRecord.builder().projectName(project).level(level)
+                .exceptionClass(exceptionClass).build(), deadline);
+        task.background = true;
+        return task;
+    }
+}
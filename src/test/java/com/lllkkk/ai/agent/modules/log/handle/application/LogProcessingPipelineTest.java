@@ -0,0 +1,258 @@
+package com.lllkkk.ai.agent.modules.log.handle.application;
+
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.AnalysisResult;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.Deadline;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.LogRecord;
+import com.lllkkk.ai.agent.modules.log.handle.domain.service.AIAnalyzer;
+import com.lllkkk.ai.agent.modules.log.handle.domain.service.RecordObserver;
+import com.lllkkk.ai.agent.modules.log.handle.domain.service.prompt.CodeSnippetEnricher;
+import com.lllkkk.ai.agent.modules.log.handle.infrastructure.config.DigestConfig;
+import com.lllkkk.ai.agent.modules.log.handle.infrastructure.config.PipelineConfig;
+import com.lllkkk.ai.agent.modules.log.handle.infrastructure.config.TraceCorrelationConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class LogProcessingPipelineTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private LogProcessingPipeline pipeline;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (pipeline != null) {
+            pipeline.destroy();
+        }
+    }
+
+    @Test
+    void testSubmit_RunsAllStagesAndSinks() throws Exception {
+        List<String> sunk = new CopyOnWriteArrayList<>();
+        pipeline = pipeline(new PipelineConfig(), record -> AnalysisResult.builder().rootCause("根因:" + record.getExceptionMessage()).build(),
+                (record, result) -> sunk.add(result.getRootCause()));
+
+        PipelineResult result = pipeline.submit("order is null", Deadline.none()).get(5, TimeUnit.SECONDS);
+        PipelineResult unparseable = pipeline.submit("", Deadline.none()).get(5, TimeUnit.SECONDS);
+
+        assertTrue(result.parsed());
+        assertEquals("根因:order is null", result.analysis().getRootCause());
+        assertFalse(unparseable.parsed());
+        waitUntil(() -> sunk.size() == 1);
+        assertEquals(List.of("根因:order is null"), sunk);
+    }
+
+    @Test
+    void testSubmitParsed_SkipsParseStage() throws Exception {
+        pipeline = pipeline(new PipelineConfig(), record -> AnalysisResult.builder().rootCause("ok").build());
+        LogRecord record = LogRecord.builder().exceptionClass("java.lang.IllegalStateException").build();
+
+        PipelineResult result = pipeline.submitParsed(record, Deadline.none()).get(5, TimeUnit.SECONDS);
+
+        assertSame(record, result.record());
+        assertEquals("ok", result.analysis().getRootCause());
+    }
+
+    @Test
+    void testSubmitBackground_AttachesContextLines() throws Exception {
+        pipeline = pipeline(new PipelineConfig(), record -> AnalysisResult.builder().rootCause("ok").build());
+
+        PipelineResult result = pipeline.submitBackground("order is null", List.of("INFO 下单", "WARN 库存不足"),
+                Deadline.none()).get(5, TimeUnit.SECONDS);
+
+        assertEquals(List.of("INFO 下单", "WARN 库存不足"), result.record().getContextLines());
+        assertEquals("ok", result.analysis().getRootCause());
+    }
+
+    @Test
+    void testObserversSeeEveryFilteredRecord() throws Exception {
+        List<String> observed = new CopyOnWriteArrayList<>();
+        pipeline = pipeline(new PipelineConfig(), record -> AnalysisResult.builder().rootCause("ok").build(),
+                record -> observed.add(record.getExceptionMessage()));
+
+        pipeline.submit("a", Deadline.none()).get(5, TimeUnit.SECONDS);
+        pipeline.submit("", Deadline.none()).get(5, TimeUnit.SECONDS);
+        pipeline.submitParsed(LogRecord.builder().exceptionMessage("b").build(), Deadline.none()).get(5, TimeUnit.SECONDS);
+
+        assertEquals(List.of("a", "b"), observed);
+    }
+
+    @Test
+    void testBackPressure_RejectsWhenQueuesAreFull() throws Exception {
+        PipelineConfig config = new PipelineConfig();
+        config.setQueueCapacity(1);
+        config.setParseThreads(1);
+        config.setFilterThreads(1);
+        config.setEnrichConcurrency(1);
+        config.setAnalyzeConcurrency(1);
+        config.setSubmitTimeoutMs(50);
+        pipeline = pipeline(config, record -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return AnalysisResult.builder().rootCause("done").build();
+        });
+
+        // 1 个在 analyze 中阻塞，其余填满各阶段的队列和工作线程
+        CompletableFuture<PipelineResult> rejected = null;
+        for (int i = 0; i < 20 && rejected == null; i++) {
+            CompletableFuture<PipelineResult> future = pipeline.submit("log-" + i, Deadline.none());
+            if (future.isCompletedExceptionally()) {
+                rejected = future;
+            }
+        }
+
+        assertNotNull(rejected, "队列满时应拒绝提交");
+        CompletableFuture<PipelineResult> finalRejected = rejected;
+        Exception e = assertThrows(Exception.class, () -> finalRejected.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(RejectedExecutionException.class, e.getCause());
+
+        release.countDown();
+        assertEquals("done", pipeline.submit("after", Deadline.none()).get(5, TimeUnit.SECONDS).analysis().getRootCause());
+    }
+
+    @Test
+    void testTraceCorrelation_AnalyzesDeepestOriginOnce() throws Exception {
+        List<String> analyzed = new CopyOnWriteArrayList<>();
+        List<String> sunk = new CopyOnWriteArrayList<>();
+        TraceCorrelationConfig correlation = new TraceCorrelationConfig();
+        correlation.setWindowMs(200);
+        pipeline = pipeline(new PipelineConfig(), correlation, record -> {
+            analyzed.add(record.getExceptionMessage());
+            return AnalysisResult.builder().rootCause("根因:" + record.getExceptionMessage()).build();
+        }, null, (record, result) -> sunk.add(record.getExceptionMessage() + "->" + result.getRootCause()));
+
+        // 网关 → 订单 → 库存，到达顺序与调用深度相反
+        CompletableFuture<PipelineResult> gateway = pipeline.submitParsed(traced("gateway 502", "g1", null), Deadline.none());
+        CompletableFuture<PipelineResult> order = pipeline.submitParsed(traced("order failed", "o1", "g1"), Deadline.none());
+        CompletableFuture<PipelineResult> stock = pipeline.submitParsed(traced("stock locked", "s1", "o1"), Deadline.none());
+        PipelineResult untraced = pipeline.submitParsed(LogRecord.builder().exceptionMessage("plain").build(),
+                Deadline.none()).get(5, TimeUnit.SECONDS);
+
+        PipelineResult origin = stock.get(5, TimeUnit.SECONDS);
+        PipelineResult upstream = gateway.get(5, TimeUnit.SECONDS);
+        assertEquals(List.of("plain", "stock locked"), analyzed);
+        assertEquals("根因:stock locked", upstream.analysis().getRootCause());
+        assertEquals("根因:stock locked", order.get(5, TimeUnit.SECONDS).analysis().getRootCause());
+        assertEquals("trace-1", upstream.analysis().getTraceId());
+        assertEquals(origin.record().getRecordId(), upstream.analysis().getOriginRecordId());
+        assertEquals(origin.record().getRecordId(), origin.analysis().getOriginRecordId());
+        assertEquals(List.of(upstream.record().getRecordId(), order.get().record().getRecordId()),
+                origin.analysis().getCorrelatedRecordIds());
+        assertEquals(List.of(order.get().record().getRecordId(), origin.record().getRecordId()),
+                upstream.analysis().getCorrelatedRecordIds());
+        assertNotNull(untraced.record().getRecordId());
+        assertNull(untraced.analysis().getTraceId());
+        waitUntil(() -> sunk.size() == 4);
+        assertTrue(sunk.containsAll(List.of("gateway 502->根因:stock locked", "order failed->根因:stock locked",
+                "stock locked->根因:stock locked", "plain->根因:plain")), sunk.toString());
+    }
+
+    @Test
+    void testDigest_BatchesDistinctBackgroundWarnings() throws Exception {
+        List<Integer> batches = new CopyOnWriteArrayList<>();
+        List<String> sunk = new CopyOnWriteArrayList<>();
+        DigestConfig digest = new DigestConfig();
+        digest.setEnabled(true);
+        digest.setIntervalSeconds(1);
+        pipeline = pipeline(new PipelineConfig(), new TraceCorrelationConfig(), digest, new AIAnalyzer() {
+            @Override
+            public AnalysisResult analyze(LogRecord record) {
+                return AnalysisResult.builder().rootCause("单条:" + record.getExceptionClass()).build();
+            }
+
+            @Override
+            public List<AnalysisResult> analyzeAll(List<LogRecord> records, Deadline deadline) {
+                batches.add(records.size());
+                return records.stream()
+                        .map(record -> AnalysisResult.builder().rootCause("摘要:" + record.getExceptionClass()).build())
+                        .toList();
+            }
+        }, null, (record, result) -> sunk.add(result.getRootCause()));
+
+        CompletableFuture<PipelineResult> first = pipeline.submitParsed(warn("A", "a1"), Deadline.none());
+        CompletableFuture<PipelineResult> duplicate = pipeline.submitParsed(warn("A", "a2"), Deadline.none());
+        CompletableFuture<PipelineResult> other = pipeline.submitParsed(warn("B", "b1"), Deadline.none());
+        PipelineResult error = pipeline.submitParsed(LogRecord.builder().level("ERROR").exceptionClass("C").build(),
+                Deadline.none()).get(5, TimeUnit.SECONDS);
+        PipelineResult budgeted = pipeline.submitParsed(warn("D", "d1"), Deadline.after(Duration.ofSeconds(30)))
+                .get(5, TimeUnit.SECONDS);
+
+        assertEquals("单条:C", error.analysis().getRootCause());
+        assertEquals("单条:D", budgeted.analysis().getRootCause());
+        // 摘要记录立即以 deferred 完成，结论在周期结束后交给 sink
+        for (CompletableFuture<PipelineResult> future : List.of(first, duplicate, other)) {
+            assertTrue(future.get(5, TimeUnit.SECONDS).deferred());
+        }
+        waitUntil(() -> sunk.size() == 5);
+        assertEquals(List.of(2), batches);
+        assertEquals(5, sunk.size());
+        assertEquals(2, sunk.stream().filter("摘要:A"::equals).count());
+    }
+
+    private static LogRecord warn(String exceptionClass, String message) {
+        return LogRecord.builder().projectName("order-web").level("WARN").exceptionClass(exceptionClass)
+                .exceptionMessage(message).build();
+    }
+
+    private static LogRecord traced(String message, String spanId, String parentSpanId) {
+        return LogRecord.builder().exceptionMessage(message).traceId("trace-1").spanId(spanId)
+                .parentSpanId(parentSpanId).build();
+    }
+
+    private static LogProcessingPipeline pipeline(PipelineConfig config, AIAnalyzer analyzer, PipelineSink... sinks) {
+        return pipeline(config, analyzer, null, sinks);
+    }
+
+    private static LogProcessingPipeline pipeline(PipelineConfig config, AIAnalyzer analyzer, RecordObserver observer,
+                                                  PipelineSink... sinks) {
+        return pipeline(config, new TraceCorrelationConfig(), analyzer, observer, sinks);
+    }
+
+    private static LogProcessingPipeline pipeline(PipelineConfig config, TraceCorrelationConfig correlation,
+                                                  AIAnalyzer analyzer, RecordObserver observer, PipelineSink... sinks) {
+        return pipeline(config, correlation, new DigestConfig(), analyzer, observer, sinks);
+    }
+
+    private static LogProcessingPipeline pipeline(PipelineConfig config, TraceCorrelationConfig correlation,
+                                                  DigestConfig digest, AIAnalyzer analyzer, RecordObserver observer,
+                                                  PipelineSink... sinks) {
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        if (observer != null) {
+            beanFactory.addBean("observer", observer);
+        }
+        for (int i = 0; i < sinks.length; i++) {
+            beanFactory.addBean("sink" + i, sinks[i]);
+        }
+        return new LogProcessingPipeline(
+                raw -> raw.isEmpty() ? null : LogRecord.builder().exceptionMessage(raw).build(),
+                record -> record,
+                mock(CodeSnippetEnricher.class),
+                analyzer,
+                beanFactory.getBeanProvider(PipelineSink.class),
+                beanFactory.getBeanProvider(RecordObserver.class),
+                config,
+                correlation,
+                digest);
+    }
+
+    private static void waitUntil(java.util.function.BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}
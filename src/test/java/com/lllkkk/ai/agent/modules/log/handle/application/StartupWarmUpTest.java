@@ -0,0 +1,71 @@
+package com.lllkkk.ai.agent.modules.log.handle.application;
+
+import com.lllkkk.ai.agent.modules.log.handle.domain.service.CodeLocator;
+import com.lllkkk.ai.agent.modules.log.handle.domain.service.impl.LogFilterImpl;
+import com.lllkkk.ai.agent.modules.log.handle.domain.service.impl.RegexLogParser;
+import com.lllkkk.ai.agent.modules.log.handle.domain.service.prompt.AnalysisPromptBuilder;
+import com.lllkkk.ai.agent.modules.log.handle.infrastructure.client.LLMClient;
+import com.lllkkk.ai.agent.modules.log.handle.infrastructure.config.WarmUpConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.DefaultApplicationArguments;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class StartupWarmUpTest {
+
+    @Test
+    void testSplitCorpus_SkipsCommentsAndBlankEntries() {
+        List<String> logs = StartupWarmUp.splitCorpus("# 注释\n异常描述: A\n---\n\n---\n异常描述: B\r\n");
+
+        assertEquals(List.of("异常描述: A\n", "异常描述: B\n"), logs);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testRun_ParsesBundledCorpusAndWarmsLocatorAndUpstream() {
+        CodeLocator locator = mock(CodeLocator.class);
+        LLMClient client = mock(LLMClient.class);
+        when(locator.warmUp()).thenReturn(CompletableFuture.completedFuture(null));
+        when(client.warmUp()).thenReturn(CompletableFuture.completedFuture(null));
+        ObjectProvider<CodeLocator> locatorProvider = mock(ObjectProvider.class);
+        ObjectProvider<LLMClient> clientProvider = mock(ObjectProvider.class);
+        when(locatorProvider.getIfAvailable()).thenReturn(locator);
+        when(clientProvider.getIfAvailable()).thenReturn(client);
+        WarmUpConfig config = new WarmUpConfig();
+        config.setIterations(2);
+
+        StartupWarmUp warmUp = new StartupWarmUp(new RegexLogParser(), new LogFilterImpl(),
+                new AnalysisPromptBuilder(), locatorProvider, clientProvider, config);
+
+        assertEquals(4, warmUp.loadCorpus().size(), "bundled corpus should hold every sample");
+        warmUp.run(new DefaultApplicationArguments());
+        verify(locator).warmUp();
+        verify(client).warmUp();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testRun_SlowUpstreamBoundedByTimeout() {
+        LLMClient client = mock(LLMClient.class);
+        when(client.warmUp()).thenReturn(new CompletableFuture<>());
+        ObjectProvider<LLMClient> clientProvider = mock(ObjectProvider.class);
+        when(clientProvider.getIfAvailable()).thenReturn(client);
+        WarmUpConfig config = new WarmUpConfig();
+        config.setIterations(1);
+        config.setTimeoutMs(200);
+
+        StartupWarmUp warmUp = new StartupWarmUp(new RegexLogParser(), new LogFilterImpl(),
+                new AnalysisPromptBuilder(), mock(ObjectProvider.class), clientProvider, config);
+
+        long start = System.nanoTime();
+        warmUp.run(new DefaultApplicationArguments());
+        assertTrue((System.nanoTime() - start) / 1_000_000 < 2000);
+    }
+}
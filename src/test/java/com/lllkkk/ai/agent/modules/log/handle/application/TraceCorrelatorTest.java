@@ -0,0 +1,124 @@
+package com.lllkkk.ai.agent.modules.log.handle.application;
+
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.Deadline;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.LogRecord;
+import com.lllkkk.ai.agent.modules.log.handle.infrastructure.config.TraceCorrelationConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TraceCorrelatorTest {
+
+    private final List<TraceCorrelator.TraceGroup> closed = new CopyOnWriteArrayList<>();
+    private TraceCorrelator correlator;
+
+    @AfterEach
+    void tearDown() {
+        if (correlator != null) {
+            correlator.shutdown();
+        }
+    }
+
+    @Test
+    void testSelectOrigin_PrefersDeepestSpan() {
+        List<LogRecord> records = List.of(
+                record("g", null, 100),
+                record("s", "o", 300),
+                record("o", "g", 200));
+
+        assertEquals(1, TraceCorrelator.selectOrigin(records));
+    }
+
+    @Test
+    void testSelectOrigin_FallsBackToEarliestTimestamp() {
+        List<LogRecord> records = List.of(
+                record(null, null, 300),
+                record(null, null, LogRecord.UNKNOWN_TIMESTAMP),
+                record(null, null, 100),
+                record(null, null, 100));
+
+        assertEquals(2, TraceCorrelator.selectOrigin(records));
+    }
+
+    @Test
+    void testSelectOrigin_ToleratesSpanCycles() {
+        List<LogRecord> records = List.of(record("a", "b", 200), record("b", "a", 100));
+
+        assertEquals(1, TraceCorrelator.selectOrigin(records));
+    }
+
+    @Test
+    void testHold_ClosesWhenTraceIsFull() {
+        TraceCorrelationConfig config = new TraceCorrelationConfig();
+        config.setWindowMs(60_000);
+        config.setMaxRecordsPerTrace(2);
+        correlator = new TraceCorrelator(config, closed::add);
+
+        assertTrue(correlator.hold(task("t1")));
+        assertTrue(correlator.hold(task("t2")));
+        assertTrue(correlator.hold(task("t1")));
+        assertFalse(correlator.hold(task(null)));
+
+        assertEquals(1, closed.size());
+        assertEquals("t1", closed.get(0).traceId);
+        assertEquals(2, closed.get(0).tasks.size());
+        assertEquals(1, correlator.pendingTraces());
+    }
+
+    @Test
+    void testHold_PassesThroughWhenDisabledOrTooManyTraces() {
+        TraceCorrelationConfig config = new TraceCorrelationConfig();
+        config.setMaxPendingTraces(1);
+        correlator = new TraceCorrelator(config, closed::add);
+
+        assertTrue(correlator.hold(task("t1")));
+        assertFalse(correlator.hold(task("t2")));
+        assertTrue(correlator.hold(task("t1")));
+
+        config.setEnabled(false);
+        TraceCorrelator disabled = new TraceCorrelator(config, closed::add);
+        assertFalse(disabled.hold(task("t1")));
+        disabled.shutdown();
+    }
+
+    @Test
+    void testHold_BoundedByTaskDeadline() throws Exception {
+        TraceCorrelationConfig config = new TraceCorrelationConfig();
+        config.setWindowMs(60_000);
+        config.setAnalysisReserveMs(1000);
+        correlator = new TraceCorrelator(config, closed::add);
+
+        // 剩余时间不足预留的分析时间，不缓冲
+        assertFalse(correlator.hold(task("t1", Deadline.after(Duration.ofMillis(800)))));
+
+        // 无截止时间的任务按窗口缓冲，之后到达的有预算任务让窗口提前结束
+        assertTrue(correlator.hold(task("t2")));
+        long start = System.nanoTime();
+        assertTrue(correlator.hold(task("t2", Deadline.after(Duration.ofMillis(1200)))));
+        while (closed.isEmpty() && System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5)) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(1, closed.size());
+        assertEquals(2, closed.get(0).tasks.size());
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(1000));
+    }
+
+    private static LogRecord record(String spanId, String parentSpanId, long timestamp) {
+        return LogRecord.builder().traceId("t").spanId(spanId).parentSpanId(parentSpanId).timestamp(timestamp).build();
+    }
+
+    private static PipelineTask task(String traceId) {
+        return task(traceId, Deadline.none());
+    }
+
+    private static PipelineTask task(String traceId, Deadline deadline) {
+        return new PipelineTask(null, LogRecord.builder().traceId(traceId).build(), deadline);
+    }
+}
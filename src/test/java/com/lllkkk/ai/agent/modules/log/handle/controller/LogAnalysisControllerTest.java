@@ -1,27 +1,53 @@
 package com.lllkkk.ai.agent.modules.log.handle.controller;
 
+import com.lllkkk.ai.agent.modules.log.handle.application.AdmissionGate;
+import com.lllkkk.ai.agent.modules.log.handle.application.LogProcessingPipeline;
 import com.lllkkk.ai.agent.modules.log.handle.domain.model.AnalysisResult;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.Deadline;
 import com.lllkkk.ai.agent.modules.log.handle.domain.model.LogRecord;
 import com.lllkkk.ai.agent.modules.log.handle.domain.service.AIAnalyzer;
 import com.lllkkk.ai.agent.modules.log.handle.domain.service.LogFilter;
 import com.lllkkk.ai.agent.modules.log.handle.domain.service.LogParser;
+import com.lllkkk.ai.agent.modules.log.handle.domain.service.impl.SimilarityReuseLink;
+import com.lllkkk.ai.agent.modules.log.handle.domain.service.prompt.CodeSnippetEnricher;
+import com.lllkkk.ai.agent.modules.log.handle.infrastructure.config.AdmissionConfig;
+import com.lllkkk.ai.agent.modules.log.handle.infrastructure.config.DigestConfig;
+import com.lllkkk.ai.agent.modules.log.handle.infrastructure.config.PipelineConfig;
+import com.lllkkk.ai.agent.modules.log.handle.infrastructure.config.TraceCorrelationConfig;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.LivenessState;
+import org.springframework.boot.availability.ReadinessState;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(LogAnalysisController.class)
+@Import({LogProcessingPipeline.class, PipelineConfig.class, TraceCorrelationConfig.class, DigestConfig.class,
+        AdmissionGate.class, AdmissionConfig.class})
 class LogAnalysisControllerTest {
 
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private AdmissionConfig admissionConfig;
+
     @MockBean
     private LogParser logParser;
 
@@ -31,13 +57,22 @@ class LogAnalysisControllerTest {
     @MockBean
     private AIAnalyzer aiAnalyzer;
 
+    @MockBean
+    private CodeSnippetEnricher snippetEnricher;
+
+    @MockBean
+    private ApplicationAvailability availability;
+
+    @MockBean
+    private SimilarityReuseLink reuseLink;
+
     @Test
     void analyzeLog_Success() throws Exception {
         // 准备测试数据
         String testLog = "2024-01-01 10:00:00 ERROR com.example.Test - NullPointerException: Cannot invoke method";
 
         LogRecord mockLogRecord = new LogRecord();
-        mockLogRecord.setTimestamp("2024-01-01 10:00:00");
+        mockLogRecord.setTimestamp(LogRecord.parseTimestamp("2024-01-01 10:00:00"));
         mockLogRecord.setLevel("ERROR");
         mockLogRecord.setExceptionClass("java.lang.NullPointerException");
         mockLogRecord.setExceptionMessage("Cannot invoke method");
@@ -51,7 +86,7 @@ class LogAnalysisControllerTest {
         // 设置mock行为
         when(logParser.parse(testLog)).thenReturn(mockLogRecord);
         when(logFilter.filter(mockLogRecord)).thenReturn(mockLogRecord);
-        when(aiAnalyzer.analyze(mockLogRecord)).thenReturn(mockAnalysisResult);
+        when(aiAnalyzer.analyze(eq(mockLogRecord), any(Deadline.class))).thenReturn(mockAnalysisResult);
 
         // 执行测试
         mockMvc.perform(post("/api/log-analysis/analyze")
@@ -61,7 +96,81 @@ class LogAnalysisControllerTest {
                 .andExpect(jsonPath("$.success").value(true))
                 .andExpect(jsonPath("$.data.rootCause").value("空指针异常"))
                 .andExpect(jsonPath("$.data.summary").value("方法调用时对象为null"))
+                .andExpect(jsonPath("$.logInfo.exceptionClass").value("java.lang.NullPointerException"))
+                .andExpect(jsonPath("$.logInfo.timestamp").value("2024-01-01 10:00:00"));
+    }
+
+    @Test
+    void analyzeLog_BudgetExhausted_ReturnsDegradedResult() throws Exception {
+        String testLog = "2024-01-01 10:00:00 ERROR com.example.Test - NullPointerException: Cannot invoke method";
+
+        LogRecord mockLogRecord = new LogRecord();
+        mockLogRecord.setLevel("ERROR");
+        mockLogRecord.setExceptionClass("java.lang.NullPointerException");
+        mockLogRecord.setExceptionMessage("Cannot invoke method");
+
+        when(logParser.parse(testLog)).thenReturn(mockLogRecord);
+        when(logFilter.filter(mockLogRecord)).thenReturn(mockLogRecord);
+
+        mockMvc.perform(post("/api/log-analysis/analyze")
+                .header(LogAnalysisController.DEADLINE_HEADER, "0")
+                .contentType(MediaType.TEXT_PLAIN)
+                .content(testLog))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.data.degraded").value(true))
+                .andExpect(jsonPath("$.data.degradedReason").value("DEADLINE_EXCEEDED"))
                 .andExpect(jsonPath("$.logInfo.exceptionClass").value("java.lang.NullPointerException"));
+
+        verify(aiAnalyzer, never()).analyze(any(LogRecord.class), any(Deadline.class));
+    }
+
+    @Test
+    void analyzeLog_PipelineStalls_ReturnsDegradedResultAtDeadline() throws Exception {
+        String testLog = "2024-01-01 10:00:00 ERROR com.example.Test - NullPointerException: Cannot invoke method";
+
+        LogRecord mockLogRecord = new LogRecord();
+        mockLogRecord.setExceptionClass("java.lang.NullPointerException");
+
+        when(logParser.parse(testLog)).thenReturn(mockLogRecord);
+        when(logFilter.filter(mockLogRecord)).thenReturn(mockLogRecord);
+        // 下游不响应，也不理会截止时间
+        when(aiAnalyzer.analyze(eq(mockLogRecord), any(Deadline.class))).thenAnswer(invocation -> {
+            Thread.sleep(5000);
+            return new AnalysisResult();
+        });
+
+        long start = System.nanoTime();
+        mockMvc.perform(post("/api/log-analysis/analyze")
+                .header(LogAnalysisController.DEADLINE_HEADER, "300")
+                .contentType(MediaType.TEXT_PLAIN)
+                .content(testLog))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.data.degraded").value(true))
+                .andExpect(jsonPath("$.data.degradedReason").value("DEADLINE_EXCEEDED"));
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(3));
+    }
+
+    @Test
+    void analyzeBatch_KeepsInputOrder() throws Exception {
+        LogRecord first = new LogRecord();
+        first.setExceptionClass("java.lang.NullPointerException");
+        first.setExceptionMessage("first");
+
+        when(logParser.parse("log-1")).thenReturn(first);
+        when(logParser.parse("log-2")).thenReturn(null);
+        when(logFilter.filter(first)).thenReturn(first);
+        when(aiAnalyzer.analyze(eq(first), any(Deadline.class)))
+                .thenReturn(AnalysisResult.builder().rootCause("空指针异常").build());
+
+        mockMvc.perform(post("/api/log-analysis/analyze/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[\"log-1\", \"log-2\"]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results[0].success").value(true))
+                .andExpect(jsonPath("$.results[0].data.rootCause").value("空指针异常"))
+                .andExpect(jsonPath("$.results[1].success").value(false));
     }
 
     @Test
@@ -81,11 +190,81 @@ class LogAnalysisControllerTest {
                 .andExpect(jsonPath("$.error").value("无法解析日志内容，请检查日志格式"));
     }
 
+    @Test
+    void analyzeLog_Overloaded_ReturnsRetryAfter() throws Exception {
+        int maxInFlight = admissionConfig.getMaxInFlight();
+        admissionConfig.setMaxInFlight(0);
+        try {
+            mockMvc.perform(post("/api/log-analysis/analyze")
+                    .contentType(MediaType.TEXT_PLAIN)
+                    .content("异常级别: ERROR\n异常描述: java.lang.NullPointerException"))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string("Retry-After", "5"))
+                    .andExpect(jsonPath("$.success").value(false));
+            verify(aiAnalyzer, never()).analyze(any(), any(Deadline.class));
+        } finally {
+            admissionConfig.setMaxInFlight(maxInFlight);
+        }
+    }
+
+    @Test
+    void analyzeLog_ParserThrowsOnRequestThread_ReturnsErrorResponse() throws Exception {
+        int maxInFlight = admissionConfig.getMaxInFlight();
+        admissionConfig.setMaxInFlight(0);
+        when(logParser.parse(any())).thenThrow(new IllegalStateException("parser broken"));
+        try {
+            // 被拒绝时在请求线程上解析日志查找历史结果
+            mockMvc.perform(post("/api/log-analysis/analyze")
+                    .contentType(MediaType.TEXT_PLAIN)
+                    .content("异常级别: ERROR\n异常描述: java.lang.NullPointerException"))
+                    .andExpect(status().isInternalServerError())
+                    .andExpect(jsonPath("$.success").value(false))
+                    .andExpect(jsonPath("$.error").value("分析过程发生错误: parser broken"));
+        } finally {
+            admissionConfig.setMaxInFlight(maxInFlight);
+        }
+    }
+
+    @Test
+    void analyzeBatch_ParserThrows_ReturnsErrorPerItem() throws Exception {
+        when(logParser.parse("log-1")).thenThrow(new IllegalStateException("parser broken"));
+        when(logParser.parse("log-2")).thenReturn(null);
+
+        mockMvc.perform(post("/api/log-analysis/analyze/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[\"log-1\", \"log-2\"]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results[0].success").value(false))
+                .andExpect(jsonPath("$.results[0].error").value("分析过程发生错误: parser broken"))
+                .andExpect(jsonPath("$.results[1].success").value(false));
+    }
+
     @Test
     void healthCheck() throws Exception {
+        when(availability.getLivenessState()).thenReturn(LivenessState.CORRECT);
+        when(availability.getReadinessState()).thenReturn(ReadinessState.ACCEPTING_TRAFFIC);
+
         mockMvc.perform(post("/api/log-analysis/health"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.status").value("UP"))
                 .andExpect(jsonPath("$.service").value("Log Analysis Service"));
+        mockMvc.perform(get("/api/log-analysis/health"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.readiness").value("ACCEPTING_TRAFFIC"));
+    }
+
+    @Test
+    void healthCheck_WarmingUpIsAliveButNotReady() throws Exception {
+        when(availability.getLivenessState()).thenReturn(LivenessState.CORRECT);
+        when(availability.getReadinessState()).thenReturn(ReadinessState.REFUSING_TRAFFIC);
+
+        mockMvc.perform(get("/api/log-analysis/health"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("UP"))
+                .andExpect(jsonPath("$.readiness").value("REFUSING_TRAFFIC"));
+        mockMvc.perform(get("/api/log-analysis/health/liveness"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/log-analysis/health/readiness"))
+                .andExpect(status().isServiceUnavailable());
     }
 }
\ No newline at end of file
@@ -0,0 +1,96 @@
+package com.lllkkk.ai.agent.modules.log.handle.controller;
+
+import com.lllkkk.ai.agent.modules.log.handle.application.LogProcessingPipeline;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.LogRecord;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.StackFrame;
+import com.lllkkk.ai.agent.modules.log.handle.domain.service.BusinessPackageMatcher;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(RecordIngestController.class)
+class RecordIngestControllerTest {
+
+    private static final String RECORD = """
+            {"projectName":"order-web","version":"3f9c2ab","timestamp":1758959292000,"level":"ERROR",
+             "exceptionClass":"java.lang.NullPointerException","exceptionMessage":"库存为空",
+             "causes":["java.io.IOException: broken pipe"],
+             "stackFrames":[{"className":"com.dyyl.order.OrderService","methodName":"submit","lineNumber":102},
+                            {"className":"java.util.ArrayList","methodName":"forEach","lineNumber":1541}]}
+            """;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private LogProcessingPipeline pipeline;
+
+    @MockBean
+    private BusinessPackageMatcher businessPackageMatcher;
+
+    @Test
+    void ingest_SubmitsStructuredRecordsWithoutParsing() throws Exception {
+        when(businessPackageMatcher.isBusinessClass(eq("order-web"), eq("com.dyyl.order.OrderService"))).thenReturn(true);
+        when(pipeline.submitParsed(any(), any()))
+                .thenReturn(new CompletableFuture<>())
+                .thenReturn(CompletableFuture.failedFuture(new RejectedExecutionException("full")));
+
+        mockMvc.perform(post("/api/log-analysis/records")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[" + RECORD + "," + RECORD + "]"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.accepted").value(1))
+                .andExpect(jsonPath("$.rejected").value(1));
+
+        ArgumentCaptor<LogRecord> captor = ArgumentCaptor.forClass(LogRecord.class);
+        verify(pipeline, times(2)).submitParsed(captor.capture(), any());
+        LogRecord record = captor.getAllValues().get(0);
+        assertEquals("3f9c2ab", record.getVersion());
+        assertEquals("java.lang.NullPointerException", record.getExceptionClass());
+        assertEquals(1, record.getCauses().size());
+        assertTrue(record.getStackFrames().get(0).isBusinessFlag());
+        assertFalse(record.getStackFrames().get(1).isBusinessFlag());
+        assertEquals(102, record.getStackFrames().get(0).getLineNumber());
+    }
+
+    @Test
+    void ingest_NormalizesMissingFrameNames() throws Exception {
+        when(pipeline.submitParsed(any(), any())).thenReturn(new CompletableFuture<>());
+
+        mockMvc.perform(post("/api/log-analysis/records")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                [{"exceptionClass":"java.lang.NullPointerException",
+                                  "stackFrames":[{"lineNumber":7}, null, {"className":"com.dyyl.order.OrderService"}]}]
+                                """))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.accepted").value(1));
+
+        ArgumentCaptor<LogRecord> captor = ArgumentCaptor.forClass(LogRecord.class);
+        verify(pipeline).submitParsed(captor.capture(), any());
+        List<StackFrame> frames = captor.getValue().getStackFrames();
+        assertEquals(2, frames.size(), "null frames should be dropped");
+        assertEquals("", frames.get(0).getClassName());
+        assertEquals("", frames.get(0).getMethodName());
+        assertEquals("com.dyyl.order.OrderService", frames.get(1).getClassName());
+        assertEquals("", frames.get(1).getMethodName());
+    }
+}
@@ -0,0 +1,57 @@
+package com.lllkkk.ai.agent.modules.log.handle.controller;
+
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.LogRecord;
+import com.lllkkk.ai.agent.modules.log.handle.domain.service.search.AnalysisSearchIndex;
+import com.lllkkk.ai.agent.modules.log.handle.domain.service.search.SearchHit;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(SearchController.class)
+class SearchControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private AnalysisSearchIndex index;
+
+    @Test
+    void search_PassesFiltersAndReturnsRankedHits() throws Exception {
+        long from = LogRecord.parseTimestamp("2025-09-27 10:00:00");
+        SearchHit hit = new SearchHit("r1", "order-web", "java.lang.NullPointerException", "库存为空",
+                "com.dyyl.order.OrderService.submit:102", from, "库存服务返回空对象", "空指针", "判空", false, 2.5);
+        when(index.search("npe", "order-web", from, 1758960000000L, 100))
+                .thenReturn(new AnalysisSearchIndex.Result(7, true, List.of(hit)));
+
+        mockMvc.perform(get("/api/log-analysis/search")
+                        .param("q", "npe")
+                        .param("project", "order-web")
+                        .param("from", "2025-09-27 10:00:00")
+                        .param("to", "1758960000000")
+                        .param("limit", "500"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(7))
+                .andExpect(jsonPath("$.hits[0].recordId").value("r1"))
+                .andExpect(jsonPath("$.hits[0].rootCause").value("库存服务返回空对象"))
+                .andExpect(jsonPath("$.hits[0].score").value(2.5));
+    }
+
+    @Test
+    void search_RejectsMalformedTime() throws Exception {
+        mockMvc.perform(get("/api/log-analysis/search").param("q", "npe").param("from", "yesterday"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.success").value(false));
+        verifyNoInteractions(index);
+    }
+}
@@ -0,0 +1,132 @@
+package com.lllkkk.ai.agent.modules.log.handle.domain.service.hotspot;
+
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.LogRecord;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.StackFrame;
+import com.lllkkk.ai.agent.modules.log.handle.infrastructure.config.HeavyHitterConfig;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HeavyHitterTrackerTest {
+
+    private static final long MINUTE = 60_000;
+
+    private final AtomicLong now = new AtomicLong(100 * 5 * MINUTE);
+
+    @Test
+    void testSketch_NeverUnderestimates() {
+        CountMinSketch sketch = new CountMinSketch(4, 256);
+        for (int key = 0; key < 2000; key++) {
+            for (int i = 0; i <= key % 7; i++) {
+                sketch.add(key * 0x9e3779b97f4a7c15L);
+            }
+        }
+
+        for (int key = 0; key < 2000; key++) {
+            assertTrue(sketch.estimate(key * 0x9e3779b97f4a7c15L) >= key % 7 + 1);
+        }
+        sketch.clear();
+        assertEquals(0, sketch.total());
+        assertEquals(0, sketch.estimate(42L));
+    }
+
+    @Test
+    void testTopK_KeepsHeaviestUnderManyDistinctExceptions() {
+        HeavyHitterConfig config = new HeavyHitterConfig();
+        config.setTopK(5);
+        HeavyHitterTracker tracker = new HeavyHitterTracker(config, now::get);
+
+        for (int i = 0; i < 300; i++) {
+            tracker.observe(record("order-web", "OrderService", "create"));
+            tracker.observe(record("order-web", "NoiseService", "m" + i));
+            if (i % 3 == 0) {
+                tracker.observe(record("pay-gateway", "PaymentService", "pay"));
+            }
+        }
+
+        HeavyHitterTracker.Snapshot snapshot = tracker.snapshot(null, 10);
+        assertTrue(tracker.snapshot("order-web", 10).hitters().size() <= 5);
+        assertEquals(700, snapshot.total());
+        HeavyHitter top = snapshot.hitters().get(0);
+        assertEquals("order-web", top.project());
+        assertTrue(top.count() >= 300);
+        assertEquals("java.lang.IllegalStateException", top.exceptionClass());
+        assertEquals(HeavyHitter.Trend.NEW, top.trend());
+        assertEquals("pay-gateway", tracker.snapshot("pay-gateway", 10).hitters().get(0).project());
+    }
+
+    @Test
+    void testTopK_NoisyProjectDoesNotEvictOtherProjects() {
+        HeavyHitterConfig config = new HeavyHitterConfig();
+        config.setTopK(3);
+        config.setMaxProjects(2);
+        HeavyHitterTracker tracker = new HeavyHitterTracker(config, now::get);
+
+        tracker.observe(record("pay-gateway", "PaymentService", "pay"));
+        for (int i = 0; i < 50; i++) {
+            for (int j = 0; j < 10; j++) {
+                tracker.observe(record("order-web", "NoiseService", "m" + j));
+            }
+        }
+        // 项目数已满，只出现一次的新项目不挤掉已有项目
+        tracker.observe(record("user-center", "UserService", "login"));
+
+        assertEquals(3, tracker.snapshot("order-web", 10).hitters().size());
+        assertEquals(1, tracker.snapshot("pay-gateway", 10).hitters().size());
+        assertTrue(tracker.snapshot("user-center", 10).hitters().isEmpty());
+
+        // 新项目的次数超过峰值最低的项目后将其淘汰
+        tracker.observe(record("user-center", "UserService", "login"));
+        assertEquals(1, tracker.snapshot("user-center", 10).hitters().size());
+        assertTrue(tracker.snapshot("pay-gateway", 10).hitters().isEmpty());
+        assertEquals(3, tracker.snapshot("order-web", 10).hitters().size());
+    }
+
+    @Test
+    void testWindowRotation_ComputesTrend() {
+        HeavyHitterTracker tracker = new HeavyHitterTracker(new HeavyHitterConfig(), now::get);
+        for (int i = 0; i < 10; i++) {
+            tracker.observe(record("order-web", "OrderService", "create"));
+            tracker.observe(record("order-web", "StockService", "deduct"));
+        }
+
+        // 下一窗口过半：OrderService 40 次（折算 80，远超上一窗口 10 次），StockService 4 次（折算 8）
+        now.addAndGet(5 * MINUTE + 150_000);
+        for (int i = 0; i < 40; i++) {
+            tracker.observe(record("order-web", "OrderService", "create"));
+        }
+        for (int i = 0; i < 4; i++) {
+            tracker.observe(record("order-web", "StockService", "deduct"));
+        }
+        List<HeavyHitter> hitters = tracker.snapshot("order-web", 10).hitters();
+
+        assertEquals(HeavyHitter.Trend.RISING, hitters.get(0).trend());
+        assertEquals(10, hitters.get(0).previousCount());
+        assertEquals(HeavyHitter.Trend.STEADY, hitters.get(1).trend());
+
+        // 空窗口之后不再有上一窗口的数据
+        now.addAndGet(15 * MINUTE);
+        assertTrue(tracker.snapshot(null, 10).hitters().isEmpty());
+        assertEquals(0, tracker.snapshot(null, 10).previousTotal());
+    }
+
+    @Test
+    void testTrendThresholds() {
+        assertEquals(HeavyHitter.Trend.NEW, HeavyHitterTracker.trend(5, 0));
+        assertEquals(HeavyHitter.Trend.RISING, HeavyHitterTracker.trend(15, 10));
+        assertEquals(HeavyHitter.Trend.STEADY, HeavyHitterTracker.trend(10, 10));
+        assertEquals(HeavyHitter.Trend.FALLING, HeavyHitterTracker.trend(6, 10));
+    }
+
+    private static LogRecord record(String project, String service, String method) {
+        return LogRecord.builder()
+                .projectName(project)
+                .exceptionClass("java.lang.IllegalStateException")
+                .exceptionMessage("failed in " + method)
+                .stackFrames(List.of(new StackFrame(null, "com.dyyl." + service, method, 10, true)))
+                .build();
+    }
+}
@@ -0,0 +1,159 @@
+package com.lllkkk.ai.agent.modules.log.handle.domain.service.impl;
+
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.AnalysisResult;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.Deadline;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.LogRecord;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.StackFrame;
+import com.lllkkk.ai.agent.modules.log.handle.domain.service.AIAnalyzer;
+import com.lllkkk.ai.agent.modules.log.handle.infrastructure.config.AnalysisReuseConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnalyzerChainTest {
+
+    private final AtomicInteger aiCalls = new AtomicInteger();
+    private SimilarityReuseLink reuseLink;
+    private AnalyzerChain chain;
+
+    @BeforeEach
+    void setUp() {
+        reuseLink = new SimilarityReuseLink(new AnalysisReuseConfig());
+        chain = new AnalyzerChain(List.of(reuseLink), record -> {
+            aiCalls.incrementAndGet();
+            return AnalysisResult.builder()
+                    .rootCause("订单为空")
+                    .summary("NPE")
+                    .degraded("down".equals(record.getExceptionMessage()))
+                    .build();
+        });
+    }
+
+    @Test
+    void testReusesPreviousAnalysis() {
+        AnalysisResult first = chain.analyze(record("order is null", 10));
+        AnalysisResult second = chain.analyze(record("order is null", 42));
+
+        assertEquals(1, aiCalls.get());
+        assertNull(first.getMatchScore());
+        assertEquals("订单为空", second.getRootCause());
+        assertEquals(1.0, second.getMatchScore());
+        assertNull(first.getMatchScore(), "复用时不应修改已缓存的结果");
+    }
+
+    @Test
+    void testDegradedResultNotIndexed() {
+        chain.analyze(record("down", 10));
+        chain.analyze(record("down", 10));
+
+        assertEquals(2, aiCalls.get());
+        assertEquals(0, reuseLink.indexedCount());
+    }
+
+    @Test
+    void testDisabledReuse() {
+        AnalysisReuseConfig config = new AnalysisReuseConfig();
+        config.setEnabled(false);
+        AnalyzerChain disabled = new AnalyzerChain(List.of(new SimilarityReuseLink(config)), record -> {
+            aiCalls.incrementAndGet();
+            return AnalysisResult.builder().rootCause("x").build();
+        });
+
+        disabled.analyze(record("order is null", 10));
+        disabled.analyze(record("order is null", 10));
+        assertEquals(2, aiCalls.get());
+    }
+
+    @Test
+    void testAnalyzeAll_SendsOnlyUnresolvedRecordsToTerminalInOneBatch() {
+        List<Integer> batches = new ArrayList<>();
+        AnalyzerChain batching = new AnalyzerChain(List.of(reuseLink), new AIAnalyzer() {
+            @Override
+            public AnalysisResult analyze(LogRecord record) {
+                throw new AssertionError("应批量分析");
+            }
+
+            @Override
+            public List<AnalysisResult> analyzeAll(List<LogRecord> records, Deadline deadline) {
+                batches.add(records.size());
+                return records.stream()
+                        .map(record -> AnalysisResult.builder().rootCause("批量:" + record.getExceptionMessage()).build())
+                        .toList();
+            }
+        });
+        chain.analyze(record("order is null", 10));
+
+        LogRecord stock = record("stock missing", 77);
+        stock.setExceptionClass("java.lang.IllegalStateException");
+        LogRecord user = record("user missing", 99);
+        user.setExceptionClass("java.util.NoSuchElementException");
+
+        List<AnalysisResult> results = batching.analyzeAll(List.of(record("order is null", 10), stock, user),
+                Deadline.none());
+
+        assertEquals(List.of(2), batches);
+        assertEquals("订单为空", results.get(0).getRootCause());
+        assertEquals("批量:stock missing", results.get(1).getRootCause());
+        assertEquals("批量:user missing", results.get(2).getRootCause());
+        assertEquals(1.0, batching.analyze(user).getMatchScore(), "批量结果也应回调给前面的环节");
+    }
+
+    @Test
+    void testConcurrentSameSignature_AnalyzedOnce() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        // 不带复用环节，第二个请求只能通过合并拿到结果
+        AnalyzerChain coalescing = new AnalyzerChain(List.of(), record -> {
+            aiCalls.incrementAndGet();
+            entered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return AnalysisResult.builder().rootCause("订单为空").build();
+        });
+
+        CompletableFuture<AnalysisResult> first = CompletableFuture.supplyAsync(
+                () -> coalescing.analyze(record("order is null", 10)));
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+        AtomicReference<AnalysisResult> second = new AtomicReference<>();
+        Thread joiner = new Thread(() -> second.set(coalescing.analyze(record("order is null", 42))));
+        joiner.start();
+        while (joiner.getState() != Thread.State.WAITING) {
+            Thread.sleep(5);
+        }
+        release.countDown();
+        joiner.join(5000);
+
+        assertEquals(1, aiCalls.get());
+        assertEquals("订单为空", first.get(5, TimeUnit.SECONDS).getRootCause());
+        assertSame(first.get(), second.get());
+        // 消息不同的异常签名不同，不合并
+        assertEquals("订单为空", coalescing.analyze(record("stock missing", 10)).getRootCause());
+        assertEquals(2, aiCalls.get());
+    }
+
+    private static LogRecord record(String message, int line) {
+        return LogRecord.builder()
+                .projectName("order-web")
+                .exceptionClass("java.lang.NullPointerException")
+                .exceptionMessage(message)
+                .stackFrames(List.of(StackFrame.builder()
+                        .className("com.dyyl.order.OrderService")
+                        .methodName("create")
+                        .lineNumber(line)
+                        .businessFlag(true)
+                        .build()))
+                .build();
+    }
+}
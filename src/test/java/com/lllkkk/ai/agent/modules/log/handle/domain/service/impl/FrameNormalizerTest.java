@@ -0,0 +1,160 @@
+package com.lllkkk.ai.agent.modules.log.handle.domain.service.impl;
+
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.LogRecord;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.StackFrame;
+import com.lllkkk.ai.agent.modules.log.handle.domain.service.similarity.ExceptionSignature;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FrameNormalizerTest {
+
+    private static final Predicate<StackFrame> BUSINESS = frame -> frame.getClassName().startsWith("com.dyyl.");
+
+    private final FrameNormalizer normalizer = new FrameNormalizer();
+
+    @Test
+    void testNormalize_CollapsesFrameworkRunsAndKeepsBoundaries() {
+        List<StackFrame> frames = List.of(
+                frame("java.util.Objects", "requireNonNull", 233),
+                frame("com.dyyl.order.OrderService", "create", 40),
+                frame("com.dyyl.order.OrderService$$SpringCGLIB$$0", "create", -1),
+                frame("org.springframework.aop.framework.ReflectiveMethodInvocation", "proceed", 186),
+                frame("jdk.internal.reflect.DirectMethodHandleAccessor", "invoke", 103),
+                frame("java.lang.reflect.Method", "invoke", 580),
+                frame("org.springframework.aop.support.AopUtils", "invokeJoinpointUsingReflection", 359),
+                frame("com.dyyl.order.OrderController", "submit", 21),
+                frame("jdk.internal.reflect.DirectMethodHandleAccessor", "invoke", 103),
+                frame("org.springframework.web.method.support.InvocableHandlerMethod", "doInvoke", 255),
+                frame("org.apache.catalina.core.ApplicationFilterChain", "doFilter", 138),
+                frame("org.apache.tomcat.util.threads.TaskThread$WrappingRunnable", "run", 61));
+
+        List<StackFrame> result = normalizer.normalize(frames, BUSINESS);
+
+        assertEquals(List.of(
+                "java.util.Objects.requireNonNull",
+                "com.dyyl.order.OrderService.create",
+                "[5] 代理 ×1, AOP ×2, 反射 ×2",
+                "com.dyyl.order.OrderController.submit",
+                "[4] 反射 ×1, org.springframework.web ×1, org.apache.catalina ×1, org.apache.tomcat ×1"),
+                describe(result));
+    }
+
+    @Test
+    void testNormalize_KeepsNonNoiseBoundaryFrames() {
+        List<StackFrame> frames = List.of(
+                frame("com.dyyl.order.OrderService", "create", 40),
+                frame("java.util.ArrayList", "forEach", 1596),
+                frame("java.util.stream.ReferencePipeline", "forEach", 1),
+                frame("java.util.stream.AbstractPipeline", "copyInto", 2),
+                frame("com.dyyl.order.OrderJob", "run", 12));
+
+        List<StackFrame> result = normalizer.normalize(frames, BUSINESS);
+
+        assertEquals(List.of(
+                "com.dyyl.order.OrderService.create",
+                "java.util.ArrayList.forEach",
+                "[1] java.util.stream ×1",
+                "java.util.stream.AbstractPipeline.copyInto",
+                "com.dyyl.order.OrderJob.run"), describe(result));
+    }
+
+    @Test
+    void testNormalize_FoldsRecursion() {
+        List<StackFrame> frames = new ArrayList<>();
+        frames.add(frame("java.util.HashMap", "get", 556));
+        for (int i = 0; i < 50; i++) {
+            frames.add(frame("com.dyyl.org.TreeService", "walk", 31));
+        }
+        for (int i = 0; i < 10; i++) {
+            frames.add(frame("com.dyyl.org.Node", "visit", 12));
+            frames.add(frame("com.dyyl.org.Visitor", "accept", 8));
+        }
+        frames.add(frame("com.dyyl.org.TreeController", "tree", 5));
+
+        List<StackFrame> result = normalizer.normalize(frames, BUSINESS);
+
+        assertEquals(List.of(
+                "java.util.HashMap.get",
+                "com.dyyl.org.TreeService.walk ×50",
+                "com.dyyl.org.Node.visit ×10",
+                "com.dyyl.org.Visitor.accept ×10",
+                "com.dyyl.org.TreeController.tree"), describe(result));
+    }
+
+    @Test
+    void testNormalize_NoBusinessFrames_KeepsThrowSite() {
+        List<StackFrame> frames = List.of(
+                frame("java.net.SocketInputStream", "read", 1),
+                frame("com.zaxxer.hikari.pool.HikariPool", "getConnection", 2),
+                frame("org.apache.ibatis.executor.BaseExecutor", "query", 3));
+
+        assertEquals(List.of("java.net.SocketInputStream.read", "[2] com.zaxxer.hikari ×1, org.apache.ibatis ×1"),
+                describe(normalizer.normalize(frames, BUSINESS)));
+    }
+
+    @Test
+    void testLogFilter_UsesNormalizerWhenEnabled() {
+        LogRecord record = LogRecord.builder()
+                .projectName("order-web")
+                .stackFrames(List.of(
+                        frame("java.util.Objects", "requireNonNull", 233),
+                        frame("org.springframework.aop.framework.ReflectiveMethodInvocation", "proceed", 186),
+                        frame("com.dyyl.order.OrderService", "create", 40)))
+                .build();
+
+        new LogFilterImpl(TrieBusinessPackageMatcher.withDefaults(), true).filter(record);
+
+        assertEquals(List.of("java.util.Objects.requireNonNull", "[1] AOP ×1", "com.dyyl.order.OrderService.create"),
+                describe(record.getStackFrames()));
+    }
+
+    @Test
+    void testLogFilter_FilteringNormalizedRecordAgainIsNoOp() {
+        LogRecord record = LogRecord.builder()
+                .projectName("order-web")
+                .exceptionClass("java.lang.NullPointerException")
+                .stackFrames(List.of(
+                        frame("com.dyyl.order.OrderService", "create", 40),
+                        frame("com.dyyl.order.OrderService", "create", 40),
+                        frame("com.dyyl.order.OrderController", "submit", 21),
+                        frame("org.springframework.web.method.support.InvocableHandlerMethod", "doInvoke", 255),
+                        frame("org.apache.catalina.core.ApplicationFilterChain", "doFilter", 138),
+                        frame("org.apache.tomcat.websocket.server.WsFilter", "doFilter", 53),
+                        frame("org.springframework.web.servlet.DispatcherServlet", "doService", 1040),
+                        frame("com.dyyl.order.OrderGateway", "dispatch", 12)))
+                .build();
+        LogFilterImpl filter = new LogFilterImpl(TrieBusinessPackageMatcher.withDefaults(), true);
+
+        filter.filter(record);
+        List<String> once = describe(record.getStackFrames());
+        String fingerprint = ExceptionSignature.of(record).fingerprint();
+        // 转发到负责节点后再次过滤
+        filter.filter(record);
+
+        assertEquals(List.of("com.dyyl.order.OrderService.create ×2", "com.dyyl.order.OrderController.submit",
+                "org.springframework.web.method.support.InvocableHandlerMethod.doInvoke",
+                "[2] org.apache.catalina ×1, org.apache.tomcat ×1",
+                "org.springframework.web.servlet.DispatcherServlet.doService",
+                "com.dyyl.order.OrderGateway.dispatch"), once);
+        assertEquals(once, describe(record.getStackFrames()));
+        assertEquals(fingerprint, ExceptionSignature.of(record).fingerprint());
+    }
+
+    private static StackFrame frame(String className, String methodName, int line) {
+        return new StackFrame(null, className, methodName, line, className.startsWith("com.dyyl."));
+    }
+
+    private static List<String> describe(List<StackFrame> frames) {
+        return frames.stream()
+                .map(frame -> frame.isCollapsed()
+                        ? "[" + frame.getCollapsedFrames() + "] " + frame.getClassName()
+                        : frame.getClassName() + "." + frame.getMethodName()
+                        + (frame.getRepeatCount() > 1 ? " ×" + frame.getRepeatCount() : ""))
+                .toList();
+    }
+}
@@ -0,0 +1,180 @@
+package com.lllkkk.ai.agent.modules.log.handle.domain.service.impl;
+
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.AnalysisResult;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.CodeSnippet;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.Deadline;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.DegradeReason;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.LogRecord;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.StackFrame;
+import com.lllkkk.ai.agent.modules.log.handle.domain.service.CodeLocator;
+import com.lllkkk.ai.agent.modules.log.handle.domain.service.prompt.AnalysisPromptBuilder;
+import com.lllkkk.ai.agent.modules.log.handle.domain.service.prompt.CodeSnippetEnricher;
+import com.lllkkk.ai.agent.modules.log.handle.domain.service.prompt.ModelRouter;
+import com.lllkkk.ai.agent.modules.log.handle.infrastructure.client.ChatPrompt;
+import com.lllkkk.ai.agent.modules.log.handle.infrastructure.client.LLMClient;
+import com.lllkkk.ai.agent.modules.log.handle.infrastructure.config.DigestConfig;
+import com.lllkkk.ai.agent.modules.log.handle.infrastructure.config.LLMProviderConfig;
+import com.lllkkk.ai.agent.modules.log.handle.infrastructure.config.ModelRoutingConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class KimiAnalyzerImplTest {
+
+    private static final String ANSWER = "{\"rootCause\": \"订单为空\", \"summary\": \"NPE\", \"fixSuggestion\": \"判空\", \"relatedLocation\": \"x\"}";
+
+    private LLMClient llmClient;
+    private CodeLocator codeLocator;
+    private KimiAnalyzerImpl analyzer;
+
+    @BeforeEach
+    void setUp() {
+        llmClient = mock(LLMClient.class);
+        codeLocator = mock(CodeLocator.class);
+        analyzer = new KimiAnalyzerImpl(llmClient, new AnalysisPromptBuilder(), new CodeSnippetEnricher(codeLocator),
+                new ModelRouter(new ModelRoutingConfig(), new LLMProviderConfig()), new DigestConfig());
+    }
+
+    @Test
+    void testAnalyze_WithinBudget() {
+        when(codeLocator.locate(any(), any(), any())).thenReturn(Optional.empty());
+        when(llmClient.chat(any(ChatPrompt.class))).thenReturn(CompletableFuture.completedFuture(ANSWER));
+
+        AnalysisResult result = analyzer.analyze(record(), Deadline.after(Duration.ofSeconds(5)));
+
+        assertFalse(result.isDegraded());
+        assertEquals("订单为空", result.getRootCause());
+        assertEquals("simple", result.getModelTier());
+        ArgumentCaptor<ChatPrompt> prompt = ArgumentCaptor.forClass(ChatPrompt.class);
+        verify(llmClient).chat(prompt.capture());
+        assertEquals(600, prompt.getValue().getMaxTokens());
+        assertEquals(LLMProviderConfig.KIMI, prompt.getValue().getModelProvider());
+    }
+
+    @Test
+    void testAnalyze_UpstreamTooSlow_CancelsCallAndDegrades() {
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        when(codeLocator.locate(any(), any(), any())).thenReturn(Optional.empty());
+        when(llmClient.chat(any(ChatPrompt.class))).thenReturn(pending);
+
+        long start = System.nanoTime();
+        AnalysisResult result = analyzer.analyze(record(), Deadline.after(Duration.ofMillis(200)));
+
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 2000);
+        assertTrue(result.isDegraded());
+        assertEquals(DegradeReason.DEADLINE_EXCEEDED, result.getDegradedReason());
+        assertEquals("com.dyyl.order.OrderService.create:42", result.getRelatedLocation());
+        assertTrue(pending.isCancelled(), "超时后应取消上游请求");
+    }
+
+    @Test
+    void testAnalyze_SlowSnippetLookup_InterruptedWithinBudget() {
+        when(codeLocator.locate(any(), any(), any())).thenAnswer(invocation -> {
+            Thread.sleep(5000);
+            return Optional.<CodeSnippet>empty();
+        });
+
+        long start = System.nanoTime();
+        AnalysisResult result = analyzer.analyze(record(), Deadline.after(Duration.ofMillis(200)));
+
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 2000);
+        assertTrue(result.isDegraded());
+        assertEquals(DegradeReason.DEADLINE_EXCEEDED, result.getDegradedReason());
+        assertFalse(result.getRootCause().isEmpty());
+    }
+
+    @Test
+    void testAnalyzeAll_OneDigestCallWithPerItemFallback() {
+        when(codeLocator.locate(any(), any(), any())).thenReturn(Optional.empty());
+        // 摘要响应遗漏 #2，单条请求返回 ANSWER
+        when(llmClient.chat(any(ChatPrompt.class))).thenAnswer(invocation ->
+                CompletableFuture.completedFuture(answer(invocation.getArgument(0), "2")));
+
+        List<AnalysisResult> results = analyzer.analyzeAll(
+                List.of(record("order is null"), record("stock is null"), record("user is null")), Deadline.none());
+
+        ArgumentCaptor<ChatPrompt> prompts = ArgumentCaptor.forClass(ChatPrompt.class);
+        verify(llmClient, times(2)).chat(prompts.capture());
+        ChatPrompt digest = prompts.getAllValues().get(0);
+        assertEquals(900, digest.getMaxTokens());
+        assertTrue(digest.getMessages().get(1).getContent().contains("=== 异常 #3 ===\n项目: order-web"));
+        assertEquals("根因#1", results.get(0).getRootCause());
+        assertEquals("订单为空", results.get(1).getRootCause());
+        assertEquals("根因#3", results.get(2).getRootCause());
+        assertEquals("修复#3", results.get(2).getFixSuggestion());
+    }
+
+    @Test
+    void testAnalyzeAll_SplitsByItemLimitAndTokenBudget() {
+        DigestConfig config = new DigestConfig();
+        config.setMaxItemsPerCall(2);
+        KimiAnalyzerImpl limited = new KimiAnalyzerImpl(llmClient, new AnalysisPromptBuilder(),
+                new CodeSnippetEnricher(codeLocator), new ModelRouter(new ModelRoutingConfig(), new LLMProviderConfig()),
+                config);
+        when(codeLocator.locate(any(), any(), any())).thenReturn(Optional.empty());
+        when(llmClient.chat(any(ChatPrompt.class))).thenAnswer(invocation ->
+                CompletableFuture.completedFuture(answer(invocation.getArgument(0))));
+
+        List<AnalysisResult> results = limited.analyzeAll(List.of(record("a"), record("b"), record("c")), Deadline.none());
+        assertEquals(List.of("根因#1", "根因#2", "根因#3"), results.stream().map(AnalysisResult::getRootCause).toList());
+        verify(llmClient, times(2)).chat(any(ChatPrompt.class));
+
+        // 单条就超出预算的记录直接逐条分析
+        config.setMaxPromptTokens(100);
+        assertEquals("订单为空", limited.analyzeAll(List.of(record("a")), Deadline.none()).get(0).getRootCause());
+        verify(llmClient, times(3)).chat(any(ChatPrompt.class));
+    }
+
+    /**
+     * 摘要请求按编号返回 JSON 数组（跳过 skipped 中的编号），单条请求返回 ANSWER
+     */
+    private static String answer(ChatPrompt prompt, String... skipped) {
+        String user = prompt.getMessages().get(1).getContent();
+        if (!user.startsWith("=== 异常 #")) {
+            return ANSWER;
+        }
+        List<String> items = new ArrayList<>();
+        Matcher matcher = Pattern.compile("=== 异常 #(\\d+) ===").matcher(user);
+        while (matcher.find()) {
+            String id = matcher.group(1);
+            if (!List.of(skipped).contains(id)) {
+                items.add("{\"id\": \"" + id + "\", \"rootCause\": \"根因#" + id + "\", \"summary\": \"摘要\", "
+                        + "\"fixSuggestion\": \"修复#" + id + "\", \"relatedLocation\": \"x\"}");
+            }
+        }
+        return "分析如下:\n```json\n[" + String.join(",\n", items) + "]\n```";
+    }
+
+    private static LogRecord record() {
+        return record("order is null");
+    }
+
+    private static LogRecord record(String message) {
+        return LogRecord.builder()
+                .projectName("order-web")
+                .exceptionClass("java.lang.NullPointerException")
+                .exceptionMessage(message)
+                .stackFrames(List.of(StackFrame.builder()
+                        .className("com.dyyl.order.OrderService")
+                        .methodName("create")
+                        .lineNumber(42)
+                        .businessFlag(true)
+                        .build()))
+                .build();
+    }
+}
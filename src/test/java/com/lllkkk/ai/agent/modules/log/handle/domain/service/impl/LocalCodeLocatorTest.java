@@ -1,13 +1,26 @@
 package com.lllkkk.ai.agent.modules.log.handle.domain.service.impl;
 
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.CodeSnippet;
 import com.lllkkk.ai.agent.modules.log.handle.domain.model.StackFrame;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 /**
  * LocalCodeLocator 单元测试
@@ -129,4 +142,149 @@ class LocalCodeLocatorTest {
         // 应该返回空列表或者实际存在的代码（如果文件很大）
         assertNotNull(result);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testLocate_ReturnsEnclosingMethod(@TempDir Path projectRoot) throws IOException {
+        Path sourceFile = writeOrderService(projectRoot);
+        ReflectionTestUtils.setField(codeLocator, "projectPathMap", Map.of("order-web", projectRoot.toString()));
+
+        StackFrame frame = new StackFrame(null, "com.dyyl.order.OrderService", "submit", 7, true);
+        Optional<CodeSnippet> snippet = codeLocator.locate("order-web", frame);
+
+        assertTrue(snippet.isPresent());
+        assertEquals("submit", snippet.get().getMethodName());
+        assertEquals(5, snippet.get().getStartLine());
+        assertEquals(List.of(
+                "    public void submit(Long id) {",
+                "        if (id == null) {",
+                "            throw new IllegalArgumentException();",
+                "        }",
+                "    }"), snippet.get().getLines());
+
+        // 修改文件后，索引应按修改时间刷新
+        Files.writeString(sourceFile, Files.readString(sourceFile).replace(
+                "    public void submit(Long id) {", "    // moved\n    public void submit(Long id) {"));
+        Files.setLastModifiedTime(sourceFile, FileTime.fromMillis(System.currentTimeMillis() + 5000));
+        frame.setLineNumber(8);
+        snippet = codeLocator.locate("order-web", frame);
+        assertTrue(snippet.isPresent());
+        assertEquals(6, snippet.get().getStartLine());
+    }
+
+    @Test
+    void testLocate_CapsLongMethods(@TempDir Path projectRoot) throws IOException {
+        writeOrderService(projectRoot);
+        ReflectionTestUtils.setField(codeLocator, "projectPathMap", Map.of("order-web", projectRoot.toString()));
+        ReflectionTestUtils.setField(codeLocator, "maxMethodLines", 3);
+
+        StackFrame frame = new StackFrame(null, "com.dyyl.order.OrderService", "submit", 7, true);
+        CodeSnippet snippet = codeLocator.locate("order-web", frame).orElseThrow();
+
+        assertEquals(3, snippet.getLines().size());
+        assertTrue(snippet.getStartLine() <= 7 && snippet.getStartLine() + 2 >= 7, "Window should contain the failing line");
+    }
+
+    @Test
+    void testLocate_ReadsCommittedVersionFromGit(@TempDir Path projectRoot) throws Exception {
+        Path sourceFile = writeOrderService(projectRoot);
+        assumeTrue(git(projectRoot, "init", "-q") == 0, "未安装 git，跳过");
+        git(projectRoot, "add", "-A");
+        git(projectRoot, "-c", "user.name=dev", "-c", "user.email=dev@dyyl.com", "commit", "-q", "-m", "v1");
+        git(projectRoot, "tag", "v1");
+        // 工作目录已领先于出错的版本
+        Files.writeString(sourceFile, Files.readString(sourceFile).replace(
+                "    public void submit(Long id) {", "    // moved\n    public void submit(Long id) {"));
+        ReflectionTestUtils.setField(codeLocator, "projectPathMap", Map.of("order-web", projectRoot.toString()));
+
+        StackFrame frame = new StackFrame(null, "com.dyyl.order.OrderService", "submit", 7, true);
+        CodeSnippet committed = codeLocator.locate("order-web", "v1", frame).orElseThrow();
+        CodeSnippet working = codeLocator.locate("order-web", null, frame).orElseThrow();
+        CodeSnippet unknownVersion = codeLocator.locate("order-web", "no-such-tag", frame).orElseThrow();
+
+        assertEquals(5, committed.getStartLine());
+        assertEquals("submit", committed.getMethodName());
+        assertTrue(committed.getFilePath().startsWith("src/main/java/com/dyyl/order/OrderService.java@"));
+        assertEquals(6, working.getStartLine());
+        assertEquals(6, unknownVersion.getStartLine(), "Unknown versions should fall back to the working tree");
+    }
+
+    private static int git(Path dir, String... args) throws InterruptedException {
+        List<String> command = new ArrayList<>(List.of("git"));
+        command.addAll(List.of(args));
+        try {
+            return new ProcessBuilder(command).directory(dir.toFile()).redirectErrorStream(true)
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD).start().waitFor();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private Path writeOrderService(Path projectRoot) throws IOException {
+        Path dir = Files.createDirectories(projectRoot.resolve("src/main/java/com/dyyl/order"));
+        return Files.writeString(dir.resolve("OrderService.java"), """
+                package com.dyyl.order;
+
+                public class OrderService {
+
+                    public void submit(Long id) {
+                        if (id == null) {
+                            throw new IllegalArgumentException();
+                        }
+                    }
+
+                    public void cancel(Long id) {
+                    }
+                }
+                """);
+    }
+
+    @Test
+    void testLocate_FromSourcesJar(@TempDir Path tempDir) throws IOException {
+        Path jar = writeMoneySourcesJar(tempDir);
+        ReflectionTestUtils.setField(codeLocator, "sourceJars", List.of(jar.toString()));
+        codeLocator.indexSourceArchives();
+
+        StackFrame frame = new StackFrame(null, "com.dyyl.common.Money", "cents", 5, true);
+        CodeSnippet snippet = codeLocator.locate("shared-lib-user", frame).orElseThrow();
+
+        assertEquals("cents", snippet.getMethodName());
+        assertEquals(4, snippet.getStartLine());
+        assertEquals(3, snippet.getLines().size());
+        assertTrue(snippet.getFilePath().endsWith("!/com/dyyl/common/Money.java"));
+        codeLocator.close();
+    }
+
+    @Test
+    void testWarmUp_IndexesSourceJarsWhenNotIndexedOnStartup(@TempDir Path tempDir) throws IOException {
+        Path jar = writeMoneySourcesJar(tempDir);
+        ReflectionTestUtils.setField(codeLocator, "pathFile", tempDir.resolve("missing.json").toString());
+        ReflectionTestUtils.setField(codeLocator, "indexOnStartup", false);
+        ReflectionTestUtils.setField(codeLocator, "sourceJars", List.of(jar.toString()));
+        codeLocator.loadProjectPaths();
+
+        codeLocator.warmUp().join();
+
+        StackFrame frame = new StackFrame(null, "com.dyyl.common.Money", "cents", 5, true);
+        CodeSnippet snippet = codeLocator.locate("shared-lib-user", frame).orElseThrow();
+        assertEquals("cents", snippet.getMethodName());
+        codeLocator.close();
+    }
+
+    private Path writeMoneySourcesJar(Path tempDir) throws IOException {
+        Path jar = tempDir.resolve("common-1.0-sources.jar");
+        try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(jar))) {
+            zip.putNextEntry(new ZipEntry("com/dyyl/common/Money.java"));
+            zip.write("""
+                    package com.dyyl.common;
+
+                    public class Money {
+                        public long cents(Long value) {
+                            return value * 100;
+                        }
+                    }
+                    """.getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+        return jar;
+    }
+}
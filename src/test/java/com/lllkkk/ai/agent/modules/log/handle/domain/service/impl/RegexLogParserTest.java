@@ -1,9 +1,11 @@
 package com.lllkkk.ai.agent.modules.log.handle.domain.service.impl;
 
 import com.lllkkk.ai.agent.modules.log.handle.domain.model.LogRecord;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.RawLogRetention;
 import com.lllkkk.ai.agent.modules.log.handle.domain.model.StackFrame;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.List;
 
@@ -23,6 +25,7 @@ class RegexLogParserTest {
         // Arrange
         String rawLog = """
                 异常项目: order-web
+                代码版本: 3f9c2ab
                 IP地址: 172.22.1.15
                 异常级别: ERROR
                 异常来源: com.dyyl.order.controller.YlMeetingSignController
@@ -38,8 +41,11 @@ class RegexLogParserTest {
 
         // Assert
         assertNotNull(result);
-        assertEquals("2025-09-27 15:48:12", result.timestamp);
+        assertEquals(LogRecord.parseTimestamp("2025-09-27 15:48:12"), result.timestamp);
+        assertEquals("2025-09-27 15:48:12", result.getTimestampText());
+        assertNull(result.rawLog, "Raw log should be dropped by default");
         assertEquals("ERROR", result.level);
+        assertEquals("3f9c2ab", result.version);
         assertEquals("java.lang.NullPointerException", result.exceptionClass);
         assertEquals("", result.exceptionMessage);
 
@@ -68,4 +74,88 @@ class RegexLogParserTest {
         assertEquals(842, lastFrame.lineNumber);
         assertFalse(lastFrame.businessFlag, "Last frame should not be business code");
     }
+
+    @Test
+    void testParse_CompressedRawLogRetention() {
+        // Arrange
+        ReflectionTestUtils.setField(regexLogParser, "rawLogRetention", RawLogRetention.COMPRESSED);
+        String rawLog = """
+                异常项目: order-web
+                异常级别: ERROR
+                异常时间: 2025-09-27 15:48:12
+                异常描述: java.lang.IllegalStateException: 订单状态异常
+                详细信息:
+                 [com.dyyl.order.service.OrderServiceImpl.submit(OrderServiceImpl.java:88)]
+                """;
+
+        // Act
+        LogRecord result = regexLogParser.parse(rawLog);
+
+        // Assert
+        assertNotNull(result.rawLog);
+        assertEquals(rawLog, result.getRawLogText());
+        assertEquals("订单状态异常", result.exceptionMessage);
+    }
+
+    @Test
+    void testParse_MissingTimestamp() {
+        LogRecord result = regexLogParser.parse("异常描述: java.lang.NullPointerException");
+
+        assertEquals(LogRecord.UNKNOWN_TIMESTAMP, result.timestamp);
+        assertNull(result.getTimestampText());
+    }
+
+    @Test
+    void testParse_CauseChain() {
+        String rawLog = """
+                异常项目: order-web
+                异常级别: ERROR
+                异常描述: org.springframework.dao.DataIntegrityViolationException: could not execute statement; nested exception is org.hibernate.exception.ConstraintViolationException: could not execute statement
+                Caused by: java.sql.SQLIntegrityConstraintViolationException: Duplicate entry '42' for key 'PRIMARY'
+                详细信息:
+                 [com.dyyl.order.OrderService.create(OrderService.java:42)]
+                """;
+
+        LogRecord result = regexLogParser.parse(rawLog);
+
+        assertEquals(List.of(
+                "org.hibernate.exception.ConstraintViolationException: could not execute statement",
+                "java.sql.SQLIntegrityConstraintViolationException: Duplicate entry '42' for key 'PRIMARY'"),
+                result.getCauses());
+        assertEquals(1, result.getStackFrames().size());
+    }
+
+    @Test
+    void testParse_TraceFields() {
+        String mdc = """
+                异常项目: order-web
+                异常描述: java.lang.IllegalStateException: 库存不足
+                日志内容: 扣减库存失败 traceId=4bf92f3577b34da6a3ce929d0e0e4736, spanId=00f067aa0ba902b7, parentSpanId=a2fb4a1d1a96d312
+                详细信息:
+                 [com.dyyl.order.OrderService.create(OrderService.java:42)]
+                """;
+        String b3 = """
+                异常描述: java.lang.IllegalStateException: 库存不足
+                请求头: {X-B3-TraceId: 80f198ee56343ba8, X-B3-ParentSpanId: 05e3ac9a4f6e3b90, X-B3-SpanId: e457b5a2e4d86bd1}
+                """;
+        String traceparent = """
+                异常描述: java.lang.IllegalStateException: 库存不足
+                traceparent: 00-0af7651916cd43dd8448eb211c80319c-b7ad6b7169203331-01
+                """;
+
+        LogRecord fromMdc = regexLogParser.parse(mdc);
+        LogRecord fromB3 = regexLogParser.parse(b3);
+        LogRecord fromTraceparent = regexLogParser.parse(traceparent);
+
+        assertEquals("4bf92f3577b34da6a3ce929d0e0e4736", fromMdc.getTraceId());
+        assertEquals("00f067aa0ba902b7", fromMdc.getSpanId());
+        assertEquals("a2fb4a1d1a96d312", fromMdc.getParentSpanId());
+        assertEquals("80f198ee56343ba8", fromB3.getTraceId());
+        assertEquals("e457b5a2e4d86bd1", fromB3.getSpanId());
+        assertEquals("05e3ac9a4f6e3b90", fromB3.getParentSpanId());
+        assertEquals("0af7651916cd43dd8448eb211c80319c", fromTraceparent.getTraceId());
+        assertEquals("b7ad6b7169203331", fromTraceparent.getParentSpanId());
+        assertNull(fromTraceparent.getSpanId());
+        assertNull(regexLogParser.parse("异常描述: java.lang.IllegalStateException: tid=12").getTraceId());
+    }
 }
@@ -0,0 +1,81 @@
+package com.lllkkk.ai.agent.modules.log.handle.domain.service.impl;
+
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.AnalysisResult;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.LogRecord;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.StackFrame;
+import com.lllkkk.ai.agent.modules.log.handle.domain.service.rule.AnalysisRule;
+import com.lllkkk.ai.agent.modules.log.handle.infrastructure.config.AnalysisRuleConfig;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RuleBasedAnalyzerTest {
+
+    private final RuleBasedAnalyzer analyzer = new RuleBasedAnalyzer(new AnalysisRuleConfig());
+
+    @Test
+    void testBundledRules_NpeOnGetter() {
+        Optional<AnalysisResult> result = analyzer.tryAnalyze(record("java.lang.NullPointerException",
+                "Cannot invoke \"String.length()\" because the return value of \"com.dyyl.user.User.getName()\" is null"));
+
+        assertTrue(result.isPresent());
+        assertEquals("npe-getter-returned-null", result.get().getRuleId());
+        assertEquals("com.dyyl.user.User.getName() 返回了 null，调用方未判空就继续调用其方法", result.get().getRootCause());
+        assertTrue(result.get().getFixSuggestion().startsWith("在 com.dyyl.order.OrderService.create:42 处"));
+        assertFalse(result.get().isDegraded());
+    }
+
+    @Test
+    void testBundledRules_PoolTimeoutAndIndexOutOfBounds() {
+        assertEquals("jdbc-pool-timeout", analyzer.tryAnalyze(record(
+                "org.springframework.jdbc.CannotGetJdbcConnectionException",
+                "Failed to obtain JDBC Connection; nested exception is java.sql.SQLTransientConnectionException: "
+                        + "HikariPool-1 - Connection is not available, request timed out after 30000ms."))
+                .orElseThrow().getRuleId());
+        assertEquals("java.lang.IndexOutOfBoundsException: 3 out of bounds for length 3", analyzer.tryAnalyze(record(
+                "java.lang.IndexOutOfBoundsException", "Index 3 out of bounds for length 3"))
+                .orElseThrow().getSummary());
+    }
+
+    @Test
+    void testLowConfidenceRuleAndUnknownException_Defer() {
+        // npe-null-local 可信度 0.7，低于默认阈值
+        assertTrue(analyzer.tryAnalyze(record("java.lang.NullPointerException",
+                "Cannot invoke \"com.dyyl.Order.getId()\" because \"order\" is null")).isEmpty());
+        assertTrue(analyzer.tryAnalyze(record("com.dyyl.BizException", "库存不足")).isEmpty());
+        assertEquals(2, analyzer.misses());
+    }
+
+    @Test
+    void testFramePatternAndHitMetrics() {
+        RuleBasedAnalyzer custom = new RuleBasedAnalyzer(List.of(AnalysisRule.builder()
+                .id("redis-timeout")
+                .exceptionClasses(List.of("io.lettuce.core.RedisCommandTimeoutException"))
+                .framePattern("^com\\.dyyl\\..*Cache\\.")
+                .confidence(1.0)
+                .rootCause("Redis 超时")
+                .summary("${exceptionClass}")
+                .fixSuggestion("检查 ${location}")
+                .build()), 0.8);
+
+        LogRecord viaCache = record("io.lettuce.core.RedisCommandTimeoutException", "Command timed out");
+        viaCache.getStackFrames().get(0).setClassName("com.dyyl.order.OrderCache");
+        LogRecord elsewhere = record("io.lettuce.core.RedisCommandTimeoutException", "Command timed out");
+
+        assertTrue(custom.tryAnalyze(viaCache).isPresent());
+        assertTrue(custom.tryAnalyze(viaCache).isPresent());
+        assertTrue(custom.tryAnalyze(elsewhere).isEmpty());
+        assertEquals(List.of(new RuleBasedAnalyzer.RuleStats("redis-timeout", 2)), custom.stats());
+    }
+
+    private static LogRecord record(String exceptionClass, String message) {
+        return LogRecord.builder()
+                .exceptionClass(exceptionClass)
+                .exceptionMessage(message)
+                .stackFrames(List.of(new StackFrame(null, "com.dyyl.order.OrderService", "create", 42, true)))
+                .build();
+    }
+}
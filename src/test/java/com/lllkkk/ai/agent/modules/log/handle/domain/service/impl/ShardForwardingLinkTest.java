@@ -0,0 +1,155 @@
+package com.lllkkk.ai.agent.modules.log.handle.domain.service.impl;
+
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.AnalysisResult;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.Deadline;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.LogRecord;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.StackFrame;
+import com.lllkkk.ai.agent.modules.log.handle.infrastructure.cluster.PeerClient;
+import com.lllkkk.ai.agent.modules.log.handle.infrastructure.cluster.ShardRouter;
+import com.lllkkk.ai.agent.modules.log.handle.infrastructure.config.ClusterConfig;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardForwardingLinkTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private HttpServer peer;
+    private final AtomicInteger forwarded = new AtomicInteger();
+    private final AtomicReference<String> deadlineHeader = new AtomicReference<>();
+    private final AtomicReference<LogRecord> received = new AtomicReference<>();
+
+    @BeforeEach
+    void startPeer() throws IOException {
+        peer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        peer.createContext(PeerClient.INTERNAL_ANALYZE_PATH, exchange -> {
+            forwarded.incrementAndGet();
+            deadlineHeader.set(exchange.getRequestHeaders().getFirst("X-Deadline-Ms"));
+            received.set(MAPPER.readValue(exchange.getRequestBody().readAllBytes(), LogRecord.class));
+            byte[] response = "{\"rootCause\":\"库存为空\",\"summary\":\"NPE\",\"degraded\":false}"
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, response.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(response);
+            }
+        });
+        peer.start();
+    }
+
+    @AfterEach
+    void stopPeer() {
+        peer.stop(0);
+    }
+
+    @Test
+    void testForwardsRecordsOwnedByPeer() {
+        ShardForwardingLink link = link("http://127.0.0.1:" + peer.getAddress().getPort());
+        ShardRouter router = router("http://127.0.0.1:" + peer.getAddress().getPort());
+        LogRecord ownedByPeer = findRecord(router, "node2");
+        LogRecord ownedBySelf = findRecord(router, "node1");
+
+        Optional<AnalysisResult> result = link.tryAnalyze(ownedByPeer, Deadline.after(Duration.ofSeconds(5)));
+
+        assertTrue(result.isPresent());
+        assertEquals("库存为空", result.get().getRootCause());
+        assertEquals("node2", result.get().getAnalyzedBy());
+        assertTrue(Long.parseLong(deadlineHeader.get()) <= 5000);
+        assertTrue(link.tryAnalyze(ownedBySelf, Deadline.none()).isEmpty());
+        ownedByPeer.setReceivedFromPeer(true);
+        assertTrue(link.tryAnalyze(ownedByPeer, Deadline.none()).isEmpty(), "转发来的记录不应再次转发");
+        assertEquals(1, forwarded.get());
+    }
+
+    @Test
+    void testForwardedRecordKeepsContextLines() {
+        ShardForwardingLink link = link("http://127.0.0.1:" + peer.getAddress().getPort());
+        LogRecord ownedByPeer = findRecord(router("http://127.0.0.1:" + peer.getAddress().getPort()), "node2");
+        List<String> context = List.of("10:00:01 INFO 扣减库存 sku=42", "10:00:02 WARN 库存缓存未命中");
+        ownedByPeer.setContextLines(context);
+
+        assertTrue(link.tryAnalyze(ownedByPeer, Deadline.after(Duration.ofSeconds(5))).isPresent());
+
+        assertEquals(context, received.get().getContextLines(), "负责节点应收到异常之前的日志行");
+    }
+
+    @Test
+    void testUnreachablePeer_FallsBackToLocal() {
+        peer.stop(0);
+        ShardForwardingLink link = link("http://127.0.0.1:" + peer.getAddress().getPort());
+        LogRecord ownedByPeer = findRecord(router("http://127.0.0.1:1"), "node2");
+
+        assertTrue(link.tryAnalyze(ownedByPeer, Deadline.after(Duration.ofSeconds(2))).isEmpty());
+    }
+
+    @Test
+    void testDisabledCluster_NeverForwards() {
+        ClusterConfig config = new ClusterConfig();
+        ShardForwardingLink link = new ShardForwardingLink(new ShardRouter(config), new PeerClient(config), config);
+
+        assertTrue(link.tryAnalyze(record(0)).isEmpty());
+        assertEquals(0, forwarded.get());
+    }
+
+    @Test
+    void testSelfNotInPeers_FailsFast() {
+        ClusterConfig config = config("http://127.0.0.1:1");
+        config.setSelfId("node9");
+
+        assertThrows(IllegalStateException.class, () -> new ShardRouter(config));
+    }
+
+    private static ShardForwardingLink link(String peerUrl) {
+        ClusterConfig config = config(peerUrl);
+        return new ShardForwardingLink(new ShardRouter(config), new PeerClient(config), config);
+    }
+
+    private static ShardRouter router(String peerUrl) {
+        return new ShardRouter(config(peerUrl));
+    }
+
+    private static ClusterConfig config(String peerUrl) {
+        ClusterConfig config = new ClusterConfig();
+        config.setEnabled(true);
+        config.setSelfId("node1");
+        config.getPeers().put("node1", "http://127.0.0.1:1");
+        config.getPeers().put("node2", peerUrl);
+        return config;
+    }
+
+    private static LogRecord findRecord(ShardRouter router, String owner) {
+        for (int i = 0; i < 1000; i++) {
+            LogRecord record = record(i);
+            if (router.ownerOf(record).equals(owner)) {
+                return record;
+            }
+        }
+        throw new AssertionError("未找到归属 " + owner + " 的记录");
+    }
+
+    private static LogRecord record(int variant) {
+        return LogRecord.builder()
+                .projectName("order-web")
+                .exceptionClass("java.lang.NullPointerException")
+                .exceptionMessage("stock is null")
+                .stackFrames(List.of(new StackFrame(null, "com.dyyl.stock.StockService" + variant, "deduct", 42, true)))
+                .build();
+    }
+}
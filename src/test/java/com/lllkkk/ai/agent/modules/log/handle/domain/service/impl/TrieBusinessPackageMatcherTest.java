@@ -0,0 +1,58 @@
+package com.lllkkk.ai.agent.modules.log.handle.domain.service.impl;
+
+import com.lllkkk.ai.agent.modules.log.handle.infrastructure.config.BusinessPackageConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrieBusinessPackageMatcherTest {
+
+    private TrieBusinessPackageMatcher matcher;
+
+    @BeforeEach
+    void setUp() {
+        BusinessPackageConfig config = new BusinessPackageConfig();
+        config.setProjects(Map.of(
+                "pay-web", List.of("com.acme.pay", "com.acme.common.money"),
+                "order-web", List.of("com.dyyl.order")));
+        config.setVerdictCacheSize(2);
+        matcher = new TrieBusinessPackageMatcher(config);
+    }
+
+    @Test
+    void testDefaultPackages_UsedForUnknownProject() {
+        assertTrue(matcher.isBusinessClass("unknown-web", "com.dyyl.order.OrderService"));
+        assertTrue(matcher.isBusinessClass(null, "com.wkb.user.UserService$Inner"));
+        assertFalse(matcher.isBusinessClass(null, "java.util.ArrayList"));
+    }
+
+    @Test
+    void testProjectPackages_OverrideDefaults() {
+        assertTrue(matcher.isBusinessClass("pay-web", "com.acme.pay.PayController"));
+        assertTrue(matcher.isBusinessClass("pay-web", "com.acme.common.money.Amount"));
+        assertFalse(matcher.isBusinessClass("pay-web", "com.acme.common.Util"));
+        assertFalse(matcher.isBusinessClass("pay-web", "com.dyyl.order.OrderService"));
+    }
+
+    @Test
+    void testMatchesWholeSegmentsOnly() {
+        assertFalse(matcher.isBusinessClass(null, "com.dyylx.Foo"));
+        assertFalse(matcher.isBusinessClass("order-web", "com.dyyl.orders.Foo"));
+        assertFalse(matcher.isBusinessClass("order-web", "com.dyyl"));
+        assertFalse(matcher.isBusinessClass(null, ""));
+        assertFalse(matcher.isBusinessClass(null, null));
+    }
+
+    @Test
+    void testVerdictCache_StaysConsistentPastCapacity() {
+        for (int i = 0; i < 10; i++) {
+            assertTrue(matcher.isBusinessClass("order-web", "com.dyyl.order.Service" + i));
+            assertFalse(matcher.isBusinessClass("order-web", "org.springframework.Bean" + i));
+        }
+        assertTrue(matcher.isBusinessClass("order-web", "com.dyyl.order.Service0"));
+    }
+}
@@ -0,0 +1,112 @@
+package com.lllkkk.ai.agent.modules.log.handle.domain.service.prompt;
+
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.CodeSnippet;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.LogRecord;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.StackFrame;
+import com.lllkkk.ai.agent.modules.log.handle.loadtest.Microbenchmark;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 提示词构建微基准：固定 system 消息 + 预编译模板 对比 原先逐行 String.format 拼接整段提示词。
+ * 默认构建不运行：./mvnw test -Pbenchmark -Dtest=AnalysisPromptBuilderBenchmarkTest
+ */
+@Slf4j
+@Tag("benchmark")
+class AnalysisPromptBuilderBenchmarkTest {
+
+    private static final int FRAMES = 5;
+    private static final int SNIPPET_LINES = 30;
+
+    @Test
+    void compareWithLegacyFormatting() {
+        LogRecord record = record();
+        List<CodeSnippet> snippets = snippets(record.getStackFrames());
+        AnalysisPromptBuilder builder = new AnalysisPromptBuilder();
+
+        Microbenchmark.Result legacy = Microbenchmark.run("legacy String.format", 20_000, 20_000,
+                () -> legacyPrompt(record, snippets));
+        Microbenchmark.Result current = Microbenchmark.run("system message + template", 20_000, 20_000,
+                () -> builder.build(record, snippets));
+
+        log.info("提示词构建（{} 帧 × {} 行片段）:\n{}\n{}", FRAMES, SNIPPET_LINES, legacy, current);
+        assertTrue(current.nanosPerOp() < legacy.nanosPerOp(), current + " vs " + legacy);
+    }
+
+    /**
+     * 拆分前 KimiAnalyzerImpl 中的提示词构建方式，作为对比基线
+     */
+    private static String legacyPrompt(LogRecord record, List<CodeSnippet> snippets) {
+        StringBuilder prompt = new StringBuilder();
+        prompt.append("你是一位Java异常分析专家，请分析以下异常日志并给出专业的诊断建议。\n\n");
+        prompt.append("=== 异常基本信息 ===\n");
+        prompt.append("时间戳: ").append(record.getTimestampText()).append("\n");
+        prompt.append("异常级别: ").append(record.getLevel()).append("\n");
+        prompt.append("异常类: ").append(record.getExceptionClass()).append("\n");
+        prompt.append("异常消息: ").append(record.getExceptionMessage()).append("\n\n");
+        prompt.append("=== 业务相关堆栈信息 ===\n");
+        for (int i = 0; i < Math.min(5, record.getStackFrames().size()); i++) {
+            StackFrame frame = record.getStackFrames().get(i);
+            prompt.append(String.format("%d. %s.%s(%s:%d)\n", i + 1, frame.getClassName(), frame.getMethodName(),
+                    frame.getClassName().substring(frame.getClassName().lastIndexOf('.') + 1), frame.getLineNumber()));
+            List<String> lines = snippets.get(i).getLines();
+            prompt.append("   相关代码片段:\n");
+            int startLine = snippets.get(i).getStartLine();
+            for (int j = 0; j < lines.size(); j++) {
+                int lineNum = startLine + j;
+                String marker = lineNum == frame.getLineNumber() ? ">" : " ";
+                prompt.append(String.format("   %s %4d: %s\n", marker, lineNum, lines.get(j).trim()));
+            }
+            prompt.append("\n");
+        }
+        prompt.append("=== 分析要求 ===\n");
+        prompt.append("1. 根因分析: 请分析导致此异常的根本原因\n");
+        prompt.append("2. 错误摘要: 用简洁的语言描述问题\n");
+        prompt.append("3. 修复建议: 提供具体的解决方案和代码修改建议\n");
+        prompt.append("4. 相关位置: 指出可能需要修改的代码位置\n\n");
+        prompt.append("请以以下JSON格式返回分析结果:\n");
+        prompt.append("{\n");
+        prompt.append("  \"rootCause\": \"根本原因\",\n");
+        prompt.append("  \"summary\": \"错误摘要\",\n");
+        prompt.append("  \"fixSuggestion\": \"修复建议\",\n");
+        prompt.append("  \"relatedLocation\": \"相关代码位置\"\n");
+        prompt.append("}\n");
+        return prompt.toString();
+    }
+
+    private static LogRecord record() {
+        List<StackFrame> frames = new ArrayList<>();
+        for (int i = 0; i < FRAMES; i++) {
+            frames.add(new StackFrame(null, "com.dyyl.order.service.OrderStep" + i, "execute", 100 + i, true));
+        }
+        return LogRecord.builder()
+                .timestamp(LogRecord.parseTimestamp("2025-09-27 15:48:12"))
+                .level("ERROR")
+                .exceptionClass("java.lang.IllegalStateException")
+                .exceptionMessage("订单状态不允许支付: orderId=20250927001")
+                .stackFrames(frames)
+                .build();
+    }
+
+    private static List<CodeSnippet> snippets(List<StackFrame> frames) {
+        List<CodeSnippet> snippets = new ArrayList<>();
+        for (StackFrame frame : frames) {
+            List<String> lines = new ArrayList<>();
+            for (int j = 0; j < SNIPPET_LINES; j++) {
+                lines.add("        if (order.getStatus() != OrderStatus.CREATED) { audit.log(order, " + j + "); }");
+            }
+            snippets.add(CodeSnippet.builder()
+                    .startLine(frame.getLineNumber() - SNIPPET_LINES / 2)
+                    .targetLine(frame.getLineNumber())
+                    .lines(lines)
+                    .build());
+        }
+        return snippets;
+    }
+}
@@ -0,0 +1,160 @@
+package com.lllkkk.ai.agent.modules.log.handle.domain.service.prompt;
+
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.CodeSnippet;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.LogRecord;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.StackFrame;
+import com.lllkkk.ai.agent.modules.log.handle.infrastructure.client.ChatPrompt;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnalysisPromptBuilderTest {
+
+    private final AnalysisPromptBuilder builder = new AnalysisPromptBuilder();
+
+    @Test
+    void testBuild_SystemMessageIsSharedAndUserMessageHoldsRecord() {
+        LogRecord record = LogRecord.builder()
+                .timestamp(LogRecord.parseTimestamp("2025-09-27 15:48:12"))
+                .level("ERROR")
+                .exceptionClass("java.lang.NullPointerException")
+                .exceptionMessage("userService is null")
+                .build();
+
+        ChatPrompt first = builder.build(record, List.of());
+        ChatPrompt second = builder.build(record, List.of());
+
+        assertSame(first.getMessages().get(0), second.getMessages().get(0), "System message should be built once");
+        assertEquals("system", first.getMessages().get(0).getRole());
+        assertTrue(first.getMessages().get(0).getContent().contains("\"relatedLocation\": \"相关代码位置\"\n}"));
+        assertEquals("""
+                === 异常基本信息 ===
+                时间戳: 2025-09-27 15:48:12
+                异常级别: ERROR
+                异常类: java.lang.NullPointerException
+                异常消息: userService is null
+
+                """, first.getMessages().get(1).getContent());
+    }
+
+    @Test
+    void testRenderUserMessage_FramesAndSnippets() {
+        StackFrame business = new StackFrame(null, "com.dyyl.order.OrderService", "submit", 102, true);
+        StackFrame framework = new StackFrame(null, "java.util.ArrayList", "forEach", 7, false);
+        LogRecord record = LogRecord.builder()
+                .level("ERROR")
+                .exceptionClass("java.lang.IllegalStateException")
+                .exceptionMessage("")
+                .stackFrames(List.of(business, framework))
+                .build();
+        CodeSnippet snippet = CodeSnippet.builder()
+                .startLine(100)
+                .targetLine(102)
+                .lines(List.of("    void submit() {", "        check();", "        order.pay();", "    }"))
+                .build();
+
+        String message = builder.renderUserMessage(record, Arrays.asList(snippet, null));
+
+        assertTrue(message.contains("""
+                === 业务相关堆栈信息 ===
+                1. com.dyyl.order.OrderService.submit(OrderService:102)
+                   相关代码片段:
+                      100: void submit() {
+                      101: check();
+                   >  102: order.pay();
+                      103: }
+
+                2. java.util.ArrayList.forEach(ArrayList:7)
+
+                """), message);
+        assertTrue(message.startsWith("=== 异常基本信息 ===\n时间戳: null\n"));
+    }
+
+    @Test
+    void testRenderUserMessage_CollapsedFramesAndRecursion() {
+        List<StackFrame> frames = List.of(
+                new StackFrame(null, "java.util.HashMap", "get", 556, false),
+                StackFrame.builder().className("AOP ×4, 反射 ×2").collapsedFrames(6).build(),
+                StackFrame.builder().className("com.dyyl.org.TreeService").methodName("walk").lineNumber(31)
+                        .businessFlag(true).repeatCount(12).build());
+        LogRecord record = LogRecord.builder().stackFrames(frames).build();
+
+        String message = builder.renderUserMessage(record, null);
+
+        assertTrue(message.contains("""
+                1. java.util.HashMap.get(HashMap:556)
+
+                   ... 省略 6 个框架帧 (AOP ×4, 反射 ×2)
+
+                2. com.dyyl.org.TreeService.walk(TreeService:31) ×12
+                """), message);
+        assertEquals(3, AnalysisPromptBuilder.promptFrameCount(frames));
+    }
+
+    @Test
+    void testRenderUserMessage_FrameWithoutClassOrMethodName() {
+        StackFrame anonymous = new StackFrame(null, null, null, 12, false);
+        LogRecord record = LogRecord.builder().stackFrames(List.of(anonymous)).build();
+
+        String message = assertDoesNotThrow(() -> builder.renderUserMessage(record, null));
+
+        assertTrue(message.contains("1. .(:12)\n"), message);
+    }
+
+    @Test
+    void testBuild_CompactVariantShowsFewerFramesAndCauses() {
+        List<StackFrame> frames = new ArrayList<>();
+        for (int i = 1; i <= 6; i++) {
+            frames.add(new StackFrame(null, "com.dyyl.order.Step" + i, "run", i, true));
+        }
+        LogRecord record = LogRecord.builder()
+                .exceptionClass("java.lang.IllegalStateException")
+                .causes(List.of("java.io.IOException: broken pipe"))
+                .stackFrames(frames)
+                .build();
+
+        ChatPrompt compact = builder.build(record, null, PromptVariant.COMPACT);
+        ChatPrompt full = builder.build(record, null, PromptVariant.FULL);
+
+        assertNotEquals(compact.getMessages().get(0).getContent(), full.getMessages().get(0).getContent());
+        String message = compact.getMessages().get(1).getContent();
+        assertTrue(message.contains("=== 异常原因链 ===\nCaused by: java.io.IOException: broken pipe\n"), message);
+        assertTrue(message.contains("3. com.dyyl.order.Step3.run"));
+        assertFalse(message.contains("4. com.dyyl.order.Step4.run"));
+        assertTrue(full.getMessages().get(1).getContent().contains("5. com.dyyl.order.Step5.run"));
+    }
+
+    @Test
+    void testRenderUserMessage_AppendsRecentContextLinesToFullVariantOnly() {
+        List<String> context = new ArrayList<>();
+        for (int i = 1; i <= 25; i++) {
+            context.add("INFO line " + i);
+        }
+        context.add("x".repeat(400));
+        LogRecord record = LogRecord.builder()
+                .exceptionClass("java.lang.IllegalStateException")
+                .contextLines(context)
+                .build();
+
+        String full = builder.renderUserMessage(record, null, PromptVariant.FULL);
+        String compact = builder.renderUserMessage(record, null, PromptVariant.COMPACT);
+
+        assertTrue(full.contains("=== 异常前的日志（最近 20 行）===\nINFO line 7\n"), full);
+        assertFalse(full.contains("INFO line 6\n"));
+        assertTrue(full.contains("INFO line 25\n" + "x".repeat(300) + " ...\n"));
+        assertFalse(compact.contains("异常前的日志"));
+    }
+
+    @Test
+    void testPromptTemplate_RendersInDeclaredOrder() {
+        PromptTemplate template = PromptTemplate.compile("${b}-${a}-${b}!", "a", "b");
+
+        assertEquals("2-1-2!", template.render(new StringBuilder(), 1, 2).toString());
+        assertThrows(IllegalArgumentException.class, () -> PromptTemplate.compile("${c}", "a"));
+        assertThrows(IllegalArgumentException.class, () -> PromptTemplate.compile("${a", "a"));
+    }
+}
@@ -0,0 +1,91 @@
+package com.lllkkk.ai.agent.modules.log.handle.domain.service.prompt;
+
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.CodeSnippet;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.LogRecord;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.StackFrame;
+import com.lllkkk.ai.agent.modules.log.handle.infrastructure.client.ChatPrompt;
+import com.lllkkk.ai.agent.modules.log.handle.infrastructure.config.LLMProviderConfig;
+import com.lllkkk.ai.agent.modules.log.handle.infrastructure.config.ModelRoutingConfig;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ModelRouterTest {
+
+    @Test
+    void testRoute_SimpleRecordUsesCompactTier() {
+        ModelRoutingConfig config = new ModelRoutingConfig();
+        config.getTiers().get(0).setModel("moonshot-v1-8k-fast");
+        ModelRouter router = new ModelRouter(config, new LLMProviderConfig());
+
+        ModelRoute route = router.route(record(1, 1, 0), List.of());
+
+        assertEquals("simple", route.tier());
+        assertEquals(3, route.score());
+        assertEquals(PromptVariant.COMPACT, route.variant());
+        ChatPrompt prompt = route.applyTo(ChatPrompt.ofUserMessage("x"));
+        assertEquals("moonshot-v1-8k-fast", prompt.getModel());
+        assertEquals(600, prompt.getMaxTokens());
+        assertEquals(LLMProviderConfig.KIMI, prompt.getModelProvider());
+    }
+
+    @Test
+    void testRoute_CausesAndSnippetsRaiseTier() {
+        ModelRouter router = new ModelRouter(new ModelRoutingConfig(), new LLMProviderConfig());
+        CodeSnippet snippet = CodeSnippet.builder().lines(Collections.nCopies(40, "x();")).build();
+
+        // 6 帧（3 个业务帧）+ 1 层原因 + 40 行片段 = 6 + 6 + 4 + 4
+        ModelRoute standard = router.route(record(6, 3, 1), List.of(snippet));
+        // 3 层原因再加 8 分，超出 standard 档
+        ModelRoute complex = router.route(record(6, 3, 3), List.of(snippet));
+
+        assertEquals(20, standard.score());
+        assertEquals("standard", standard.tier());
+        assertEquals(PromptVariant.FULL, standard.variant());
+        assertEquals("complex", complex.tier());
+        assertEquals(2000, complex.maxTokens());
+    }
+
+    @Test
+    void testRoute_CollapsedFramesNotCounted() {
+        List<StackFrame> frames = new ArrayList<>(record(2, 0, 0).getStackFrames());
+        frames.add(StackFrame.builder().className("AOP ×30").collapsedFrames(30).build());
+        LogRecord record = LogRecord.builder().stackFrames(frames).build();
+
+        assertEquals(2, ModelRouter.score(record, null));
+    }
+
+    @Test
+    void testRoute_DisabledKeepsProviderDefaults() {
+        ModelRoutingConfig config = new ModelRoutingConfig();
+        config.setEnabled(false);
+
+        ModelRoute route = new ModelRouter(config, new LLMProviderConfig()).route(record(1, 1, 0), null);
+
+        assertNull(route.tier());
+        assertEquals(PromptVariant.FULL, route.variant());
+        ChatPrompt prompt = route.applyTo(ChatPrompt.ofUserMessage("x"));
+        assertNull(prompt.getModel());
+        assertNull(prompt.getMaxTokens());
+    }
+
+    private static LogRecord record(int frames, int business, int causes) {
+        List<StackFrame> stackFrames = new ArrayList<>();
+        for (int i = 0; i < frames; i++) {
+            stackFrames.add(new StackFrame(null, "com.example.Frame" + i, "run", i + 1, i < business));
+        }
+        List<String> causeChain = new ArrayList<>();
+        for (int i = 0; i < causes; i++) {
+            causeChain.add("java.io.IOException: cause " + i);
+        }
+        return LogRecord.builder()
+                .exceptionClass("java.lang.IllegalStateException")
+                .stackFrames(stackFrames)
+                .causes(causeChain)
+                .build();
+    }
+}
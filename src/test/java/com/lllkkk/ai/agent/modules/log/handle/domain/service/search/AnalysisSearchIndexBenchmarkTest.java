@@ -0,0 +1,125 @@
+package com.lllkkk.ai.agent.modules.log.handle.domain.service.search;
+
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.AnalysisResult;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.LogRecord;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.StackFrame;
+import com.lllkkk.ai.agent.modules.log.handle.infrastructure.config.SearchIndexConfig;
+import com.lllkkk.ai.agent.modules.log.handle.loadtest.Microbenchmark;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * 历史分析检索微基准：100 万条文档下各类查询的耗时。
+ * 默认构建不运行：./mvnw test -Pbenchmark -Dtest=AnalysisSearchIndexBenchmarkTest
+ */
+@Slf4j
+@Tag("benchmark")
+class AnalysisSearchIndexBenchmarkTest {
+
+    private static final int DOCUMENTS = 1_000_000;
+    private static final int PROJECTS = 50;
+    private static final long T0 = LogRecord.parseTimestamp("2025-09-27 00:00:00");
+
+    private static final String[] EXCEPTIONS = {
+            "java.lang.NullPointerException", "java.lang.IllegalStateException", "java.lang.IllegalArgumentException",
+            "java.lang.IndexOutOfBoundsException", "java.lang.ClassCastException", "java.lang.NumberFormatException",
+            "java.util.NoSuchElementException", "java.util.ConcurrentModificationException",
+            "java.io.IOException", "java.net.SocketTimeoutException", "java.net.ConnectException",
+            "java.sql.SQLException", "java.sql.SQLIntegrityConstraintViolationException",
+            "org.springframework.dao.DataIntegrityViolationException", "org.springframework.dao.DeadlockLoserDataAccessException",
+            "com.fasterxml.jackson.databind.JsonMappingException", "java.util.concurrent.TimeoutException",
+            "java.lang.UnsupportedOperationException", "java.lang.ArithmeticException", "java.lang.OutOfMemoryError"};
+    private static final String[] MODULES = {"order", "pay", "stock", "user", "coupon", "meeting", "notify", "report"};
+    private static final String[] ROOT_CAUSES = {
+            "订单状态未校验就进入支付流程", "库存服务返回空对象", "数据库连接池耗尽", "下游接口超时未设置重试",
+            "并发修改同一集合", "优惠券金额计算溢出", "用户会话过期后仍访问缓存", "消息体字段类型与约定不一致"};
+
+    @Test
+    void searchAtOneMillionDocuments() {
+        SearchIndexConfig config = new SearchIndexConfig();
+        config.setMaxDocuments(DOCUMENTS);
+        AnalysisSearchIndex index = new AnalysisSearchIndex(config, () -> T0);
+        Random random = new Random(42);
+        long start = System.nanoTime();
+        for (int i = 0; i < DOCUMENTS; i++) {
+            index.add(record(random, i), analysis(random));
+        }
+        log.info("写入 {} 条文档耗时 {} ms，词项 {}", DOCUMENTS, (System.nanoTime() - start) / 1_000_000, index.termCount());
+
+        long lastHour = T0 + (DOCUMENTS - 60 * 60 * 20L) * 50;
+        List<Microbenchmark.Result> results = new ArrayList<>();
+        results.add(measure(index, "common class", "NullPointerException", null, Long.MIN_VALUE, Long.MAX_VALUE));
+        results.add(measure(index, "class + frame", "IllegalStateException OrderService12 submit", null,
+                Long.MIN_VALUE, Long.MAX_VALUE));
+        results.add(measure(index, "rare frame", "StockService1234 reserve3", null, Long.MIN_VALUE, Long.MAX_VALUE));
+        results.add(measure(index, "chinese text", "数据库连接池耗尽", null, Long.MIN_VALUE, Long.MAX_VALUE));
+        results.add(measure(index, "8 terms", "java sql SQLException 连接池 OrderService3 pay timeout order",
+                null, Long.MIN_VALUE, Long.MAX_VALUE));
+        results.add(measure(index, "query + project", "NullPointerException", "project-7",
+                Long.MIN_VALUE, Long.MAX_VALUE));
+        results.add(measure(index, "query + last hour", "SocketTimeoutException", null, lastHour, Long.MAX_VALUE));
+        results.add(measure(index, "filter: project", null, "project-7", Long.MIN_VALUE, Long.MAX_VALUE));
+        results.add(measure(index, "filter: last hour", null, null, lastHour, Long.MAX_VALUE));
+
+        StringBuilder report = new StringBuilder();
+        results.forEach(result -> report.append('\n').append(result));
+        log.info("检索耗时（{} 条文档，limit 20）:{}", DOCUMENTS, report);
+    }
+
+    private static Microbenchmark.Result measure(AnalysisSearchIndex index, String name, String query, String project,
+                                                 long from, long to) {
+        AnalysisSearchIndex.Result sample = index.search(query, project, from, to, 20);
+        assertFalse(sample.hits().isEmpty(), name);
+        log.info("{}: total {}，首条 {}", name, sample.total(), sample.hits().get(0).recordId());
+        return Microbenchmark.run(name, 3, 4, () -> index.search(query, project, from, to, 20));
+    }
+
+    private static LogRecord record(Random random, int i) {
+        String module = MODULES[skewed(random, MODULES.length)];
+        String exceptionClass = EXCEPTIONS[skewed(random, EXCEPTIONS.length)];
+        List<StackFrame> frames = new ArrayList<>();
+        for (int f = 0; f < 3; f++) {
+            String service = capitalize(MODULES[skewed(random, MODULES.length)]) + "Service" + random.nextInt(2000);
+            frames.add(new StackFrame(null, "com.dyyl." + module + ".service." + service,
+                    new String[]{"create", "submit", "pay", "reserve", "query"}[random.nextInt(5)] + random.nextInt(10),
+                    10 + random.nextInt(500), true));
+        }
+        return LogRecord.builder()
+                .recordId("r" + i)
+                .projectName("project-" + skewed(random, PROJECTS))
+                .exceptionClass(exceptionClass)
+                .exceptionMessage(module + " " + random.nextInt(100_000) + " "
+                        + new String[]{"not found", "timeout", "status invalid", "is null", "duplicate key"}[random.nextInt(5)])
+                .timestamp(T0 + i * 50L)
+                .stackFrames(frames)
+                .build();
+    }
+
+    private static AnalysisResult analysis(Random random) {
+        String rootCause = ROOT_CAUSES[random.nextInt(ROOT_CAUSES.length)];
+        return AnalysisResult.builder()
+                .rootCause(rootCause)
+                .summary(rootCause)
+                .fixSuggestion("检查相关代码并补充校验")
+                .build();
+    }
+
+    /**
+     * 偏斜分布：靠前的取值出现得更多
+     */
+    private static int skewed(Random random, int bound) {
+        double u = random.nextDouble();
+        return (int) (bound * u * u);
+    }
+
+    private static String capitalize(String text) {
+        return Character.toUpperCase(text.charAt(0)) + text.substring(1);
+    }
+}
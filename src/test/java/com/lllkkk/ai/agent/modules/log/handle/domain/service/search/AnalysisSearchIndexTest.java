@@ -0,0 +1,206 @@
+package com.lllkkk.ai.agent.modules.log.handle.domain.service.search;
+
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.AnalysisResult;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.LogRecord;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.StackFrame;
+import com.lllkkk.ai.agent.modules.log.handle.infrastructure.config.SearchIndexConfig;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnalysisSearchIndexTest {
+
+    private static final long T0 = LogRecord.parseTimestamp("2025-09-27 10:00:00");
+
+    @Test
+    void testTokenize_SplitsIdentifiersAndCjkBigrams() {
+        List<String> tokens = new ArrayList<>();
+        SearchTokenizer.tokenize("java.sql.SQLException: 订单为空 x 404", tokens::add);
+
+        assertEquals(List.of("java", "sql", "sqlexception", "sql", "exception", "订单", "单为", "为空", "404"), tokens);
+    }
+
+    @Test
+    void testSearch_RanksByBm25WithClassAndFrameWeights() {
+        AnalysisSearchIndex index = new AnalysisSearchIndex(new SearchIndexConfig(), () -> T0);
+        index.add(record("r1", "order-web", "java.lang.NullPointerException", "库存为空", "OrderService", T0),
+                analysis("库存服务返回空对象"));
+        index.add(record("r2", "order-web", "java.lang.IllegalStateException", "NullPointer guard failed", "PayService", T0),
+                analysis("支付状态异常"));
+        index.add(record("r3", "pay-gateway", "java.net.SocketTimeoutException", "read timed out", "PayClient", T0),
+                analysis("支付网关超时"));
+
+        AnalysisSearchIndex.Result result = index.search("NullPointerException", null, Long.MIN_VALUE, Long.MAX_VALUE, 10);
+
+        assertEquals(3, result.total(), "Shared term 'exception' should match every document");
+        assertEquals("r1", result.hits().get(0).recordId());
+        assertEquals("库存服务返回空对象", result.hits().get(0).rootCause());
+        assertTrue(result.hits().get(0).score() > result.hits().get(1).score());
+
+        List<SearchHit> byFrame = index.search("payService", null, Long.MIN_VALUE, Long.MAX_VALUE, 10).hits();
+        assertEquals("r2", byFrame.get(0).recordId());
+        assertEquals("r3", index.search("网关超时", null, Long.MIN_VALUE, Long.MAX_VALUE, 10).hits().get(0).recordId());
+        assertEquals(0, index.search("deadlock", null, Long.MIN_VALUE, Long.MAX_VALUE, 10).total());
+    }
+
+    @Test
+    void testSearch_FiltersByProjectAndTime() {
+        AnalysisSearchIndex index = new AnalysisSearchIndex(new SearchIndexConfig(), () -> T0);
+        for (int i = 0; i < 10; i++) {
+            String project = i % 2 == 0 ? "order-web" : "pay-gateway";
+            index.add(record("r" + i, project, "java.lang.NullPointerException", "npe " + i, "OrderService",
+                    T0 + i * 60_000L), analysis("空指针"));
+        }
+
+        AnalysisSearchIndex.Result ranked = index.search("空指针", "order-web", T0 + 2 * 60_000L, T0 + 6 * 60_000L, 10);
+        assertEquals(3, ranked.total());
+        assertEquals(List.of("r6", "r4", "r2"), ranked.hits().stream().map(SearchHit::recordId).toList(),
+                "Ties should prefer newer documents");
+
+        AnalysisSearchIndex.Result latest = index.search("", "pay-gateway", Long.MIN_VALUE, Long.MAX_VALUE, 2);
+        assertEquals(5, latest.total());
+        assertEquals(List.of("r9", "r7"), latest.hits().stream().map(SearchHit::recordId).toList());
+    }
+
+    @Test
+    void testAdd_EvictsOldestDocumentsAndSweepsDeadTerms() {
+        SearchIndexConfig config = new SearchIndexConfig();
+        config.setMaxDocuments(4);
+        AnalysisSearchIndex index = new AnalysisSearchIndex(config, () -> T0);
+        int fullTerms = 0;
+        for (int i = 0; i < 20; i++) {
+            index.add(record("r" + i, "order-web", "java.lang.IllegalStateException", "unique" + i, "OrderService", T0),
+                    analysis("状态错误"));
+            if (i == 3) {
+                fullTerms = index.termCount();
+            }
+        }
+
+        assertEquals(4, index.size());
+        assertEquals(0, index.search("unique3", null, Long.MIN_VALUE, Long.MAX_VALUE, 10).total());
+        assertEquals("r19", index.search("unique19", null, Long.MIN_VALUE, Long.MAX_VALUE, 10).hits().get(0).recordId());
+        AnalysisSearchIndex.Result all = index.search("状态错误", null, Long.MIN_VALUE, Long.MAX_VALUE, 10);
+        assertEquals(List.of("r19", "r18", "r17", "r16"), all.hits().stream().map(SearchHit::recordId).toList());
+        assertEquals(fullTerms, index.termCount(), "Terms only used by evicted documents should be swept");
+    }
+
+    @Test
+    void testSearch_PrunedTopKMatchesExhaustiveRanking() {
+        AnalysisSearchIndex index = randomIndex(5000);
+
+        for (String query : List.of("NullPointerException", "NullPointerException OrderService3", "timeout PayService 库存",
+                "deadlock stock17", "数据库连接池耗尽", "java sql SQLException 连接池 OrderService3 pay timeout order")) {
+            // limit 大于文档数时堆永远不满，不会剪枝
+            AnalysisSearchIndex.Result exhaustive = index.search(query, null, Long.MIN_VALUE, Long.MAX_VALUE, 10_000);
+            AnalysisSearchIndex.Result pruned = index.search(query, null, Long.MIN_VALUE, Long.MAX_VALUE, 10);
+            List<SearchHit> inProject = index.search(query, "project-2", Long.MIN_VALUE, Long.MAX_VALUE, 10_000).hits();
+            assertEquals(inProject.subList(0, Math.min(10, inProject.size())),
+                    index.search(query, "project-2", Long.MIN_VALUE, Long.MAX_VALUE, 10).hits(), query);
+
+            assertTrue(exhaustive.totalExact());
+            assertEquals(exhaustive.hits().subList(0, 10).stream().map(SearchHit::recordId).toList(),
+                    pruned.hits().stream().map(SearchHit::recordId).toList(), query);
+            assertEquals(exhaustive.hits().get(9).score(), pruned.hits().get(9).score(), 1e-9, query);
+            if (exhaustive.total() > AnalysisSearchIndex.TOTAL_HITS_THRESHOLD) {
+                assertFalse(pruned.totalExact(), query);
+                assertTrue(pruned.total() >= AnalysisSearchIndex.TOTAL_HITS_THRESHOLD, query);
+            }
+        }
+    }
+
+    @Test
+    void testSearch_NearUniversalTermsOnlyScoreUnlessAlone() {
+        AnalysisSearchIndex index = randomIndex(2000);
+
+        // 每个文档的异常类都含 exception
+        AnalysisSearchIndex.Result alone = index.search("exception", null, Long.MIN_VALUE, Long.MAX_VALUE, 10_000);
+        assertEquals(2000, alone.total());
+        AnalysisSearchIndex.Result selective = index.search("stock17", null, Long.MIN_VALUE, Long.MAX_VALUE, 10_000);
+        assertTrue(selective.total() > 0 && selective.total() < 2000);
+        AnalysisSearchIndex.Result combined = index.search("stock17 exception", null, Long.MIN_VALUE, Long.MAX_VALUE, 10_000);
+        assertEquals(selective.total(), combined.total(), "Common term should not add candidates");
+        assertTrue(combined.hits().get(0).score() > selective.hits().get(0).score(), "Common term should still add score");
+    }
+
+    @Test
+    void testSearch_CommonTermDecidesOrder() {
+        AnalysisSearchIndex index = new AnalysisSearchIndex(new SearchIndexConfig(), () -> T0);
+        for (int i = 0; i < 1200; i++) {
+            index.add(record("npe" + i, "order-web", "java.lang.NullPointerException", "boom", "PayService", T0 + i),
+                    analysis("空指针"));
+        }
+        index.add(record("order-npe", "order-web", "java.lang.NullPointerException", "boom", "OrderService", T0 + 2000),
+                analysis("空指针"));
+        index.add(record("order-ise", "order-web", "java.lang.IllegalStateException", "boom", "OrderService", T0 + 2001),
+                analysis("状态异常"));
+
+        // nullpointerexception 出现在过半文档中，只补分，但 NPE 仍应排在同帧的其他异常之前
+        List<SearchHit> hits = index.search("NullPointerException OrderService", null, Long.MIN_VALUE, Long.MAX_VALUE, 10).hits();
+
+        assertEquals(List.of("order-npe", "order-ise"), hits.stream().map(SearchHit::recordId).toList());
+        assertTrue(hits.get(0).score() > hits.get(1).score());
+    }
+
+    @Test
+    void testSearch_FilterOnlyUsesProjectDocumentList() {
+        AnalysisSearchIndex index = randomIndex(3000);
+
+        AnalysisSearchIndex.Result exhaustive = index.search(null, null, Long.MIN_VALUE, Long.MAX_VALUE, 10_000);
+        List<String> expected = exhaustive.hits().stream().filter(hit -> "project-3".equals(hit.projectName()))
+                .map(SearchHit::recordId).toList();
+        AnalysisSearchIndex.Result byProject = index.search(null, "project-3", Long.MIN_VALUE, Long.MAX_VALUE, 5);
+
+        assertTrue(byProject.totalExact());
+        assertEquals(expected.size(), byProject.total());
+        assertEquals(expected.subList(0, 5), byProject.hits().stream().map(SearchHit::recordId).toList());
+        assertEquals(0, index.search(null, "missing", Long.MIN_VALUE, Long.MAX_VALUE, 5).total());
+    }
+
+    @Test
+    void testDisabled_IndexesNothing() {
+        SearchIndexConfig config = new SearchIndexConfig();
+        config.setEnabled(false);
+        AnalysisSearchIndex index = new AnalysisSearchIndex(config, () -> T0);
+        index.add(record("r1", "order-web", "java.lang.NullPointerException", "npe", "OrderService", T0), analysis("x"));
+
+        assertEquals(0, index.size());
+        assertEquals(0, index.search("npe", null, Long.MIN_VALUE, Long.MAX_VALUE, 10).total());
+    }
+
+    private static AnalysisSearchIndex randomIndex(int documents) {
+        String[] classes = {"java.lang.NullPointerException", "java.lang.IllegalStateException",
+                "java.sql.SQLException", "java.net.SocketTimeoutException", "org.springframework.dao.DeadlockLoserDataAccessException"};
+        String[] services = {"OrderService", "PayService", "StockService", "UserService"};
+        String[] causes = {"库存服务返回空对象", "数据库连接池耗尽", "下游接口超时", "并发修改同一集合"};
+        Random random = new Random(7);
+        AnalysisSearchIndex index = new AnalysisSearchIndex(new SearchIndexConfig(), () -> T0);
+        for (int i = 0; i < documents; i++) {
+            index.add(record("r" + i, "project-" + random.nextInt(8), classes[random.nextInt(classes.length)],
+                            "order " + random.nextInt(100) + (random.nextBoolean() ? " timeout" : " deadlock stock" + random.nextInt(30)),
+                            services[random.nextInt(services.length)] + random.nextInt(10), T0 + i),
+                    analysis(causes[random.nextInt(causes.length)]));
+        }
+        return index;
+    }
+
+    private static LogRecord record(String id, String project, String exceptionClass, String message,
+                                    String businessClass, long timestamp) {
+        return LogRecord.builder()
+                .recordId(id)
+                .projectName(project)
+                .exceptionClass(exceptionClass)
+                .exceptionMessage(message)
+                .timestamp(timestamp)
+                .stackFrames(List.of(new StackFrame(null, "com.dyyl.app." + businessClass, "handle", 42, true),
+                        new StackFrame(null, "java.util.ArrayList", "forEach", 1541, false)))
+                .build();
+    }
+
+    private static AnalysisResult analysis(String rootCause) {
+        return AnalysisResult.builder().rootCause(rootCause).summary(rootCause).build();
+    }
+}
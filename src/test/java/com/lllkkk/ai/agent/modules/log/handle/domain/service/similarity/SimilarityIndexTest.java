@@ -0,0 +1,134 @@
+package com.lllkkk.ai.agent.modules.log.handle.domain.service.similarity;
+
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.LogRecord;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.StackFrame;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimilarityIndexTest {
+
+    private static final String NPE = "java.lang.NullPointerException";
+
+    @Test
+    void testSignature_IgnoresLineNumbersAndVolatileTokens() {
+        ExceptionSignature a = ExceptionSignature.of(record(NPE, "order 1024 not found, id=3f2a9c1e-0000-4000-8000-00000000abcd",
+                frames(10, "com.dyyl.order.OrderService.create", "com.dyyl.order.OrderController.submit")));
+        ExceptionSignature b = ExceptionSignature.of(record(NPE, "order 2048 not found, id=7b1d0c2e-1111-4000-8000-00000000ef01",
+                frames(99, "com.dyyl.order.OrderService.create", "com.dyyl.order.OrderController.submit")));
+
+        assertEquals(a.fingerprint(), b.fingerprint());
+        assertEquals(1.0, a.similarity(b));
+    }
+
+    @Test
+    void testSignature_NormalizesGeneratedClassesAndLambdas() {
+        assertEquals("com.dyyl.order.OrderService",
+                ExceptionSignature.normalizeClass("com.dyyl.order.OrderService$$SpringCGLIB$$0"));
+        assertEquals("com.dyyl.order.OrderService",
+                ExceptionSignature.normalizeClass("com.dyyl.order.OrderService$$EnhancerBySpringCGLIB$$a1b2c3"));
+        assertEquals("$Proxy", ExceptionSignature.normalizeClass("jdk.proxy2.$Proxy135"));
+        assertEquals("lambda$submit", ExceptionSignature.normalizeMethod("lambda$submit$12"));
+        assertEquals(List.of("user", "<num>", "locked"), ExceptionSignature.messageTokens("User 42 locked"));
+    }
+
+    @Test
+    void testFindSimilar_ServesNearDuplicate() {
+        SimilarityIndex<String> index = new SimilarityIndex<>(100, 0);
+        List<String> path = new ArrayList<>();
+        for (int i = 0; i < 15; i++) {
+            path.add("com.dyyl.order.Step" + i + ".run");
+        }
+        index.put(ExceptionSignature.of(record(NPE, "order is null", frames(1, path.toArray(String[]::new)))), "stored");
+
+        List<String> nearPath = new ArrayList<>(path);
+        nearPath.add(7, "org.springframework.aop.framework.ReflectiveMethodInvocation.proceed");
+        ExceptionSignature near = ExceptionSignature.of(record(NPE, "order is null", frames(1, nearPath.toArray(String[]::new))));
+
+        Optional<SimilarityIndex.Match<String>> match = index.findSimilar(near, 0.85);
+        assertTrue(match.isPresent());
+        assertEquals("stored", match.get().value());
+        assertTrue(match.get().score() < 1.0);
+    }
+
+    @Test
+    void testFindSimilar_RequiresSameExceptionClass() {
+        SimilarityIndex<String> index = new SimilarityIndex<>(100, 0);
+        String[] path = {"com.dyyl.order.OrderService.create", "com.dyyl.order.OrderController.submit"};
+        index.put(ExceptionSignature.of(record(NPE, "x", frames(1, path))), "stored");
+
+        ExceptionSignature other = ExceptionSignature.of(record("java.lang.IllegalStateException", "x", frames(1, path)));
+        assertTrue(index.findSimilar(other, 0.0).isEmpty());
+    }
+
+    @Test
+    void testFindSimilar_UnrelatedExceptionBelowThreshold() {
+        SimilarityIndex<String> index = new SimilarityIndex<>(100, 0);
+        index.put(ExceptionSignature.of(record(NPE, "order is null",
+                frames(1, "com.dyyl.order.OrderService.create", "com.dyyl.order.OrderController.submit"))), "stored");
+
+        ExceptionSignature other = ExceptionSignature.of(record(NPE, "user is null",
+                frames(1, "com.wkb.user.UserService.login", "com.wkb.user.LoginController.login")));
+        assertTrue(index.findSimilar(other, 0.9).isEmpty());
+    }
+
+    @Test
+    void testFindSimilar_SameFingerprintDifferentMessageBelowThreshold() {
+        SimilarityIndex<String> index = new SimilarityIndex<>(100, 0);
+        String[] path = {"com.dyyl.order.OrderService.create", "com.dyyl.order.OrderController.submit"};
+        ExceptionSignature stored = ExceptionSignature.of(record(NPE, "order is null", frames(12, path)));
+        index.put(stored, "stored");
+
+        ExceptionSignature other = ExceptionSignature.of(record(NPE,
+                "Cannot invoke \"com.dyyl.order.Coupon.getAmount()\" because the return value of discount lookup is null",
+                frames(48, path)));
+        assertEquals(stored.fingerprint(), other.fingerprint());
+        assertEquals(1.0, index.findSimilar(stored, 0.9).orElseThrow().score());
+        assertTrue(index.findSimilar(other, 0.9).isEmpty());
+    }
+
+    @Test
+    void testEvictionAndTtl() {
+        AtomicLong now = new AtomicLong(0);
+        SimilarityIndex<String> index = new SimilarityIndex<>(2, 1000, now::get);
+        ExceptionSignature first = ExceptionSignature.of(record(NPE, "a", frames(1, "com.dyyl.A.a")));
+        ExceptionSignature second = ExceptionSignature.of(record(NPE, "b", frames(1, "com.dyyl.B.b")));
+        ExceptionSignature third = ExceptionSignature.of(record(NPE, "c", frames(1, "com.dyyl.C.c")));
+
+        index.put(first, "1");
+        index.put(second, "2");
+        index.put(third, "3");
+        assertEquals(2, index.size());
+        assertTrue(index.findSimilar(first, 1.0).isEmpty());
+        assertEquals("3", index.findSimilar(third, 1.0).orElseThrow().value());
+
+        now.set(2000);
+        assertTrue(index.findSimilar(third, 1.0).isEmpty());
+    }
+
+    private static LogRecord record(String exceptionClass, String message, List<StackFrame> frames) {
+        return LogRecord.builder()
+                .exceptionClass(exceptionClass)
+                .exceptionMessage(message)
+                .stackFrames(frames)
+                .build();
+    }
+
+    private static List<StackFrame> frames(int line, String... methods) {
+        List<StackFrame> frames = new ArrayList<>();
+        for (String method : methods) {
+            int dot = method.lastIndexOf('.');
+            frames.add(StackFrame.builder()
+                    .className(method.substring(0, dot))
+                    .methodName(method.substring(dot + 1))
+                    .lineNumber(line)
+                    .build());
+        }
+        return frames;
+    }
+}
@@ -0,0 +1,167 @@
+package com.lllkkk.ai.agent.modules.log.handle.infrastructure.client;
+
+import com.lllkkk.ai.agent.modules.log.handle.infrastructure.config.LLMProviderConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LLMClientTest {
+
+    private LLMClient client;
+
+    @AfterEach
+    void tearDown() {
+        if (client != null) {
+            client.destroy();
+        }
+    }
+
+    @Test
+    void testChat_WithoutHedging_UsesPrimary() {
+        FakeProvider primary = new FakeProvider("kimi", () -> CompletableFuture.completedFuture("primary"));
+        client = newClient(primary, new FakeProvider("local", CompletableFuture::new), hedging(false, 50));
+
+        assertEquals("primary", client.chat(ChatPrompt.ofUserMessage("hi")).join());
+    }
+
+    @Test
+    void testChat_SlowPrimary_SecondaryWinsAndPrimaryIsCancelled() throws Exception {
+        FakeProvider primary = new FakeProvider("kimi", CompletableFuture::new);
+        FakeProvider secondary = new FakeProvider("local", () -> CompletableFuture.completedFuture("secondary"));
+        client = newClient(primary, secondary, hedging(true, 50));
+
+        String answer = client.chat(ChatPrompt.ofUserMessage("hi")).get(2, TimeUnit.SECONDS);
+
+        assertEquals("secondary", answer);
+        assertTrue(primary.calls.get(0).isCancelled(), "Losing primary request should be cancelled");
+    }
+
+    @Test
+    void testChat_FastPrimary_NoHedgeSent() throws Exception {
+        FakeProvider primary = new FakeProvider("kimi", () -> CompletableFuture.completedFuture("primary"));
+        FakeProvider secondary = new FakeProvider("local", () -> CompletableFuture.completedFuture("secondary"));
+        client = newClient(primary, secondary, hedging(true, 200));
+
+        assertEquals("primary", client.chat(ChatPrompt.ofUserMessage("hi")).get(2, TimeUnit.SECONDS));
+        Thread.sleep(300);
+        assertTrue(secondary.calls.isEmpty(), "Secondary must not be called when primary answers in time");
+    }
+
+    @Test
+    void testChat_PrimaryFails_FailsOverImmediately() throws Exception {
+        FakeProvider primary = new FakeProvider("kimi",
+                () -> CompletableFuture.failedFuture(new LLMProviderException("kimi", 429, "rate limited")));
+        FakeProvider secondary = new FakeProvider("local", () -> CompletableFuture.completedFuture("secondary"));
+        client = newClient(primary, secondary, hedging(true, 10_000));
+
+        assertEquals("secondary", client.chat(ChatPrompt.ofUserMessage("hi")).get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testChat_BothFail_CompletesExceptionally() {
+        FakeProvider primary = new FakeProvider("kimi",
+                () -> CompletableFuture.failedFuture(new LLMProviderException("kimi", 500, "down")));
+        FakeProvider secondary = new FakeProvider("local",
+                () -> CompletableFuture.failedFuture(new LLMProviderException("local", 503, "down")));
+        client = newClient(primary, secondary, hedging(true, 50));
+
+        CompletionException e = assertThrows(CompletionException.class,
+                () -> client.chat(ChatPrompt.ofUserMessage("hi")).join());
+        assertInstanceOf(LLMProviderException.class, e.getCause());
+    }
+
+    @Test
+    void testHedgeDelay_FollowsPrimaryPercentile() {
+        FakeProvider primary = new FakeProvider("kimi", () -> CompletableFuture.completedFuture("ok"));
+        LLMProviderConfig.Hedging hedging = hedging(true, 1234);
+        hedging.setMinSamples(5);
+        hedging.setMinDelayMs(0);
+        client = newClient(primary, new FakeProvider("local", CompletableFuture::new), hedging);
+
+        assertEquals(1234, client.currentHedgeDelayMs(), "Initial delay before enough samples");
+        for (int i = 0; i < 5; i++) {
+            client.chat(ChatPrompt.ofUserMessage("hi")).join();
+        }
+        assertTrue(client.currentHedgeDelayMs() < 1234, "Delay should follow the observed fast latencies");
+    }
+
+    @Test
+    void testHedgeDelay_LearnsFromCancelledSlowPrimary() throws Exception {
+        FakeProvider primary = new FakeProvider("kimi", CompletableFuture::new);
+        FakeProvider secondary = new FakeProvider("local", () -> CompletableFuture.supplyAsync(() -> "secondary",
+                CompletableFuture.delayedExecutor(150, TimeUnit.MILLISECONDS)));
+        LLMProviderConfig.Hedging hedging = hedging(true, 20);
+        hedging.setMinSamples(1);
+        client = newClient(primary, secondary, hedging);
+
+        assertEquals("secondary", client.chat(ChatPrompt.ofUserMessage("hi")).get(2, TimeUnit.SECONDS));
+
+        assertTrue(primary.calls.get(0).isCancelled());
+        assertTrue(client.currentHedgeDelayMs() >= 150,
+                "Cancelled primary should be recorded with at least its elapsed time");
+    }
+
+    @Test
+    void testHedgeDelay_FastFailuresDoNotLowerDelay() throws Exception {
+        FakeProvider primary = new FakeProvider("kimi",
+                () -> CompletableFuture.failedFuture(new LLMProviderException("kimi", 429, "rate limited")));
+        FakeProvider secondary = new FakeProvider("local", () -> CompletableFuture.completedFuture("secondary"));
+        LLMProviderConfig.Hedging hedging = hedging(true, 1234);
+        hedging.setMinSamples(5);
+        hedging.setMinDelayMs(0);
+        client = newClient(primary, secondary, hedging);
+
+        for (int i = 0; i < 20; i++) {
+            assertEquals("secondary", client.chat(ChatPrompt.ofUserMessage("hi")).get(1, TimeUnit.SECONDS));
+        }
+        assertEquals(1234, client.currentHedgeDelayMs(), "Instant failures must not be learned as primary latency");
+    }
+
+    private LLMClient newClient(FakeProvider primary, FakeProvider secondary, LLMProviderConfig.Hedging hedging) {
+        Map<String, LLMProvider> providers = new LinkedHashMap<>();
+        providers.put(primary.name(), primary);
+        providers.put(secondary.name(), secondary);
+        return new LLMClient(providers, primary.name(), hedging);
+    }
+
+    private LLMProviderConfig.Hedging hedging(boolean enabled, long delayMs) {
+        LLMProviderConfig.Hedging hedging = new LLMProviderConfig.Hedging();
+        hedging.setEnabled(enabled);
+        hedging.setSecondary("local");
+        hedging.setInitialDelayMs(delayMs);
+        hedging.setMinDelayMs(1);
+        return hedging;
+    }
+
+    private static final class FakeProvider implements LLMProvider {
+        private final String name;
+        private final Supplier<CompletableFuture<String>> behaviour;
+        private final CopyOnWriteArrayList<CompletableFuture<String>> calls = new CopyOnWriteArrayList<>();
+
+        FakeProvider(String name, Supplier<CompletableFuture<String>> behaviour) {
+            this.name = name;
+            this.behaviour = behaviour;
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public CompletableFuture<String> chat(ChatPrompt prompt) {
+            CompletableFuture<String> call = behaviour.get();
+            calls.add(call);
+            return call;
+        }
+    }
+}
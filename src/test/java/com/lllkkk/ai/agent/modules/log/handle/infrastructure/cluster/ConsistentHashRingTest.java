@@ -0,0 +1,54 @@
+package com.lllkkk.ai.agent.modules.log.handle.infrastructure.cluster;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConsistentHashRingTest {
+
+    @Test
+    void testOwnerOf_StableAndBalanced() {
+        ConsistentHashRing ring = new ConsistentHashRing(List.of("node1", "node2", "node3"), 160);
+        ConsistentHashRing sameConfig = new ConsistentHashRing(List.of("node3", "node1", "node2"), 160);
+
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < 30000; i++) {
+            String key = "fingerprint-" + i;
+            String owner = ring.ownerOf(key);
+            assertEquals(owner, sameConfig.ownerOf(key), "节点顺序不应影响归属");
+            counts.merge(owner, 1, Integer::sum);
+        }
+
+        assertEquals(3, counts.size());
+        counts.values().forEach(count -> assertTrue(count > 7000 && count < 13000, counts.toString()));
+    }
+
+    @Test
+    void testAddingNode_OnlyMovesKeysToNewNode() {
+        ConsistentHashRing before = new ConsistentHashRing(List.of("node1", "node2", "node3"), 160);
+        ConsistentHashRing after = new ConsistentHashRing(List.of("node1", "node2", "node3", "node4"), 160);
+
+        int moved = 0;
+        for (int i = 0; i < 20000; i++) {
+            String key = "fingerprint-" + i;
+            String oldOwner = before.ownerOf(key);
+            String newOwner = after.ownerOf(key);
+            if (!oldOwner.equals(newOwner)) {
+                assertEquals("node4", newOwner);
+                moved++;
+            }
+        }
+        // 理想情况迁移 1/4
+        assertTrue(moved > 3000 && moved < 7000, "moved=" + moved);
+    }
+
+    @Test
+    void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new ConsistentHashRing(List.of(), 10));
+        assertThrows(IllegalArgumentException.class, () -> new ConsistentHashRing(List.of("node1"), 0));
+    }
+}
@@ -0,0 +1,73 @@
+package com.lllkkk.ai.agent.modules.log.handle.infrastructure.ingest;
+
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.LogRecord;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.StackFrame;
+import com.lllkkk.ai.agent.modules.log.handle.domain.service.impl.TrieBusinessPackageMatcher;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryLogFrameCodecTest {
+
+    private final BinaryLogFrameCodec codec = new BinaryLogFrameCodec(TrieBusinessPackageMatcher.withDefaults());
+
+    @Test
+    void testRoundTrip_FromDirectBufferWithSharedStrings() {
+        LogRecord record = LogRecord.builder()
+                .projectName("order-web")
+                .version("3f9c2ab")
+                .timestamp(LogRecord.parseTimestamp("2025-09-27 15:48:12"))
+                .level("ERROR")
+                .exceptionClass("java.lang.NullPointerException")
+                .exceptionMessage("库存为空")
+                .causes(List.of("java.io.IOException: broken pipe"))
+                .stackFrames(List.of(
+                        new StackFrame(null, "com.dyyl.order.OrderService", "submit", 102, false),
+                        new StackFrame(null, "com.dyyl.order.OrderService", "submit", 88, false),
+                        new StackFrame(null, "java.util.ArrayList", "forEach", 1541, false)))
+                .build();
+
+        ByteBuffer frame = BinaryLogFrameCodec.encode(record);
+        ByteBuffer direct = ByteBuffer.allocateDirect(frame.remaining()).put(frame).flip();
+        assertEquals(direct.remaining() - 4, direct.getInt());
+        LogRecord decoded = codec.decode(direct);
+
+        assertEquals("order-web", decoded.getProjectName());
+        assertEquals("3f9c2ab", decoded.getVersion());
+        assertEquals(record.getTimestamp(), decoded.getTimestamp());
+        assertEquals("ERROR", decoded.getLevel());
+        assertEquals("java.lang.NullPointerException", decoded.getExceptionClass());
+        assertEquals("库存为空", decoded.getExceptionMessage());
+        assertEquals(List.of("java.io.IOException: broken pipe"), decoded.getCauses());
+        assertEquals(3, decoded.getStackFrames().size());
+        StackFrame first = decoded.getStackFrames().get(0);
+        assertEquals("submit", first.getMethodName());
+        assertEquals(102, first.getLineNumber());
+        assertTrue(first.isBusinessFlag(), "Business flag should be derived on decode");
+        assertFalse(decoded.getStackFrames().get(2).isBusinessFlag());
+        assertSame(first.getClassName(), decoded.getStackFrames().get(1).getClassName(),
+                "Repeated names should share the dictionary entry");
+    }
+
+    @Test
+    void testDecode_NullFieldsAndMalformedFrames() {
+        LogRecord sparse = LogRecord.builder().exceptionClass("java.lang.IllegalStateException").build();
+        ByteBuffer frame = BinaryLogFrameCodec.encode(sparse);
+        frame.getInt();
+        LogRecord decoded = codec.decode(frame.duplicate());
+
+        assertEquals("", decoded.getProjectName());
+        assertNull(decoded.getVersion());
+        assertEquals("UNKNOWN", decoded.getLevel());
+        assertEquals(LogRecord.UNKNOWN_TIMESTAMP, decoded.getTimestamp());
+
+        ByteBuffer truncated = frame.duplicate().limit(frame.limit() - 3);
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(truncated));
+        ByteBuffer badVersion = frame.duplicate();
+        badVersion.put(badVersion.position(), (byte) 9);
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(badVersion));
+    }
+}
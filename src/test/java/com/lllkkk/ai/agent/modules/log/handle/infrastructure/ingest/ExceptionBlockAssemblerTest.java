@@ -0,0 +1,61 @@
+package com.lllkkk.ai.agent.modules.log.handle.infrastructure.ingest;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExceptionBlockAssemblerTest {
+
+    private final List<ExceptionBlockAssembler.Block> blocks = new ArrayList<>();
+    private final ExceptionBlockAssembler assembler =
+            new ExceptionBlockAssembler(new OffHeapLineRing(4096), "异常项目:", 2, 10, blocks::add);
+
+    @Test
+    void testAccept_CutsBlockWithPrecedingContext() {
+        feed("INFO 启动完成", "INFO 收到下单请求", "WARN 库存不足",
+                "异常项目: order-web",
+                "异常消息: order is null",
+                "详细信息: [com.dyyl.order.OrderService.submit(OrderService.java:102)",
+                "com.dyyl.order.OrderController.create(OrderController.java:40)]",
+                "INFO 下一条请求");
+
+        assertEquals(1, blocks.size());
+        assertFalse(assembler.inBlock());
+        ExceptionBlockAssembler.Block block = blocks.get(0);
+        assertEquals(List.of("INFO 收到下单请求", "WARN 库存不足"), block.context());
+        assertTrue(block.rawLog().startsWith("异常项目: order-web\n"));
+        assertTrue(block.rawLog().endsWith("(OrderController.java:40)]\n"));
+        assertFalse(block.rawLog().contains("下一条请求"));
+    }
+
+    @Test
+    void testAccept_NextBlockOrLimitOrFlushEndsBlock() {
+        feed("异常项目: a", "异常消息: [x]", "异常项目: b");
+        assertEquals(1, blocks.size());
+        assertEquals("异常项目: a\n异常消息: [x]\n", blocks.get(0).rawLog());
+        assertTrue(assembler.inBlock());
+
+        for (int i = 0; i < 9; i++) {
+            feed("frame " + i);
+        }
+        assertEquals(2, blocks.size(), "Block should end at maxBlockLines");
+        assertEquals(List.of("异常项目: a", "异常消息: [x]"), blocks.get(1).context());
+
+        feed("异常项目: c");
+        assertTrue(assembler.inBlock());
+        assembler.flush();
+        assertEquals(3, blocks.size());
+        assertEquals("异常项目: c\n", blocks.get(2).rawLog());
+    }
+
+    private void feed(String... lines) {
+        for (String line : lines) {
+            assembler.accept(ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8)));
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.lllkkk.ai.agent.modules.log.handle.infrastructure.ingest;
+
+import com.lllkkk.ai.agent.modules.log.handle.application.LogProcessingPipeline;
+import com.lllkkk.ai.agent.modules.log.handle.application.PipelineResult;
+import com.lllkkk.ai.agent.modules.log.handle.infrastructure.config.TailIngestConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class LogFileTailerTest {
+
+    private final LogProcessingPipeline pipeline = mock(LogProcessingPipeline.class);
+    private final List<String> rawLogs = new CopyOnWriteArrayList<>();
+    private final List<List<String>> contexts = new CopyOnWriteArrayList<>();
+    private LogFileTailer tailer;
+
+    @TempDir
+    Path dir;
+
+    @AfterEach
+    void stop() {
+        if (tailer != null) {
+            tailer.destroy();
+        }
+    }
+
+    @Test
+    void testTail_SubmitsNewBlocksWithContextAndFollowsTruncation() throws Exception {
+        Path file = dir.resolve("app.log");
+        Files.writeString(file, "INFO 历史日志\nINFO 收到下单请求\r\nWARN 库存不足\n");
+        start(file);
+
+        // 堆栈结束行分两次写入，中间的半行不应结束异常块
+        append(file, "异常项目: order-web\n异常消息: order is null\n详细信息: [com.dyyl.order.OrderService.submit(Order");
+        append(file, "Service.java:102)]\n");
+        waitUntil(() -> rawLogs.size() == 1);
+
+        assertEquals("异常项目: order-web\n异常消息: order is null\n"
+                + "详细信息: [com.dyyl.order.OrderService.submit(OrderService.java:102)]\n", rawLogs.get(0));
+        assertEquals(List.of("INFO 收到下单请求", "WARN 库存不足"), contexts.get(0));
+
+        Files.writeString(file, "异常项目: billing\n", StandardOpenOption.TRUNCATE_EXISTING);
+        waitUntil(() -> rawLogs.size() == 2);
+        assertEquals("异常项目: billing\n", rawLogs.get(1), "Idle block should be flushed after truncation");
+        assertEquals(2, tailer.stats().blocks());
+    }
+
+    @Test
+    void testSplitLines_TreatsFullBufferWithoutNewlineAsOneLine() {
+        List<ExceptionBlockAssembler.Block> blocks = new ArrayList<>();
+        OffHeapLineRing ring = new OffHeapLineRing(1024);
+        ExceptionBlockAssembler assembler = new ExceptionBlockAssembler(ring, "异常项目:", 5, 10, blocks::add);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(8);
+        buffer.put("abc\ndefg".getBytes(StandardCharsets.US_ASCII)).flip();
+
+        LogFileTailer.splitLines(buffer, assembler);
+        assertEquals(4, buffer.position(), "Partial line should stay in the buffer");
+        buffer.compact().put("hijk".getBytes(StandardCharsets.US_ASCII)).flip();
+        LogFileTailer.splitLines(buffer, assembler);
+
+        assertEquals(List.of("abc", "defghijk"), ring.lastLines(5));
+        assertFalse(buffer.hasRemaining());
+    }
+
+    private void start(Path file) {
+        when(pipeline.submitBackground(any(), any(), any())).thenAnswer(invocation -> {
+            rawLogs.add(invocation.getArgument(0));
+            contexts.add(invocation.getArgument(1));
+            return CompletableFuture.completedFuture(new PipelineResult(null, null));
+        });
+        TailIngestConfig config = new TailIngestConfig();
+        config.setSources(List.of(file.toString()));
+        config.setFromBeginning(true);
+        config.setPollIntervalMs(20);
+        config.setContextLines(2);
+        tailer = new LogFileTailer(config, pipeline);
+        tailer.start();
+    }
+
+    private static void append(Path file, String text) throws IOException, InterruptedException {
+        Files.writeString(file, text, StandardOpenOption.APPEND);
+        Thread.sleep(30);
+    }
+
+    private static void waitUntil(java.util.function.BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}
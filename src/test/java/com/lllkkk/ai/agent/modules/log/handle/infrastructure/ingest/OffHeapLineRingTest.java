@@ -0,0 +1,55 @@
+package com.lllkkk.ai.agent.modules.log.handle.infrastructure.ingest;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapLineRingTest {
+
+    @Test
+    void testLastLines_ReturnsMostRecentInOrder() {
+        OffHeapLineRing ring = new OffHeapLineRing(1024);
+        append(ring, "第一行");
+        append(ring, "second");
+        append(ring, "");
+
+        assertEquals(List.of("第一行", "second", ""), ring.lastLines(10));
+        assertEquals(List.of("second", ""), ring.lastLines(2));
+        assertEquals(3, ring.lineCount());
+    }
+
+    @Test
+    void testAppend_EvictsOldestLinesAndWrapsAround() {
+        OffHeapLineRing ring = new OffHeapLineRing(64);
+        for (int i = 0; i < 100; i++) {
+            append(ring, "line-" + i);
+        }
+
+        List<String> lines = ring.lastLines(100);
+        assertTrue(ring.usedBytes() <= ring.capacity());
+        assertEquals(ring.lineCount(), lines.size());
+        assertEquals("line-99", lines.get(lines.size() - 1));
+        for (int i = 0; i < lines.size(); i++) {
+            assertEquals("line-" + (100 - lines.size() + i), lines.get(i));
+        }
+    }
+
+    @Test
+    void testAppend_TruncatesLineLongerThanCapacity() {
+        OffHeapLineRing ring = new OffHeapLineRing(64);
+        append(ring, "short");
+        ByteBuffer line = ByteBuffer.wrap("a".repeat(100).getBytes(StandardCharsets.UTF_8));
+        ring.append(line);
+
+        assertFalse(line.hasRemaining());
+        assertEquals(List.of("a".repeat(56)), ring.lastLines(5));
+    }
+
+    private static void append(OffHeapLineRing ring, String line) {
+        ring.append(ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8)));
+    }
+}
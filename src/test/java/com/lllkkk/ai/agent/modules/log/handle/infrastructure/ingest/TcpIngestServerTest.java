@@ -0,0 +1,144 @@
+package com.lllkkk.ai.agent.modules.log.handle.infrastructure.ingest;
+
+import com.lllkkk.ai.agent.modules.log.handle.application.LogProcessingPipeline;
+import com.lllkkk.ai.agent.modules.log.handle.application.PipelineResult;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.LogRecord;
+import com.lllkkk.ai.agent.modules.log.handle.domain.model.StackFrame;
+import com.lllkkk.ai.agent.modules.log.handle.domain.service.impl.TrieBusinessPackageMatcher;
+import com.lllkkk.ai.agent.modules.log.handle.infrastructure.config.IngestConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class TcpIngestServerTest {
+
+    private final LogProcessingPipeline pipeline = mock(LogProcessingPipeline.class);
+    private final List<CompletableFuture<PipelineResult>> submitted = new CopyOnWriteArrayList<>();
+    private TcpIngestServer server;
+
+    @AfterEach
+    void stop() throws IOException {
+        if (server != null) {
+            server.destroy();
+        }
+    }
+
+    @Test
+    void testIngest_AcksFramesSplitAcrossWritesAndRejectsGarbage() throws Exception {
+        when(pipeline.trySubmitParsed(any(), any())).thenAnswer(invocation -> pending());
+        start(16);
+
+        try (Socket socket = connect()) {
+            byte[] frame = frameBytes("order-web");
+            OutputStream out = socket.getOutputStream();
+            // 一帧拆成两次写入，另一帧与第三帧粘在一起
+            out.write(frame, 0, 7);
+            out.flush();
+            Thread.sleep(50);
+            out.write(frame, 7, frame.length - 7);
+            out.write(concat(frame, frame));
+            out.write(new byte[]{0, 0, 0, 3, 9, 9, 9});
+            out.flush();
+
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+            assertEquals(TcpIngestServer.ACK, in.readByte());
+            assertEquals(TcpIngestServer.ACK, in.readByte());
+            assertEquals(TcpIngestServer.ACK, in.readByte());
+            assertEquals(TcpIngestServer.ERROR, in.readByte());
+        }
+        verify(pipeline, times(3)).trySubmitParsed(argThat(record -> "order-web".equals(record.getProjectName())
+                && record.getStackFrames().get(0).isBusinessFlag()), any());
+        assertEquals(3, server.stats().accepted());
+        assertEquals(1, server.stats().malformed());
+    }
+
+    @Test
+    void testIngest_RepliesBusyWhenPipelineQueueIsFull() throws Exception {
+        when(pipeline.trySubmitParsed(any(), any()))
+                .thenReturn(CompletableFuture.failedFuture(new RejectedExecutionException("full")));
+        start(16);
+
+        try (Socket socket = connect()) {
+            socket.getOutputStream().write(frameBytes("order-web"));
+            assertEquals(TcpIngestServer.BUSY, socket.getInputStream().read());
+        }
+        assertEquals(1, server.stats().busy());
+    }
+
+    @Test
+    void testIngest_StopsReadingUntilInFlightRecordsComplete() throws Exception {
+        when(pipeline.trySubmitParsed(any(), any())).thenAnswer(invocation -> pending());
+        start(1);
+
+        try (Socket socket = connect()) {
+            socket.setSoTimeout(300);
+            socket.getOutputStream().write(concat(frameBytes("order-web"), frameBytes("order-web")));
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+            assertEquals(TcpIngestServer.ACK, in.readByte());
+            assertThrows(SocketTimeoutException.class, in::readByte, "Second frame should wait for capacity");
+            assertTrue(server.stats().paused());
+            assertEquals(1, submitted.size());
+
+            submitted.get(0).complete(new PipelineResult(null, null));
+            socket.setSoTimeout(3000);
+            assertEquals(TcpIngestServer.ACK, in.readByte());
+            assertEquals(2, submitted.size());
+        }
+    }
+
+    private CompletableFuture<PipelineResult> pending() {
+        CompletableFuture<PipelineResult> future = new CompletableFuture<>();
+        submitted.add(future);
+        return future;
+    }
+
+    private void start(int maxInFlight) throws IOException {
+        IngestConfig config = new IngestConfig();
+        config.setHost("127.0.0.1");
+        config.setPort(0);
+        config.setBufferSize(1024);
+        config.setMaxInFlight(maxInFlight);
+        server = new TcpIngestServer(config, pipeline, TrieBusinessPackageMatcher.withDefaults());
+        server.start();
+    }
+
+    private Socket connect() throws IOException {
+        Socket socket = new Socket("127.0.0.1", server.port());
+        socket.setSoTimeout(3000);
+        return socket;
+    }
+
+    private static byte[] frameBytes(String project) {
+        LogRecord record = LogRecord.builder()
+                .projectName(project)
+                .level("ERROR")
+                .exceptionClass("java.lang.NullPointerException")
+                .stackFrames(List.of(new StackFrame(null, "com.dyyl.order.OrderService", "submit", 102, false)))
+                .build();
+        ByteBuffer frame = BinaryLogFrameCodec.encode(record);
+        byte[] bytes = new byte[frame.remaining()];
+        frame.get(bytes);
+        return bytes;
+    }
+
+    private static byte[] concat(byte[] first, byte[] second) {
+        byte[] joined = new byte[first.length + second.length];
+        System.arraycopy(first, 0, joined, 0, first.length);
+        System.arraycopy(second, 0, joined, first.length, second.length);
+        return joined;
+    }
+}
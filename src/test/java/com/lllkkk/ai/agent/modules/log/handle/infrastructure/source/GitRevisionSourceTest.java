@@ -0,0 +1,197 @@
+package com.lllkkk.ai.agent.modules.log.handle.infrastructure.source;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * 用 git 命令构造测试仓库，验证直接读取包文件（含增量对象）、松散对象与引用的结果
+ */
+class GitRevisionSourceTest {
+
+    private static final String SERVICE_PATH = "order-service/src/main/java/com/dyyl/order/OrderService.java";
+
+    @TempDir
+    Path repo;
+
+    private String v1;
+    private String v2;
+    private String v3;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        assumeTrue(gitAvailable(), "未安装 git，跳过");
+        git("init", "-q", "-b", "main");
+        git("config", "user.email", "dev@dyyl.com");
+        git("config", "user.name", "dev");
+
+        v1 = commit(source(1), "v1");
+        git("tag", "-a", "release-1.0", "-m", "release 1.0");
+        v2 = commit(source(2), "v2");
+        Files.writeString(repo.resolve("order-service/src/test/java/com/dyyl/order/OrderService.java"),
+                "class OrderService {}", StandardCharsets.UTF_8);
+        git("add", "-A");
+        git("commit", "-q", "-m", "test copy");
+        v2 = git("rev-parse", "HEAD");
+        // 打包已有对象并打包引用，之后的提交保持为松散对象
+        git("gc", "-q", "--aggressive");
+        v3 = commit(source(3), "v3");
+    }
+
+    @Test
+    void testFind_ReadsPackedDeltaAndLooseObjects() throws IOException {
+        assertTrue(hasPackFile(), "fixture should contain a pack file");
+        GitRevisionSource source = newSource();
+
+        GitRevisionSource.RevisionSource first = source.find(v1, "com.dyyl.order.OrderService").orElseThrow();
+        assertEquals(SERVICE_PATH, first.path());
+        assertEquals(v1, first.commitId());
+        assertEquals(source(1), first.content());
+
+        assertEquals(source(2), source.find(v2, "com.dyyl.order.OrderService$Inner").orElseThrow().content());
+        assertEquals(source(3), source.find(v3, "com.dyyl.order.OrderService").orElseThrow().content());
+        assertTrue(source.find(v1, "com.dyyl.order.Missing").isEmpty());
+    }
+
+    @Test
+    void testFind_ResolvesRefsTagsAndAbbreviations() throws IOException {
+        GitRevisionSource source = newSource();
+
+        // release-1.0 为附注标签，gc 后位于 packed-refs 中
+        assertEquals(v1, source.find("release-1.0", "com.dyyl.order.OrderService").orElseThrow().commitId());
+        assertEquals(v3, source.find("main", "com.dyyl.order.OrderService").orElseThrow().commitId());
+        assertEquals(v3, source.find("HEAD", "com.dyyl.order.OrderService").orElseThrow().commitId());
+        assertEquals(v2, source.find(v2.substring(0, 8), "com.dyyl.order.OrderService").orElseThrow().commitId());
+        assertEquals(v3, source.find(v3.substring(0, 7), "com.dyyl.order.OrderService").orElseThrow().commitId());
+        assertTrue(source.find("no-such-branch", "com.dyyl.order.OrderService").isEmpty());
+        assertTrue(source.find("0000000", "com.dyyl.order.OrderService").isEmpty());
+    }
+
+    @Test
+    void testBlobCache_EvictsByBytes() throws IOException {
+        long oneFile = 2L * source(1).length();
+        GitRevisionSource source = new GitRevisionSource(new GitObjectStore(repo.resolve(".git")), oneFile + 10, 4);
+
+        source.find(v1, "com.dyyl.order.OrderService").orElseThrow();
+        source.find(v2, "com.dyyl.order.OrderService").orElseThrow();
+
+        assertTrue(source.cachedBytes() <= oneFile + 10, "cache should stay within its byte budget");
+        assertTrue(source.cachedBytes() > 0);
+    }
+
+    @Test
+    void testCommitIndex_ConcurrentLookupsShareOneTreeWalk() throws Exception {
+        AtomicInteger walks = new AtomicInteger();
+        GitObjectStore store = new GitObjectStore(repo.resolve(".git")) {
+            @Override
+            public Optional<String> commitTree(String commitId) throws IOException {
+                walks.incrementAndGet();
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.commitTree(commitId);
+            }
+        };
+        GitRevisionSource source = new GitRevisionSource(store, 1024 * 1024, 4);
+
+        List<Future<GitRevisionSource.RevisionSource>> lookups = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < 8; i++) {
+                lookups.add(executor.submit(() -> source.find(v1, "com.dyyl.order.OrderService").orElseThrow()));
+            }
+            for (Future<GitRevisionSource.RevisionSource> lookup : lookups) {
+                assertEquals(source(1), lookup.get(10, TimeUnit.SECONDS).content());
+            }
+        }
+
+        assertEquals(1, walks.get(), "Concurrent lookups of one commit should walk its tree once");
+    }
+
+    @Test
+    void testFindGitDir_WalksUpFromModule() throws IOException {
+        Path module = repo.resolve("order-service/src/main/java");
+
+        assertEquals(repo.resolve(".git").toRealPath(), GitObjectStore.findGitDir(module).orElseThrow().toRealPath());
+    }
+
+    @Test
+    void testApplyDelta_CopyAndInsert() throws IOException {
+        byte[] base = "hello, world".getBytes(StandardCharsets.US_ASCII);
+        // 基长度 12，结果长度 11；复制 base[0,5)，插入 " java"，再复制 base[5,6)
+        byte[] delta = {12, 11, (byte) 0x90, 5, 5, ' ', 'j', 'a', 'v', 'a', (byte) 0x91, 5, 1};
+
+        assertEquals("hello java,", new String(GitPackFile.applyDelta(base, delta), StandardCharsets.US_ASCII));
+        assertThrows(IOException.class, () -> GitPackFile.applyDelta(new byte[3], delta));
+    }
+
+    private GitRevisionSource newSource() {
+        return new GitRevisionSource(new GitObjectStore(repo.resolve(".git")), 1024 * 1024, 4);
+    }
+
+    private boolean hasPackFile() throws IOException {
+        try (Stream<Path> files = Files.list(repo.resolve(".git/objects/pack"))) {
+            return files.anyMatch(file -> file.toString().endsWith(".pack"));
+        }
+    }
+
+    /**
+     * 各版本只有个别行不同，gc 后旧版本会以增量形式存放
+     */
+    private static String source(int version) {
+        StringBuilder out = new StringBuilder("package com.dyyl.order;\n\npublic class OrderService {\n");
+        for (int i = 0; i < 40; i++) {
+            out.append("    public void step").append(i).append("() {\n")
+                    .append("        System.out.println(\"step ").append(i).append("\");\n")
+                    .append("    }\n");
+        }
+        out.append("    public void submit() {\n        int version = ").append(version).append(";\n    }\n}\n");
+        return out.toString();
+    }
+
+    private String commit(String content, String message) throws Exception {
+        Path file = repo.resolve(SERVICE_PATH);
+        Files.createDirectories(file.getParent());
+        Files.createDirectories(repo.resolve("order-service/src/test/java/com/dyyl/order"));
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+        git("add", "-A");
+        git("commit", "-q", "-m", message);
+        return git("rev-parse", "HEAD");
+    }
+
+    private String git(String... args) throws Exception {
+        List<String> command = new ArrayList<>();
+        command.add("git");
+        command.addAll(List.of(args));
+        Process process = new ProcessBuilder(command).directory(repo.toFile()).redirectErrorStream(true).start();
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8).trim();
+        assertEquals(0, process.waitFor(), output);
+        return output;
+    }
+
+    private static boolean gitAvailable() {
+        try {
+            return new ProcessBuilder("git", "--version").start().waitFor() == 0;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+}
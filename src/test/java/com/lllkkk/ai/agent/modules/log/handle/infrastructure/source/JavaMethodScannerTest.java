@@ -0,0 +1,108 @@
+package com.lllkkk.ai.agent.modules.log.handle.infrastructure.source;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JavaMethodScannerTest {
+
+    private static final String SOURCE = """
+            package com.dyyl.order.service;
+
+            import java.util.List;
+
+            /**
+             * 订单服务 { 注释中的括号不计入 }
+             */
+            public class OrderService {
+
+                private final int[] codes = {1, 2, 3};
+                private final Runnable task = () -> {
+                    System.out.println("field lambda");
+                };
+
+                public OrderService() {
+                    this.name = "}";
+                }
+
+                @Transactional(rollbackFor = Exception.class)
+                public <T> List<T> submit(@RequestParam(value = "id") Long id,
+                                          List<T> items) throws Exception {
+                    if (id == null) {
+                        throw new IllegalArgumentException("id {");
+                    }
+                    items.forEach(item -> {
+                        System.out.println('{');
+                    });
+                    return items;
+                }
+
+                static {
+                    System.out.println(\"\"\"
+                            text block }
+                            \"\"\");
+                }
+
+                class Inner {
+                    void run() {
+                        new Thread(new Runnable() {
+                            @Override
+                            public void run() {
+                                System.out.println("anonymous");
+                            }
+                        }).start();
+                    }
+                }
+            }
+
+            record Amount(long value) {
+                Amount {
+                    if (value < 0) throw new IllegalArgumentException();
+                }
+            }
+            """;
+
+    @Test
+    void testScan_PackageAndTopLevelTypes() {
+        JavaMethodScanner.ScanResult result = JavaMethodScanner.scan(SOURCE);
+
+        assertEquals("com.dyyl.order.service", result.packageName());
+        assertEquals(List.of("OrderService", "Amount"), result.topLevelTypes());
+    }
+
+    @Test
+    void testScan_MethodRanges() {
+        List<MethodRange> methods = JavaMethodScanner.scan(SOURCE).methods();
+
+        MethodRange constructor = find(methods, "OrderService", "<init>");
+        assertEquals(15, constructor.startLine());
+        assertEquals(17, constructor.endLine());
+
+        MethodRange submit = find(methods, "OrderService", "submit");
+        assertEquals(19, submit.startLine(), "Range should start at the annotation");
+        assertEquals(29, submit.endLine());
+
+        MethodRange staticInit = find(methods, "OrderService", "<clinit>");
+        assertEquals(31, staticInit.startLine());
+        assertEquals(35, staticInit.endLine());
+
+        MethodRange innerRun = find(methods, "OrderService$Inner", "run");
+        assertEquals(38, innerRun.startLine());
+        assertEquals(45, innerRun.endLine());
+
+        assertTrue(methods.stream().anyMatch(m -> m.methodName().equals("run") && m.startLine() == 40),
+                "Anonymous class method should be indexed");
+        assertNotNull(find(methods, "Amount", "<init>"));
+        assertTrue(methods.stream().noneMatch(m -> m.methodName().equals("task") || m.methodName().equals("codes")),
+                "Field initializers are not methods");
+    }
+
+    private MethodRange find(List<MethodRange> methods, String className, String methodName) {
+        return methods.stream()
+                .filter(m -> m.className().equals(className) && m.methodName().equals(methodName))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("Missing method " + className + "." + methodName + " in " + methods));
+    }
+}
@@ -0,0 +1,109 @@
+package com.lllkkk.ai.agent.modules.log.handle.infrastructure.source;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SourceArchiveIndexTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testFind_ResolvesClassesAcrossArchives() throws IOException {
+        Path common = writeJar(tempDir.resolve("common-1.0-sources.jar"), Map.of(
+                "com/dyyl/common/Money.java", "package com.dyyl.common;\npublic class Money {}\n"));
+        Path util = writeJar(tempDir.resolve("util-2.1-sources.jar"), Map.of(
+                "com/dyyl/util/Strings.java", "package com.dyyl.util;\npublic class Strings {}\n"));
+
+        try (SourceArchiveIndex index = new SourceArchiveIndex(1)) {
+            index.indexArchives(List.of(common, util, tempDir.resolve("missing-sources.jar")));
+
+            assertEquals(2, index.size());
+            // 容量为 1 时两个归档交替读取，验证被淘汰关闭的归档能重新打开
+            for (int i = 0; i < 3; i++) {
+                assertTrue(index.find("com.dyyl.common.Money$Cents").orElseThrow().content().contains("class Money"));
+                assertEquals(util, index.find("com.dyyl.util.Strings").orElseThrow().archive());
+            }
+            assertTrue(index.find("com.dyyl.common.Missing").isEmpty());
+        }
+    }
+
+    @Test
+    void testFind_CachesMethodBoundariesAndReadsConcurrently() throws Exception {
+        Path jar = writeJar(tempDir.resolve("order-1.0-sources.jar"), Map.of(
+                "com/dyyl/order/OrderService.java", """
+                        package com.dyyl.order;
+                        public class OrderService {
+                            void submit() {
+                                check();
+                            }
+                        }
+                        """,
+                "com/dyyl/order/Money.java", "package com.dyyl.order;\npublic class Money {}\n"));
+        Path other = writeJar(tempDir.resolve("other-1.0-sources.jar"), Map.of(
+                "com/dyyl/other/Other.java", "package com.dyyl.other;\npublic class Other {}\n"));
+
+        try (SourceArchiveIndex index = new SourceArchiveIndex(1)) {
+            index.indexArchives(List.of(jar, other));
+            SourceArchiveIndex.ArchiveSource first = index.find("com.dyyl.order.OrderService").orElseThrow();
+            SourceArchiveIndex.ArchiveSource second = index.find("com.dyyl.order.OrderService").orElseThrow();
+
+            assertSame(first.methods(), second.methods(), "Method boundaries should be scanned once per entry");
+            assertTrue(first.methods().stream().anyMatch(m -> m.methodName().equals("submit") && m.contains(4)));
+
+            // 容量为 1 时并发读取两个归档，淘汰不能关闭其他线程正在读取的归档
+            ExecutorService pool = Executors.newFixedThreadPool(8);
+            try {
+                List<Future<Boolean>> results = new ArrayList<>();
+                for (int i = 0; i < 200; i++) {
+                    String className = i % 2 == 0 ? "com.dyyl.order.Money" : "com.dyyl.other.Other";
+                    results.add(pool.submit(() -> index.find(className).isPresent()));
+                }
+                for (Future<Boolean> result : results) {
+                    assertTrue(result.get(5, TimeUnit.SECONDS));
+                }
+            } finally {
+                pool.shutdownNow();
+            }
+        }
+    }
+
+    @Test
+    void testFindMavenSourceJars_OnlyScansConfiguredGroups() throws IOException {
+        Path repo = tempDir.resolve("repository");
+        Path wanted = writeJar(Files.createDirectories(repo.resolve("com/dyyl/common/1.0")).resolve("common-1.0-sources.jar"),
+                Map.of("com/dyyl/common/Money.java", "class Money {}"));
+        writeJar(Files.createDirectories(repo.resolve("com/dyyl/common/1.0")).resolve("common-1.0.jar"), Map.of());
+        writeJar(Files.createDirectories(repo.resolve("org/other/1.0")).resolve("other-1.0-sources.jar"), Map.of());
+
+        assertEquals(List.of(wanted), SourceArchiveIndex.findMavenSourceJars(repo, List.of("com.dyyl", "com.missing")));
+    }
+
+    private Path writeJar(Path jar, Map<String, String> entries) throws IOException {
+        try (OutputStream out = Files.newOutputStream(jar); ZipOutputStream zip = new ZipOutputStream(out)) {
+            for (Map.Entry<String, String> entry : entries.entrySet()) {
+                zip.putNextEntry(new ZipEntry(entry.getKey()));
+                zip.write(entry.getValue().getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+        }
+        return jar;
+    }
+}
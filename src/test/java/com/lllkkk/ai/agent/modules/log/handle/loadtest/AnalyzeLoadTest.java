@@ -0,0 +1,88 @@
+package com.lllkkk.ai.agent.modules.log.handle.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * /analyze 端到端压测
+ * 大模型接口由内嵌模拟服务替代，不消耗真实 API 额度。默认构建不运行，执行方式：
+ * <pre>
+ * mvn test -Pload-test -Dloadtest.rate=50 -Dloadtest.duration-seconds=30 \
+ *     -Dloadtest.latency=lognormal:800:3000 -Dloadtest.error-rate=0.02 -Dloadtest.rate-limit-rate=0.05
+ * </pre>
+ */
+@Slf4j
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class AnalyzeLoadTest {
+
+    private static final MockLLMServer MOCK = startMock();
+
+    @LocalServerPort
+    private int port;
+
+    @DynamicPropertySource
+    static void pointAtMock(DynamicPropertyRegistry registry) {
+        registry.add("ai.kimi.base-url", MOCK::baseUrl);
+        registry.add("ai.kimi.api-key", () -> "load-test");
+        registry.add("ai.kimi.request-timeout-ms", () -> property("loadtest.upstream-timeout-ms", "30000"));
+        registry.add("analysis.reuse.enabled", () -> property("loadtest.reuse", "false"));
+        registry.add("code.locator.enable-source-lookup", () -> "false");
+        registry.add("code.locator.index-on-startup", () -> "false");
+    }
+
+    @AfterAll
+    static void stopMock() {
+        MOCK.close();
+    }
+
+    @Test
+    void analyzeUnderLoad() throws Exception {
+        double rate = Double.parseDouble(property("loadtest.rate", "20"));
+        Duration duration = Duration.ofSeconds(Long.parseLong(property("loadtest.duration-seconds", "10")));
+        int corpusSize = Integer.parseInt(property("loadtest.corpus-size", "500"));
+        int unique = Integer.parseInt(property("loadtest.unique", String.valueOf(corpusSize)));
+
+        List<String> corpus = SyntheticLogCorpus.generate(corpusSize, unique, 42L);
+        LoadGenerator generator = new LoadGenerator(
+                URI.create("http://127.0.0.1:" + port + "/api/log-analysis/analyze"), Duration.ofSeconds(60));
+
+        // 预热：触发类加载和 JIT，不计入报告
+        generator.run(corpus, Math.min(rate, 10), Duration.ofSeconds(2));
+        LoadGenerator.Report report = generator.run(corpus, rate, duration);
+
+        log.info("\n{}模拟服务: 请求 {}，500 {}，429 {}", report.format(),
+                MOCK.requestCount(), MOCK.errorCount(), MOCK.throttledCount());
+        assertTrue(report.latencies().length > 0, "没有完成的请求");
+    }
+
+    private static MockLLMServer startMock() {
+        try {
+            return new MockLLMServer(MockLLMServer.Settings.builder()
+                    .latency(LatencyDistribution.parse(property("loadtest.latency", "lognormal:300:1200")))
+                    .errorRate(Double.parseDouble(property("loadtest.error-rate", "0.01")))
+                    .rateLimitRate(Double.parseDouble(property("loadtest.rate-limit-rate", "0.02")))
+                    .build()).start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String property(String key, String defaultValue) {
+        return System.getProperty(key, defaultValue);
+    }
+}
@@ -0,0 +1,42 @@
+package com.lllkkk.ai.agent.modules.log.handle.loadtest;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 模拟上游耗时分布
+ * 文本格式：fixed:200、uniform:100:500、lognormal:800:3000（中位数:p99，单位毫秒）
+ */
+public interface LatencyDistribution {
+
+    /**
+     * 采样一次耗时（毫秒）
+     */
+    long sampleMillis();
+
+    static LatencyDistribution parse(String spec) {
+        String[] parts = spec.trim().split(":");
+        return switch (parts[0].toLowerCase()) {
+            case "fixed" -> fixed(Long.parseLong(parts[1]));
+            case "uniform" -> uniform(Long.parseLong(parts[1]), Long.parseLong(parts[2]));
+            case "lognormal" -> logNormal(Double.parseDouble(parts[1]), Double.parseDouble(parts[2]));
+            default -> throw new IllegalArgumentException("未知的耗时分布: " + spec);
+        };
+    }
+
+    static LatencyDistribution fixed(long millis) {
+        return () -> millis;
+    }
+
+    static LatencyDistribution uniform(long minMillis, long maxMillis) {
+        return () -> ThreadLocalRandom.current().nextLong(minMillis, maxMillis + 1);
+    }
+
+    /**
+     * 对数正态分布，由中位数和 p99 推出参数，贴近大模型接口的长尾
+     */
+    static LatencyDistribution logNormal(double medianMillis, double p99Millis) {
+        double mu = Math.log(medianMillis);
+        double sigma = Math.max(0.0, (Math.log(p99Millis) - mu) / 2.326);
+        return () -> Math.round(Math.exp(mu + sigma * ThreadLocalRandom.current().nextGaussian()));
+    }
+}
@@ -0,0 +1,143 @@
+package com.lllkkk.ai.agent.modules.log.handle.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 开环压测发生器
+ * 按目标速率在计划时刻发出请求，不等待前一个请求返回；耗时从计划发出时刻算起，
+ * 服务端排队造成的延迟会如实计入，避免协同遗漏（coordinated omission）
+ */
+@Slf4j
+public class LoadGenerator {
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+
+    private final URI target;
+    private final Duration requestTimeout;
+
+    public LoadGenerator(URI target, Duration requestTimeout) {
+        this.target = target;
+        this.requestTimeout = requestTimeout;
+    }
+
+    /**
+     * 压测结果
+     *
+     * @param sent          发出的请求数
+     * @param elapsedMillis 从开始到最后一个请求完成的耗时
+     * @param latencies     每个请求的耗时（毫秒），已排序
+     * @param statusCounts  按 HTTP 状态码统计，-1 表示客户端超时或连接失败
+     * @param degraded      返回降级分析结果的请求数
+     */
+    public record Report(int sent, long elapsedMillis, long[] latencies, Map<Integer, Long> statusCounts, long degraded) {
+
+        public double throughput() {
+            return elapsedMillis == 0 ? 0 : latencies.length * 1000.0 / elapsedMillis;
+        }
+
+        public long percentile(double p) {
+            if (latencies.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(p / 100.0 * latencies.length) - 1;
+            return latencies[Math.max(0, Math.min(latencies.length - 1, index))];
+        }
+
+        public String format() {
+            return """
+                    ===== 压测报告 =====
+                    请求数:   %d（完成 %d）
+                    吞吐量:   %.1f req/s
+                    耗时 ms:  p50=%d p95=%d p99=%d max=%d
+                    状态码:   %s
+                    降级结果: %d
+                    """.formatted(sent, latencies.length, throughput(),
+                    percentile(50), percentile(95), percentile(99), percentile(100),
+                    statusCounts, degraded);
+        }
+    }
+
+    /**
+     * 以目标速率发送请求，语料循环使用
+     *
+     * @param corpus     请求体
+     * @param ratePerSec 目标速率
+     * @param duration   持续时间
+     */
+    public Report run(List<String> corpus, double ratePerSec, Duration duration) throws InterruptedException {
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSec);
+        int total = (int) Math.max(1, duration.toNanos() / intervalNanos);
+
+        long[] latencies = new long[total];
+        Arrays.fill(latencies, -1);
+        Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+        LongAdder degraded = new LongAdder();
+        AtomicInteger completed = new AtomicInteger();
+
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < total; i++) {
+                long scheduledAt = start + i * intervalNanos;
+                long wait = scheduledAt - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                int index = i;
+                String body = corpus.get(i % corpus.size());
+                executor.submit(() -> {
+                    int status = send(body, degraded);
+                    latencies[index] = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - scheduledAt);
+                    statuses.computeIfAbsent(status, key -> new LongAdder()).increment();
+                    completed.incrementAndGet();
+                });
+            }
+            log.info("已按 {} req/s 发出 {} 个请求，等待全部完成", ratePerSec, total);
+        }
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        long[] done = Arrays.stream(latencies).filter(latency -> latency >= 0).sorted().toArray();
+        Map<Integer, Long> statusCounts = new TreeMap<>();
+        statuses.forEach((status, count) -> statusCounts.put(status, count.sum()));
+        return new Report(total, elapsed, done, statusCounts, degraded.sum());
+    }
+
+    private int send(String body, LongAdder degraded) {
+        HttpRequest request = HttpRequest.newBuilder(target)
+                .timeout(requestTimeout)
+                .header("Content-Type", "text/plain;charset=UTF-8")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        try {
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.body().contains("\"degraded\":true")) {
+                degraded.increment();
+            }
+            return response.statusCode();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1;
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.lllkkk.ai.agent.modules.log.handle.loadtest;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * 单线程微基准
+ * 预热后分多轮测量，取各轮每次操作耗时的中位数，分配量来自当前线程的累计分配字节数。
+ * 不替代 JMH，但足以在同一 JVM 中对比两种实现，结果随 @Tag("benchmark") 测试输出
+ */
+public final class Microbenchmark {
+
+    private static final int ROUNDS = 5;
+
+    /**
+     * 防止 JIT 消除被测操作的结果
+     */
+    private static volatile int sink;
+
+    private Microbenchmark() {
+    }
+
+    /**
+     * 测量结果
+     *
+     * @param name       名称
+     * @param nanosPerOp 每次操作耗时（纳秒，各轮中位数）
+     * @param bytesPerOp 每次操作分配的字节数，JVM 不支持统计时为 -1
+     */
+    public record Result(String name, double nanosPerOp, long bytesPerOp) {
+
+        public double microsPerOp() {
+            return nanosPerOp / 1000.0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-32s %10.2f us/op %10d B/op", name, microsPerOp(), bytesPerOp);
+        }
+    }
+
+    public static Result run(String name, int warmupIterations, int iterations, Supplier<?> operation) {
+        for (int i = 0; i < warmupIterations; i++) {
+            consume(operation.get());
+        }
+        double[] rounds = new double[ROUNDS];
+        long allocatedBefore = allocatedBytes();
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                consume(operation.get());
+            }
+            rounds[round] = (double) (System.nanoTime() - start) / iterations;
+        }
+        long allocated = allocatedBytes() - allocatedBefore;
+        Arrays.sort(rounds);
+        long bytesPerOp = allocatedBefore < 0 ? -1 : allocated / ((long) ROUNDS * iterations);
+        return new Result(name, rounds[ROUNDS / 2], bytesPerOp);
+    }
+
+    private static void consume(Object value) {
+        sink += value == null ? 0 : System.identityHashCode(value);
+    }
+
+    private static long allocatedBytes() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+                && threads.isThreadAllocatedMemorySupported()) {
+            return threads.getThreadAllocatedBytes(Thread.currentThread().threadId());
+        }
+        return -1;
+    }
+}
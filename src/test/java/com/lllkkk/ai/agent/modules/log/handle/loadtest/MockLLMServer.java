@@ -0,0 +1,128 @@
+package com.lllkkk.ai.agent.modules.log.handle.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.Builder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 内嵌的 OpenAI 兼容 /chat/completions 模拟服务
+ * 按配置的耗时分布延迟响应，并按比例返回 500 和 429，用于压测时替代真实的大模型接口
+ */
+@Slf4j
+public class MockLLMServer implements AutoCloseable {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final String ANALYSIS = """
+            {"rootCause": "模拟根因", "summary": "模拟摘要", "fixSuggestion": "模拟修复建议", "relatedLocation": "com.dyyl.Mock:1"}""";
+
+    private final Settings settings;
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+
+    /**
+     * 模拟服务配置
+     *
+     * @param latency       正常响应的耗时分布
+     * @param errorRate     返回 500 的比例
+     * @param rateLimitRate 返回 429 的比例
+     */
+    @Builder
+    public record Settings(LatencyDistribution latency, double errorRate, double rateLimitRate) {
+    }
+
+    public MockLLMServer(Settings settings) throws IOException {
+        this.settings = settings;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        this.server.createContext("/v1/chat/completions", this::handle);
+        this.server.setExecutor(executor);
+    }
+
+    public MockLLMServer start() {
+        server.start();
+        log.info("模拟大模型服务已启动: {}", baseUrl());
+        return this;
+    }
+
+    /**
+     * 供 ai.kimi.base-url 使用的地址
+     */
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/v1";
+    }
+
+    public long requestCount() {
+        return requests.sum();
+    }
+
+    public long errorCount() {
+        return errors.sum();
+    }
+
+    public long throttledCount() {
+        return throttled.sum();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.increment();
+        try (exchange) {
+            exchange.getRequestBody().readAllBytes();
+            double roll = ThreadLocalRandom.current().nextDouble();
+            if (roll < settings.rateLimitRate()) {
+                throttled.increment();
+                exchange.getResponseHeaders().add("Retry-After", "1");
+                respond(exchange, 429, "{\"error\":{\"message\":\"rate limited\",\"type\":\"rate_limit_reached_error\"}}");
+                return;
+            }
+
+            Thread.sleep(settings.latency().sampleMillis());
+            if (roll < settings.rateLimitRate() + settings.errorRate()) {
+                errors.increment();
+                respond(exchange, 500, "{\"error\":{\"message\":\"mock failure\",\"type\":\"server_error\"}}");
+                return;
+            }
+            Map<String, Object> body = Map.of(
+                    "id", "mock-" + requests.sum(),
+                    "object", "chat.completion",
+                    "choices", List.of(Map.of(
+                            "index", 0,
+                            "message", Map.of("role", "assistant", "content", ANALYSIS),
+                            "finish_reason", "stop")));
+            respond(exchange, 200, MAPPER.writeValueAsString(body));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.lllkkk.ai.agent.modules.log.handle.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 合成异常日志语料
+ * 按告警日志格式生成不同项目、异常类和业务调用链的日志；固定随机种子，便于多次压测对比
+ */
+public final class SyntheticLogCorpus {
+
+    private static final String[] PROJECTS = {"order-web", "pay-web", "user-web", "meeting-web"};
+    private static final String[] EXCEPTIONS = {
+            "java.lang.NullPointerException",
+            "java.lang.IllegalStateException: 订单状态不允许该操作",
+            "java.lang.IllegalArgumentException: 参数不能为空",
+            "java.lang.IndexOutOfBoundsException: Index 3 out of bounds for length 3",
+            "org.springframework.dao.DuplicateKeyException: Duplicate entry",
+            "java.util.concurrent.TimeoutException: 调用下游服务超时"
+    };
+    private static final String[] MODULES = {"order", "pay", "user", "meeting", "coupon", "stock"};
+    private static final String[] LAYERS = {"controller", "application.service", "domain.service", "infrastructure.repository"};
+    private static final String[] FRAMEWORK_FRAMES = {
+            "org.springframework.aop.framework.ReflectiveMethodInvocation.proceed(ReflectiveMethodInvocation.java:186)",
+            "org.springframework.transaction.interceptor.TransactionInterceptor.invoke(TransactionInterceptor.java:119)",
+            "java.util.stream.ReferencePipeline$3$1.accept(ReferencePipeline.java:197)",
+            "jakarta.servlet.http.HttpServlet.service(HttpServlet.java:590)"
+    };
+
+    private SyntheticLogCorpus() {
+    }
+
+    /**
+     * 生成语料
+     *
+     * @param size   日志条数
+     * @param unique 不同调用链的数量，小于 size 时会产生重复异常（考察历史分析复用）
+     * @param seed   随机种子
+     */
+    public static List<String> generate(int size, int unique, long seed) {
+        Random random = new Random(seed);
+        List<String> distinct = new ArrayList<>();
+        for (int i = 0; i < Math.max(1, unique); i++) {
+            distinct.add(generateOne(random, i));
+        }
+        List<String> corpus = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            corpus.add(distinct.get(i % distinct.size()));
+        }
+        return corpus;
+    }
+
+    private static String generateOne(Random random, int id) {
+        String project = PROJECTS[random.nextInt(PROJECTS.length)];
+        String exception = EXCEPTIONS[random.nextInt(EXCEPTIONS.length)];
+        int depth = 3 + random.nextInt(5);
+
+        List<String> frames = new ArrayList<>();
+        for (int i = 0; i < depth; i++) {
+            String module = MODULES[random.nextInt(MODULES.length)];
+            String layer = LAYERS[Math.min(LAYERS.length - 1, depth - 1 - i)];
+            String type = Character.toUpperCase(module.charAt(0)) + module.substring(1) + "Service" + id;
+            frames.add("com.dyyl.%s.%s.%s.handle%d(%s.java:%d)"
+                    .formatted(module, layer, type, i, type, 20 + random.nextInt(600)));
+            if (random.nextInt(3) == 0) {
+                frames.add(FRAMEWORK_FRAMES[random.nextInt(FRAMEWORK_FRAMES.length)]);
+            }
+        }
+
+        return """
+                异常项目: %s
+                IP地址: 172.22.1.%d
+                异常级别: ERROR
+                异常来源: com.dyyl.%s.controller.LoadTestController
+                异常时间: 2025-09-27 15:%02d:%02d
+                日志内容: 压测合成日志 #%d
+                异常描述: %s
+                详细信息:
+                 [%s]
+                """.formatted(project, random.nextInt(250), MODULES[random.nextInt(MODULES.length)],
+                random.nextInt(60), random.nextInt(60), id, exception, String.join(", ", frames));
+    }
+}
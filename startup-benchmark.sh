@@ -0,0 +1,80 @@
+#!/bin/bash
+
+# AI日志分析项目 - 启动耗时对比脚本
+# 分别构建默认包与 fast-startup 包（Spring AOT + AppCDS），多次冷启动并统计
+# 从进程启动到 /api/log-analysis/health 首次返回 200 的耗时
+#
+# 用法: ./startup-benchmark.sh [运行次数，默认 5] [端口，默认 18080]
+
+set -euo pipefail
+
+RUNS=${1:-5}
+PORT=${2:-18080}
+HEALTH_URL="http://localhost:${PORT}/api/log-analysis/health"
+WORK_DIR="target/startup-benchmark"
+JAR_NAME="agent-0.0.1-SNAPSHOT.jar"
+
+command -v curl &> /dev/null || { echo "❌ 需要 curl"; exit 1; }
+
+if [ -x ./mvnw ]; then
+    MVN=./mvnw
+else
+    MVN=mvn
+fi
+
+now_ms() {
+    date +%s%3N
+}
+
+# 启动一次并返回 health 可用前的毫秒数
+measure_once() {
+    local start end pid
+    start=$(now_ms)
+    "$@" --server.port="${PORT}" > "${WORK_DIR}/last-run.log" 2>&1 &
+    pid=$!
+    until curl -sf -o /dev/null "${HEALTH_URL}"; do
+        if ! kill -0 "${pid}" 2> /dev/null; then
+            echo "❌ 应用启动失败，日志见 ${WORK_DIR}/last-run.log" >&2
+            exit 1
+        fi
+        sleep 0.05
+    done
+    end=$(now_ms)
+    kill "${pid}" && wait "${pid}" 2> /dev/null || true
+    echo $((end - start))
+}
+
+# 多次测量后输出 最小/中位数/最大 值
+benchmark() {
+    local name=$1
+    shift
+    local samples=()
+    for ((i = 1; i <= RUNS; i++)); do
+        samples+=("$(measure_once "$@")")
+    done
+    local sorted
+    sorted=$(printf '%s\n' "${samples[@]}" | sort -n)
+    printf "%-14s min=%6s ms  median=%6s ms  max=%6s ms  (%s)\n" "${name}" \
+        "$(echo "${sorted}" | head -n1)" \
+        "$(echo "${sorted}" | sed -n "$(((RUNS + 1) / 2))p")" \
+        "$(echo "${sorted}" | tail -n1)" \
+        "$(echo "${samples[@]}")"
+}
+
+mkdir -p "${WORK_DIR}"
+
+echo "📦 构建默认包..."
+${MVN} -q -DskipTests package
+cp "target/${JAR_NAME}" "${WORK_DIR}/default.jar"
+
+echo "📦 构建 fast-startup 包（AOT + CDS 训练运行）..."
+${MVN} -q -Pfast-startup -DskipTests package
+rm -rf "${WORK_DIR}/extracted"
+cp -r target/extracted "${WORK_DIR}/extracted"
+
+echo
+echo "⏱️  冷启动 ${RUNS} 次，统计到 health 可用的耗时"
+echo "------------------------------------------------------------"
+benchmark "default" java -jar "${WORK_DIR}/default.jar"
+benchmark "fast-startup" java -XX:SharedArchiveFile="${WORK_DIR}/extracted/application.jsa" -Xlog:cds=error \
+    -Dspring.aot.enabled=true -jar "${WORK_DIR}/extracted/${JAR_NAME}"